@@ -0,0 +1,40 @@
+package io.github.auditapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки поиска отклонений среди ошибок
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.anomaly")
+public class AnomalyProperties {
+
+    /**
+     * Максимальная длина окна; базовая линия - предыдущее окно той же длины
+     */
+    private Duration maxWindow = Duration.ofDays(1);
+
+    /**
+     * Сколько значений возвращать
+     */
+    private int size = 10;
+
+    /**
+     * Сколько раз значение должно встретиться среди ошибок окна, чтобы считаться отклонением
+     */
+    private long minDocCount = 3;
+
+    /**
+     * Сколько окон хранится в кэше
+     */
+    private int cacheSize = 500;
+
+    /**
+     * Время жизни результата окна в кэше
+     */
+    private Duration cacheTtl = Duration.ofMinutes(10);
+
+}
@@ -0,0 +1,29 @@
+package io.github.auditapi.config;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ElasticsearchConfig {
+
+    /**
+     * Маппер клиента Elasticsearch на основе ObjectMapper приложения (java.time, игнорирование _class),
+     * чтобы документы читались напрямую через ElasticsearchClient
+     */
+    @Bean
+    public JsonpMapper jsonpMapper(ObjectMapper objectMapper) {
+        return new JacksonJsonpMapper(objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL));
+    }
+
+    @Bean
+    public ElasticsearchAsyncClient elasticsearchAsyncClient(ElasticsearchClient elasticsearchClient) {
+        return new ElasticsearchAsyncClient(elasticsearchClient._transport(), elasticsearchClient._transportOptions());
+    }
+
+}
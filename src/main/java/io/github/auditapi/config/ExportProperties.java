@@ -0,0 +1,41 @@
+package io.github.auditapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Настройки асинхронной выгрузки документов
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.export")
+public class ExportProperties {
+
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "audit-exports");
+
+    /**
+     * Количество одновременно выполняемых выгрузок
+     */
+    private int maxConcurrentJobs = 2;
+
+    /**
+     * Количество выгрузок, ожидающих в очереди
+     */
+    private int queueCapacity = 10;
+
+    private int slices = 4;
+
+    private int batchSize = 1000;
+
+    private Duration pointInTimeKeepAlive = Duration.ofMinutes(5);
+
+    /**
+     * Сколько хранить завершенную задачу и ее файл
+     */
+    private Duration resultTtl = Duration.ofHours(24);
+
+    private Duration cleanupInterval = Duration.ofMinutes(10);
+
+}
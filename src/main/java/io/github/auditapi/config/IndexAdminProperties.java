@@ -0,0 +1,84 @@
+package io.github.auditapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * Настройки администрирования индексов аудита
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.index-admin")
+public class IndexAdminProperties {
+
+    /**
+     * Начало окна низкой нагрузки, в котором разрешены force-merge, прогрев и отключение refresh
+     */
+    private LocalTime offPeakStart = LocalTime.of(1, 0);
+
+    /**
+     * Конец окна низкой нагрузки; окно может переходить через полночь. Совпадение с началом - окно на все сутки
+     */
+    private LocalTime offPeakEnd = LocalTime.of(5, 0);
+
+    private ZoneId zone = ZoneId.of("UTC");
+
+    /**
+     * Операции не запускаются, пока средняя задержка поиска выше порога, мс; 0 - без ограничения
+     */
+    private double maxSearchLatencyMs = 500;
+
+    /**
+     * Суточная партиция считается холодной через столько времени после окончания суток
+     */
+    private Duration coldAfter = Duration.ofDays(2);
+
+    /**
+     * До скольких сегментов на шард сливаются холодные партиции
+     */
+    private long maxSegments = 1;
+
+    /**
+     * refresh_interval на время массовой загрузки
+     */
+    private String bulkRefreshInterval = "-1";
+
+    /**
+     * refresh_interval, который возвращается после загрузки, если до нее значение не было задано явно
+     */
+    private String defaultRefreshInterval = "1s";
+
+    /**
+     * Через сколько режим массовой загрузки выключается автоматически
+     */
+    private Duration bulkLoadMaxDuration = Duration.ofHours(2);
+
+    /**
+     * Как часто проверять очередь слияния и срок режима массовой загрузки
+     */
+    private Duration checkInterval = Duration.ofMinutes(1);
+
+    /**
+     * Интервал опроса задач force-merge
+     */
+    private Duration pollInterval = Duration.ofSeconds(10);
+
+    /**
+     * Сколько ждать одну задачу force-merge, прежде чем пометить слияние как FAILED
+     */
+    private Duration maxTaskWait = Duration.ofHours(2);
+
+    public boolean isOffPeak(LocalTime time) {
+        if (offPeakStart.equals(offPeakEnd)) {
+            return true;
+        }
+        if (offPeakStart.isBefore(offPeakEnd)) {
+            return !time.isBefore(offPeakStart) && time.isBefore(offPeakEnd);
+        }
+        return !time.isBefore(offPeakStart) || time.isBefore(offPeakEnd);
+    }
+
+}
@@ -0,0 +1,38 @@
+package io.github.auditapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки миграции индексов
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.migration")
+public class MigrationProperties {
+
+    /**
+     * Количество одновременно выполняемых миграций; остальные отклоняются с 429
+     */
+    private int maxConcurrentJobs = 2;
+
+    private int defaultWorkers = 4;
+
+    private int defaultBatchSize = 1000;
+
+    /**
+     * Максимальное число одновременных bulk-запросов от всех срезов
+     */
+    private int maxInFlightBulks = 4;
+
+    private int maxBulkRetries = 5;
+
+    private Duration pointInTimeKeepAlive = Duration.ofMinutes(5);
+
+    /**
+     * Сохранять контрольную точку каждые N пачек
+     */
+    private int checkpointEveryBatches = 10;
+
+}
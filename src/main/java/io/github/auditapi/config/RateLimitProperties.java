@@ -0,0 +1,65 @@
+package io.github.auditapi.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ограничение частоты запросов по клиентам (известный API-ключ, иначе IP)
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Заголовок с API-ключом клиента; без него клиент определяется по IP
+     */
+    private String clientHeader = "X-API-Key";
+
+    /**
+     * Известные API-ключи, получающие отдельный бюджет. Неизвестный ключ не учитывается,
+     * иначе клиент мог бы получать новый бюджет, меняя ключ в каждом запросе
+     */
+    private Set<String> apiKeys = new HashSet<>();
+
+    /**
+     * Сколько клиентов отслеживается отдельно; остальные делят общий бюджет
+     */
+    private int maxClients = 100_000;
+
+    /**
+     * Как часто удаляются полностью восстановившиеся бюджеты неактивных клиентов
+     */
+    private Duration cleanupInterval = Duration.ofMinutes(1);
+
+    private Budget search = new Budget(50, 20);
+
+    private Budget stats = new Budget(10, 2);
+
+    private Budget export = new Budget(3, 0.05);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Budget {
+
+        /**
+         * Допустимый всплеск запросов
+         */
+        private int capacity;
+
+        /**
+         * Скорость восстановления, запросов в секунду
+         */
+        private double refillPerSecond;
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package io.github.auditapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки удаления устаревших документов аудита
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.retention")
+public class RetentionProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Ограничение скорости delete-by-query, документов в секунду
+     */
+    private float requestsPerSecond = 500;
+
+    /**
+     * Интервал опроса задачи delete-by-query
+     */
+    private Duration pollInterval = Duration.ofSeconds(5);
+
+    /**
+     * Размер пачки идентификаторов при удалении тел из отдельных индексов (audit.storage.split-bodies)
+     */
+    private int bodyBatchSize = 1000;
+
+    /**
+     * Формат даты в суффиксе суточных партиций (например, audit-requests-2025.01.31)
+     */
+    private String partitionDatePattern = "yyyy.MM.dd";
+
+    private List<Policy> policies = new ArrayList<>();
+
+    @Data
+    public static class Policy {
+
+        private String name;
+
+        private String index;
+
+        /**
+         * Поле фильтра. Политики без фильтра могут удалять партиции целиком
+         */
+        private String field;
+
+        private String value;
+
+        private Duration maxAge;
+
+        public boolean hasFilter() {
+            return field != null && !field.isBlank() && value != null;
+        }
+
+    }
+
+}
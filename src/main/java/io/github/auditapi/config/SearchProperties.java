@@ -0,0 +1,113 @@
+package io.github.auditapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки выполнения поисковых запросов
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.search")
+public class SearchProperties {
+
+    /**
+     * Таймаут, если клиент не передал свой
+     */
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Верхняя граница таймаута, запрошенного клиентом
+     */
+    private Duration maxTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Длина фрагмента подсветки в символах
+     */
+    private int highlightFragmentSize = 150;
+
+    /**
+     * Максимальное число фрагментов подсветки на поле
+     */
+    private int highlightFragments = 3;
+
+    /**
+     * Сколько символов тела анализируется при подсветке; остаток длинных тел пропускается
+     */
+    private int highlightMaxAnalyzedOffset = 100_000;
+
+    /**
+     * Запрашивать у Elasticsearch ответы потокового поиска в Smile вместо JSON
+     */
+    private boolean elasticsearchSmile = true;
+
+    /**
+     * Сколько переиспользуется прочитанное состояние индекса для ETag; изменения,
+     * сделанные внутри окна, станут видны клиентам с опозданием не больше него
+     */
+    private Duration indexStateTtl = Duration.ofSeconds(1);
+
+    /**
+     * Сколько новая версия индекса не используется для ETag: seq_no растет при записи, а документ
+     * становится виден поиску только после refresh, поэтому окно должно быть не меньше refresh_interval
+     */
+    private Duration indexStateSettle = Duration.ofSeconds(1);
+
+    /**
+     * До скольких документов считать totalHits точно; дальше значение - нижняя граница.
+     * Ограничение позволяет Elasticsearch пропускать неконкурентные блоки при сортировке
+     * по timestamp и досрочно завершать поиск на индексах, отсортированных по timestamp.
+     * 0 - всегда точный подсчет
+     */
+    private int trackTotalHitsUpTo = 10_000;
+
+    /**
+     * Сколько скомпилированных запросов параметра q хранить в LRU-кэше
+     */
+    private int compiledQueryCacheSize = 1000;
+
+    /**
+     * Выполнять потоковый поиск через хранимые mustache-шаблоны; пока шаблоны не
+     * зарегистрированы, запросы строятся на клиенте
+     */
+    private boolean searchTemplates = true;
+
+    /**
+     * Как часто повторять регистрацию шаблонов, если при старте кластер был недоступен
+     */
+    private Duration searchTemplateRetryInterval = Duration.ofMinutes(1);
+
+    /**
+     * Сколько живет point-in-time ленты между запросами страниц
+     */
+    private Duration timelineKeepAlive = Duration.ofMinutes(2);
+
+    /**
+     * Максимальный размер страницы ленты
+     */
+    private int timelineMaxSize = 500;
+
+    /**
+     * Сколько страниц частых запросов хранить в кэше первых страниц; 0 - кэш выключен
+     */
+    private int firstPageCacheSize = 64;
+
+    /**
+     * Сколько первых страниц каждого запроса кэшируется
+     */
+    private int firstPageCachePages = 3;
+
+    /**
+     * Максимальный размер кэшируемой страницы
+     */
+    private int firstPageCacheMaxSize = 100;
+
+    public Duration resolveTimeout(Duration requested) {
+        if (requested == null || requested.isNegative() || requested.isZero()) {
+            return defaultTimeout;
+        }
+        return requested.compareTo(maxTimeout) > 0 ? maxTimeout : requested;
+    }
+
+}
@@ -0,0 +1,27 @@
+package io.github.auditapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки журнала медленных запросов
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.slow-query")
+public class SlowQueryProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Запросы дольше порога попадают в журнал
+     */
+    private Duration threshold = Duration.ofMillis(500);
+
+    /**
+     * Доля медленных запросов, попадающих в журнал (0..1)
+     */
+    private double sampleRate = 1.0;
+
+}
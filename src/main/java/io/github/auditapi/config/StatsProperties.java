@@ -0,0 +1,30 @@
+package io.github.auditapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки статистики
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.stats")
+public class StatsProperties {
+
+    /**
+     * Желаемый размер случайной выборки в режиме accuracy=approximate; вероятность выборки
+     * подбирается по оценке числа подходящих документов. Если документов меньше двух
+     * выборок, статистика считается точно
+     */
+    private int approximateSampleSize = 100_000;
+
+    /**
+     * Сколько значений поля строк возвращает двумерная статистика
+     */
+    private int pivotRows = 50;
+
+    /**
+     * Сколько значений поля столбцов возвращает двумерная статистика
+     */
+    private int pivotColumns = 20;
+
+}
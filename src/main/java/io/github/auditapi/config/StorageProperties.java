@@ -0,0 +1,18 @@
+package io.github.auditapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки хранения документов аудита
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.storage")
+public class StorageProperties {
+
+    /**
+     * Тела запросов/ответов и аргументы/результаты методов хранятся в отдельных индексах
+     */
+    private boolean splitBodies = false;
+
+}
@@ -0,0 +1,40 @@
+package io.github.auditapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки автодополнения URI и имен методов
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.suggest")
+public class SuggestProperties {
+
+    /**
+     * Сколько вариантов запрашивается у Elasticsearch; ответ клиенту обрезается до его size
+     */
+    private int maxSize = 20;
+
+    /**
+     * Окно по времени, из которого берутся варианты
+     */
+    private Duration window = Duration.ofDays(7);
+
+    /**
+     * Таймаут запроса подсказок
+     */
+    private Duration timeout = Duration.ofMillis(200);
+
+    /**
+     * Сколько префиксов хранится в локальном кэше
+     */
+    private int cacheSize = 2000;
+
+    /**
+     * Время жизни записи кэша
+     */
+    private Duration cacheTtl = Duration.ofMinutes(1);
+
+}
@@ -0,0 +1,53 @@
+package io.github.auditapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки живой ленты новых документов (SSE)
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.tail")
+public class TailProperties {
+
+    /**
+     * Как часто один общий опросчик фильтра запрашивает новые документы
+     */
+    private Duration pollInterval = Duration.ofSeconds(2);
+
+    /**
+     * Сколько документов читать за один опрос; если пришла полная пачка, опрос сразу повторяется
+     */
+    private int batchSize = 500;
+
+    /**
+     * На сколько раньше курсора начинается каждый опрос: документы, ставшие видны поиску позже
+     * документов с большим timestamp (refresh, задержка доставки), еще попадают в ленту.
+     * Id отданных в этом окне документов хранятся в памяти опросчика
+     */
+    private Duration lag = Duration.ofSeconds(30);
+
+    /**
+     * Сколько документов ждет отправки медленному подписчику; сверх этого документы
+     * для него отбрасываются, а число пропущенных приходит событием lagged
+     */
+    private int subscriberBuffer = 1000;
+
+    /**
+     * Максимальное число одновременных подписчиков на все фильтры
+     */
+    private int maxSubscribers = 500;
+
+    /**
+     * Интервал комментария-пинга, чтобы прокси не закрывали простаивающее соединение
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * Время жизни одного SSE-соединения; клиент переподключается автоматически
+     */
+    private Duration connectionTimeout = Duration.ofMinutes(30);
+
+}
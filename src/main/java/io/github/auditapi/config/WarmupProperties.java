@@ -0,0 +1,40 @@
+package io.github.auditapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Настройки прогрева при старте
+ */
+@Data
+@ConfigurationProperties(prefix = "audit.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Максимальная длительность прогрева; по ее истечении приложение готово принимать трафик
+     */
+    private Duration timeout = Duration.ofSeconds(60);
+
+    /**
+     * Сколько раз повторяется каждый запрос
+     */
+    private int iterations = 10;
+
+    /**
+     * Полнотекстовые запросы, которыми прогревается поиск
+     */
+    private List<String> queries = List.of("error", "timeout");
+
+    /**
+     * Запрос параметра q для прогрева поиска по полям
+     */
+    private String fieldQuery = "statusCode:5*";
+
+    private int pageSize = 20;
+
+}
@@ -0,0 +1,152 @@
+package io.github.auditapi.controller.v1;
+
+import io.github.auditapi.model.export.ExportJob;
+import io.github.auditapi.model.export.ExportRequest;
+import io.github.auditapi.service.ExportService;
+import io.github.auditapi.web.RateBudget;
+import io.github.auditapi.web.RateLimited;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/exports")
+@RequiredArgsConstructor
+@Tag(name = "Export Controller", description = "API для асинхронной выгрузки документов")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @Operation(
+            summary = "Создание выгрузки",
+            description = "Ставит в очередь выгрузку документов за период в сжатый файл"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Выгрузка поставлена в очередь",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ExportJob.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректные параметры выгрузки"
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Очередь выгрузок заполнена или клиент исчерпал лимит выгрузок"
+            )
+    })
+    @PostMapping
+    @RateLimited(RateBudget.EXPORT)
+    public ResponseEntity<ExportJob> submit(@RequestBody ExportRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(exportService.submit(request));
+    }
+
+    @Operation(summary = "Список выгрузок")
+    @GetMapping
+    public ResponseEntity<List<ExportJob>> findAll() {
+        return ResponseEntity.ok(exportService.findAll());
+    }
+
+    @Operation(summary = "Состояние и прогресс выгрузки")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Состояние получено успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ExportJob.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Выгрузка не найдена"
+            )
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<ExportJob> find(
+            @Parameter(description = "Идентификатор выгрузки")
+            @PathVariable String id) {
+
+        return ResponseEntity.of(exportService.find(id));
+    }
+
+    @Operation(summary = "Скачивание файла выгрузки")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Файл выгрузки"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Выгрузка не найдена"
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Выгрузка ещё не завершена"
+            )
+    })
+    @GetMapping("/{id}/file")
+    public ResponseEntity<Resource> download(
+            @Parameter(description = "Идентификатор выгрузки")
+            @PathVariable String id) {
+
+        ExportJob job = exportService.find(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Export " + id + " not found"));
+        Path file = exportService.getFile(job);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getFormat().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(file.getFileName().toString())
+                        .build()
+                        .toString())
+                .body(new FileSystemResource(file));
+    }
+
+    @Operation(summary = "Отмена выгрузки")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Отмена запрошена"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Выгрузка не найдена"
+            )
+    })
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<Void> cancel(
+            @Parameter(description = "Идентификатор выгрузки")
+            @PathVariable String id) {
+
+        return exportService.cancel(id)
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.notFound().build();
+    }
+
+}
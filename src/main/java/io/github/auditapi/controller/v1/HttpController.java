@@ -1,9 +1,25 @@
 package io.github.auditapi.controller.v1;
 
-import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.CountResponse;
+import io.github.auditapi.model.elastic.ExistsResponse;
+import io.github.auditapi.model.elastic.HttpBodyDocument;
+import io.github.auditapi.model.elastic.SearchOptions;
+import io.github.auditapi.model.elastic.AnomalyResponse;
+import io.github.auditapi.model.elastic.PivotStatsResponse;
 import io.github.auditapi.model.elastic.SearchResponse;
+import io.github.auditapi.model.elastic.StatsAccuracy;
 import io.github.auditapi.model.elastic.StatsResponse;
+import io.github.auditapi.model.elastic.SuggestResponse;
+import io.github.auditapi.model.elastic.TimeRange;
 import io.github.auditapi.service.HttpSearchService;
+import io.github.auditapi.service.IndexStateService;
+import io.github.auditapi.service.SuggestService;
+import io.github.auditapi.web.ConditionalRequests;
+import io.github.auditapi.web.DeferredResults;
+import io.github.auditapi.web.RateBudget;
+import io.github.auditapi.web.RateLimited;
+import io.github.auditapi.web.ResponseFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,13 +28,22 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/api/v1/requests")
@@ -27,6 +52,8 @@ import java.io.IOException;
 public class HttpController {
 
     private final HttpSearchService httpSearchService;
+    private final SuggestService suggestService;
+    private final IndexStateService indexStateService;
 
     @Operation(
             summary = "Полнотекстовый поиск HTTP-запросов",
@@ -36,10 +63,15 @@ public class HttpController {
             @ApiResponse(
                     responseCode = "200",
                     description = "Поиск выполнен успешно",
-                    content = @Content(
-                            mediaType = "application/json",
-                            schema = @Schema(implementation = SearchResponse.class)
-                    )
+                    content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = SearchResponse.class)),
+                            @Content(mediaType = "application/x-jackson-smile", schema = @Schema(implementation = SearchResponse.class)),
+                            @Content(mediaType = "application/cbor", schema = @Schema(implementation = SearchResponse.class))
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Индекс не изменился с момента ответа, на который указывает ETag"
             ),
             @ApiResponse(
                     responseCode = "400",
@@ -51,22 +83,60 @@ public class HttpController {
             )
     })
     @GetMapping("/search")
-    public ResponseEntity<SearchResponse<HttpDocument>> search(
+    @RateLimited(RateBudget.SEARCH)
+    public ResponseEntity<StreamingResponseBody> search(
             @Parameter(description = "Поисковый запрос для полнотекстового поиска", example = "orders")
             @RequestParam(required = false) String query,
 
             @Parameter(description = "Фильтр по HTTP статус-коду", example = "200")
             @RequestParam(required = false) String statusCode,
 
+            @Parameter(description = "Начало интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Конец интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
             @Parameter(description = "Номер страницы", example = "0")
             @RequestParam(defaultValue = "0") int page,
 
             @Parameter(description = "Размер страницы", example = "10")
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+
+            @Parameter(description = "Включать тела запроса и ответа в результаты", example = "true")
+            @RequestParam(defaultValue = "true") boolean includeBodies,
+
+            @Parameter(description = "Вернуть профиль запроса Elasticsearch и серверные тайминги", example = "false")
+            @RequestParam(defaultValue = "false") boolean profile,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs,
+
+            @Parameter(description = "Вернуть фрагменты тел запроса и ответа с подсвеченными совпадениями вместо полных тел", example = "false")
+            @RequestParam(defaultValue = "false") boolean highlight,
+
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+
+            ServletWebRequest webRequest) {
 
-        SearchResponse<HttpDocument> response = httpSearchService.searchWithFullText(
-                query, statusCode, page, size);
-        return ResponseEntity.ok(response);
+        SearchOptions options = SearchOptions.builder()
+                .includeBodies(includeBodies)
+                .profile(profile)
+                .timeout(toDuration(timeoutMs))
+                .highlight(highlight)
+                .format(ResponseFormat.negotiate(accept))
+                .onPartial(() -> ConditionalRequests.noStore(webRequest))
+                .build();
+
+        if (notModified(webRequest, options.getFormat())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(options.getFormat().getMediaType())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(httpSearchService.streamWithFullText(query, statusCode, TimeRange.of(from, to), page, size, options));
     }
 
     @Operation(
@@ -82,6 +152,10 @@ public class HttpController {
                             schema = @Schema(implementation = StatsResponse.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Индекс не изменился с момента ответа, на который указывает ETag"
+            ),
             @ApiResponse(
                     responseCode = "400",
                     description = "Некорректные параметры запроса"
@@ -92,7 +166,8 @@ public class HttpController {
             )
     })
     @GetMapping("/stats")
-    public ResponseEntity<StatsResponse> getStats(
+    @RateLimited(RateBudget.STATS)
+    public DeferredResult<ResponseEntity<StatsResponse>> getStats(
             @Parameter(
                     description = "Поле для группировки статистики",
                     example = "statusCode",
@@ -105,25 +180,155 @@ public class HttpController {
                     example = "INCOMING",
                     schema = @Schema(allowableValues = {"INCOMING", "OUTGOING"})
             )
-            @RequestParam(required = false) String direction) throws IOException {
+            @RequestParam(required = false) String direction,
+
+            @Parameter(
+                    description = "Точность: exact - точные значения, approximate - агрегация по случайной выборке "
+                            + "с масштабированными значениями и 95% доверительными интервалами в bounds",
+                    example = "exact",
+                    schema = @Schema(allowableValues = {"exact", "approximate"})
+            )
+            @RequestParam(defaultValue = "exact") String accuracy,
 
-        StatsResponse response = httpSearchService.getStats(groupBy, direction);
-        return ResponseEntity.ok(response);
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs,
+
+            ServletWebRequest webRequest) {
+
+        StatsAccuracy statsAccuracy = StatsAccuracy.parse(accuracy);
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (notModified(webRequest, format)) {
+            return DeferredResults.notModified();
+        }
+
+        return DeferredResults.of(httpSearchService.getStats(groupBy, direction, statsAccuracy, toDuration(timeoutMs)), format);
     }
 
     @Operation(
-            summary = "Поиск HTTP-запросов по полям",
-            description = "Выполняет поиск HTTP-запросов по конкретным полям"
+            summary = "Двумерная статистика HTTP-запросов",
+            description = "Считает количество HTTP-запросов: например, доля ответов 5xx по каждому URI. "
+                    + "Выполняется одним запросом агрегации и возвращает матрицу counts[строка][столбец]"
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Поиск выполнен успешно",
+                    description = "Статистика получена успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = PivotStatsResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Индекс не изменился с момента ответа, на который указывает ETag"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректные или совпадающие измерения"
+            )
+    })
+    @GetMapping("/stats/pivot")
+    @RateLimited(RateBudget.STATS)
+    public DeferredResult<ResponseEntity<PivotStatsResponse>> getPivotStats(
+            @Parameter(
+                    description = "Поле строк матрицы",
+                    example = "uri",
+                    schema = @Schema(allowableValues = {"uri", "method", "statusCode", "direction"})
+            )
+            @RequestParam(defaultValue = "uri") String rows,
+
+            @Parameter(
+                    description = "Поле столбцов матрицы",
+                    example = "statusCode",
+                    schema = @Schema(allowableValues = {"uri", "method", "statusCode", "direction"})
+            )
+            @RequestParam(defaultValue = "statusCode") String columns,
+
+            @Parameter(
+                    description = "Фильтр по направлению запроса",
+                    example = "INCOMING",
+                    schema = @Schema(allowableValues = {"INCOMING", "OUTGOING"})
+            )
+            @RequestParam(required = false) String direction,
+
+            @Parameter(description = "Начало интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Конец интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs,
+
+            ServletWebRequest webRequest) {
+
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (notModified(webRequest, format)) {
+            return DeferredResults.notModified();
+        }
+
+        return DeferredResults.of(httpSearchService.getPivotStats(rows, columns, direction, TimeRange.of(from, to), toDuration(timeoutMs)), format);
+    }
+
+    @Operation(
+            summary = "Отклонения среди ошибочных HTTP-запросов",
+            description = "Находит значения поля, которые среди ответов 5xx за окно встречаются заметно чаще, чем во всех запросах "
+                    + "предыдущего окна той же длины (significant_terms). Результат окна кэшируется"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Отклонения найдены успешно",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = SearchResponse.class)
+                            schema = @Schema(implementation = AnomalyResponse.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Неизвестное поле или длина окна вне допустимых пределов"
+            )
+    })
+    @GetMapping("/anomalies")
+    @RateLimited(RateBudget.STATS)
+    public DeferredResult<ResponseEntity<AnomalyResponse>> getAnomalies(
+            @Parameter(
+                    description = "Поле, значения которого сравниваются",
+                    example = "uri",
+                    schema = @Schema(allowableValues = {"uri", "method", "statusCode", "direction"})
+            )
+            @RequestParam(defaultValue = "uri") String field,
+
+            @Parameter(description = "Длина окна в минутах, ограничена настройкой audit.anomaly.max-window", example = "15")
+            @RequestParam(defaultValue = "15") int windowMinutes,
+
+            @Parameter(description = "Конец окна (ISO-8601), округляется вниз до минуты; по умолчанию текущее время", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs) {
+
+        return DeferredResults.of(httpSearchService.getAnomalies(field, Duration.ofMinutes(windowMinutes), to, toDuration(timeoutMs)));
+    }
+
+    @Operation(
+            summary = "Поиск HTTP-запросов по полям",
+            description = "Выполняет поиск HTTP-запросов по конкретным полям"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Поиск выполнен успешно",
+                    content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = SearchResponse.class)),
+                            @Content(mediaType = "application/x-jackson-smile", schema = @Schema(implementation = SearchResponse.class)),
+                            @Content(mediaType = "application/cbor", schema = @Schema(implementation = SearchResponse.class))
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Индекс не изменился с момента ответа, на который указывает ETag"
+            ),
             @ApiResponse(
                     responseCode = "400",
                     description = "Некорректные параметры запроса"
@@ -134,7 +339,8 @@ public class HttpController {
             )
     })
     @GetMapping
-    public ResponseEntity<SearchResponse<HttpDocument>> searchByFields(
+    @RateLimited(RateBudget.SEARCH)
+    public ResponseEntity<StreamingResponseBody> searchByFields(
             @Parameter(
                     description = "URI запроса",
                     example = "/api/orders"
@@ -150,16 +356,252 @@ public class HttpController {
             @Parameter(description = "HTTP статус-код", example = "200")
             @RequestParam(required = false) String statusCode,
 
+            @Parameter(
+                    description = "Запрос на компактном языке: field:value, * и ?, диапазоны [a TO b], сравнения >=, AND/OR/NOT, скобки; "
+                            + "объединяется с остальными фильтрами через AND",
+                    example = "statusCode:5* AND uri:/api/orders/* AND NOT method:GET"
+            )
+            @RequestParam(required = false) String q,
+
+            @Parameter(description = "Начало интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Конец интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
             @Parameter(description = "Номер страницы", example = "0")
             @RequestParam(defaultValue = "0") int page,
 
             @Parameter(description = "Размер страницы", example = "10")
+            @RequestParam(defaultValue = "10") int size,
+
+            @Parameter(description = "Включать тела запроса и ответа в результаты", example = "true")
+            @RequestParam(defaultValue = "true") boolean includeBodies,
+
+            @Parameter(description = "Вернуть профиль запроса Elasticsearch и серверные тайминги", example = "false")
+            @RequestParam(defaultValue = "false") boolean profile,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs,
+
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+
+            ServletWebRequest webRequest) {
+
+        SearchOptions options = SearchOptions.builder()
+                .includeBodies(includeBodies)
+                .profile(profile)
+                .timeout(toDuration(timeoutMs))
+                .format(ResponseFormat.negotiate(accept))
+                .onPartial(() -> ConditionalRequests.noStore(webRequest))
+                .build();
+
+        if (notModified(webRequest, options.getFormat())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(options.getFormat().getMediaType())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(httpSearchService.streamByFields(uri, method, statusCode, q, TimeRange.of(from, to), page, size, options));
+    }
+
+    @Operation(
+            summary = "Количество HTTP-запросов",
+            description = "Считает HTTP-запросы с теми же фильтрами, что и поиск по полям, не загружая документы; запрос ограничен таймаутом"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Количество получено успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CountResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Индекс не изменился с момента ответа, на который указывает ETag"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректные параметры запроса"
+            )
+    })
+    @GetMapping("/count")
+    @RateLimited(RateBudget.SEARCH)
+    public DeferredResult<ResponseEntity<CountResponse>> count(
+            @Parameter(
+                    description = "URI запроса",
+                    example = "/api/orders"
+            )
+            @RequestParam(required = false) String uri,
+
+            @Parameter(
+                    description = "HTTP метод",
+                    example = "GET"
+            )
+            @RequestParam(required = false) String method,
+
+            @Parameter(description = "HTTP статус-код", example = "500")
+            @RequestParam(required = false) String statusCode,
+
+            @Parameter(
+                    description = "Запрос на компактном языке, как в поиске по полям",
+                    example = "statusCode:5*"
+            )
+            @RequestParam(required = false) String q,
+
+            @Parameter(description = "Начало интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Конец интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs,
+
+            ServletWebRequest webRequest) {
+
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (notModified(webRequest, format)) {
+            return DeferredResults.notModified();
+        }
+
+        return DeferredResults.of(httpSearchService.count(uri, method, statusCode, q, TimeRange.of(from, to), toDuration(timeoutMs)), format);
+    }
+
+    @Operation(
+            summary = "Проверка наличия HTTP-запросов",
+            description = "Проверяет, есть ли хотя бы один HTTP-запрос с теми же фильтрами, что и поиск по полям; шарды останавливаются на первом совпадении"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Проверка выполнена успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ExistsResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Индекс не изменился с момента ответа, на который указывает ETag"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректные параметры запроса"
+            )
+    })
+    @GetMapping("/exists")
+    @RateLimited(RateBudget.SEARCH)
+    public DeferredResult<ResponseEntity<ExistsResponse>> exists(
+            @Parameter(
+                    description = "URI запроса",
+                    example = "/api/orders"
+            )
+            @RequestParam(required = false) String uri,
+
+            @Parameter(
+                    description = "HTTP метод",
+                    example = "GET"
+            )
+            @RequestParam(required = false) String method,
+
+            @Parameter(description = "HTTP статус-код", example = "500")
+            @RequestParam(required = false) String statusCode,
+
+            @Parameter(
+                    description = "Запрос на компактном языке, как в поиске по полям",
+                    example = "statusCode:5*"
+            )
+            @RequestParam(required = false) String q,
+
+            @Parameter(description = "Начало интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Конец интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs,
+
+            ServletWebRequest webRequest) {
+
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (notModified(webRequest, format)) {
+            return DeferredResults.notModified();
+        }
+
+        return DeferredResults.of(httpSearchService.exists(uri, method, statusCode, q, TimeRange.of(from, to), toDuration(timeoutMs)), format);
+    }
+
+    @Operation(
+            summary = "Автодополнение URI",
+            description = "Возвращает уникальные URI, начинающиеся с префикса, по убыванию частоты за последнее окно"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Подсказки получены успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = SuggestResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Пустой префикс"
+            )
+    })
+    @GetMapping("/suggest")
+    @RateLimited(RateBudget.SEARCH)
+    public DeferredResult<ResponseEntity<SuggestResponse>> suggest(
+            @Parameter(description = "Префикс URI", example = "/api/ord")
+            @RequestParam String prefix,
+
+            @Parameter(description = "Количество подсказок", example = "10")
             @RequestParam(defaultValue = "10") int size) {
 
-        SearchResponse<HttpDocument> response = httpSearchService.searchByFields(
-                uri, method, statusCode, page, size);
-        return ResponseEntity.ok(response);
+        return DeferredResults.of(suggestService.suggest(AuditDocumentType.HTTP, prefix, size));
     }
 
-}
+    @Operation(
+            summary = "Получение тел HTTP-запроса",
+            description = "Возвращает тела запроса и ответа для документа, найденного без тел"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Тела получены успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = HttpBodyDocument.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Документ не найден"
+            )
+    })
+    @GetMapping("/{id}/body")
+    @RateLimited(RateBudget.SEARCH)
+    public ResponseEntity<HttpBodyDocument> getBody(
+            @Parameter(description = "Идентификатор документа", example = "507f1f77bcf86cd799439011")
+            @PathVariable String id) {
 
+        return ResponseEntity.of(httpSearchService.findBody(id));
+    }
+
+    private boolean notModified(ServletWebRequest webRequest, ResponseFormat format) {
+        return indexStateService.current(AuditDocumentType.HTTP)
+                .map(state -> ConditionalRequests.notModified(webRequest, state, format.name()))
+                .orElse(false);
+    }
+
+    private static Duration toDuration(Long timeoutMs) {
+        return timeoutMs == null ? null : Duration.ofMillis(timeoutMs);
+    }
+
+}
@@ -0,0 +1,128 @@
+package io.github.auditapi.controller.v1;
+
+import io.github.auditapi.model.admin.BulkLoadStatus;
+import io.github.auditapi.model.admin.IndexHealthResponse;
+import io.github.auditapi.service.IndexAdminService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/indices")
+@RequiredArgsConstructor
+@Tag(name = "Index Admin Controller", description = "API состояния и обслуживания индексов аудита")
+public class IndexAdminController {
+
+    private final IndexAdminService indexAdminService;
+
+    @Operation(
+            summary = "Состояние индексов",
+            description = "Возвращает по каждому индексу и суточной партиции размеры шардов, число сегментов, refresh_interval, "
+                    + "доли попаданий в query и request cache, а также состояние операций обслуживания"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Состояние получено успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = IndexHealthResponse.class)
+                    )
+            )
+    })
+    @GetMapping
+    public ResponseEntity<IndexHealthResponse> getHealth() {
+        return ResponseEntity.ok(indexAdminService.getHealth());
+    }
+
+    @Operation(
+            summary = "Слияние сегментов холодных партиций",
+            description = "Ставит force-merge холодных партиций в очередь. Слияние начнется в окне низкой нагрузки "
+                    + "при нормальной задержке поиска и без активной массовой загрузки"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Слияние запланировано"
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Слияние уже запланировано или выполняется"
+            )
+    })
+    @PostMapping("/force-merge")
+    public ResponseEntity<IndexHealthResponse> scheduleForceMerge() {
+        HttpStatus status = indexAdminService.scheduleForceMerge() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(indexAdminService.getHealth());
+    }
+
+    @Operation(
+            summary = "Прогрев файлового кэша",
+            description = "Запускает в фоне агрегации по ключевым полям индексов без request cache, "
+                    + "чтобы doc values и точки timestamp попали в файловый кэш узлов"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Прогрев запущен"
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Не окно низкой нагрузки, поиск перегружен или уже выполняется другая операция"
+            )
+    })
+    @PostMapping("/warm")
+    public ResponseEntity<IndexHealthResponse> warm() {
+        HttpStatus status = indexAdminService.warm() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(indexAdminService.getHealth());
+    }
+
+    @Operation(
+            summary = "Режим массовой загрузки",
+            description = "Отключает периодический refresh индекса и его партиций на время массовой загрузки "
+                    + "и возвращает прежний refresh_interval при выключении или по истечении audit.index-admin.bulk-load-max-duration"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Режим изменен",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BulkLoadStatus.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Неизвестный индекс"
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Включение вне окна низкой нагрузки или при перегруженном поиске"
+            )
+    })
+    @PutMapping("/{index}/bulk-load")
+    public ResponseEntity<BulkLoadStatus> setBulkLoad(
+            @Parameter(description = "Индекс", schema = @Schema(allowableValues = {"audit-requests", "audit-methods"}))
+            @PathVariable String index,
+
+            @Parameter(description = "Включить или выключить режим", example = "true")
+            @RequestParam boolean enabled) {
+
+        return ResponseEntity.ok(indexAdminService.setBulkLoad(index, enabled));
+    }
+
+}
@@ -1,9 +1,25 @@
 package io.github.auditapi.controller.v1;
 
-import io.github.auditapi.model.elastic.MethodDocument;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.CountResponse;
+import io.github.auditapi.model.elastic.ExistsResponse;
+import io.github.auditapi.model.elastic.MethodBodyDocument;
+import io.github.auditapi.model.elastic.SearchOptions;
+import io.github.auditapi.model.elastic.AnomalyResponse;
+import io.github.auditapi.model.elastic.PivotStatsResponse;
 import io.github.auditapi.model.elastic.SearchResponse;
+import io.github.auditapi.model.elastic.StatsAccuracy;
 import io.github.auditapi.model.elastic.StatsResponse;
+import io.github.auditapi.model.elastic.SuggestResponse;
+import io.github.auditapi.model.elastic.TimeRange;
+import io.github.auditapi.service.IndexStateService;
 import io.github.auditapi.service.MethodSearchService;
+import io.github.auditapi.service.SuggestService;
+import io.github.auditapi.web.ConditionalRequests;
+import io.github.auditapi.web.DeferredResults;
+import io.github.auditapi.web.RateBudget;
+import io.github.auditapi.web.RateLimited;
+import io.github.auditapi.web.ResponseFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,13 +29,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @RestController
@@ -29,6 +53,8 @@ import java.time.LocalDate;
 public class MethodController {
 
     private final MethodSearchService methodSearchService;
+    private final SuggestService suggestService;
+    private final IndexStateService indexStateService;
 
     @Operation(
             summary = "Полнотекстовый поиск вызовов методов",
@@ -38,10 +64,15 @@ public class MethodController {
             @ApiResponse(
                     responseCode = "200",
                     description = "Поиск выполнен успешно",
-                    content = @Content(
-                            mediaType = "application/json",
-                            schema = @Schema(implementation = SearchResponse.class)
-                    )
+                    content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = SearchResponse.class)),
+                            @Content(mediaType = "application/x-jackson-smile", schema = @Schema(implementation = SearchResponse.class)),
+                            @Content(mediaType = "application/cbor", schema = @Schema(implementation = SearchResponse.class))
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Индекс не изменился с момента ответа, на который указывает ETag"
             ),
             @ApiResponse(
                     responseCode = "400",
@@ -53,7 +84,8 @@ public class MethodController {
             )
     })
     @GetMapping("/search")
-    public ResponseEntity<SearchResponse<MethodDocument>> search(
+    @RateLimited(RateBudget.SEARCH)
+    public ResponseEntity<StreamingResponseBody> search(
             @Parameter(description = "Поисковый запрос для полнотекстового поиска", example = "UserService")
             @RequestParam(required = false) String query,
 
@@ -64,14 +96,52 @@ public class MethodController {
             )
             @RequestParam(required = false) String level,
 
+            @Parameter(description = "Начало интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Конец интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
             @Parameter(description = "Номер страницы", example = "0")
             @RequestParam(defaultValue = "0") int page,
 
             @Parameter(description = "Размер страницы", example = "10")
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+
+            @Parameter(description = "Включать аргументы и результат метода в результаты", example = "true")
+            @RequestParam(defaultValue = "true") boolean includeBodies,
+
+            @Parameter(description = "Вернуть профиль запроса Elasticsearch и серверные тайминги", example = "false")
+            @RequestParam(defaultValue = "false") boolean profile,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs,
+
+            @Parameter(description = "Вернуть фрагменты аргументов и результата с подсвеченными совпадениями вместо полных тел", example = "false")
+            @RequestParam(defaultValue = "false") boolean highlight,
+
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+
+            ServletWebRequest webRequest) {
 
-        SearchResponse<MethodDocument> response = methodSearchService.searchWithFullText(query, level, page, size);
-        return ResponseEntity.ok(response);
+        SearchOptions options = SearchOptions.builder()
+                .includeBodies(includeBodies)
+                .profile(profile)
+                .timeout(toDuration(timeoutMs))
+                .highlight(highlight)
+                .format(ResponseFormat.negotiate(accept))
+                .onPartial(() -> ConditionalRequests.noStore(webRequest))
+                .build();
+
+        if (notModified(webRequest, options.getFormat())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(options.getFormat().getMediaType())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(methodSearchService.streamWithFullText(query, level, TimeRange.of(from, to), page, size, options));
     }
 
     @Operation(
@@ -87,6 +157,10 @@ public class MethodController {
                             schema = @Schema(implementation = StatsResponse.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Индекс не изменился с момента ответа, на который указывает ETag"
+            ),
             @ApiResponse(
                     responseCode = "400",
                     description = "Некорректные параметры запроса"
@@ -97,7 +171,8 @@ public class MethodController {
             )
     })
     @GetMapping("/stats")
-    public ResponseEntity<StatsResponse> getStats(
+    @RateLimited(RateBudget.STATS)
+    public DeferredResult<ResponseEntity<StatsResponse>> getStats(
             @Parameter(
                     description = "Поле для группировки статистики",
                     example = "level",
@@ -115,25 +190,148 @@ public class MethodController {
                     description = "Конечная дата фильтрации",
                     example = "2025-01-31"
             )
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) throws IOException {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+
+            @Parameter(
+                    description = "Точность: exact - точные значения, approximate - агрегация по случайной выборке "
+                            + "с масштабированными значениями и 95% доверительными интервалами в bounds",
+                    example = "exact",
+                    schema = @Schema(allowableValues = {"exact", "approximate"})
+            )
+            @RequestParam(defaultValue = "exact") String accuracy,
 
-        StatsResponse response = methodSearchService.getStats(groupBy, from, to);
-        return ResponseEntity.ok(response);
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs,
+
+            ServletWebRequest webRequest) {
+
+        StatsAccuracy statsAccuracy = StatsAccuracy.parse(accuracy);
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (notModified(webRequest, format)) {
+            return DeferredResults.notModified();
+        }
+
+        return DeferredResults.of(methodSearchService.getStats(groupBy, from, to, statsAccuracy, toDuration(timeoutMs)), format);
     }
 
     @Operation(
-            summary = "Поиск вызовов методов по полям",
-            description = "Выполняет точный поиск вызовов методов по конкретным полям"
+            summary = "Двумерная статистика событий методов",
+            description = "Считает количество событий методов: например, уровни логирования по каждому методу и доля событий ERROR. "
+                    + "Выполняется одним запросом агрегации и возвращает матрицу counts[строка][столбец]"
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Поиск выполнен успешно",
+                    description = "Статистика получена успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = PivotStatsResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Индекс не изменился с момента ответа, на который указывает ETag"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректные или совпадающие измерения"
+            )
+    })
+    @GetMapping("/stats/pivot")
+    @RateLimited(RateBudget.STATS)
+    public DeferredResult<ResponseEntity<PivotStatsResponse>> getPivotStats(
+            @Parameter(
+                    description = "Поле строк матрицы",
+                    example = "method",
+                    schema = @Schema(allowableValues = {"method", "level", "eventType"})
+            )
+            @RequestParam(defaultValue = "method") String rows,
+
+            @Parameter(
+                    description = "Поле столбцов матрицы",
+                    example = "level",
+                    schema = @Schema(allowableValues = {"method", "level", "eventType"})
+            )
+            @RequestParam(defaultValue = "level") String columns,
+
+            @Parameter(description = "Начало интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Конец интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs,
+
+            ServletWebRequest webRequest) {
+
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (notModified(webRequest, format)) {
+            return DeferredResults.notModified();
+        }
+
+        return DeferredResults.of(methodSearchService.getPivotStats(rows, columns, TimeRange.of(from, to), toDuration(timeoutMs)), format);
+    }
+
+    @Operation(
+            summary = "Отклонения среди ошибок методов",
+            description = "Находит значения поля, которые среди записей level ERROR за окно встречаются заметно чаще, чем во всех событиях "
+                    + "предыдущего окна той же длины (significant_terms). Результат окна кэшируется"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Отклонения найдены успешно",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = SearchResponse.class)
+                            schema = @Schema(implementation = AnomalyResponse.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Неизвестное поле или длина окна вне допустимых пределов"
+            )
+    })
+    @GetMapping("/anomalies")
+    @RateLimited(RateBudget.STATS)
+    public DeferredResult<ResponseEntity<AnomalyResponse>> getAnomalies(
+            @Parameter(
+                    description = "Поле, значения которого сравниваются",
+                    example = "method",
+                    schema = @Schema(allowableValues = {"method", "eventType"})
+            )
+            @RequestParam(defaultValue = "method") String field,
+
+            @Parameter(description = "Длина окна в минутах, ограничена настройкой audit.anomaly.max-window", example = "15")
+            @RequestParam(defaultValue = "15") int windowMinutes,
+
+            @Parameter(description = "Конец окна (ISO-8601), округляется вниз до минуты; по умолчанию текущее время", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs) {
+
+        return DeferredResults.of(methodSearchService.getAnomalies(field, Duration.ofMinutes(windowMinutes), to, toDuration(timeoutMs)));
+    }
+
+    @Operation(
+            summary = "Поиск вызовов методов по полям",
+            description = "Выполняет точный поиск вызовов методов по конкретным полям"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Поиск выполнен успешно",
+                    content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = SearchResponse.class)),
+                            @Content(mediaType = "application/x-jackson-smile", schema = @Schema(implementation = SearchResponse.class)),
+                            @Content(mediaType = "application/cbor", schema = @Schema(implementation = SearchResponse.class))
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Индекс не изменился с момента ответа, на который указывает ETag"
+            ),
             @ApiResponse(
                     responseCode = "400",
                     description = "Некорректные параметры запроса"
@@ -144,7 +342,8 @@ public class MethodController {
             )
     })
     @GetMapping
-    public ResponseEntity<SearchResponse<MethodDocument>> searchByFields(
+    @RateLimited(RateBudget.SEARCH)
+    public ResponseEntity<StreamingResponseBody> searchByFields(
             @Parameter(
                     description = "Имя метода",
                     example = "UserService.findById"
@@ -165,16 +364,262 @@ public class MethodController {
             )
             @RequestParam(required = false) String eventType,
 
+            @Parameter(
+                    description = "Запрос на компактном языке: field:value, * и ?, диапазоны [a TO b], сравнения >=, AND/OR/NOT, скобки; "
+                            + "объединяется с остальными фильтрами через AND",
+                    example = "(level:ERROR OR level:WARN) AND method:OrderService.*"
+            )
+            @RequestParam(required = false) String q,
+
+            @Parameter(description = "Начало интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Конец интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
             @Parameter(description = "Номер страницы", example = "0")
             @RequestParam(defaultValue = "0") int page,
 
             @Parameter(description = "Размер страницы", example = "10")
+            @RequestParam(defaultValue = "10") int size,
+
+            @Parameter(description = "Включать аргументы и результат метода в результаты", example = "true")
+            @RequestParam(defaultValue = "true") boolean includeBodies,
+
+            @Parameter(description = "Вернуть профиль запроса Elasticsearch и серверные тайминги", example = "false")
+            @RequestParam(defaultValue = "false") boolean profile,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs,
+
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+
+            ServletWebRequest webRequest) {
+
+        SearchOptions options = SearchOptions.builder()
+                .includeBodies(includeBodies)
+                .profile(profile)
+                .timeout(toDuration(timeoutMs))
+                .format(ResponseFormat.negotiate(accept))
+                .onPartial(() -> ConditionalRequests.noStore(webRequest))
+                .build();
+
+        if (notModified(webRequest, options.getFormat())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(options.getFormat().getMediaType())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(methodSearchService.streamByFields(method, logLevel, eventType, q, TimeRange.of(from, to), page, size, options));
+    }
+
+    @Operation(
+            summary = "Количество вызовов методов",
+            description = "Считает вызовы методов с теми же фильтрами, что и поиск по полям, не загружая документы; запрос ограничен таймаутом"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Количество получено успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CountResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Индекс не изменился с момента ответа, на который указывает ETag"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректные параметры запроса"
+            )
+    })
+    @GetMapping("/count")
+    @RateLimited(RateBudget.SEARCH)
+    public DeferredResult<ResponseEntity<CountResponse>> count(
+            @Parameter(
+                    description = "Имя метода",
+                    example = "UserService.findById"
+            )
+            @RequestParam(required = false) String method,
+
+            @Parameter(
+                    description = "Уровень логирования",
+                    example = "ERROR",
+                    schema = @Schema(allowableValues = {"DEBUG", "INFO", "WARN", "ERROR"})
+            )
+            @RequestParam(required = false) String logLevel,
+
+            @Parameter(
+                    description = "Тип события",
+                    example = "START",
+                    schema = @Schema(allowableValues = {"START", "END", "ERROR"})
+            )
+            @RequestParam(required = false) String eventType,
+
+            @Parameter(
+                    description = "Запрос на компактном языке, как в поиске по полям",
+                    example = "level:ERROR"
+            )
+            @RequestParam(required = false) String q,
+
+            @Parameter(description = "Начало интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Конец интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs,
+
+            ServletWebRequest webRequest) {
+
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (notModified(webRequest, format)) {
+            return DeferredResults.notModified();
+        }
+
+        return DeferredResults.of(methodSearchService.count(method, logLevel, eventType, q, TimeRange.of(from, to), toDuration(timeoutMs)), format);
+    }
+
+    @Operation(
+            summary = "Проверка наличия вызовов методов",
+            description = "Проверяет, есть ли хотя бы один вызов метода с теми же фильтрами, что и поиск по полям; шарды останавливаются на первом совпадении"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Проверка выполнена успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ExistsResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Индекс не изменился с момента ответа, на который указывает ETag"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректные параметры запроса"
+            )
+    })
+    @GetMapping("/exists")
+    @RateLimited(RateBudget.SEARCH)
+    public DeferredResult<ResponseEntity<ExistsResponse>> exists(
+            @Parameter(
+                    description = "Имя метода",
+                    example = "UserService.findById"
+            )
+            @RequestParam(required = false) String method,
+
+            @Parameter(
+                    description = "Уровень логирования",
+                    example = "ERROR",
+                    schema = @Schema(allowableValues = {"DEBUG", "INFO", "WARN", "ERROR"})
+            )
+            @RequestParam(required = false) String logLevel,
+
+            @Parameter(
+                    description = "Тип события",
+                    example = "START",
+                    schema = @Schema(allowableValues = {"START", "END", "ERROR"})
+            )
+            @RequestParam(required = false) String eventType,
+
+            @Parameter(
+                    description = "Запрос на компактном языке, как в поиске по полям",
+                    example = "level:ERROR"
+            )
+            @RequestParam(required = false) String q,
+
+            @Parameter(description = "Начало интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Конец интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs,
+
+            ServletWebRequest webRequest) {
+
+        ResponseFormat format = ResponseFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (notModified(webRequest, format)) {
+            return DeferredResults.notModified();
+        }
+
+        return DeferredResults.of(methodSearchService.exists(method, logLevel, eventType, q, TimeRange.of(from, to), toDuration(timeoutMs)), format);
+    }
+
+    @Operation(
+            summary = "Автодополнение имен методов",
+            description = "Возвращает уникальные имена методов, начинающиеся с префикса, по убыванию частоты за последнее окно"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Подсказки получены успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = SuggestResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Пустой префикс"
+            )
+    })
+    @GetMapping("/suggest")
+    @RateLimited(RateBudget.SEARCH)
+    public DeferredResult<ResponseEntity<SuggestResponse>> suggest(
+            @Parameter(description = "Префикс имени метода", example = "UserServ")
+            @RequestParam String prefix,
+
+            @Parameter(description = "Количество подсказок", example = "10")
             @RequestParam(defaultValue = "10") int size) {
 
-        SearchResponse<MethodDocument> response = methodSearchService.searchByFields(
-                method, logLevel, eventType, page, size);
-        return ResponseEntity.ok(response);
+        return DeferredResults.of(suggestService.suggest(AuditDocumentType.METHOD, prefix, size));
     }
 
-}
+    @Operation(
+            summary = "Получение аргументов и результата вызова метода",
+            description = "Возвращает аргументы и результат для документа, найденного без тел"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Данные получены успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MethodBodyDocument.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Документ не найден"
+            )
+    })
+    @GetMapping("/{id}/body")
+    @RateLimited(RateBudget.SEARCH)
+    public ResponseEntity<MethodBodyDocument> getBody(
+            @Parameter(description = "Идентификатор документа", example = "507f1f77bcf86cd799439011")
+            @PathVariable String id) {
 
+        return ResponseEntity.of(methodSearchService.findBody(id));
+    }
+
+    private boolean notModified(ServletWebRequest webRequest, ResponseFormat format) {
+        return indexStateService.current(AuditDocumentType.METHOD)
+                .map(state -> ConditionalRequests.notModified(webRequest, state, format.name()))
+                .orElse(false);
+    }
+
+    private static Duration toDuration(Long timeoutMs) {
+        return timeoutMs == null ? null : Duration.ofMillis(timeoutMs);
+    }
+
+}
@@ -0,0 +1,132 @@
+package io.github.auditapi.controller.v1;
+
+import io.github.auditapi.model.migration.MigrationJob;
+import io.github.auditapi.model.migration.MigrationRequest;
+import io.github.auditapi.service.MigrationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/migrations")
+@RequiredArgsConstructor
+@Tag(name = "Migration Controller", description = "API для миграции индексов")
+public class MigrationController {
+
+    private final MigrationService migrationService;
+
+    @Operation(
+            summary = "Запуск миграции индекса",
+            description = "Переиндексирует исходный индекс в целевой параллельными срезами и переключает алиас по завершении"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Миграция запущена",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MigrationJob.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректные параметры миграции"
+            )
+    })
+    @PostMapping
+    public ResponseEntity<MigrationJob> start(@RequestBody MigrationRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(migrationService.start(request));
+    }
+
+    @Operation(summary = "Список миграций")
+    @GetMapping
+    public ResponseEntity<List<MigrationJob>> findAll() {
+        return ResponseEntity.ok(migrationService.findAll());
+    }
+
+    @Operation(summary = "Состояние миграции")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Состояние получено успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MigrationJob.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Миграция не найдена"
+            )
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<MigrationJob> find(
+            @Parameter(description = "Идентификатор миграции")
+            @PathVariable String id) {
+
+        return ResponseEntity.of(migrationService.find(id));
+    }
+
+    @Operation(
+            summary = "Возобновление миграции",
+            description = "Продолжает прерванную или упавшую миграцию с последней контрольной точки"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Миграция возобновлена"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Миграция не найдена"
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Миграция выполняется или уже завершена"
+            )
+    })
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<MigrationJob> resume(
+            @Parameter(description = "Идентификатор миграции")
+            @PathVariable String id) {
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(migrationService.resume(id));
+    }
+
+    @Operation(summary = "Остановка миграции с сохранением контрольной точки")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Остановка запрошена"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Активная миграция не найдена"
+            )
+    })
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<Void> cancel(
+            @Parameter(description = "Идентификатор миграции")
+            @PathVariable String id) {
+
+        return migrationService.cancel(id)
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.notFound().build();
+    }
+
+}
@@ -0,0 +1,66 @@
+package io.github.auditapi.controller.v1;
+
+import io.github.auditapi.model.retention.RetentionStatusResponse;
+import io.github.auditapi.service.RetentionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/retention")
+@RequiredArgsConstructor
+@Tag(name = "Retention Controller", description = "API для управления удалением устаревших документов")
+public class RetentionController {
+
+    private final RetentionService retentionService;
+
+    @Operation(
+            summary = "Состояние удаления устаревших документов",
+            description = "Возвращает прогресс, скорость удаления по политикам и влияние на задержку поиска"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Состояние получено успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = RetentionStatusResponse.class)
+                    )
+            )
+    })
+    @GetMapping
+    public ResponseEntity<RetentionStatusResponse> getStatus() {
+        return ResponseEntity.ok(retentionService.getStatus());
+    }
+
+    @Operation(
+            summary = "Внеплановый запуск удаления",
+            description = "Запускает применение всех политик удаления в фоне"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Удаление запущено"
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Удаление уже выполняется"
+            )
+    })
+    @PostMapping("/run")
+    public ResponseEntity<RetentionStatusResponse> run() {
+        HttpStatus status = retentionService.triggerRun() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(retentionService.getStatus());
+    }
+
+}
@@ -0,0 +1,76 @@
+package io.github.auditapi.controller.v1;
+
+import io.github.auditapi.service.LiveTailService;
+import io.github.auditapi.web.RateBudget;
+import io.github.auditapi.web.RateLimited;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/tail")
+@RequiredArgsConstructor
+@Tag(name = "Tail Controller", description = "API живой ленты новых документов аудита (Server-Sent Events)")
+public class TailController {
+
+    private final LiveTailService liveTailService;
+
+    @Operation(
+            summary = "Живая лента новых HTTP-запросов",
+            description = "Поток Server-Sent Events: событие http на каждый новый документ, подходящий под фильтр, "
+                    + "и событие lagged с числом пропущенных документов, если клиент не успевает их читать"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Подписка открыта"),
+            @ApiResponse(responseCode = "503", description = "Достигнут лимит одновременных подписчиков")
+    })
+    @GetMapping(value = "/requests", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RateLimited(RateBudget.SEARCH)
+    public SseEmitter tailRequests(
+            @Parameter(description = "URI или его часть, поддерживаются * и ?", example = "/api/orders*")
+            @RequestParam(required = false) String uri,
+
+            @Parameter(description = "HTTP метод", example = "POST")
+            @RequestParam(required = false) String method,
+
+            @Parameter(description = "Код статуса ответа", example = "500")
+            @RequestParam(required = false) String statusCode) {
+
+        return liveTailService.tailRequests(uri, method, statusCode);
+    }
+
+    @Operation(
+            summary = "Живая лента новых событий методов",
+            description = "Поток Server-Sent Events: событие method на каждый новый документ, подходящий под фильтр, "
+                    + "и событие lagged с числом пропущенных документов, если клиент не успевает их читать"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Подписка открыта"),
+            @ApiResponse(responseCode = "503", description = "Достигнут лимит одновременных подписчиков")
+    })
+    @GetMapping(value = "/methods", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RateLimited(RateBudget.SEARCH)
+    public SseEmitter tailMethods(
+            @Parameter(description = "Имя метода или его часть, поддерживаются * и ?", example = "OrderService.*")
+            @RequestParam(required = false) String method,
+
+            @Parameter(description = "Уровень логирования", example = "ERROR")
+            @RequestParam(required = false) String level,
+
+            @Parameter(description = "Тип события", schema = @Schema(allowableValues = {"START", "END", "ERROR"}))
+            @RequestParam(required = false) String eventType) {
+
+        return liveTailService.tailMethods(method, level, eventType);
+    }
+
+}
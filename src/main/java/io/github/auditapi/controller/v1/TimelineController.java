@@ -0,0 +1,103 @@
+package io.github.auditapi.controller.v1;
+
+import io.github.auditapi.model.elastic.TimeRange;
+import io.github.auditapi.model.timeline.TimelineResponse;
+import io.github.auditapi.service.TimelineService;
+import io.github.auditapi.web.DeferredResults;
+import io.github.auditapi.web.RateBudget;
+import io.github.auditapi.web.RateLimited;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/v1/timeline")
+@RequiredArgsConstructor
+@Tag(name = "Timeline Controller", description = "API общей ленты HTTP-запросов и событий методов")
+public class TimelineController {
+
+    private final TimelineService timelineService;
+
+    @Operation(
+            summary = "Лента HTTP-запросов и событий методов",
+            description = "Ищет сразу по audit-requests и audit-methods и возвращает документы обоих типов вперемешку, "
+                    + "упорядоченными по timestamp. Следующая страница запрашивается по nextCursor"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Страница ленты получена успешно",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = TimelineResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректные параметры запроса или курсор"
+            ),
+            @ApiResponse(
+                    responseCode = "410",
+                    description = "Курсор устарел: point-in-time закрыт, ленту нужно запросить заново"
+            )
+    })
+    @GetMapping
+    @RateLimited(RateBudget.SEARCH)
+    public DeferredResult<ResponseEntity<TimelineResponse>> timeline(
+            @Parameter(description = "Полнотекстовый запрос по URI, имени метода и телам", example = "order 42")
+            @RequestParam(required = false) String query,
+
+            @Parameter(description = "Начало интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Конец интервала по timestamp (ISO-8601, включительно)", example = "2025-01-15T10:15:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(
+                    description = "Порядок по timestamp для первой страницы; следующие страницы берут его из курсора",
+                    example = "asc",
+                    schema = @Schema(allowableValues = {"asc", "desc"})
+            )
+            @RequestParam(defaultValue = "asc") String order,
+
+            @Parameter(description = "Курсор из nextCursor предыдущей страницы")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Размер страницы, ограничен настройкой audit.search.timeline-max-size", example = "100")
+            @RequestParam(defaultValue = "100") int size,
+
+            @Parameter(description = "Включать тела запросов, аргументы и результаты методов", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeBodies,
+
+            @Parameter(description = "Таймаут выполнения запроса в миллисекундах, ограничен настройкой audit.search.max-timeout", example = "5000")
+            @RequestParam(required = false) Long timeoutMs) {
+
+        if (!"asc".equalsIgnoreCase(order) && !"desc".equalsIgnoreCase(order)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "order must be asc or desc");
+        }
+        return DeferredResults.of(timelineService.timeline(query, TimeRange.of(from, to), cursor, "desc".equalsIgnoreCase(order),
+                size, includeBodies, toDuration(timeoutMs)));
+    }
+
+    private static Duration toDuration(Long timeoutMs) {
+        return timeoutMs == null ? null : Duration.ofMillis(timeoutMs);
+    }
+
+}
@@ -0,0 +1,28 @@
+package io.github.auditapi.model.admin;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class BulkLoadStatus {
+
+    @Schema(description = "Индекс вместе с партициями", example = "audit-requests")
+    private String index;
+
+    @Schema(description = "Включен ли режим массовой загрузки")
+    private boolean enabled;
+
+    @Schema(description = "refresh_interval, который вернется после загрузки", example = "1s")
+    private String restoreRefreshInterval;
+
+    @Schema(description = "Время включения")
+    private LocalDateTime since;
+
+    @Schema(description = "Время автоматического выключения")
+    private LocalDateTime restoreAt;
+
+}
@@ -0,0 +1,59 @@
+package io.github.auditapi.model.admin;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class IndexHealth {
+
+    @Schema(description = "Индекс или суточная партиция", example = "audit-requests-2025.01.15")
+    private String index;
+
+    @Schema(description = "Документов в первичных шардах", example = "1250000")
+    private long docs;
+
+    @Schema(description = "Удаленных, но еще не слитых документов", example = "3400")
+    private long deletedDocs;
+
+    @Schema(description = "Размер первичных шардов, байт", example = "734003200")
+    private long primaryBytes;
+
+    @Schema(description = "Размер с репликами, байт", example = "1468006400")
+    private long totalBytes;
+
+    @Schema(description = "Первичных шардов", example = "1")
+    private int shards;
+
+    @Schema(description = "Реплик на шард", example = "1")
+    private int replicas;
+
+    @Schema(description = "Средний размер первичного шарда, байт", example = "734003200")
+    private long averageShardBytes;
+
+    @Schema(description = "Сегментов в первичных шардах", example = "14")
+    private int segments;
+
+    @Schema(description = "refresh_interval; пусто - значение по умолчанию кластера", example = "1s")
+    private String refreshInterval;
+
+    @Schema(description = "Доля попаданий в query cache", example = "0.83")
+    private double queryCacheHitRatio;
+
+    @Schema(description = "Размер query cache, байт", example = "1048576")
+    private long queryCacheBytes;
+
+    @Schema(description = "Доля попаданий в request cache", example = "0.67")
+    private double requestCacheHitRatio;
+
+    @Schema(description = "Размер request cache, байт", example = "524288")
+    private long requestCacheBytes;
+
+    @Schema(description = "Выполнено refresh", example = "15200")
+    private long refreshes;
+
+    @Schema(description = "Суммарное время refresh, мс", example = "42000")
+    private long refreshTimeMs;
+
+}
@@ -0,0 +1,37 @@
+package io.github.auditapi.model.admin;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class IndexHealthResponse {
+
+    @Schema(description = "Индексы и партиции аудита")
+    private List<IndexHealth> indices;
+
+    @Schema(description = "Сейчас окно низкой нагрузки")
+    private boolean offPeak;
+
+    @Schema(description = "Текущая средняя задержка поисковых запросов, мс")
+    private double searchLatencyMs;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Почему операции сейчас не запускаются; пусто - запуск разрешен",
+            example = "outside off-peak window 01:00-05:00 UTC")
+    private String blockedReason;
+
+    @Schema(description = "Слияние сегментов холодных партиций")
+    private IndexOperationStatus forceMerge;
+
+    @Schema(description = "Прогрев файлового кэша")
+    private IndexOperationStatus warm;
+
+    @Schema(description = "Режимы массовой загрузки")
+    private List<BulkLoadStatus> bulkLoads;
+
+}
@@ -0,0 +1,37 @@
+package io.github.auditapi.model.admin;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+public class IndexOperationStatus {
+
+    @Schema(description = "Операция", allowableValues = {"FORCE_MERGE", "WARM"})
+    private String operation;
+
+    @Schema(description = "Состояние", allowableValues = {"IDLE", "SCHEDULED", "RUNNING", "DONE", "FAILED"})
+    private String state;
+
+    @Schema(description = "Время постановки в очередь")
+    private LocalDateTime requestedAt;
+
+    @Schema(description = "Время начала выполнения")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Время окончания выполнения")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Обработанные индексы")
+    private List<String> indices;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Причина, по которой операция отложена или завершилась ошибкой")
+    private String message;
+
+}
@@ -0,0 +1,62 @@
+package io.github.auditapi.model.compact;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Модель чтения HTTP-документа для ответов поиска. Сериализуется в тот же JSON, что и
+ * {@link io.github.auditapi.model.elastic.HttpDocument}, но метод и направление - общие
+ * экземпляры строк, статус-код - число, а тела остаются байтами UTF-8 до записи в ответ.
+ * Статус-код, который не записывается числом без потерь, хранится исходной строкой
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactHttpDocument {
+
+    private String id;
+
+    private LocalDateTime timestamp;
+
+    private String uri;
+
+    @JsonDeserialize(using = LowCardinality.class)
+    private String method;
+
+    @JsonDeserialize(using = LowCardinality.class)
+    private String direction;
+
+    /**
+     * 0 - код не задан или хранится в {@link #rawStatusCode}
+     */
+    @JsonIgnore
+    private short statusCode;
+
+    @JsonIgnore
+    private String rawStatusCode;
+
+    private RawText requestBody;
+
+    private RawText responseBody;
+
+    @JsonGetter("statusCode")
+    public String statusCodeText() {
+        return rawStatusCode != null ? rawStatusCode : StatusCodes.text(statusCode);
+    }
+
+    @JsonSetter("statusCode")
+    public void statusCodeText(String value) {
+        statusCode = StatusCodes.parse(value);
+        rawStatusCode = statusCode == 0 ? value : null;
+    }
+
+}
@@ -0,0 +1,43 @@
+package io.github.auditapi.model.compact;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Модель чтения документа метода для ответов поиска. Сериализуется в тот же JSON, что и
+ * {@link io.github.auditapi.model.elastic.MethodDocument}; имя метода, уровень и тип события -
+ * общие экземпляры строк, аргументы и результат остаются байтами UTF-8 до записи в ответ
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactMethodDocument {
+
+    private String id;
+
+    private LocalDateTime timestamp;
+
+    @JsonDeserialize(using = LowCardinality.class)
+    private String method;
+
+    @JsonDeserialize(using = LowCardinality.class)
+    private String level;
+
+    @JsonDeserialize(using = LowCardinality.class)
+    private String eventType;
+
+    private String correlationId;
+
+    private RawText args;
+
+    private RawText result;
+
+    private String errorMessage;
+
+}
@@ -0,0 +1,45 @@
+package io.github.auditapi.model.compact;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Общие экземпляры строк для полей с небольшим набором значений: HTTP-метод, направление,
+ * уровень, тип события. Документы страницы ссылаются на несколько общих строк вместо
+ * тысячи одинаковых. Пул ограничен, значения сверх лимита не запоминаются
+ */
+public final class LowCardinality extends StdDeserializer<String> {
+
+    private static final int MAX_VALUES = 1024;
+    private static final Map<String, String> VALUES = new ConcurrentHashMap<>();
+
+    public LowCardinality() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        return intern(parser.getValueAsString());
+    }
+
+    public static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = VALUES.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (VALUES.size() >= MAX_VALUES) {
+            return value;
+        }
+        pooled = VALUES.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+}
@@ -0,0 +1,158 @@
+package io.github.auditapi.model.compact;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Тело документа в виде байтов UTF-8, закодированных прямо из буфера парсера.
+ * Строка не создается ни при чтении, ни при записи в байтовый поток: в ответ пишутся
+ * те же байты. В UTF-8 ASCII-символы тела занимают по байту, а строка, в которой есть
+ * хотя бы один символ вне Latin-1 (например, кириллица), хранит по два байта на каждый символ
+ */
+@JsonSerialize(using = RawText.Serializer.class)
+@JsonDeserialize(using = RawText.Deserializer.class)
+public final class RawText {
+
+    private final byte[] utf8;
+
+    private RawText(byte[] utf8) {
+        this.utf8 = utf8;
+    }
+
+    public static RawText of(String value) {
+        return value == null ? null : new RawText(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RawText of(char[] chars, int offset, int length) {
+        return new RawText(encode(chars, offset, length));
+    }
+
+    public int byteLength() {
+        return utf8.length;
+    }
+
+    /**
+     * Декодирует тело; только для мест, где действительно нужна строка
+     */
+    @Override
+    public String toString() {
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RawText text && Arrays.equals(utf8, text.utf8);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(utf8);
+    }
+
+    /**
+     * UTF-8 без промежуточной строки и буфера с запасом; одиночные суррогаты заменяются на '?', как в String.getBytes
+     */
+    private static byte[] encode(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int size = 0;
+        for (int i = offset; i < end; i++) {
+            char c = chars[i];
+            if (c < 0x80) {
+                size += 1;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+                    size += 4;
+                    i++;
+                } else {
+                    size += 1;
+                }
+            } else {
+                size += 3;
+            }
+        }
+
+        byte[] bytes = new byte[size];
+        if (size == length) {
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) chars[offset + i];
+            }
+            return bytes;
+        }
+        int position = 0;
+        for (int i = offset; i < end; i++) {
+            char c = chars[i];
+            if (c < 0x80) {
+                bytes[position++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[position++] = (byte) (0xC0 | (c >> 6));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+                    int codePoint = Character.toCodePoint(c, chars[++i]);
+                    bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    bytes[position++] = '?';
+                }
+            } else {
+                bytes[position++] = (byte) (0xE0 | (c >> 12));
+                bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return bytes;
+    }
+
+    public static final class Serializer extends StdSerializer<RawText> {
+
+        public Serializer() {
+            super(RawText.class);
+        }
+
+        @Override
+        public void serialize(RawText value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            // генераторы JSON, Smile и CBOR поверх байтового потока пишут UTF-8 как есть;
+            // символьным генераторам и буферам токенов нужна строка
+            if (generator.getOutputTarget() instanceof OutputStream) {
+                generator.writeUTF8String(value.utf8, 0, value.utf8.length);
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+
+    }
+
+    public static final class Deserializer extends StdDeserializer<RawText> {
+
+        public Deserializer() {
+            super(RawText.class);
+        }
+
+        @Override
+        public RawText deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                return RawText.of(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            }
+            // тело, сохраненное не строкой, отдается его JSON-представлением
+            return RawText.of(context.readTree(parser).toString());
+        }
+
+    }
+
+}
@@ -0,0 +1,42 @@
+package io.github.auditapi.model.compact;
+
+/**
+ * Статус-код как число в памяти и как строка в JSON, совместимо с {@link io.github.auditapi.model.elastic.HttpDocument}.
+ * 0 - код не задан или не записывается числом без потерь: не число, больше 4 цифр или с ведущим нулем
+ */
+public final class StatusCodes {
+
+    private static final String[] TEXT = new String[1000];
+
+    static {
+        for (int code = 100; code < TEXT.length; code++) {
+            TEXT[code] = Integer.toString(code);
+        }
+    }
+
+    private StatusCodes() {
+    }
+
+    public static String text(short code) {
+        if (code <= 0) {
+            return null;
+        }
+        return code < TEXT.length && TEXT[code] != null ? TEXT[code] : Integer.toString(code);
+    }
+
+    public static short parse(String value) {
+        if (value == null || value.isEmpty() || value.length() > 4 || value.charAt(0) == '0') {
+            return 0;
+        }
+        int code = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            code = code * 10 + (c - '0');
+        }
+        return (short) code;
+    }
+
+}
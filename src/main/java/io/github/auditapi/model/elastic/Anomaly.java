@@ -0,0 +1,34 @@
+package io.github.auditapi.model.elastic;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Значение поля, чаще обычного встречающееся среди ошибок")
+public class Anomaly {
+
+    @Schema(description = "Значение поля", example = "/api/payments")
+    private String value;
+
+    @Schema(description = "Оценка значимости significant_terms (JLH); чем больше, тем сильнее отклонение", example = "4.82")
+    private double score;
+
+    @Schema(description = "Ошибок с этим значением в окне", example = "310")
+    private long errorCount;
+
+    @Schema(description = "Доля значения среди ошибок окна", example = "0.62")
+    private double errorShare;
+
+    @Schema(description = "Документов с этим значением в предыдущем окне", example = "1200")
+    private long baselineCount;
+
+    @Schema(description = "Доля значения среди всех документов предыдущего окна", example = "0.04")
+    private double baselineShare;
+
+}
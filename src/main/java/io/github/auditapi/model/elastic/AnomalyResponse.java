@@ -0,0 +1,43 @@
+package io.github.auditapi.model.elastic;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+public class AnomalyResponse implements PartialResult {
+
+    @Schema(description = "Поле, по которому искались отклонения", example = "uri")
+    private String field;
+
+    @Schema(description = "Начало окна с ошибками (включительно)", example = "2025-01-15T10:00:00Z")
+    private Instant windowFrom;
+
+    @Schema(description = "Конец окна с ошибками (не включительно), округлен вниз до минуты", example = "2025-01-15T10:15:00Z")
+    private Instant windowTo;
+
+    @Schema(description = "Ошибок в окне: statusCode 5xx для HTTP-запросов, level ERROR для методов", example = "500")
+    private long errors;
+
+    @Schema(description = "Всех документов в предыдущем окне той же длины - базовой линии", example = "30000")
+    private long baseline;
+
+    @Schema(description = "Значения по убыванию значимости")
+    private List<Anomaly> anomalies;
+
+    @Schema(description = "Ответ получен из кэша окна")
+    private boolean cached;
+
+    @Schema(description = "Результат неполный: истёк таймаут или часть шардов не ответила")
+    private boolean partial;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @Schema(description = "Ошибки шардов", example = "[\"audit-requests[2]: timed out\"]")
+    private List<String> shardFailures;
+
+}
@@ -0,0 +1,24 @@
+package io.github.auditapi.model.elastic;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Типы документов аудита и их индексы
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AuditDocumentType {
+
+    HTTP("audit-requests", HttpDocument.class, "audit-request-bodies"),
+    METHOD("audit-methods", MethodDocument.class, "audit-method-bodies");
+
+    private final String indexName;
+    private final Class<?> documentClass;
+
+    /**
+     * Индекс тел при audit.storage.split-bodies; идентификаторы тел совпадают с идентификаторами документов
+     */
+    private final String bodyIndexName;
+
+}
@@ -0,0 +1,24 @@
+package io.github.auditapi.model.elastic;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CountResponse implements PartialResult {
+
+    @Schema(description = "Количество документов, подходящих под фильтры", example = "42")
+    private long count;
+
+    @Schema(description = "Результат неполный: часть шардов не ответила")
+    private boolean partial;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @Schema(description = "Ошибки шардов", example = "[\"audit-requests[2]: timed out\"]")
+    private List<String> shardFailures;
+
+}
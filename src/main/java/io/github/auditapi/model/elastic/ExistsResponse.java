@@ -0,0 +1,24 @@
+package io.github.auditapi.model.elastic;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ExistsResponse implements PartialResult {
+
+    @Schema(description = "Есть хотя бы один документ, подходящий под фильтры", example = "true")
+    private boolean exists;
+
+    @Schema(description = "Результат неполный: истёк таймаут или часть шардов не ответила; false в этом случае не гарантирует отсутствия")
+    private boolean partial;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @Schema(description = "Ошибки шардов", example = "[\"audit-requests[2]: timed out\"]")
+    private List<String> shardFailures;
+
+}
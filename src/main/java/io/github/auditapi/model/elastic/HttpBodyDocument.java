@@ -0,0 +1,39 @@
+package io.github.auditapi.model.elastic;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+/**
+ * Тела HTTP-запроса и ответа, вынесенные из основного индекса.
+ * Идентификатор совпадает с идентификатором {@link HttpDocument}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(indexName = "audit-request-bodies", createIndex = false)
+@Setting(settingPath = "elastic/body-index-settings.json")
+@Schema(description = "Тела HTTP-запроса и ответа")
+public class HttpBodyDocument {
+
+    @Id
+    @Schema(description = "Идентификатор документа HTTP-запроса", example = "507f1f77bcf86cd799439011")
+    private String id;
+
+    @Field(type = FieldType.Text, index = false)
+    @Schema(description = "Тело HTTP-запроса", example = "{\"name\":\"John\",\"email\":\"john@example.com\"}")
+    private String requestBody;
+
+    @Field(type = FieldType.Text, index = false)
+    @Schema(description = "Тело HTTP-ответа", example = "{\"id\":123,\"name\":\"John\",\"email\":\"john@example.com\"}")
+    private String responseBody;
+
+}
@@ -0,0 +1,18 @@
+package io.github.auditapi.model.elastic;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Дешевый признак состояния индекса для условных запросов.
+ * Версия меняется при любой записи в индекс (добавление, удаление, изменение на месте);
+ * lastModified - момент, когда текущая версия была замечена впервые
+ */
+@Getter
+@Builder
+public class IndexState {
+
+    private final String version;
+    private final long lastModified;
+
+}
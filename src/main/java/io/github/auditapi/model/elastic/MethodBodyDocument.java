@@ -0,0 +1,39 @@
+package io.github.auditapi.model.elastic;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+/**
+ * Аргументы и результат вызова метода, вынесенные из основного индекса.
+ * Идентификатор совпадает с идентификатором {@link MethodDocument}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(indexName = "audit-method-bodies", createIndex = false)
+@Setting(settingPath = "elastic/body-index-settings.json")
+@Schema(description = "Аргументы и результат вызова метода")
+public class MethodBodyDocument {
+
+    @Id
+    @Schema(description = "Идентификатор документа метода")
+    private String id;
+
+    @Field(type = FieldType.Text, index = false)
+    @Schema(description = "Аргументы метода в JSON формате", example = "[123, \"active\"]")
+    private String args;
+
+    @Field(type = FieldType.Text, index = false)
+    @Schema(description = "Результат выполнения метода в JSON формате", example = "{\"id\":123,\"name\":\"John\",\"status\":\"active\"}")
+    private String result;
+
+}
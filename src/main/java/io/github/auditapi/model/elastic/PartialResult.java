@@ -0,0 +1,10 @@
+package io.github.auditapi.model.elastic;
+
+/**
+ * Ответ, который может быть неполным: истек таймаут поиска или часть шардов вернула ошибку
+ */
+public interface PartialResult {
+
+    boolean isPartial();
+
+}
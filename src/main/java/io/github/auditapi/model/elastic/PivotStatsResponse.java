@@ -0,0 +1,47 @@
+package io.github.auditapi.model.elastic;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Двумерная статистика в виде матрицы: подписи строк и столбцов передаются один раз,
+ * значения - массивами в порядке подписей
+ */
+@Data
+@Builder
+public class PivotStatsResponse implements PartialResult {
+
+    @Schema(description = "Значения поля строк по убыванию числа документов", example = "[\"/api/orders\", \"/api/users\"]")
+    private List<String> rows;
+
+    @Schema(description = "Значения поля столбцов по убыванию числа документов", example = "[\"200\", \"404\", \"500\"]")
+    private List<String> columns;
+
+    @Schema(description = "Количество документов: counts[i][j] для rows[i] и columns[j], 0 - нет документов",
+            example = "[[1200, 30, 12], [800, 5, 0]]")
+    private long[][] counts;
+
+    @Schema(description = "Всего документов в строке, включая столбцы за пределами columns", example = "[1242, 805]")
+    private long[] rowTotals;
+
+    @Schema(description = "Ошибок в строке: statusCode 5xx для HTTP-запросов, eventType ERROR для методов", example = "[12, 0]")
+    private long[] errors;
+
+    @Schema(description = "Доля ошибок в строке, errors / rowTotals", example = "[0.0097, 0.0]")
+    private double[] errorRatio;
+
+    @Schema(description = "Документов в строках, не вошедших в rows")
+    private long otherRows;
+
+    @Schema(description = "Результат неполный: истёк таймаут или часть шардов не ответила")
+    private boolean partial;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @Schema(description = "Ошибки шардов", example = "[\"audit-requests[2]: timed out\"]")
+    private List<String> shardFailures;
+
+}
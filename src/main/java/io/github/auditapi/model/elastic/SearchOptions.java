@@ -0,0 +1,59 @@
+package io.github.auditapi.model.elastic;
+
+import io.github.auditapi.web.ResponseFormat;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * Общие параметры выполнения поисковых запросов
+ */
+@Data
+@Builder
+public class SearchOptions {
+
+    /**
+     * Возвращать тела документов
+     */
+    @Builder.Default
+    private boolean includeBodies = true;
+
+    /**
+     * Вернуть профиль запроса Elasticsearch и серверные тайминги
+     */
+    private boolean profile;
+
+    /**
+     * Запрошенный клиентом таймаут; ограничивается audit.search.max-timeout
+     */
+    private Duration timeout;
+
+    /**
+     * Вернуть фрагменты тел с подсвеченными совпадениями вместо самих тел
+     */
+    private boolean highlight;
+
+    /**
+     * Кодировка ответа, выбранная по заголовку Accept
+     */
+    @Builder.Default
+    private ResponseFormat format = ResponseFormat.JSON;
+
+    /**
+     * Вызывается до записи результатов, если ответ неполный (таймаут или ошибки шардов).
+     * Не входит в сравнение: опции с разными обработчиками описывают один и тот же запрос
+     */
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Runnable onPartial = () -> {
+    };
+
+    public boolean returnsBodies() {
+        return includeBodies && !highlight;
+    }
+
+}
@@ -0,0 +1,40 @@
+package io.github.auditapi.model.elastic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "Профиль поискового запроса")
+public class SearchProfile {
+
+    @Schema(description = "Ветка построения запроса", example = "byFields[uri:wildcard,method]")
+    private String plan;
+
+    @Schema(description = "Запрос, отправленный в Elasticsearch")
+    private JsonNode query;
+
+    @Schema(description = "Время построения запроса, мс")
+    private double queryBuildMs;
+
+    @Schema(description = "Время выполнения запроса в Elasticsearch (took), мс")
+    private long elasticsearchTookMs;
+
+    @Schema(description = "Сеть и разбор ответа клиентом, мс")
+    private double networkMs;
+
+    @Schema(description = "Преобразование документов в модель, мс")
+    private double deserializationMs;
+
+    @Schema(description = "Подгрузка тел из отдельного индекса, мс")
+    private double bodyJoinMs;
+
+    @Schema(description = "Сериализация результатов в JSON, мс")
+    private double serializationMs;
+
+    @Schema(description = "Профиль Elasticsearch по шардам")
+    private JsonNode shards;
+
+}
@@ -1,5 +1,6 @@
 package io.github.auditapi.model.elastic;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,12 +8,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class SearchResponse<T> {
+public class SearchResponse<T> implements PartialResult {
 
     @Schema(description = "Список найденных документов")
     private List<T> results;
@@ -20,4 +22,24 @@ public class SearchResponse<T> {
     @Schema(description = "Общее количество найденных документов")
     private long totalHits;
 
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    @Schema(description = "totalHits - нижняя граница: совпадений больше порога точного подсчета")
+    private boolean totalHitsLowerBound;
+
+    @Schema(description = "Результат неполный: истёк таймаут или часть шардов не ответила")
+    private boolean partial;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @Schema(description = "Ошибки шардов", example = "[\"audit-requests[2]: timed out\"]")
+    private List<String> shardFailures;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @Schema(description = "Подсвеченные фрагменты тел по идентификатору документа и полю (только при highlight=true)",
+            example = "{\"507f1f77bcf86cd799439011\": {\"responseBody\": [\"\\\"status\\\": \\\"<em>FAILED</em>\\\"\"]}}")
+    private Map<String, Map<String, List<String>>> highlights;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Профиль запроса (только при profile=true)")
+    private SearchProfile profile;
+
 }
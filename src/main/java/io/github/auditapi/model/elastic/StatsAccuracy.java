@@ -0,0 +1,27 @@
+package io.github.auditapi.model.elastic;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+/**
+ * Точность статистики: точный подсчет или оценка по случайной выборке документов
+ */
+public enum StatsAccuracy {
+
+    EXACT,
+    APPROXIMATE;
+
+    public static StatsAccuracy parse(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "accuracy must be exact or approximate");
+        }
+    }
+
+}
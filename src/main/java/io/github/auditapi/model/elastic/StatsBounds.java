@@ -0,0 +1,21 @@
+package io.github.auditapi.model.elastic;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsBounds {
+
+    @Schema(description = "Нижняя граница 95% доверительного интервала", example = "1180")
+    private long lower;
+
+    @Schema(description = "Верхняя граница 95% доверительного интервала", example = "1320")
+    private long upper;
+
+}
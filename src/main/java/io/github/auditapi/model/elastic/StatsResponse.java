@@ -1,14 +1,16 @@
 package io.github.auditapi.model.elastic;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.List;
 import java.util.Map;
 
 @Data
 @Builder
-public class StatsResponse {
+public class StatsResponse implements PartialResult {
 
     @Schema(
             description = "Map статистика, где ключ - значение поля, значение - количество документов",
@@ -16,4 +18,19 @@ public class StatsResponse {
     )
     private Map<String, Long> stats;
 
+    @Schema(description = "Результат неполный: истёк таймаут или часть шардов не ответила")
+    private boolean partial;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @Schema(description = "Ошибки шардов", example = "[\"audit-requests[2]: timed out\"]")
+    private List<String> shardFailures;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Вероятность попадания документа в выборку (только при accuracy=approximate); 1 - посчитано точно", example = "0.01")
+    private Double samplingProbability;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @Schema(description = "Доверительные интервалы масштабированных значений stats (только для выборки)")
+    private Map<String, StatsBounds> bounds;
+
 }
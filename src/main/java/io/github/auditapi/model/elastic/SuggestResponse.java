@@ -0,0 +1,23 @@
+package io.github.auditapi.model.elastic;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestResponse {
+
+    @Schema(description = "Уникальные значения, начинающиеся с префикса, по убыванию частоты")
+    private List<Suggestion> suggestions;
+
+    @Schema(description = "Ответ получен из локального кэша")
+    private boolean cached;
+
+}
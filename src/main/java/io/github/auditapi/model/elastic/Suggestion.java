@@ -0,0 +1,22 @@
+package io.github.auditapi.model.elastic;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Вариант автодополнения")
+public class Suggestion {
+
+    @Schema(description = "Значение поля", example = "/api/orders")
+    private String value;
+
+    @Schema(description = "Количество документов с этим значением за окно подсказок", example = "1250")
+    private long count;
+
+}
@@ -0,0 +1,31 @@
+package io.github.auditapi.model.elastic;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+
+/**
+ * Ограничение поиска по timestamp; обе границы включительные и необязательные
+ */
+@Getter
+@Builder
+public class TimeRange {
+
+    private final Instant from;
+    private final Instant to;
+
+    public static TimeRange of(Instant from, Instant to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        return TimeRange.builder().from(from).to(to).build();
+    }
+
+    public boolean isUnbounded() {
+        return from == null && to == null;
+    }
+
+}
@@ -0,0 +1,25 @@
+package io.github.auditapi.model.export;
+
+import io.github.auditapi.web.ResponseFormat;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Формат файла выгрузки
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+
+    NDJSON_GZIP(".ndjson.gz", "application/gzip", ResponseFormat.JSON),
+
+    /**
+     * Последовательность CBOR-документов (RFC 8742) без разделителей
+     */
+    CBOR_SEQ_GZIP(".cbor.gz", "application/gzip", ResponseFormat.CBOR);
+
+    private final String extension;
+    private final String contentType;
+    private final ResponseFormat encoding;
+
+}
@@ -0,0 +1,43 @@
+package io.github.auditapi.model.export;
+
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+@Schema(description = "Задача выгрузки")
+public class ExportJob {
+
+    @Schema(description = "Идентификатор задачи")
+    private String id;
+
+    private AuditDocumentType documentType;
+
+    private ExportFormat format;
+
+    @Schema(description = "Состояние", allowableValues = {"QUEUED", "RUNNING", "DONE", "FAILED", "CANCELLED"})
+    private String state;
+
+    @Schema(description = "Количество документов, подходящих под фильтр")
+    private long total;
+
+    @Schema(description = "Количество выгруженных документов")
+    private long exported;
+
+    @Schema(description = "Имя файла выгрузки")
+    private String fileName;
+
+    @Schema(description = "Размер файла в байтах")
+    private long fileSize;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+
+    private String error;
+
+}
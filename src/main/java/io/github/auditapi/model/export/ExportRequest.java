@@ -0,0 +1,35 @@
+package io.github.auditapi.model.export;
+
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Параметры выгрузки")
+public class ExportRequest {
+
+    @Schema(description = "Тип документов", example = "HTTP")
+    private AuditDocumentType documentType;
+
+    @Schema(description = "Формат файла", example = "NDJSON_GZIP")
+    private ExportFormat format;
+
+    @Schema(description = "Начало периода (включительно)", example = "2025-01-01T00:00:00")
+    private LocalDateTime from;
+
+    @Schema(description = "Конец периода (не включительно)", example = "2025-01-08T00:00:00")
+    private LocalDateTime to;
+
+    @Schema(description = "Точные фильтры по полям", example = "{\"statusCode\": \"500\"}")
+    private Map<String, String> filters;
+
+}
@@ -0,0 +1,61 @@
+package io.github.auditapi.model.migration;
+
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Состояние миграции индекса, сохраняемое для возобновления после остановки
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(indexName = "audit-migrations")
+@Schema(description = "Задача миграции индекса")
+public class MigrationJob {
+
+    @Id
+    @Schema(description = "Идентификатор задачи")
+    private String id;
+
+    private AuditDocumentType documentType;
+
+    private String sourceIndex;
+
+    private String targetIndex;
+
+    private String alias;
+
+    private String transformer;
+
+    private int workers;
+
+    private int batchSize;
+
+    @Schema(description = "Состояние", allowableValues = {"RUNNING", "CANCELLED", "FAILED", "DONE"})
+    private String state;
+
+    @Schema(description = "Количество документов в исходном индексе на момент запуска")
+    private long total;
+
+    @Schema(description = "Количество записанных документов")
+    private long processed;
+
+    @Schema(description = "Контрольная точка: все документы с timestamp раньше этого значения (epoch millis) уже перенесены")
+    private Long checkpoint;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime updatedAt;
+
+    private String error;
+
+}
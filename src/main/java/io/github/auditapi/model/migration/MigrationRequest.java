@@ -0,0 +1,38 @@
+package io.github.auditapi.model.migration;
+
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Параметры миграции индекса")
+public class MigrationRequest {
+
+    @Schema(description = "Тип документов", example = "HTTP")
+    private AuditDocumentType documentType;
+
+    @Schema(description = "Исходный индекс", example = "audit-requests-v1")
+    private String sourceIndex;
+
+    @Schema(description = "Целевой индекс", example = "audit-requests-v2")
+    private String targetIndex;
+
+    @Schema(description = "Алиас, переключаемый на целевой индекс по завершении", example = "audit-requests")
+    private String alias;
+
+    @Schema(description = "Имя преобразования документов (без преобразования, если не задано)", example = "uri-normalizer")
+    private String transformer;
+
+    @Schema(description = "Количество параллельных срезов", example = "4")
+    private Integer workers;
+
+    @Schema(description = "Размер пачки чтения и записи", example = "1000")
+    private Integer batchSize;
+
+}
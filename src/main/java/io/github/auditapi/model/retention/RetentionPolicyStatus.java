@@ -0,0 +1,57 @@
+package io.github.auditapi.model.retention;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+public class RetentionPolicyStatus {
+
+    @Schema(description = "Имя политики", example = "methods-debug")
+    private String name;
+
+    @Schema(description = "Индекс", example = "audit-methods")
+    private String index;
+
+    @Schema(description = "Фильтр политики", example = "level=DEBUG")
+    private String filter;
+
+    @Schema(description = "Максимальный возраст документов", example = "PT168H")
+    private Duration maxAge;
+
+    @Schema(description = "Состояние", allowableValues = {"IDLE", "DROPPING_PARTITIONS", "DELETING", "DONE", "FAILED"})
+    private String state;
+
+    @Schema(description = "Удалённые партиции")
+    private List<String> droppedPartitions;
+
+    @Schema(description = "Идентификатор задачи delete-by-query в Elasticsearch")
+    private String taskId;
+
+    @Schema(description = "Количество документов к удалению")
+    private long total;
+
+    @Schema(description = "Количество удалённых документов")
+    private long deleted;
+
+    @Schema(description = "Количество удалённых тел из отдельного индекса тел")
+    private long deletedBodies;
+
+    @Schema(description = "Скорость удаления, документов в секунду")
+    private double docsPerSecond;
+
+    @Schema(description = "Время начала обработки политики")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Время окончания обработки политики")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Сообщение об ошибке")
+    private String error;
+
+}
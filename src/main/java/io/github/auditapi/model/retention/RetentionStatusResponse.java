@@ -0,0 +1,32 @@
+package io.github.auditapi.model.retention;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class RetentionStatusResponse {
+
+    @Schema(description = "Выполняется ли удаление в данный момент")
+    private boolean running;
+
+    @Schema(description = "Время начала последнего запуска")
+    private LocalDateTime lastRunStartedAt;
+
+    @Schema(description = "Время окончания последнего запуска")
+    private LocalDateTime lastRunFinishedAt;
+
+    @Schema(description = "Средняя задержка поисковых запросов до начала запуска, мс")
+    private double searchLatencyBaselineMs;
+
+    @Schema(description = "Текущая средняя задержка поисковых запросов, мс")
+    private double searchLatencyCurrentMs;
+
+    @Schema(description = "Состояние политик")
+    private List<RetentionPolicyStatus> policies;
+
+}
@@ -0,0 +1,35 @@
+package io.github.auditapi.model.timeline;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.model.elastic.MethodDocument;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Элемент ленты: ровно одно из полей http или method заполнено, какое - указывает type
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TimelineEntry {
+
+    @Schema(description = "Тип документа", example = "http", allowableValues = {"http", "method"})
+    private String type;
+
+    @Schema(description = "Идентификатор документа", example = "507f1f77bcf86cd799439011")
+    private String id;
+
+    @Schema(description = "Временная метка документа")
+    private LocalDateTime timestamp;
+
+    @Schema(description = "HTTP-запрос (при type=http)")
+    private HttpDocument http;
+
+    @Schema(description = "Событие метода (при type=method)")
+    private MethodDocument method;
+
+}
@@ -0,0 +1,29 @@
+package io.github.auditapi.model.timeline;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class TimelineResponse {
+
+    @Schema(description = "HTTP-запросы и события методов, упорядоченные по timestamp")
+    private List<TimelineEntry> entries;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Курсор следующей страницы; отсутствует на последней странице. Действителен audit.search.timeline-keep-alive "
+            + "с момента предыдущего запроса")
+    private String nextCursor;
+
+    @Schema(description = "Результат неполный: истёк таймаут или часть шардов не ответила")
+    private boolean partial;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @Schema(description = "Ошибки шардов", example = "[\"audit-requests[2]: timed out\"]")
+    private List<String> shardFailures;
+
+}
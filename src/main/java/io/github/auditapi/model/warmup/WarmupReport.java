@@ -0,0 +1,26 @@
+package io.github.auditapi.model.warmup;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class WarmupReport {
+
+    @Schema(description = "Состояние", allowableValues = {"RUNNING", "DONE", "TIMED_OUT", "DISABLED"})
+    private String state;
+
+    @Schema(description = "Время начала прогрева")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Длительность прогрева, мс")
+    private long durationMs;
+
+    @Schema(description = "Шаги прогрева")
+    private List<WarmupStep> steps;
+
+}
@@ -0,0 +1,26 @@
+package io.github.auditapi.model.warmup;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class WarmupStep {
+
+    @Schema(description = "Имя шага", example = "http.stats[statusCode]")
+    private String name;
+
+    @Schema(description = "Выполнено повторений", example = "10")
+    private int iterations;
+
+    @Schema(description = "Время первого (холодного) выполнения, мс", example = "412.5")
+    private double firstMs;
+
+    @Schema(description = "Время последнего выполнения, мс", example = "8.1")
+    private double lastMs;
+
+    @Schema(description = "Ошибка, прервавшая шаг")
+    private String error;
+
+}
@@ -0,0 +1,13 @@
+package io.github.auditapi.repository;
+
+import io.github.auditapi.model.elastic.HttpBodyDocument;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Репозиторий для работы с телами Http документов
+ */
+@Repository
+public interface HttpBodyDocumentRepository extends ElasticsearchRepository<HttpBodyDocument, String> {
+
+}
@@ -0,0 +1,13 @@
+package io.github.auditapi.repository;
+
+import io.github.auditapi.model.elastic.MethodBodyDocument;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Репозиторий для работы с аргументами и результатами документов методов
+ */
+@Repository
+public interface MethodBodyDocumentRepository extends ElasticsearchRepository<MethodBodyDocument, String> {
+
+}
@@ -0,0 +1,13 @@
+package io.github.auditapi.repository;
+
+import io.github.auditapi.model.migration.MigrationJob;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Репозиторий для хранения состояния миграций
+ */
+@Repository
+public interface MigrationJobRepository extends ElasticsearchRepository<MigrationJob, String> {
+
+}
@@ -0,0 +1,172 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.aggregations.SignificantStringTermsAggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.SignificantStringTermsBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import io.github.auditapi.config.AnomalyProperties;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.model.elastic.Anomaly;
+import io.github.auditapi.model.elastic.AnomalyResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Поиск значений, которые среди ошибок окна встречаются заметно чаще, чем во всех документах
+ * предыдущего окна той же длины: significant_terms по ошибкам окна с background_filter по
+ * предыдущему окну. Конец окна округляется вниз до минуты, поэтому запросы в течение минуты
+ * получают один и тот же результат из LRU-кэша окон
+ */
+@Component
+@RequiredArgsConstructor
+public class AnomalyStats {
+
+    private static final String ANOMALIES = "anomalies";
+
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final SearchProperties searchProperties;
+    private final AnomalyProperties anomalyProperties;
+
+    private final Clock clock = Clock.systemUTC();
+    private Map<String, Entry> cache;
+
+    @PostConstruct
+    public void init() {
+        int capacity = anomalyProperties.getCacheSize();
+        cache = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @param fields допустимые поля: имя параметра запроса - поле агрегации
+     * @param errors запрос, отбирающий ошибочные документы
+     * @param to     конец окна; если не задан - текущее время
+     */
+    public CompletableFuture<AnomalyResponse> anomalies(String index, Map<String, String> fields, String field, Query errors,
+                                                        Duration window, Instant to, Duration timeout) {
+        String aggregationField = fields.get(field);
+        if (aggregationField == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "field must be one of " + fields.keySet().stream().sorted().toList());
+        }
+        if (window.isNegative() || window.isZero() || window.compareTo(anomalyProperties.getMaxWindow()) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "window must be positive and not longer than " + anomalyProperties.getMaxWindow());
+        }
+
+        long windowMillis = window.toMillis();
+        long end = Math.floorDiv((to != null ? to : clock.instant()).toEpochMilli(), QuerySupport.TIME_ROUNDING_MILLIS)
+                * QuerySupport.TIME_ROUNDING_MILLIS;
+        long start = end - windowMillis;
+        String key = index + ':' + field + ':' + start + ':' + end;
+
+        AnomalyResponse cached = cached(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.toBuilder().cached(true).build());
+        }
+
+        SearchRequest request = SearchRequest.of(s -> s
+                .index(index)
+                .query(q -> q.bool(b -> b.filter(errors).filter(timestampRange(start, end))))
+                .size(0)
+                .timeout(searchProperties.resolveTimeout(timeout).toMillis() + "ms")
+                .allowPartialSearchResults(true)
+                .aggregations(ANOMALIES, a -> a.significantTerms(st -> st
+                        .field(aggregationField)
+                        .size(anomalyProperties.getSize())
+                        .minDocCount(anomalyProperties.getMinDocCount())
+                        .backgroundFilter(timestampRange(start - windowMillis, start)))));
+
+        CompletableFuture<SearchResponse<Void>> call = elasticsearchAsyncClient.search(request, Void.class);
+        return SearchExecutor.cancellable(call, call.thenApply(response -> {
+            AnomalyResponse result = toAnomalies(response, field, start, end);
+            if (!result.isPartial()) {
+                cache(key, result);
+            }
+            return result;
+        }));
+    }
+
+    private AnomalyResponse toAnomalies(SearchResponse<Void> response, String field, long start, long end) {
+        SignificantStringTermsAggregate aggregate = response.aggregations().get(ANOMALIES).sigsterms();
+        long errors = aggregate.docCount() != null ? aggregate.docCount() : 0;
+        long baseline = aggregate.bgCount() != null ? aggregate.bgCount() : 0;
+
+        List<Anomaly> anomalies = aggregate.buckets().array().stream()
+                .map(bucket -> toAnomaly(bucket, errors, baseline))
+                .toList();
+
+        return AnomalyResponse.builder()
+                .field(field)
+                .windowFrom(Instant.ofEpochMilli(start))
+                .windowTo(Instant.ofEpochMilli(end))
+                .errors(errors)
+                .baseline(baseline)
+                .anomalies(anomalies)
+                .partial(SearchExecutor.isPartial(response))
+                .shardFailures(SearchExecutor.shardFailures(response))
+                .build();
+    }
+
+    private Anomaly toAnomaly(SignificantStringTermsBucket bucket, long errors, long baseline) {
+        return Anomaly.builder()
+                .value(bucket.key())
+                .score(bucket.score())
+                .errorCount(bucket.docCount())
+                .errorShare(errors == 0 ? 0 : (double) bucket.docCount() / errors)
+                .baselineCount(bucket.bgCount())
+                .baselineShare(baseline == 0 ? 0 : (double) bucket.bgCount() / baseline)
+                .build();
+    }
+
+    /**
+     * Полуоткрытый интервал [from, to), чтобы соседние окна не делили документы на границе
+     */
+    private static Query timestampRange(long from, long to) {
+        return Query.of(q -> q.range(r -> r.date(d -> d
+                .field("timestamp")
+                .format("epoch_millis")
+                .gte(String.valueOf(from))
+                .lt(String.valueOf(to)))));
+    }
+
+    private synchronized AnomalyResponse cached(String key) {
+        Entry entry = cache.get(key);
+        if (entry == null || entry.expiresAt <= clock.millis()) {
+            return null;
+        }
+        return entry.response;
+    }
+
+    private synchronized void cache(String key, AnomalyResponse response) {
+        cache.put(key, new Entry(response, clock.millis() + anomalyProperties.getCacheTtl().toMillis()));
+    }
+
+    private static final class Entry {
+
+        private final AnomalyResponse response;
+        private final long expiresAt;
+
+        private Entry(AnomalyResponse response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,150 @@
+package io.github.auditapi.service;
+
+import io.github.auditapi.config.StorageProperties;
+import io.github.auditapi.model.compact.CompactHttpDocument;
+import io.github.auditapi.model.compact.CompactMethodDocument;
+import io.github.auditapi.model.compact.RawText;
+import io.github.auditapi.model.elastic.HttpBodyDocument;
+import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.model.elastic.MethodBodyDocument;
+import io.github.auditapi.model.elastic.MethodDocument;
+import io.github.auditapi.repository.HttpBodyDocumentRepository;
+import io.github.auditapi.repository.HttpDocumentRepository;
+import io.github.auditapi.repository.MethodBodyDocumentRepository;
+import io.github.auditapi.repository.MethodDocumentRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Сервис для работы с телами документов.
+ * В режиме раздельного хранения (audit.storage.split-bodies) тела лежат в отдельных
+ * индексах со сжатием best_compression и подтягиваются к документам только по запросу
+ */
+@Service
+@RequiredArgsConstructor
+public class BodyStorageService {
+
+    private final StorageProperties storageProperties;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final HttpBodyDocumentRepository httpBodyRepository;
+    private final MethodBodyDocumentRepository methodBodyRepository;
+    private final HttpDocumentRepository httpRepository;
+    private final MethodDocumentRepository methodRepository;
+
+    @PostConstruct
+    void createBodyIndices() {
+        if (!storageProperties.isSplitBodies()) {
+            return;
+        }
+        createIfMissing(elasticsearchOperations.indexOps(HttpBodyDocument.class));
+        createIfMissing(elasticsearchOperations.indexOps(MethodBodyDocument.class));
+    }
+
+    /**
+     * Подставляет тела в документы либо очищает их, если тела не запрошены
+     */
+    public void applyHttpBodies(List<HttpDocument> documents, boolean includeBodies) {
+        applyBodies(documents, includeBodies, httpBodyRepository, HttpDocument::getId, HttpBodyDocument::getId, (document, body) -> {
+            document.setRequestBody(body == null ? null : body.getRequestBody());
+            document.setResponseBody(body == null ? null : body.getResponseBody());
+        });
+    }
+
+    public void applyCompactHttpBodies(List<CompactHttpDocument> documents, boolean includeBodies) {
+        applyBodies(documents, includeBodies, httpBodyRepository, CompactHttpDocument::getId, HttpBodyDocument::getId, (document, body) -> {
+            document.setRequestBody(body == null ? null : RawText.of(body.getRequestBody()));
+            document.setResponseBody(body == null ? null : RawText.of(body.getResponseBody()));
+        });
+    }
+
+    /**
+     * Подставляет аргументы и результаты в документы либо очищает их, если они не запрошены
+     */
+    public void applyMethodBodies(List<MethodDocument> documents, boolean includeBodies) {
+        applyBodies(documents, includeBodies, methodBodyRepository, MethodDocument::getId, MethodBodyDocument::getId, (document, body) -> {
+            document.setArgs(body == null ? null : body.getArgs());
+            document.setResult(body == null ? null : body.getResult());
+        });
+    }
+
+    public void applyCompactMethodBodies(List<CompactMethodDocument> documents, boolean includeBodies) {
+        applyBodies(documents, includeBodies, methodBodyRepository, CompactMethodDocument::getId, MethodBodyDocument::getId, (document, body) -> {
+            document.setArgs(body == null ? null : RawText.of(body.getArgs()));
+            document.setResult(body == null ? null : RawText.of(body.getResult()));
+        });
+    }
+
+    /**
+     * Тела нужно подгружать отдельным запросом после поиска
+     */
+    public boolean joinsBodies(boolean includeBodies) {
+        return includeBodies && storageProperties.isSplitBodies();
+    }
+
+    public Optional<HttpBodyDocument> findHttpBody(String id) {
+        if (storageProperties.isSplitBodies()) {
+            return httpBodyRepository.findById(id);
+        }
+        return httpRepository.findById(id)
+                .map(document -> HttpBodyDocument.builder()
+                        .id(document.getId())
+                        .requestBody(document.getRequestBody())
+                        .responseBody(document.getResponseBody())
+                        .build());
+    }
+
+    public Optional<MethodBodyDocument> findMethodBody(String id) {
+        if (storageProperties.isSplitBodies()) {
+            return methodBodyRepository.findById(id);
+        }
+        return methodRepository.findById(id)
+                .map(document -> MethodBodyDocument.builder()
+                        .id(document.getId())
+                        .args(document.getArgs())
+                        .result(document.getResult())
+                        .build());
+    }
+
+    /**
+     * @param setter подставляет тело; с null очищает тела документа
+     */
+    private <D, B> void applyBodies(List<D> documents, boolean includeBodies, CrudRepository<B, String> repository,
+                                    Function<D, String> documentId, Function<B, String> bodyId, BiConsumer<D, B> setter) {
+        if (!includeBodies) {
+            documents.forEach(document -> setter.accept(document, null));
+            return;
+        }
+        if (!storageProperties.isSplitBodies() || documents.isEmpty()) {
+            return;
+        }
+
+        Map<String, B> bodies = new HashMap<>();
+        repository.findAllById(documents.stream().map(documentId).toList())
+                .forEach(body -> bodies.put(bodyId.apply(body), body));
+
+        for (D document : documents) {
+            B body = bodies.get(documentId.apply(document));
+            if (body != null) {
+                setter.accept(document, body);
+            }
+        }
+    }
+
+    private void createIfMissing(IndexOperations indexOperations) {
+        if (!indexOperations.exists()) {
+            indexOperations.createWithMapping();
+        }
+    }
+
+}
@@ -0,0 +1,17 @@
+package io.github.auditapi.service;
+
+/**
+ * Преобразование документа при миграции индекса.
+ * Реализации регистрируются как бины и выбираются по имени
+ *
+ * @param <T> {@link io.github.auditapi.model.elastic.HttpDocument} или {@link io.github.auditapi.model.elastic.MethodDocument}
+ */
+public interface DocumentTransformer<T> {
+
+    String getName();
+
+    Class<T> getDocumentClass();
+
+    T transform(T document);
+
+}
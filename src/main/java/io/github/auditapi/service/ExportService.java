@@ -0,0 +1,338 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.auditapi.config.ExportProperties;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.export.ExportFormat;
+import io.github.auditapi.model.export.ExportJob;
+import io.github.auditapi.model.export.ExportRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сервис асинхронной выгрузки документов в сжатые файлы в локальном каталоге.
+ * Число одновременных выгрузок и длина очереди ограничены. Завершенные задачи вместе
+ * с файлами удаляются через audit.export.result-ttl после завершения
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final Map<AuditDocumentType, Set<String>> FILTER_FIELDS = Map.of(
+            AuditDocumentType.HTTP, Set.of("method", "statusCode", "direction"),
+            AuditDocumentType.METHOD, Set.of("level", "eventType", "correlationId")
+    );
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final PointInTimeScanner pointInTimeScanner;
+    private final ExportProperties exportProperties;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, ExportTask> tasks = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(
+                exportProperties.getMaxConcurrentJobs(), exportProperties.getMaxConcurrentJobs(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(exportProperties.getQueueCapacity()));
+    }
+
+    public ExportJob submit(ExportRequest request) {
+        if (request.getDocumentType() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "documentType is required");
+        }
+        Map<String, String> filters = request.getFilters() != null ? request.getFilters() : Map.of();
+        Set<String> allowedFields = FILTER_FIELDS.get(request.getDocumentType());
+        for (String field : filters.keySet()) {
+            if (!allowedFields.contains(field)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported filter " + field + ", allowed: " + allowedFields);
+            }
+        }
+
+        ExportFormat format = request.getFormat() != null ? request.getFormat() : ExportFormat.NDJSON_GZIP;
+        String id = UUID.randomUUID().toString();
+        ExportTask task = new ExportTask(ExportJob.builder()
+                .id(id)
+                .documentType(request.getDocumentType())
+                .format(format)
+                .state("QUEUED")
+                .fileName(id + format.getExtension())
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        tasks.put(id, task);
+        try {
+            task.future = executor.submit(() -> run(task, request, filters));
+        } catch (RejectedExecutionException e) {
+            tasks.remove(id);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many export jobs, try again later");
+        }
+        return task.snapshot();
+    }
+
+    public Optional<ExportJob> find(String id) {
+        return Optional.ofNullable(tasks.get(id)).map(ExportTask::snapshot);
+    }
+
+    public List<ExportJob> findAll() {
+        return tasks.values().stream()
+                .map(ExportTask::snapshot)
+                .sorted(Comparator.comparing(ExportJob::getCreatedAt).reversed())
+                .toList();
+    }
+
+    public boolean cancel(String id) {
+        ExportTask task = tasks.get(id);
+        if (task == null) {
+            return false;
+        }
+        Future<?> future = task.future;
+        if (task.cancel() && future != null) {
+            future.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * Путь к готовому файлу выгрузки
+     */
+    public Path getFile(String id) {
+        return getFile(find(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Export " + id + " not found")));
+    }
+
+    /**
+     * Путь к файлу по уже прочитанному состоянию выгрузки
+     */
+    public Path getFile(ExportJob job) {
+        if (!"DONE".equals(job.getState())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Export " + job.getId() + " is " + job.getState());
+        }
+        return exportProperties.getDirectory().resolve(job.getFileName());
+    }
+
+    /**
+     * Удаляет задачи, завершенные раньше audit.export.result-ttl, и их файлы
+     */
+    @Scheduled(fixedDelayString = "${audit.export.cleanup-interval:PT10M}")
+    public void evictExpired() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(exportProperties.getResultTtl());
+        tasks.values().removeIf(task -> {
+            LocalDateTime finishedAt = task.snapshot().getFinishedAt();
+            if (finishedAt == null || finishedAt.isAfter(expiredBefore)) {
+                return false;
+            }
+            deleteQuietly(exportProperties.getDirectory().resolve(task.job.getFileName()));
+            return true;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        tasks.values().forEach(task -> task.cancelled.set(true));
+        executor.shutdownNow();
+    }
+
+    private void run(ExportTask task, ExportRequest request, Map<String, String> filters) {
+        if (!task.start()) {
+            return;
+        }
+
+        Path target = exportProperties.getDirectory().resolve(task.job.getFileName());
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        String index = request.getDocumentType().getIndexName();
+        Query query = buildQuery(request, filters);
+
+        try {
+            Files.createDirectories(exportProperties.getDirectory());
+            long total = elasticsearchClient.count(c -> c.index(index).query(query)).count();
+            task.update(job -> job.setTotal(total));
+
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(part)), 64 * 1024)) {
+                pointInTimeScanner.scan(index, query, exportProperties.getSlices(), exportProperties.getBatchSize(),
+                        exportProperties.getPointInTimeKeepAlive(), ObjectNode.class,
+                        (slice, hits) -> write(out, hits, task),
+                        task.cancelled::get);
+            }
+
+            if (task.cancelled.get()) {
+                Files.deleteIfExists(part);
+                task.finish("CANCELLED", null);
+                return;
+            }
+
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long fileSize = Files.size(target);
+            task.update(job -> job.setFileSize(fileSize));
+            task.finish("DONE", null);
+            log.info("Export {} finished: {} documents, {} bytes", task.job.getId(), task.exported.get(), fileSize);
+        } catch (IOException | RuntimeException e) {
+            log.error("Export {} failed", task.job.getId(), e);
+            deleteQuietly(part);
+            task.finish("FAILED", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deleteQuietly(part);
+            task.finish("CANCELLED", null);
+        }
+    }
+
+    private void write(OutputStream out, List<Hit<ObjectNode>> hits, ExportTask task) throws IOException {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(hits.size() * 512);
+        ExportFormat format = task.job.getFormat();
+        try (JsonGenerator generator = format.getEncoding().getFactory().createGenerator(batch)) {
+            generator.setCodec(objectMapper);
+            if (format == ExportFormat.NDJSON_GZIP) {
+                generator.setRootValueSeparator(null);
+            }
+            for (Hit<ObjectNode> hit : hits) {
+                ObjectNode source = hit.source();
+                if (source == null) {
+                    continue;
+                }
+                source.put("id", hit.id());
+                source.remove("_class");
+                generator.writeObject(source);
+                if (format == ExportFormat.NDJSON_GZIP) {
+                    generator.writeRaw('\n');
+                }
+            }
+        }
+
+        synchronized (out) {
+            batch.writeTo(out);
+        }
+        task.exported.addAndGet(hits.size());
+    }
+
+    private Query buildQuery(ExportRequest request, Map<String, String> filters) {
+        BoolQuery.Builder boolQuery = new BoolQuery.Builder();
+
+        if (request.getFrom() != null || request.getTo() != null) {
+            boolQuery.filter(f -> f.range(RangeQuery.of(r -> r
+                    .date(d -> {
+                        d.field("timestamp");
+                        if (request.getFrom() != null) {
+                            d.gte(request.getFrom().toString());
+                        }
+                        if (request.getTo() != null) {
+                            d.lt(request.getTo().toString());
+                        }
+                        return d;
+                    })
+            )));
+        }
+        filters.forEach((field, value) -> boolQuery.filter(f -> f.term(t -> t.field(field).value(value))));
+
+        return Query.of(q -> q.bool(boolQuery.build()));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", path, e);
+        }
+    }
+
+    /**
+     * Состояние задачи меняется только под ее монитором: переходы QUEUED -> RUNNING в run
+     * и QUEUED -> CANCELLED в cancel не пересекаются, а из завершенного состояния выхода нет
+     */
+    private static final class ExportTask {
+
+        private static final Set<String> TERMINAL_STATES = Set.of("DONE", "FAILED", "CANCELLED");
+
+        private final ExportJob job;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicLong exported = new AtomicLong();
+        private volatile Future<?> future;
+
+        private ExportTask(ExportJob job) {
+            this.job = job;
+        }
+
+        private synchronized void update(Consumer<ExportJob> change) {
+            change.accept(job);
+        }
+
+        /**
+         * @return false, если задачу уже отменили и запускать ее не нужно
+         */
+        private synchronized boolean start() {
+            if (cancelled.get() || !"QUEUED".equals(job.getState())) {
+                return false;
+            }
+            job.setState("RUNNING");
+            return true;
+        }
+
+        /**
+         * @return true, если задача еще стояла в очереди и сразу завершена как CANCELLED;
+         * запущенная задача остановится сама, проверив флаг между пачками
+         */
+        private synchronized boolean cancel() {
+            cancelled.set(true);
+            if (!"QUEUED".equals(job.getState())) {
+                return false;
+            }
+            finish("CANCELLED", null);
+            return true;
+        }
+
+        private synchronized void finish(String state, String error) {
+            if (TERMINAL_STATES.contains(job.getState())) {
+                return;
+            }
+            job.setState(state);
+            job.setError(error);
+            job.setFinishedAt(LocalDateTime.now());
+        }
+
+        private synchronized ExportJob snapshot() {
+            return job.toBuilder().exported(exported.get()).build();
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+package io.github.auditapi.service;
+
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.IndexState;
+import io.github.auditapi.model.elastic.SearchOptions;
+import io.github.auditapi.model.elastic.SearchResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * LRU-кэш первых страниц самых частых запросов: без фильтров или с одним фильтром
+ * по статусу, уровню или типу события, отсортированных по timestamp desc.
+ * Запись привязана к версии индекса из {@link IndexStateService} (число документов,
+ * максимальный timestamp и сумма max_seq_no): как только refresh делает видимыми новые или удаленные документы,
+ * версия меняется и страница загружается заново. Одновременные промахи по одной странице
+ * ждут один запрос к Elasticsearch. Частичные ответы и ошибки не кэшируются
+ */
+@Component
+@RequiredArgsConstructor
+public class FirstPageCache {
+
+    private final IndexStateService indexStateService;
+    private final SearchProperties searchProperties;
+
+    private Map<String, Entry> entries;
+
+    @PostConstruct
+    public void init() {
+        int capacity = searchProperties.getFirstPageCacheSize();
+        entries = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Страница попадает в кэш: одна из первых audit.search.first-page-cache-pages,
+     * не больше audit.search.first-page-cache-max-size документов, без профиля и подсветки
+     */
+    public boolean accepts(int page, int size, SearchOptions options) {
+        return searchProperties.getFirstPageCacheSize() > 0
+                && page >= 0 && page < searchProperties.getFirstPageCachePages()
+                && size > 0 && size <= searchProperties.getFirstPageCacheMaxSize()
+                && !options.isProfile() && !options.isHighlight();
+    }
+
+    /**
+     * @param filter значения фильтров, однозначно задающие запрос
+     * @param loader выполнение запроса при промахе
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<SearchResponse<T>> get(AuditDocumentType type, String filter, int page, int size, SearchOptions options,
+                                                        Supplier<CompletableFuture<SearchResponse<T>>> loader) {
+        Optional<IndexState> state = indexStateService.current(type);
+        if (state.isEmpty()) {
+            return loader.get();
+        }
+        String version = state.get().getVersion();
+        String key = type.name() + ':' + filter + ':' + page + ':' + size + ':' + options.returnsBodies();
+
+        Entry entry;
+        boolean load = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null || !entry.version.equals(version)) {
+                entry = new Entry(version, new CompletableFuture<>());
+                entries.put(key, entry);
+                load = true;
+            }
+        }
+
+        CompletableFuture<SearchResponse<T>> shared = (CompletableFuture<SearchResponse<T>>) (CompletableFuture<?>) entry.page;
+        if (load) {
+            Entry loaded = entry;
+            try {
+                loader.get().whenComplete((response, error) -> {
+                    if (error != null || response.isPartial()) {
+                        evict(key, loaded);
+                    }
+                    if (error != null) {
+                        shared.completeExceptionally(error);
+                    } else {
+                        shared.complete(response);
+                    }
+                });
+            } catch (RuntimeException e) {
+                evict(key, loaded);
+                shared.completeExceptionally(e);
+                throw e;
+            }
+        }
+        // отмена запроса одним клиентом не должна отменять общую страницу
+        return shared.copy();
+    }
+
+    private synchronized void evict(String key, Entry entry) {
+        entries.remove(key, entry);
+    }
+
+    private static final class Entry {
+
+        private final String version;
+        private final CompletableFuture<?> page;
+
+        private Entry(String version, CompletableFuture<?> page) {
+            this.version = version;
+            this.page = page;
+        }
+
+    }
+
+}
@@ -0,0 +1,166 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import io.github.auditapi.model.elastic.TimeRange;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Построение поисковых запросов по индексу HTTP-запросов
+ */
+@UtilityClass
+public class HttpQueries {
+
+    public static final String INDEX = "audit-requests";
+    public static final List<String> BODY_FIELDS = List.of("requestBody", "responseBody");
+
+    /**
+     * Поля параметра q для индекса HTTP-запросов
+     */
+    public static final QueryLanguage.Dialect QUERY_DIALECT = new QueryLanguage.Dialect("http", List.of("uri^2", "requestBody", "responseBody"))
+            .field("uri", "uri.keyword", QueryLanguage.FieldKind.KEYWORD)
+            .field("method", "method", QueryLanguage.FieldKind.KEYWORD)
+            .field("statusCode", "statusCode", QueryLanguage.FieldKind.KEYWORD)
+            .field("direction", "direction", QueryLanguage.FieldKind.KEYWORD)
+            .field("timestamp", "timestamp", QueryLanguage.FieldKind.DATE)
+            .field("requestBody", "requestBody", QueryLanguage.FieldKind.TEXT)
+            .field("responseBody", "responseBody", QueryLanguage.FieldKind.TEXT);
+
+    public SearchPlan fullText(String query, String statusCode, TimeRange range) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        List<String> branch = new ArrayList<>();
+
+        if (hasText(query)) {
+            bool.must(m -> m.multiMatch(mm -> mm
+                    .query(query)
+                    .fields("uri^2", "requestBody", "responseBody")
+                    .type(TextQueryType.BestFields)
+                    .analyzer("audit_analyzer")));
+            branch.add("query");
+        }
+        if (hasText(statusCode)) {
+            bool.filter(f -> f.term(t -> t.field("statusCode").value(statusCode)));
+            branch.add("statusCode");
+        }
+        QuerySupport.timeRange(bool, branch, range);
+
+        return plan("fullText", branch, bool);
+    }
+
+    /**
+     * Пустые и состоящие из пробелов фильтры не ограничивают выборку - так же, как в шаблонном варианте,
+     * где mustache считает пустую строку ложью
+     */
+    public SearchPlan byFields(String uri, String method, String statusCode, QueryLanguage.CompiledQuery q, TimeRange range) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        List<String> branch = new ArrayList<>();
+
+        if (hasText(uri)) {
+            if (QuerySupport.isWildcard(uri)) {
+                bool.filter(f -> f.wildcard(w -> w.field("uri.keyword").value(uri)));
+                branch.add("uri:wildcard");
+            } else {
+                bool.filter(QuerySupport.containing("uri", uri));
+                branch.add("uri:containing");
+            }
+        }
+        if (hasText(method)) {
+            bool.filter(f -> f.term(t -> t.field("method").value(method)));
+            branch.add("method");
+        }
+        if (hasText(statusCode)) {
+            bool.filter(f -> f.term(t -> t.field("statusCode").value(statusCode)));
+            branch.add("statusCode");
+        }
+        if (q != null) {
+            if (q.isScoring()) {
+                bool.must(q.getQuery());
+            } else {
+                bool.filter(q.getQuery());
+            }
+            branch.add("q");
+        }
+        QuerySupport.timeRange(bool, branch, range);
+
+        return plan("byFields", branch, bool);
+    }
+
+    /**
+     * fullText через хранимый шаблон {@link SearchTemplateRegistry#HTTP_SEARCH}
+     */
+    public SearchPlan fullTextTemplate(String templateId, String query, String statusCode, TimeRange range) {
+        Map<String, Object> params = new HashMap<>();
+        List<String> branch = new ArrayList<>();
+
+        if (hasText(query)) {
+            params.put("text", query);
+            branch.add("query");
+        }
+        if (hasText(statusCode)) {
+            params.put("statusCode", statusCode);
+            branch.add("statusCode");
+        }
+        QuerySupport.timeRange(params, branch, range);
+
+        return templatePlan("fullText", templateId, branch, params);
+    }
+
+    /**
+     * byFields без параметра q через хранимый шаблон {@link SearchTemplateRegistry#HTTP_SEARCH}
+     */
+    public SearchPlan byFieldsTemplate(String templateId, String uri, String method, String statusCode, TimeRange range) {
+        Map<String, Object> params = new HashMap<>();
+        List<String> branch = new ArrayList<>();
+
+        if (hasText(uri)) {
+            if (QuerySupport.isWildcard(uri)) {
+                params.put("uriWildcard", uri);
+                branch.add("uri:wildcard");
+            } else {
+                params.put("uriContaining", QuerySupport.containingPattern(uri));
+                branch.add("uri:containing");
+            }
+        }
+        if (hasText(method)) {
+            params.put("method", method);
+            branch.add("method");
+        }
+        if (hasText(statusCode)) {
+            params.put("statusCode", statusCode);
+            branch.add("statusCode");
+        }
+        QuerySupport.timeRange(params, branch, range);
+
+        return templatePlan("byFields", templateId, branch, params);
+    }
+
+    private SearchPlan plan(String kind, List<String> branch, BoolQuery.Builder bool) {
+        Query query = branch.isEmpty() ? Query.of(q -> q.matchAll(m -> m)) : Query.of(q -> q.bool(bool.build()));
+        return SearchPlan.builder()
+                .index(INDEX)
+                .name(kind + branch)
+                .query(query)
+                .bodyFields(BODY_FIELDS)
+                .build();
+    }
+
+    private SearchPlan templatePlan(String kind, String templateId, List<String> branch, Map<String, Object> params) {
+        return SearchPlan.builder()
+                .index(INDEX)
+                .name("template:" + kind + branch)
+                .template(SearchTemplate.builder().id(templateId).params(params).build())
+                .bodyFields(BODY_FIELDS)
+                .build();
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+}
@@ -1,25 +1,37 @@
 package io.github.auditapi.service;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
 import co.elastic.clients.elasticsearch._types.aggregations.StringTermsAggregate;
 import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
 import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
-import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.model.compact.CompactHttpDocument;
+import io.github.auditapi.model.elastic.AnomalyResponse;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.CountResponse;
+import io.github.auditapi.model.elastic.ExistsResponse;
+import io.github.auditapi.model.elastic.HttpBodyDocument;
+import io.github.auditapi.model.elastic.PivotStatsResponse;
+import io.github.auditapi.model.elastic.SearchOptions;
+import io.github.auditapi.model.elastic.StatsAccuracy;
 import io.github.auditapi.model.elastic.StatsResponse;
-import io.github.auditapi.repository.HttpDocumentRepository;
+import io.github.auditapi.model.elastic.TimeRange;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Сервис для работы с Http документами
@@ -28,72 +40,102 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class HttpSearchService {
 
-    private final HttpDocumentRepository repository;
-    private final ElasticsearchClient elasticsearchClient;
+    /**
+     * Измерения двумерной статистики: имя параметра - поле агрегации
+     */
+    private static final Map<String, String> PIVOT_FIELDS = Map.of("statusCode", "statusCode", "method", "method", "uri", "uri.keyword", "direction", "direction");
+
+    /**
+     * Поля, по которым ищутся отклонения среди ошибок
+     */
+    private static final Map<String, String> ANOMALY_FIELDS = Map.of("uri", "uri.keyword", "method", "method", "statusCode", "statusCode", "direction", "direction");
+
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final SearchProperties searchProperties;
+    private final BodyStorageService bodyStorageService;
+    private final SearchExecutor searchExecutor;
+    private final QueryLanguage queryLanguage;
+    private final StatsSampler statsSampler;
+    private final SearchTemplateRegistry searchTemplateRegistry;
+    private final PivotStats pivotStats;
+    private final AnomalyStats anomalyStats;
+    private final FirstPageCache firstPageCache;
+
+    public CompletableFuture<io.github.auditapi.model.elastic.SearchResponse<CompactHttpDocument>> searchWithFullText(
+            String query, String statusCode, TimeRange range, int page, int size, SearchOptions options) {
+
+        return searchExecutor.search(() -> HttpQueries.fullText(query, statusCode, range), page, size, options,
+                CompactHttpDocument.class, CompactHttpDocument::setId, documents -> bodyStorageService.applyCompactHttpBodies(documents, options.returnsBodies()));
+    }
 
-    public io.github.auditapi.model.elastic.SearchResponse<HttpDocument> searchWithFullText(
-            String query, String statusCode, int page, int size) {
+    public CompletableFuture<io.github.auditapi.model.elastic.SearchResponse<CompactHttpDocument>> searchByFields(
+            String uri, String method, String statusCode, String q, TimeRange range, int page, int size, SearchOptions options) {
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by("timestamp").descending());
-        Page<HttpDocument> results;
+        QueryLanguage.CompiledQuery compiled = queryLanguage.compile(HttpQueries.QUERY_DIALECT, q);
+        return searchExecutor.search(() -> HttpQueries.byFields(uri, method, statusCode, compiled, range), page, size, options,
+                CompactHttpDocument.class, CompactHttpDocument::setId, documents -> bodyStorageService.applyCompactHttpBodies(documents, options.returnsBodies()));
+    }
 
-        if (query != null && !query.isBlank() && statusCode != null && !statusCode.isBlank()) {
-            results = repository.findByFullTextAndStatusCode(query, statusCode, pageable);
-        } else if (query != null && !query.isBlank()) {
-            results = repository.findByFullText(query, pageable);
-        } else if (statusCode != null && !statusCode.isBlank()) {
-            results = repository.findByStatusCode(statusCode, pageable);
-        } else {
-            results = repository.findAll(pageable);
+    /**
+     * Поиск с потоковой записью ответа; при профилировании или подгрузке тел из отдельных индексов
+     * ответ собирается целиком
+     */
+    public StreamingResponseBody streamWithFullText(String query, String statusCode, TimeRange range, int page, int size, SearchOptions options) {
+        // без текста запрос совпадает с поиском по статусу: та же страница из кэша
+        if (!QuerySupport.hasText(query) && isUnbounded(range) && firstPageCache.accepts(page, size, options)) {
+            return cachedFirstPage(statusCode, range, page, size, options);
         }
-
-        return new io.github.auditapi.model.elastic.SearchResponse<>(
-                results.getContent(),
-                results.getTotalElements()
-        );
+        if (!canStream(options)) {
+            return searchExecutor.buffered(searchWithFullText(query, statusCode, range, page, size, options), options);
+        }
+        Optional<String> templateId = searchTemplateRegistry.id(SearchTemplateRegistry.HTTP_SEARCH);
+        if (templateId.isPresent()) {
+            return out -> searchExecutor.stream(() -> HttpQueries.fullTextTemplate(templateId.get(), query, statusCode, range), page, size, options,
+                    CompactHttpDocument.class, CompactHttpDocument::setId, out);
+        }
+        return out -> searchExecutor.stream(() -> HttpQueries.fullText(query, statusCode, range), page, size, options,
+                CompactHttpDocument.class, CompactHttpDocument::setId, out);
     }
 
-    public io.github.auditapi.model.elastic.SearchResponse<HttpDocument> searchByFields(
-            String uri, String method, String statusCode, int page, int size) {
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by("timestamp").descending());
-        Page<HttpDocument> results;
-
-        boolean isWildcardUri = uri != null && (uri.contains("*") || uri.contains("?"));
-
-        if (uri != null && method != null && statusCode != null) {
-            results = repository.findByUriContainingAndMethodAndStatusCode(uri, method, statusCode, pageable);
-        } else if (uri != null && method != null) {
-            if (isWildcardUri) {
-                results = repository.findByUriWildcardAndMethod(uri, method, pageable);
-            } else {
-                results = repository.findByUriContainingAndMethod(uri, method, pageable);
-            }
-        } else if (uri != null && statusCode != null) {
-            results = repository.findByUriContainingAndStatusCode(uri, statusCode, pageable);
-        } else if (method != null && statusCode != null) {
-            results = repository.findByMethodAndStatusCode(method, statusCode, pageable);
-        } else if (uri != null) {
-            if (isWildcardUri) {
-                results = repository.findByUriWildcard(uri, pageable);
-            } else {
-                results = repository.findByUriContaining(uri, pageable);
-            }
-        } else if (method != null) {
-            results = repository.findByMethod(method, pageable);
-        } else if (statusCode != null) {
-            results = repository.findByStatusCode(statusCode, pageable);
-        } else {
-            results = repository.findAll(pageable);
+    public StreamingResponseBody streamByFields(String uri, String method, String statusCode, String q, TimeRange range,
+                                                int page, int size, SearchOptions options) {
+        // первые страницы без фильтров или только по статусу отдаются из кэша до следующего refresh
+        boolean hotShape = !QuerySupport.hasText(uri) && !QuerySupport.hasText(method) && !QuerySupport.hasText(q) && isUnbounded(range);
+        if (hotShape && firstPageCache.accepts(page, size, options)) {
+            return cachedFirstPage(statusCode, range, page, size, options);
+        }
+        if (!canStream(options)) {
+            return searchExecutor.buffered(searchByFields(uri, method, statusCode, q, range, page, size, options), options);
+        }
+        // компилируется до начала потоковой записи, чтобы синтаксическая ошибка вернулась как 400
+        QueryLanguage.CompiledQuery compiled = queryLanguage.compile(HttpQueries.QUERY_DIALECT, q);
+        Optional<String> templateId = searchTemplateRegistry.id(SearchTemplateRegistry.HTTP_SEARCH);
+        if (compiled == null && templateId.isPresent()) {
+            return out -> searchExecutor.stream(() -> HttpQueries.byFieldsTemplate(templateId.get(), uri, method, statusCode, range), page, size, options,
+                    CompactHttpDocument.class, CompactHttpDocument::setId, out);
         }
+        return out -> searchExecutor.stream(() -> HttpQueries.byFields(uri, method, statusCode, compiled, range), page, size, options,
+                CompactHttpDocument.class, CompactHttpDocument::setId, out);
+    }
 
-        return new io.github.auditapi.model.elastic.SearchResponse<>(
-                results.getContent(),
-                results.getTotalElements()
-        );
+    /**
+     * Количество документов с теми же фильтрами, что и у searchByFields
+     */
+    public CompletableFuture<CountResponse> count(String uri, String method, String statusCode, String q, TimeRange range, Duration timeout) {
+        QueryLanguage.CompiledQuery compiled = queryLanguage.compile(HttpQueries.QUERY_DIALECT, q);
+        return searchExecutor.count(HttpQueries.byFields(uri, method, statusCode, compiled, range), timeout);
+    }
+
+    public CompletableFuture<ExistsResponse> exists(String uri, String method, String statusCode, String q, TimeRange range, Duration timeout) {
+        QueryLanguage.CompiledQuery compiled = queryLanguage.compile(HttpQueries.QUERY_DIALECT, q);
+        return searchExecutor.exists(HttpQueries.byFields(uri, method, statusCode, compiled, range), timeout);
     }
 
-    public io.github.auditapi.model.elastic.StatsResponse getStats(String groupBy, String direction) throws IOException {
+    public Optional<HttpBodyDocument> findBody(String id) {
+        return bodyStorageService.findHttpBody(id);
+    }
+
+    public CompletableFuture<StatsResponse> getStats(String groupBy, String direction, StatsAccuracy accuracy, Duration timeout) {
 
         BoolQuery.Builder boolQuery = new BoolQuery.Builder();
         String aggregationField;
@@ -119,17 +161,53 @@ public class HttpSearchService {
 
         String aggregationName = aggregationField + "_stats";
 
+        Query query = Query.of(q -> q.bool(boolQuery.build()));
+        Aggregation terms = Aggregation.of(a -> a.terms(t -> t.field(aggregationField).size(100)));
+        if (accuracy == StatsAccuracy.APPROXIMATE) {
+            return statsSampler.sample("audit-requests", query, aggregationName, terms, timeout,
+                    () -> exactStats(query, aggregationName, terms, timeout));
+        }
+        return exactStats(query, aggregationName, terms, timeout);
+    }
+
+    /**
+     * Двумерная статистика rows x columns одним запросом; ошибки строки - ответы 5xx
+     */
+    public CompletableFuture<PivotStatsResponse> getPivotStats(String rows, String columns, String direction, TimeRange range, Duration timeout) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        if (direction != null && !direction.isBlank()) {
+            bool.filter(f -> f.term(t -> t.field("direction").value(direction)));
+        }
+        QuerySupport.timeRange(bool, new ArrayList<>(), range);
+
+        Query query = Query.of(q -> q.bool(bool.build()));
+        Query errors = Query.of(q -> q.prefix(p -> p.field("statusCode").value("5")));
+        return pivotStats.pivot(HttpQueries.INDEX, query, PIVOT_FIELDS, rows, columns, errors, timeout);
+    }
+
+    /**
+     * Значения поля, непропорционально часто встречающиеся среди ответов 5xx окна по сравнению с предыдущим окном
+     */
+    public CompletableFuture<AnomalyResponse> getAnomalies(String field, Duration window, Instant to, Duration timeout) {
+        Query errors = Query.of(q -> q.prefix(p -> p.field("statusCode").value("5")));
+        return anomalyStats.anomalies(HttpQueries.INDEX, ANOMALY_FIELDS, field, errors, window, to, timeout);
+    }
+
+    private CompletableFuture<StatsResponse> exactStats(Query query, String aggregationName, Aggregation terms, Duration timeout) {
         SearchRequest searchRequest = SearchRequest.of(s -> s
                 .index("audit-requests")
-                .query(q -> q.bool(boolQuery.build()))
+                .query(query)
                 .size(0)
-                .aggregations(aggregationName, Aggregation.of(a -> a
-                        .terms(t -> t.field(aggregationField).size(100))
-                ))
+                .timeout(searchProperties.resolveTimeout(timeout).toMillis() + "ms")
+                .allowPartialSearchResults(true)
+                .aggregations(aggregationName, terms)
         );
 
-        SearchResponse<Void> response = elasticsearchClient.search(searchRequest, Void.class);
+        CompletableFuture<SearchResponse<Void>> call = elasticsearchAsyncClient.search(searchRequest, Void.class);
+        return SearchExecutor.cancellable(call, call.thenApply(response -> toStatsResponse(response, aggregationName)));
+    }
 
+    private StatsResponse toStatsResponse(SearchResponse<Void> response, String aggregationName) {
         Map<String, Long> stats = new HashMap<>();
         StringTermsAggregate aggregate = response.aggregations()
                 .get(aggregationName)
@@ -139,7 +217,30 @@ public class HttpSearchService {
             stats.put(bucket.key().stringValue(), bucket.docCount());
         }
 
-        return StatsResponse.builder().stats(stats).build();
+        return StatsResponse.builder()
+                .stats(stats)
+                .partial(SearchExecutor.isPartial(response))
+                .shardFailures(SearchExecutor.shardFailures(response))
+                .build();
+    }
+
+    /**
+     * Первая страница без фильтров или только по статусу - общая запись кэша для /search и /search/fields.
+     * Пустой статус, как и в byFields, фильтром не считается
+     */
+    private StreamingResponseBody cachedFirstPage(String statusCode, TimeRange range, int page, int size, SearchOptions options) {
+        String status = QuerySupport.hasText(statusCode) ? statusCode : null;
+        String filter = "statusCode=" + Objects.toString(status, "");
+        return searchExecutor.buffered(firstPageCache.get(AuditDocumentType.HTTP, filter, page, size, options,
+                () -> searchByFields(null, null, status, null, range, page, size, options)), options);
+    }
+
+    private static boolean isUnbounded(TimeRange range) {
+        return range == null || range.isUnbounded();
+    }
+
+    private boolean canStream(SearchOptions options) {
+        return !options.isProfile() && !bodyStorageService.joinsBodies(options.returnsBodies());
     }
 
 }
@@ -0,0 +1,516 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.ForcemergeRequest;
+import co.elastic.clients.elasticsearch.indices.GetIndicesSettingsRequest;
+import co.elastic.clients.elasticsearch.indices.IndexSettings;
+import co.elastic.clients.elasticsearch.indices.IndexState;
+import co.elastic.clients.elasticsearch.indices.IndicesStatsRequest;
+import co.elastic.clients.elasticsearch.indices.IndicesStatsResponse;
+import co.elastic.clients.elasticsearch.indices.stats.IndexStats;
+import co.elastic.clients.elasticsearch.indices.stats.IndicesStats;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import io.github.auditapi.config.IndexAdminProperties;
+import io.github.auditapi.config.RetentionProperties;
+import io.github.auditapi.model.admin.BulkLoadStatus;
+import io.github.auditapi.model.admin.IndexHealth;
+import io.github.auditapi.model.admin.IndexHealthResponse;
+import io.github.auditapi.model.admin.IndexOperationStatus;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.web.SearchLatencyInterceptor;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Состояние и обслуживание индексов аудита: размеры, сегменты, refresh_interval и доли
+ * попаданий в query и request cache по каждому индексу и суточной партиции.
+ * Слияние сегментов холодных партиций ставится в очередь и выполняется только в окне
+ * низкой нагрузки при нормальной задержке поиска; если окно закончилось посреди слияния,
+ * оставшиеся партиции ждут следующего окна. Прогрев и включение режима массовой загрузки
+ * выполняются сразу, но только в том же окне. Режим массовой загрузки выключается
+ * автоматически через audit.index-admin.bulk-load-max-duration. Состояние режима хранится
+ * в памяти, поэтому после перезапуска первая успешная проверка возвращает индексам, оставшимся
+ * с audit.index-admin.bulk-refresh-interval, значение audit.index-admin.default-refresh-interval
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IndexAdminService {
+
+    private static final String FORCE_MERGE = "FORCE_MERGE";
+    private static final String WARM = "WARM";
+    private static final Map<AuditDocumentType, List<String>> WARM_FIELDS = Map.of(
+            AuditDocumentType.HTTP, List.of("statusCode", "method", "direction", "uri.keyword"),
+            AuditDocumentType.METHOD, List.of("level", "eventType", "method.keyword"));
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final IndexAdminProperties indexAdminProperties;
+    private final RetentionProperties retentionProperties;
+    private final SearchLatencyInterceptor searchLatencyInterceptor;
+
+    private final Clock clock = Clock.systemUTC();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private final AtomicBoolean bulkLoadsRecovered = new AtomicBoolean();
+    private final Map<AuditDocumentType, BulkLoadStatus> bulkLoads = new EnumMap<>(AuditDocumentType.class);
+
+    private volatile IndexOperationStatus forceMerge = idle(FORCE_MERGE);
+    private volatile IndexOperationStatus warm = idle(WARM);
+
+    public IndexHealthResponse getHealth() {
+        List<String> patterns = new ArrayList<>();
+        for (AuditDocumentType type : AuditDocumentType.values()) {
+            patterns.add(pattern(type));
+        }
+        try {
+            IndicesStatsResponse stats = elasticsearchClient.indices().stats(IndicesStatsRequest.of(s -> s
+                    .index(patterns)
+                    .metric("docs", "store", "segments", "query_cache", "request_cache", "refresh")));
+            Map<String, IndexState> settings = elasticsearchClient.indices().getSettings(GetIndicesSettingsRequest.of(g -> g
+                    .index(patterns)
+                    .allowNoIndices(true)
+                    .ignoreUnavailable(true))).result();
+
+            List<IndexHealth> indices = stats.indices().entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .map(entry -> toHealth(entry.getKey(), entry.getValue(), indexSettings(settings.get(entry.getKey()))))
+                    .toList();
+
+            List<BulkLoadStatus> loads;
+            synchronized (bulkLoads) {
+                loads = List.copyOf(bulkLoads.values());
+            }
+            return IndexHealthResponse.builder()
+                    .indices(indices)
+                    .offPeak(indexAdminProperties.isOffPeak(LocalTime.now(clock.withZone(indexAdminProperties.getZone()))))
+                    .searchLatencyMs(searchLatencyInterceptor.getAverageMs())
+                    .blockedReason(blockedReason(true))
+                    .forceMerge(forceMerge)
+                    .warm(warm)
+                    .bulkLoads(loads)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ставит слияние холодных партиций в очередь; запуск - в ближайшем окне низкой нагрузки
+     *
+     * @return false, если слияние уже запланировано или выполняется
+     */
+    public synchronized boolean scheduleForceMerge() {
+        if ("SCHEDULED".equals(forceMerge.getState()) || "RUNNING".equals(forceMerge.getState())) {
+            return false;
+        }
+        forceMerge = idle(FORCE_MERGE).toBuilder()
+                .state("SCHEDULED")
+                .requestedAt(LocalDateTime.now(clock))
+                .message(blockedReason(true))
+                .build();
+        return true;
+    }
+
+    /**
+     * Запускает прогрев в фоне
+     *
+     * @return false, если уже выполняется прогрев или слияние
+     * @throws ResponseStatusException 409, если сейчас не окно низкой нагрузки или поиск перегружен
+     */
+    public boolean warm() {
+        requireAllowed(true);
+        if (!busy.compareAndSet(false, true)) {
+            return false;
+        }
+        warm = idle(WARM).toBuilder()
+                .state("RUNNING")
+                .requestedAt(LocalDateTime.now(clock))
+                .startedAt(LocalDateTime.now(clock))
+                .build();
+        executor.submit(this::runWarm);
+        return true;
+    }
+
+    /**
+     * Включает или выключает режим массовой загрузки: refresh_interval индекса и его партиций
+     * меняется на audit.index-admin.bulk-refresh-interval и возвращается обратно при выключении.
+     * Выключение разрешено в любое время
+     */
+    public BulkLoadStatus setBulkLoad(String index, boolean enabled) {
+        AuditDocumentType type = type(index);
+        synchronized (bulkLoads) {
+            BulkLoadStatus current = bulkLoads.get(type);
+            if (!enabled) {
+                if (current != null) {
+                    restore(type, current);
+                }
+                return disabled(type);
+            }
+            if (current != null) {
+                return current;
+            }
+            requireAllowed(false);
+
+            LocalDateTime now = LocalDateTime.now(clock);
+            BulkLoadStatus status = BulkLoadStatus.builder()
+                    .index(type.getIndexName())
+                    .enabled(true)
+                    .restoreRefreshInterval(currentRefreshInterval(type))
+                    .since(now)
+                    .restoreAt(now.plus(indexAdminProperties.getBulkLoadMaxDuration()))
+                    .build();
+            putRefreshInterval(type, indexAdminProperties.getBulkRefreshInterval());
+            bulkLoads.put(type, status);
+            log.info("Bulk load mode enabled for {}", type.getIndexName());
+            return status;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.index-admin.check-interval:PT1M}")
+    public void check() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        synchronized (bulkLoads) {
+            if (!bulkLoadsRecovered.get()) {
+                recoverBulkLoads();
+            }
+            for (BulkLoadStatus status : List.copyOf(bulkLoads.values())) {
+                if (!status.getRestoreAt().isAfter(now)) {
+                    AuditDocumentType type = type(status.getIndex());
+                    try {
+                        restore(type, status);
+                    } catch (RuntimeException e) {
+                        log.error("Failed to restore refresh interval of {}", status.getIndex(), e);
+                    }
+                }
+            }
+        }
+
+        synchronized (this) {
+            if (!"SCHEDULED".equals(forceMerge.getState())) {
+                return;
+            }
+            String reason = blockedReason(true);
+            if (reason != null || !busy.compareAndSet(false, true)) {
+                forceMerge = forceMerge.toBuilder().message(reason != null ? reason : "warm-up in progress").build();
+                return;
+            }
+            forceMerge = forceMerge.toBuilder().state("RUNNING").startedAt(now).message(null).build();
+        }
+        executor.submit(this::runForceMerge);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Почему операции обслуживания сейчас запускать нельзя; null - можно
+     *
+     * @param maintenance операция нагружает диски кластера и не совмещается с массовой загрузкой
+     */
+    private String blockedReason(boolean maintenance) {
+        LocalTime now = LocalTime.now(clock.withZone(indexAdminProperties.getZone()));
+        if (!indexAdminProperties.isOffPeak(now)) {
+            return "outside off-peak window " + indexAdminProperties.getOffPeakStart() + "-"
+                    + indexAdminProperties.getOffPeakEnd() + " " + indexAdminProperties.getZone();
+        }
+        double latency = searchLatencyInterceptor.getAverageMs();
+        double maxLatency = indexAdminProperties.getMaxSearchLatencyMs();
+        if (maxLatency > 0 && latency > maxLatency) {
+            return String.format(Locale.ROOT, "search latency %.0f ms is above %.0f ms", latency, maxLatency);
+        }
+        if (maintenance) {
+            synchronized (bulkLoads) {
+                if (!bulkLoads.isEmpty()) {
+                    return "bulk load in progress";
+                }
+            }
+        }
+        return null;
+    }
+
+    private void requireAllowed(boolean maintenance) {
+        String reason = blockedReason(maintenance);
+        if (reason != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, reason);
+        }
+    }
+
+    private void runForceMerge() {
+        try {
+            List<String> merged = new ArrayList<>();
+            for (String partition : coldPartitions()) {
+                String reason = blockedReason(true);
+                if (reason != null) {
+                    forceMerge = forceMerge.toBuilder().state("SCHEDULED").message(reason + ", continuing in the next window").build();
+                    return;
+                }
+                String taskId = elasticsearchClient.indices().forcemerge(ForcemergeRequest.of(f -> f
+                        .index(partition)
+                        .maxNumSegments(indexAdminProperties.getMaxSegments())
+                        .waitForCompletion(false))).task();
+                awaitTask(taskId);
+                merged.add(partition);
+                forceMerge = forceMerge.toBuilder().indices(List.copyOf(merged)).build();
+                log.info("Force-merged cold partition {}", partition);
+            }
+            forceMerge = forceMerge.toBuilder().state("DONE").finishedAt(LocalDateTime.now(clock)).build();
+        } catch (IOException | RuntimeException e) {
+            log.error("Force-merge of cold partitions failed", e);
+            forceMerge = forceMerge.toBuilder().state("FAILED").message(e.getMessage()).finishedAt(LocalDateTime.now(clock)).build();
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    /**
+     * Суточные партиции старше audit.index-admin.cold-after, в которых сегментов больше целевого числа
+     */
+    private List<String> coldPartitions() throws IOException {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(retentionProperties.getPartitionDatePattern());
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(indexAdminProperties.getColdAfter());
+        List<String> cold = new ArrayList<>();
+
+        for (AuditDocumentType type : AuditDocumentType.values()) {
+            String prefix = type.getIndexName() + "-";
+            IndicesStatsResponse stats = elasticsearchClient.indices().stats(IndicesStatsRequest.of(s -> s
+                    .index(prefix + "*")
+                    .metric("segments")));
+            stats.indices().forEach((partition, partitionStats) -> {
+                try {
+                    LocalDate day = LocalDate.parse(partition.substring(prefix.length()), formatter);
+                    IndexStats primaries = partitionStats.primaries();
+                    int segments = primaries != null && primaries.segments() != null ? primaries.segments().count() : 0;
+                    if (!day.plusDays(1).atStartOfDay().isAfter(cutoff) && segments > indexAdminProperties.getMaxSegments()) {
+                        cold.add(partition);
+                    }
+                } catch (DateTimeParseException e) {
+                    log.debug("Index {} is not a time partition", partition);
+                }
+            });
+        }
+        cold.sort(null);
+        return cold;
+    }
+
+    /**
+     * Запросы агрегаций по ключевым полям без request cache: читаются doc values и точки
+     * timestamp, и их файлы попадают в файловый кэш узлов
+     */
+    private void runWarm() {
+        try {
+            List<String> warmed = new ArrayList<>();
+            for (AuditDocumentType type : AuditDocumentType.values()) {
+                elasticsearchClient.search(s -> {
+                    s.index(pattern(type))
+                            .size(0)
+                            .requestCache(false)
+                            .allowNoIndices(true)
+                            .ignoreUnavailable(true)
+                            .aggregations("timestamp", a -> a.max(m -> m.field("timestamp")));
+                    for (String field : WARM_FIELDS.get(type)) {
+                        s.aggregations(field, a -> a.terms(t -> t.field(field).size(10)));
+                    }
+                    return s;
+                }, Void.class);
+                warmed.add(pattern(type));
+                warm = warm.toBuilder().indices(List.copyOf(warmed)).build();
+            }
+            warm = warm.toBuilder().state("DONE").finishedAt(LocalDateTime.now(clock)).build();
+        } catch (IOException | RuntimeException e) {
+            log.error("Warming of audit indices failed", e);
+            warm = warm.toBuilder().state("FAILED").message(e.getMessage()).finishedAt(LocalDateTime.now(clock)).build();
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    /**
+     * Ожидание задачи не дольше audit.index-admin.max-task-wait; по истечении слияние считается неудачным
+     * и освобождает очередь, а сама задача в кластере продолжает выполняться
+     */
+    private void awaitTask(String taskId) throws IOException {
+        Instant deadline = clock.instant().plus(indexAdminProperties.getMaxTaskWait());
+        while (true) {
+            if (!clock.instant().isBefore(deadline)) {
+                throw new IllegalStateException("task " + taskId + " did not complete within " + indexAdminProperties.getMaxTaskWait());
+            }
+            sleep(indexAdminProperties.getPollInterval());
+            GetTasksResponse task = elasticsearchClient.tasks().get(g -> g.taskId(taskId));
+            if (task.completed()) {
+                if (task.error() != null) {
+                    throw new IllegalStateException(task.error().reason());
+                }
+                return;
+            }
+        }
+    }
+
+    private String currentRefreshInterval(AuditDocumentType type) {
+        List<String> intervals = refreshIntervals(type);
+        return intervals.isEmpty() ? indexAdminProperties.getDefaultRefreshInterval() : intervals.getFirst();
+    }
+
+    /**
+     * refresh_interval, явно заданные индексу и его партициям
+     */
+    private List<String> refreshIntervals(AuditDocumentType type) {
+        try {
+            Map<String, IndexState> settings = elasticsearchClient.indices().getSettings(GetIndicesSettingsRequest.of(g -> g
+                    .index(pattern(type))
+                    .allowNoIndices(true)
+                    .ignoreUnavailable(true))).result();
+            return settings.values().stream()
+                    .map(IndexAdminService::indexSettings)
+                    .filter(index -> index != null && index.refreshInterval() != null)
+                    .map(index -> index.refreshInterval().time())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void putRefreshInterval(AuditDocumentType type, String interval) {
+        try {
+            elasticsearchClient.indices().putSettings(p -> p
+                    .index(pattern(type))
+                    .allowNoIndices(true)
+                    .settings(s -> s.refreshInterval(t -> t.time(interval))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Режим массовой загрузки, включенный до перезапуска, иначе остался бы навсегда: его срок
+     * и прежний refresh_interval знал только прошлый процесс. Пока кластер недоступен,
+     * проверка повторяется при каждом check
+     */
+    private void recoverBulkLoads() {
+        try {
+            for (AuditDocumentType type : AuditDocumentType.values()) {
+                if (!bulkLoads.containsKey(type) && refreshIntervals(type).contains(indexAdminProperties.getBulkRefreshInterval())) {
+                    putRefreshInterval(type, indexAdminProperties.getDefaultRefreshInterval());
+                    log.warn("Bulk load mode of {} left by a previous run, refresh_interval restored to {}",
+                            type.getIndexName(), indexAdminProperties.getDefaultRefreshInterval());
+                }
+            }
+            bulkLoadsRecovered.set(true);
+        } catch (RuntimeException e) {
+            log.warn("Failed to check bulk load mode left by a previous run: {}", e.getMessage());
+        }
+    }
+
+    private void restore(AuditDocumentType type, BulkLoadStatus status) {
+        putRefreshInterval(type, status.getRestoreRefreshInterval());
+        bulkLoads.remove(type);
+        log.info("Bulk load mode disabled for {}, refresh_interval restored to {}", type.getIndexName(), status.getRestoreRefreshInterval());
+    }
+
+    private IndexHealth toHealth(String index, IndicesStats stats, IndexSettings settings) {
+        IndexStats primaries = stats.primaries();
+        IndexStats total = stats.total() != null ? stats.total() : primaries;
+        int shards = settings != null && settings.numberOfShards() != null ? Integer.parseInt(settings.numberOfShards()) : 0;
+        int replicas = settings != null && settings.numberOfReplicas() != null ? Integer.parseInt(settings.numberOfReplicas()) : 0;
+        long primaryBytes = primaries.store() != null ? primaries.store().sizeInBytes() : 0;
+
+        IndexHealth.IndexHealthBuilder health = IndexHealth.builder()
+                .index(index)
+                .docs(primaries.docs() != null ? primaries.docs().count() : 0)
+                .deletedDocs(primaries.docs() != null && primaries.docs().deleted() != null ? primaries.docs().deleted() : 0)
+                .primaryBytes(primaryBytes)
+                .totalBytes(total.store() != null ? total.store().sizeInBytes() : primaryBytes)
+                .shards(shards)
+                .replicas(replicas)
+                .averageShardBytes(shards == 0 ? primaryBytes : primaryBytes / shards)
+                .segments(primaries.segments() != null ? primaries.segments().count() : 0)
+                .refreshInterval(settings != null && settings.refreshInterval() != null ? settings.refreshInterval().time() : null);
+        if (total.queryCache() != null) {
+            health.queryCacheHitRatio(ratio(total.queryCache().hitCount(), total.queryCache().missCount()))
+                    .queryCacheBytes(total.queryCache().memorySizeInBytes());
+        }
+        if (total.requestCache() != null) {
+            health.requestCacheHitRatio(ratio(total.requestCache().hitCount(), total.requestCache().missCount()))
+                    .requestCacheBytes(total.requestCache().memorySizeInBytes());
+        }
+        if (total.refresh() != null) {
+            health.refreshes(total.refresh().total()).refreshTimeMs(total.refresh().totalTimeInMillis());
+        }
+        return health.build();
+    }
+
+    /**
+     * Настройки уровня index: без flat_settings Elasticsearch вкладывает их в settings.index
+     */
+    private static IndexSettings indexSettings(IndexState state) {
+        if (state == null || state.settings() == null) {
+            return null;
+        }
+        return state.settings().index() != null ? state.settings().index() : state.settings();
+    }
+
+    private static double ratio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    private static String pattern(AuditDocumentType type) {
+        return type.getIndexName() + "*";
+    }
+
+    private static AuditDocumentType type(String index) {
+        for (AuditDocumentType type : AuditDocumentType.values()) {
+            if (type.getIndexName().equals(index)) {
+                return type;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "index must be one of "
+                + List.of(AuditDocumentType.values()).stream().map(AuditDocumentType::getIndexName).toList());
+    }
+
+    private static BulkLoadStatus disabled(AuditDocumentType type) {
+        return BulkLoadStatus.builder().index(type.getIndexName()).enabled(false).build();
+    }
+
+    private static IndexOperationStatus idle(String operation) {
+        return IndexOperationStatus.builder()
+                .operation(operation)
+                .state("IDLE")
+                .indices(List.of())
+                .build();
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Force-merge interrupted", e);
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.Level;
+import co.elastic.clients.elasticsearch._types.aggregations.MaxAggregate;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.indices.IndicesStatsResponse;
+import co.elastic.clients.elasticsearch.indices.stats.IndicesStats;
+import co.elastic.clients.elasticsearch.indices.stats.ShardStats;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.IndexState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Состояние индексов аудита для ETag и Last-Modified.
+ * Версия собирается из числа документов, максимального timestamp и суммы max_seq_no
+ * по первичным шардам: первые два значения Elasticsearch отдает без обхода документов
+ * (счетчики сегментов и границы BKD-дерева), seq_no - из статистики шардов, поэтому запрос
+ * дешевле любой агрегации статистики. seq_no растет при любой записи, включая удаление
+ * с одновременной вставкой документа со старым timestamp и изменение документа на месте.
+ * Результат кэшируется на audit.search.index-state-ttl, чтобы серия запросов дашборда
+ * не нагружала кластер. Устаревшее состояние перечитывается асинхронно и не задерживает
+ * запрос: до ответа кластера используется прежнее значение, но не старше двух TTL.
+ * Новая версия не используется для ETag в течение audit.search.index-state-settle:
+ * запись увеличивает seq_no раньше, чем refresh делает ее видимой поиску
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IndexStateService {
+
+    private static final String MAX_TIMESTAMP = "max_timestamp";
+
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final SearchProperties searchProperties;
+
+    private final Clock clock = Clock.systemUTC();
+    private final Map<AuditDocumentType, Entry> states = new ConcurrentHashMap<>();
+    private final Map<AuditDocumentType, CompletableFuture<IndexState>> refreshes = new ConcurrentHashMap<>();
+
+    /**
+     * Текущее состояние индекса без ожидания кластера; пусто, если состояние еще не прочитано
+     * или кластер давно не отвечает - тогда запрос выполняется без проверки условий
+     */
+    public Optional<IndexState> current(AuditDocumentType type) {
+        long now = clock.millis();
+        long ttl = searchProperties.getIndexStateTtl().toMillis();
+        Entry entry = states.get(type);
+        if (entry == null || now - entry.checkedAt >= ttl) {
+            refresh(type);
+        }
+        if (entry == null || now - entry.checkedAt >= 2 * ttl
+                || now - entry.state.getLastModified() < searchProperties.getIndexStateSettle().toMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.state);
+    }
+
+    /**
+     * Перечитывает состояние индекса; одновременные вызовы ждут один запрос к кластеру
+     */
+    public CompletableFuture<IndexState> refresh(AuditDocumentType type) {
+        CompletableFuture<IndexState> pending = new CompletableFuture<>();
+        CompletableFuture<IndexState> running = refreshes.putIfAbsent(type, pending);
+        if (running != null) {
+            return running;
+        }
+
+        CompletableFuture<String> version;
+        try {
+            version = fetchVersion(type);
+        } catch (RuntimeException e) {
+            version = CompletableFuture.failedFuture(e);
+        }
+        version.whenComplete((value, error) -> {
+            refreshes.remove(type, pending);
+            if (error != null) {
+                log.debug("Failed to read state of index {}", type.getIndexName(), error);
+                pending.completeExceptionally(error);
+            } else {
+                pending.complete(update(type, value));
+            }
+        });
+        return pending;
+    }
+
+    private IndexState update(AuditDocumentType type, String version) {
+        long now = clock.millis();
+        Entry entry = states.get(type);
+        IndexState state = entry != null && entry.state.getVersion().equals(version)
+                ? entry.state
+                : IndexState.builder().version(version).lastModified(now).build();
+        states.put(type, new Entry(state, now));
+        return state;
+    }
+
+    /**
+     * Статистика шардов читается до поиска: запись между запросами увеличит seq_no
+     * уже после чтения, и следующая версия будет отличаться
+     */
+    private CompletableFuture<String> fetchVersion(AuditDocumentType type) {
+        return elasticsearchAsyncClient.indices().stats(s -> s
+                        .index(type.getIndexName())
+                        .level(Level.Shards)
+                        .metric("docs"))
+                .thenCompose(stats -> elasticsearchAsyncClient.search(s -> s
+                                        .index(type.getIndexName())
+                                        .size(0)
+                                        .trackTotalHits(t -> t.enabled(true))
+                                        .aggregations(MAX_TIMESTAMP, a -> a.max(m -> m.field("timestamp"))),
+                                Void.class)
+                        .thenApply(response -> toVersion(response, maxSeqNo(stats))));
+    }
+
+    private static String toVersion(SearchResponse<Void> response, long maxSeqNo) {
+        long count = response.hits().total() == null ? 0 : response.hits().total().value();
+        MaxAggregate max = response.aggregations().get(MAX_TIMESTAMP).max();
+        long maxTimestamp = Double.isFinite(max.value()) ? (long) max.value() : 0;
+        return count + ":" + maxTimestamp + ":" + maxSeqNo;
+    }
+
+    /**
+     * Сумма max_seq_no по первичным шардам всех индексов за именем (партиции, алиас)
+     */
+    private static long maxSeqNo(IndicesStatsResponse stats) {
+        long sum = 0;
+        for (IndicesStats index : stats.indices().values()) {
+            for (List<ShardStats> copies : index.shards().values()) {
+                for (ShardStats shard : copies) {
+                    if (shard.routing() != null && shard.routing().primary() && shard.seqNo() != null) {
+                        sum += shard.seqNo().maxSeqNo();
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static final class Entry {
+
+        private final IndexState state;
+        private final long checkedAt;
+
+        private Entry(IndexState state, long checkedAt) {
+            this.state = state;
+            this.checkedAt = checkedAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,290 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import io.github.auditapi.config.TailProperties;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.model.elastic.MethodDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Живая лента новых документов через Server-Sent Events.
+ * На каждый уникальный фильтр заводится один опросчик: раз в pollInterval он запрашивает
+ * документы новее своего курсора по timestamp и раздает их всем подписчикам фильтра,
+ * поэтому число запросов к Elasticsearch не зависит от числа зрителей одной ленты.
+ * Курсор - наибольший отданный timestamp, но опрос начинается раньше него на audit.tail.lag:
+ * документы, которые стали видны поиску с опозданием (refresh, задержка доставки, неупорядоченные
+ * timestamp), попадают в ленту, пока не старше этого окна. Отданные в окне id исключаются из запроса
+ * и повторно не отправляются. Документы, опоздавшие больше чем на lag, в ленту не попадают.
+ * У каждого подписчика своя ограниченная очередь и свой отправляющий виртуальный поток:
+ * медленный клиент теряет документы сверх очереди, но не задерживает остальных
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LiveTailService {
+
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final TailProperties tailProperties;
+
+    private final Map<String, Poller> pollers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public SseEmitter tailRequests(String uri, String method, String statusCode) {
+        Query filter = HttpQueries.byFields(uri, method, statusCode, null, null).getQuery();
+        return subscribe(AuditDocumentType.HTTP, key(AuditDocumentType.HTTP, uri, method, statusCode), filter, HttpQueries.BODY_FIELDS);
+    }
+
+    public SseEmitter tailMethods(String method, String level, String eventType) {
+        Query filter = MethodQueries.byFields(method, level, eventType, null, null).getQuery();
+        return subscribe(AuditDocumentType.METHOD, key(AuditDocumentType.METHOD, method, level, eventType), filter, MethodQueries.BODY_FIELDS);
+    }
+
+    @Scheduled(fixedDelayString = "${audit.tail.poll-interval:PT2S}")
+    public void poll() {
+        pollers.values().forEach(this::poll);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pollers.values().forEach(poller -> poller.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private SseEmitter subscribe(AuditDocumentType type, String key, Query filter, List<String> bodyFields) {
+        if (subscriberCount.incrementAndGet() > tailProperties.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many live tail subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(tailProperties.getConnectionTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, tailProperties.getSubscriberBuffer());
+        pollers.compute(key, (k, poller) -> {
+            Poller target = poller != null ? poller : new Poller(type, filter, bodyFields, Instant.now().toEpochMilli());
+            target.subscribers.add(subscriber);
+            return target;
+        });
+
+        emitter.onCompletion(() -> unsubscribe(key, subscriber));
+        emitter.onTimeout(() -> unsubscribe(key, subscriber));
+        emitter.onError(error -> unsubscribe(key, subscriber));
+        subscriber.sender = Thread.ofVirtual()
+                .name("tail-" + type.name().toLowerCase(Locale.ROOT))
+                .start(() -> send(key, subscriber));
+        return emitter;
+    }
+
+    private void unsubscribe(String key, Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        pollers.computeIfPresent(key, (k, poller) -> {
+            poller.subscribers.remove(subscriber);
+            return poller.subscribers.isEmpty() ? null : poller;
+        });
+        Thread sender = subscriber.sender;
+        if (sender != null) {
+            sender.interrupt();
+        }
+    }
+
+    private void poll(Poller poller) {
+        if (!poller.inFlight.compareAndSet(false, true)) {
+            return;
+        }
+        SearchRequest request = SearchRequest.of(s -> s
+                .index(poller.type.getIndexName())
+                .query(q -> q.bool(newerThanCursor(poller)))
+                .sort(so -> so.field(f -> f.field("timestamp").order(SortOrder.Asc)))
+                .size(tailProperties.getBatchSize())
+                .trackTotalHits(t -> t.enabled(false))
+                .source(src -> src.filter(f -> f.excludes(poller.bodyFields))));
+
+        elasticsearchAsyncClient.search(request, poller.type.getDocumentClass()).whenComplete((response, error) -> {
+            boolean full = false;
+            if (error != null) {
+                log.warn("Live tail poll of {} failed: {}", poller.type.getIndexName(), error.getMessage());
+            } else {
+                full = dispatch(poller, response);
+            }
+            poller.inFlight.set(false);
+            if (full && !poller.subscribers.isEmpty()) {
+                poll(poller);
+            }
+        });
+    }
+
+    private BoolQuery newerThanCursor(Poller poller) {
+        BoolQuery.Builder bool = new BoolQuery.Builder()
+                .filter(poller.filter)
+                .filter(f -> f.range(r -> r.date(d -> d
+                        .field("timestamp")
+                        .format("epoch_millis")
+                        .gte(String.valueOf(windowStart(poller))))));
+        if (!poller.sent.isEmpty()) {
+            // иначе полная пачка уже отданных документов окна повторялась бы на каждом опросе
+            bool.mustNot(m -> m.ids(i -> i.values(List.copyOf(poller.sent.keySet()))));
+        }
+        return bool.build();
+    }
+
+    /**
+     * Начало окна опроса: курсор минус lag, но не раньше подписки - история в ленту не отдается
+     */
+    private long windowStart(Poller poller) {
+        return Math.max(poller.since, poller.cursor - tailProperties.getLag().toMillis());
+    }
+
+    /**
+     * @return true, если пришла полная пачка и за курсором, вероятно, есть еще документы
+     */
+    private boolean dispatch(Poller poller, SearchResponse<?> response) {
+        String name = poller.type.name().toLowerCase(Locale.ROOT);
+        List<? extends Hit<?>> hits = response.hits().hits();
+        for (Hit<?> hit : hits) {
+            long timestamp = hit.sort().getFirst().longValue();
+            if (poller.sent.putIfAbsent(hit.id(), timestamp) != null) {
+                continue;
+            }
+            poller.cursor = Math.max(poller.cursor, timestamp);
+
+            Object document = hit.source();
+            if (document instanceof HttpDocument http) {
+                http.setId(hit.id());
+            } else if (document instanceof MethodDocument method) {
+                method.setId(hit.id());
+            }
+            TailEvent event = new TailEvent(name, hit.id(), document);
+            for (Subscriber subscriber : poller.subscribers) {
+                if (!subscriber.queue.offer(event)) {
+                    subscriber.dropped.incrementAndGet();
+                }
+            }
+        }
+        long windowStart = windowStart(poller);
+        poller.sent.values().removeIf(timestamp -> timestamp < windowStart);
+        return hits.size() == tailProperties.getBatchSize();
+    }
+
+    private void send(String key, Subscriber subscriber) {
+        long heartbeatMillis = tailProperties.getHeartbeatInterval().toMillis();
+        try {
+            while (!subscriber.closed.get()) {
+                TailEvent event = subscriber.queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                long dropped = subscriber.dropped.getAndSet(0);
+                if (dropped > 0) {
+                    subscriber.emitter.send(SseEmitter.event().name("lagged").data(Map.of("dropped", dropped), MediaType.APPLICATION_JSON));
+                }
+                if (event != null) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .name(event.name)
+                            .id(event.id)
+                            .data(event.document, MediaType.APPLICATION_JSON));
+                } else if (dropped == 0) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            // клиент отключился или соединение уже завершено
+            unsubscribe(key, subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private static String key(AuditDocumentType type, String... values) {
+        return Stream.concat(Stream.of(type.name()), Stream.of(values).map(value -> Objects.toString(value, "")))
+                .collect(Collectors.joining("\u0000"));
+    }
+
+    /**
+     * Общий опросчик одного фильтра. Курсор и отданные id меняются только внутри
+     * запроса, а запросы одного опросчика не пересекаются
+     */
+    private static final class Poller {
+
+        private final AuditDocumentType type;
+        private final Query filter;
+        private final List<String> bodyFields;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean inFlight = new AtomicBoolean();
+
+        /**
+         * Время подписки, наибольший отданный timestamp и отданные документы окна опроса (id - timestamp)
+         */
+        private final long since;
+        private long cursor;
+        private final Map<String, Long> sent = new HashMap<>();
+
+        private Poller(AuditDocumentType type, Query filter, List<String> bodyFields, long since) {
+            this.type = type;
+            this.filter = filter;
+            this.bodyFields = bodyFields;
+            this.since = since;
+            this.cursor = since;
+        }
+
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<TailEvent> queue;
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile Thread sender;
+
+        private Subscriber(SseEmitter emitter, int buffer) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(buffer);
+        }
+
+    }
+
+    private static final class TailEvent {
+
+        private final String name;
+        private final String id;
+        private final Object document;
+
+        private TailEvent(String name, String id, Object document) {
+            this.name = name;
+            this.id = id;
+            this.document = document;
+        }
+
+    }
+
+}
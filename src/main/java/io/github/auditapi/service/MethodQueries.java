@@ -0,0 +1,167 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import io.github.auditapi.model.elastic.TimeRange;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Построение поисковых запросов по индексу вызовов методов
+ */
+@UtilityClass
+public class MethodQueries {
+
+    public static final String INDEX = "audit-methods";
+    public static final List<String> BODY_FIELDS = List.of("args", "result");
+
+    /**
+     * Поля параметра q для индекса вызовов методов
+     */
+    public static final QueryLanguage.Dialect QUERY_DIALECT = new QueryLanguage.Dialect("method", List.of("method^2", "args", "result"))
+            .field("method", "method.keyword", QueryLanguage.FieldKind.KEYWORD)
+            .field("level", "level", QueryLanguage.FieldKind.KEYWORD)
+            .field("eventType", "eventType", QueryLanguage.FieldKind.KEYWORD)
+            .field("correlationId", "correlationId", QueryLanguage.FieldKind.KEYWORD)
+            .field("timestamp", "timestamp", QueryLanguage.FieldKind.DATE)
+            .field("args", "args", QueryLanguage.FieldKind.TEXT)
+            .field("result", "result", QueryLanguage.FieldKind.TEXT)
+            .field("errorMessage", "errorMessage", QueryLanguage.FieldKind.TEXT);
+
+    public SearchPlan fullText(String query, String level, TimeRange range) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        List<String> branch = new ArrayList<>();
+
+        if (hasText(query)) {
+            bool.must(m -> m.multiMatch(mm -> mm
+                    .query(query)
+                    .fields("method^2", "args", "result")
+                    .type(TextQueryType.BestFields)
+                    .analyzer("audit_analyzer")));
+            branch.add("query");
+        }
+        if (hasText(level)) {
+            bool.filter(f -> f.term(t -> t.field("level").value(level)));
+            branch.add("level");
+        }
+        QuerySupport.timeRange(bool, branch, range);
+
+        return plan("fullText", branch, bool);
+    }
+
+    /**
+     * Пустые и состоящие из пробелов фильтры не ограничивают выборку - так же, как в шаблонном варианте,
+     * где mustache считает пустую строку ложью
+     */
+    public SearchPlan byFields(String method, String level, String eventType, QueryLanguage.CompiledQuery q, TimeRange range) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        List<String> branch = new ArrayList<>();
+
+        if (hasText(method)) {
+            if (QuerySupport.isWildcard(method)) {
+                bool.filter(f -> f.wildcard(w -> w.field("method.keyword").value(method)));
+                branch.add("method:wildcard");
+            } else {
+                bool.filter(QuerySupport.containing("method", method));
+                branch.add("method:containing");
+            }
+        }
+        if (hasText(level)) {
+            bool.filter(f -> f.term(t -> t.field("level").value(level)));
+            branch.add("level");
+        }
+        if (hasText(eventType)) {
+            bool.filter(f -> f.term(t -> t.field("eventType").value(eventType)));
+            branch.add("eventType");
+        }
+        if (q != null) {
+            if (q.isScoring()) {
+                bool.must(q.getQuery());
+            } else {
+                bool.filter(q.getQuery());
+            }
+            branch.add("q");
+        }
+        QuerySupport.timeRange(bool, branch, range);
+
+        return plan("byFields", branch, bool);
+    }
+
+    /**
+     * fullText через хранимый шаблон {@link SearchTemplateRegistry#METHOD_SEARCH}
+     */
+    public SearchPlan fullTextTemplate(String templateId, String query, String level, TimeRange range) {
+        Map<String, Object> params = new HashMap<>();
+        List<String> branch = new ArrayList<>();
+
+        if (hasText(query)) {
+            params.put("text", query);
+            branch.add("query");
+        }
+        if (hasText(level)) {
+            params.put("level", level);
+            branch.add("level");
+        }
+        QuerySupport.timeRange(params, branch, range);
+
+        return templatePlan("fullText", templateId, branch, params);
+    }
+
+    /**
+     * byFields без параметра q через хранимый шаблон {@link SearchTemplateRegistry#METHOD_SEARCH}
+     */
+    public SearchPlan byFieldsTemplate(String templateId, String method, String level, String eventType, TimeRange range) {
+        Map<String, Object> params = new HashMap<>();
+        List<String> branch = new ArrayList<>();
+
+        if (hasText(method)) {
+            if (QuerySupport.isWildcard(method)) {
+                params.put("methodWildcard", method);
+                branch.add("method:wildcard");
+            } else {
+                params.put("methodContaining", QuerySupport.containingPattern(method));
+                branch.add("method:containing");
+            }
+        }
+        if (hasText(level)) {
+            params.put("level", level);
+            branch.add("level");
+        }
+        if (hasText(eventType)) {
+            params.put("eventType", eventType);
+            branch.add("eventType");
+        }
+        QuerySupport.timeRange(params, branch, range);
+
+        return templatePlan("byFields", templateId, branch, params);
+    }
+
+    private SearchPlan plan(String kind, List<String> branch, BoolQuery.Builder bool) {
+        Query query = branch.isEmpty() ? Query.of(q -> q.matchAll(m -> m)) : Query.of(q -> q.bool(bool.build()));
+        return SearchPlan.builder()
+                .index(INDEX)
+                .name(kind + branch)
+                .query(query)
+                .bodyFields(BODY_FIELDS)
+                .build();
+    }
+
+    private SearchPlan templatePlan(String kind, String templateId, List<String> branch, Map<String, Object> params) {
+        return SearchPlan.builder()
+                .index(INDEX)
+                .name("template:" + kind + branch)
+                .template(SearchTemplate.builder().id(templateId).params(params).build())
+                .bodyFields(BODY_FIELDS)
+                .build();
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+}
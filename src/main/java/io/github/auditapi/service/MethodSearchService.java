@@ -1,27 +1,39 @@
 package io.github.auditapi.service;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
 import co.elastic.clients.elasticsearch._types.aggregations.StringTermsAggregate;
 import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
 import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
-import io.github.auditapi.model.elastic.MethodDocument;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.model.compact.CompactMethodDocument;
+import io.github.auditapi.model.elastic.AnomalyResponse;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.CountResponse;
+import io.github.auditapi.model.elastic.ExistsResponse;
+import io.github.auditapi.model.elastic.MethodBodyDocument;
+import io.github.auditapi.model.elastic.PivotStatsResponse;
+import io.github.auditapi.model.elastic.SearchOptions;
+import io.github.auditapi.model.elastic.StatsAccuracy;
 import io.github.auditapi.model.elastic.StatsResponse;
-import io.github.auditapi.repository.MethodDocumentRepository;
+import io.github.auditapi.model.elastic.TimeRange;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Сервис для работы с документами методов
@@ -30,69 +42,102 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class MethodSearchService {
 
-    private final MethodDocumentRepository repository;
-    private final ElasticsearchClient elasticsearchClient;
+    /**
+     * Измерения двумерной статистики: имя параметра - поле агрегации
+     */
+    private static final Map<String, String> PIVOT_FIELDS = Map.of("method", "method.keyword", "level", "level", "eventType", "eventType");
+
+    /**
+     * Поля, по которым ищутся отклонения среди ошибок
+     */
+    private static final Map<String, String> ANOMALY_FIELDS = Map.of("method", "method.keyword", "eventType", "eventType");
+
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final SearchProperties searchProperties;
+    private final BodyStorageService bodyStorageService;
+    private final SearchExecutor searchExecutor;
+    private final QueryLanguage queryLanguage;
+    private final StatsSampler statsSampler;
+    private final SearchTemplateRegistry searchTemplateRegistry;
+    private final PivotStats pivotStats;
+    private final AnomalyStats anomalyStats;
+    private final FirstPageCache firstPageCache;
+
+    public CompletableFuture<io.github.auditapi.model.elastic.SearchResponse<CompactMethodDocument>> searchWithFullText(
+            String query, String level, TimeRange range, int page, int size, SearchOptions options) {
+
+        return searchExecutor.search(() -> MethodQueries.fullText(query, level, range), page, size, options,
+                CompactMethodDocument.class, CompactMethodDocument::setId, documents -> bodyStorageService.applyCompactMethodBodies(documents, options.returnsBodies()));
+    }
 
-    public io.github.auditapi.model.elastic.SearchResponse<MethodDocument> searchWithFullText(
-            String query, String level, int page, int size) {
+    public CompletableFuture<io.github.auditapi.model.elastic.SearchResponse<CompactMethodDocument>> searchByFields(
+            String method, String level, String eventType, String q, TimeRange range, int page, int size, SearchOptions options) {
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by("timestamp").descending());
-        Page<MethodDocument> results;
+        QueryLanguage.CompiledQuery compiled = queryLanguage.compile(MethodQueries.QUERY_DIALECT, q);
+        return searchExecutor.search(() -> MethodQueries.byFields(method, level, eventType, compiled, range), page, size, options,
+                CompactMethodDocument.class, CompactMethodDocument::setId, documents -> bodyStorageService.applyCompactMethodBodies(documents, options.returnsBodies()));
+    }
 
-        if (query != null && !query.isBlank() && level != null && !level.isBlank()) {
-            results = repository.findByFullTextAndLevel(query, level, pageable);
-        } else if (query != null && !query.isBlank()) {
-            results = repository.findByFullText(query, pageable);
-        } else if (level != null && !level.isBlank()) {
-            results = repository.findByLevel(level, pageable);
-        } else {
-            results = repository.findAll(pageable);
+    /**
+     * Поиск с потоковой записью ответа; при профилировании или подгрузке тел из отдельных индексов
+     * ответ собирается целиком
+     */
+    public StreamingResponseBody streamWithFullText(String query, String level, TimeRange range, int page, int size, SearchOptions options) {
+        // без текста запрос совпадает с поиском по уровню: та же страница из кэша
+        if (!QuerySupport.hasText(query) && isUnbounded(range) && firstPageCache.accepts(page, size, options)) {
+            return cachedFirstPage(level, null, range, page, size, options);
+        }
+        if (!canStream(options)) {
+            return searchExecutor.buffered(searchWithFullText(query, level, range, page, size, options), options);
+        }
+        Optional<String> templateId = searchTemplateRegistry.id(SearchTemplateRegistry.METHOD_SEARCH);
+        if (templateId.isPresent()) {
+            return out -> searchExecutor.stream(() -> MethodQueries.fullTextTemplate(templateId.get(), query, level, range), page, size, options,
+                    CompactMethodDocument.class, CompactMethodDocument::setId, out);
         }
+        return out -> searchExecutor.stream(() -> MethodQueries.fullText(query, level, range), page, size, options,
+                CompactMethodDocument.class, CompactMethodDocument::setId, out);
+    }
 
-        return new io.github.auditapi.model.elastic.SearchResponse<>(
-                results.getContent(),
-                results.getTotalElements()
-        );
+    public StreamingResponseBody streamByFields(String method, String level, String eventType, String q, TimeRange range,
+                                                int page, int size, SearchOptions options) {
+        // первые страницы без фильтров или только по уровню и типу события отдаются из кэша до следующего refresh
+        boolean hotShape = !QuerySupport.hasText(method) && !QuerySupport.hasText(q) && isUnbounded(range);
+        if (hotShape && firstPageCache.accepts(page, size, options)) {
+            return cachedFirstPage(level, eventType, range, page, size, options);
+        }
+        if (!canStream(options)) {
+            return searchExecutor.buffered(searchByFields(method, level, eventType, q, range, page, size, options), options);
+        }
+        // компилируется до начала потоковой записи, чтобы синтаксическая ошибка вернулась как 400
+        QueryLanguage.CompiledQuery compiled = queryLanguage.compile(MethodQueries.QUERY_DIALECT, q);
+        Optional<String> templateId = searchTemplateRegistry.id(SearchTemplateRegistry.METHOD_SEARCH);
+        if (compiled == null && templateId.isPresent()) {
+            return out -> searchExecutor.stream(() -> MethodQueries.byFieldsTemplate(templateId.get(), method, level, eventType, range), page, size, options,
+                    CompactMethodDocument.class, CompactMethodDocument::setId, out);
+        }
+        return out -> searchExecutor.stream(() -> MethodQueries.byFields(method, level, eventType, compiled, range), page, size, options,
+                CompactMethodDocument.class, CompactMethodDocument::setId, out);
+    }
 
+    /**
+     * Количество документов с теми же фильтрами, что и у searchByFields
+     */
+    public CompletableFuture<CountResponse> count(String method, String level, String eventType, String q, TimeRange range, Duration timeout) {
+        QueryLanguage.CompiledQuery compiled = queryLanguage.compile(MethodQueries.QUERY_DIALECT, q);
+        return searchExecutor.count(MethodQueries.byFields(method, level, eventType, compiled, range), timeout);
     }
 
-    public io.github.auditapi.model.elastic.SearchResponse<MethodDocument> searchByFields(
-            String method, String level, String eventType, int page, int size) {
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by("timestamp").descending());
-        Page<MethodDocument> results;
-
-        boolean isWildcardMethod = method != null && (method.contains("*") || method.contains("?"));
-
-        if (method != null && level != null && eventType != null) {
-            results = repository.findByMethodContainingAndLevelAndEventType(method, level, eventType, pageable);
-        } else if (method != null && level != null) {
-            if (isWildcardMethod) {
-                results = repository.findByMethodWildcardAndLevel(method, level, pageable);
-            } else {
-                results = repository.findByMethodContainingAndLevel(method, level, pageable);
-            }
-        } else if (method != null) {
-            if (isWildcardMethod) {
-                results = repository.findByMethodWildcard(method, pageable);
-            } else {
-                results = repository.findByMethodContaining(method, pageable);
-            }
-        } else if (level != null) {
-            results = repository.findByLevel(level, pageable);
-        } else if (eventType != null) {
-            results = repository.findByEventType(eventType, pageable);
-        } else {
-            results = repository.findAll(pageable);
-        }
+    public CompletableFuture<ExistsResponse> exists(String method, String level, String eventType, String q, TimeRange range, Duration timeout) {
+        QueryLanguage.CompiledQuery compiled = queryLanguage.compile(MethodQueries.QUERY_DIALECT, q);
+        return searchExecutor.exists(MethodQueries.byFields(method, level, eventType, compiled, range), timeout);
+    }
 
-        return new io.github.auditapi.model.elastic.SearchResponse<>(
-                results.getContent(),
-                results.getTotalElements()
-        );
+    public Optional<MethodBodyDocument> findBody(String id) {
+        return bodyStorageService.findMethodBody(id);
     }
 
-    public StatsResponse getStats(String groupBy, LocalDate from, LocalDate to) throws IOException {
+    public CompletableFuture<StatsResponse> getStats(String groupBy, LocalDate from, LocalDate to, StatsAccuracy accuracy, Duration timeout) {
 
         BoolQuery.Builder boolQuery = new BoolQuery.Builder();
 
@@ -123,17 +168,50 @@ public class MethodSearchService {
         String aggregationField = "level".equals(groupBy) ? "level" : "method.keyword";
         String aggregationName = aggregationField + "_stats";
 
+        Query query = Query.of(q -> q.bool(boolQuery.build()));
+        Aggregation terms = Aggregation.of(a -> a.terms(t -> t.field(aggregationField)));
+        if (accuracy == StatsAccuracy.APPROXIMATE) {
+            return statsSampler.sample("audit-methods", query, aggregationName, terms, timeout,
+                    () -> exactStats(query, aggregationName, terms, timeout));
+        }
+        return exactStats(query, aggregationName, terms, timeout);
+    }
+
+    /**
+     * Двумерная статистика rows x columns одним запросом; ошибки строки - события eventType ERROR
+     */
+    public CompletableFuture<PivotStatsResponse> getPivotStats(String rows, String columns, TimeRange range, Duration timeout) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        QuerySupport.timeRange(bool, new ArrayList<>(), range);
+
+        Query query = Query.of(q -> q.bool(bool.build()));
+        Query errors = Query.of(q -> q.term(t -> t.field("eventType").value("ERROR")));
+        return pivotStats.pivot(MethodQueries.INDEX, query, PIVOT_FIELDS, rows, columns, errors, timeout);
+    }
+
+    /**
+     * Методы, непропорционально часто встречающиеся среди записей level ERROR окна по сравнению с предыдущим окном
+     */
+    public CompletableFuture<AnomalyResponse> getAnomalies(String field, Duration window, Instant to, Duration timeout) {
+        Query errors = Query.of(q -> q.term(t -> t.field("level").value("ERROR")));
+        return anomalyStats.anomalies(MethodQueries.INDEX, ANOMALY_FIELDS, field, errors, window, to, timeout);
+    }
+
+    private CompletableFuture<StatsResponse> exactStats(Query query, String aggregationName, Aggregation terms, Duration timeout) {
         SearchRequest searchRequest = SearchRequest.of(s -> s
                 .index("audit-methods")
-                .query(q -> q.bool(boolQuery.build()))
+                .query(query)
                 .size(0)
-                .aggregations(aggregationName, Aggregation.of(a -> a
-                        .terms(t -> t.field(aggregationField))
-                ))
+                .timeout(searchProperties.resolveTimeout(timeout).toMillis() + "ms")
+                .allowPartialSearchResults(true)
+                .aggregations(aggregationName, terms)
         );
 
-        SearchResponse<Void> response = elasticsearchClient.search(searchRequest, Void.class);
+        CompletableFuture<SearchResponse<Void>> call = elasticsearchAsyncClient.search(searchRequest, Void.class);
+        return SearchExecutor.cancellable(call, call.thenApply(response -> toStatsResponse(response, aggregationName)));
+    }
 
+    private StatsResponse toStatsResponse(SearchResponse<Void> response, String aggregationName) {
         Map<String, Long> stats = new HashMap<>();
         StringTermsAggregate aggregate = response.aggregations()
                 .get(aggregationName)
@@ -145,8 +223,30 @@ public class MethodSearchService {
 
         return StatsResponse.builder()
                 .stats(stats)
+                .partial(SearchExecutor.isPartial(response))
+                .shardFailures(SearchExecutor.shardFailures(response))
                 .build();
     }
 
-}
+    /**
+     * Первая страница без фильтров или только по уровню и типу события - общая запись кэша
+     * для /search и /search/fields. Пустые значения, как и в byFields, фильтрами не считаются
+     */
+    private StreamingResponseBody cachedFirstPage(String level, String eventType, TimeRange range, int page, int size,
+                                                  SearchOptions options) {
+        String levelFilter = QuerySupport.hasText(level) ? level : null;
+        String eventTypeFilter = QuerySupport.hasText(eventType) ? eventType : null;
+        String filter = "level=" + Objects.toString(levelFilter, "") + ",eventType=" + Objects.toString(eventTypeFilter, "");
+        return searchExecutor.buffered(firstPageCache.get(AuditDocumentType.METHOD, filter, page, size, options,
+                () -> searchByFields(null, levelFilter, eventTypeFilter, null, range, page, size, options)), options);
+    }
+
+    private static boolean isUnbounded(TimeRange range) {
+        return range == null || range.isUnbounded();
+    }
 
+    private boolean canStream(SearchOptions options) {
+        return !options.isProfile() && !bodyStorageService.joinsBodies(options.returnsBodies());
+    }
+
+}
@@ -0,0 +1,412 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.DateRangeQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.auditapi.config.MigrationProperties;
+import io.github.auditapi.model.migration.MigrationJob;
+import io.github.auditapi.model.migration.MigrationRequest;
+import io.github.auditapi.repository.MigrationJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Сервис миграции (переиндексации) индексов аудита.
+ * Читает исходный индекс параллельными срезами, при необходимости преобразует документы,
+ * пишет bulk-запросами с ограничением числа одновременных запросов и повтором при 429,
+ * периодически сохраняет контрольную точку и по завершении атомарно переключает алиас.
+ * Число одновременно выполняемых миграций ограничено audit.migration.max-concurrent-jobs
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MigrationService {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final PointInTimeScanner pointInTimeScanner;
+    private final MigrationJobRepository jobRepository;
+    private final MigrationProperties migrationProperties;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<DocumentTransformer<?>> transformers;
+
+    private final Map<String, JobProgress> activeJobs = new ConcurrentHashMap<>();
+    private Semaphore jobSlots;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        jobSlots = new Semaphore(migrationProperties.getMaxConcurrentJobs());
+        executor = Executors.newFixedThreadPool(migrationProperties.getMaxConcurrentJobs());
+    }
+
+    public MigrationJob start(MigrationRequest request) {
+        if (request.getDocumentType() == null || isBlank(request.getSourceIndex()) || isBlank(request.getTargetIndex())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "documentType, sourceIndex and targetIndex are required");
+        }
+        if (request.getSourceIndex().equals(request.getTargetIndex())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sourceIndex and targetIndex must differ");
+        }
+        if (request.getTransformer() != null) {
+            findTransformer(request.getTransformer());
+        }
+        String alias = request.getAlias();
+        if (!isBlank(alias) && !alias.equals(request.getSourceIndex()) && isConcreteIndex(alias)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "alias " + alias + " is an existing index; only sourceIndex can be replaced by the alias");
+        }
+
+        MigrationJob job = MigrationJob.builder()
+                .id(UUID.randomUUID().toString())
+                .documentType(request.getDocumentType())
+                .sourceIndex(request.getSourceIndex())
+                .targetIndex(request.getTargetIndex())
+                .alias(request.getAlias())
+                .transformer(request.getTransformer())
+                .workers(request.getWorkers() != null ? request.getWorkers() : migrationProperties.getDefaultWorkers())
+                .batchSize(request.getBatchSize() != null ? request.getBatchSize() : migrationProperties.getDefaultBatchSize())
+                .state("RUNNING")
+                .startedAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+
+        acquireSlot();
+        return submit(jobRepository.save(job));
+    }
+
+    /**
+     * Возобновляет прерванную миграцию с последней контрольной точки
+     */
+    public MigrationJob resume(String id) {
+        MigrationJob job = jobRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Migration " + id + " not found"));
+        if (activeJobs.containsKey(id) || "DONE".equals(job.getState())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Migration " + id + " is " + job.getState());
+        }
+
+        acquireSlot();
+        return submit(jobRepository.save(job.toBuilder()
+                .state("RUNNING")
+                .error(null)
+                .updatedAt(LocalDateTime.now())
+                .build()));
+    }
+
+    public boolean cancel(String id) {
+        JobProgress progress = activeJobs.get(id);
+        if (progress == null) {
+            return false;
+        }
+        progress.cancelled.set(true);
+        return true;
+    }
+
+    public Optional<MigrationJob> find(String id) {
+        return jobRepository.findById(id).map(this::withLiveProgress);
+    }
+
+    public List<MigrationJob> findAll() {
+        List<MigrationJob> jobs = new ArrayList<>();
+        jobRepository.findAll().forEach(job -> jobs.add(withLiveProgress(job)));
+        return jobs;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        activeJobs.values().forEach(progress -> progress.cancelled.set(true));
+        executor.shutdown();
+    }
+
+    private void acquireSlot() {
+        if (!jobSlots.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many migration jobs, try again later");
+        }
+    }
+
+    /**
+     * Слот под задачу уже занят {@link #acquireSlot()} и освобождается по ее завершении
+     */
+    private MigrationJob submit(MigrationJob job) {
+        JobProgress progress = new JobProgress(job);
+        activeJobs.put(job.getId(), progress);
+        try {
+            executor.submit(() -> run(job, progress));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.getId());
+            jobSlots.release();
+            throw e;
+        }
+        return job;
+    }
+
+    private void run(MigrationJob job, JobProgress progress) {
+        try {
+            DocumentTransformer<?> transformer = job.getTransformer() != null ? findTransformer(job.getTransformer()) : null;
+            Semaphore bulkPermits = new Semaphore(migrationProperties.getMaxInFlightBulks());
+            AtomicInteger batches = new AtomicInteger();
+
+            Long checkpoint = job.getCheckpoint();
+            Query query = checkpoint == null
+                    ? Query.of(q -> q.matchAll(m -> m))
+                    : fromCheckpoint(checkpoint);
+
+            if (checkpoint == null) {
+                long total = elasticsearchClient.count(c -> c.index(job.getSourceIndex())).count();
+                job.setTotal(total);
+            } else {
+                // документы от контрольной точки и без timestamp читаются заново, поэтому и считаются заново
+                long before = elasticsearchClient.count(c -> c
+                        .index(job.getSourceIndex())
+                        .query(timestampQuery(d -> d.lt(String.valueOf(checkpoint))))).count();
+                progress.processed.set(before);
+            }
+
+            pointInTimeScanner.scan(job.getSourceIndex(), query, job.getWorkers(), job.getBatchSize(),
+                    migrationProperties.getPointInTimeKeepAlive(), ObjectNode.class,
+                    (slice, hits) -> {
+                        writeBatch(job, hits, transformer, bulkPermits);
+                        progress.processed.addAndGet(hits.size());
+                        // у документов без timestamp сортировочное значение Long.MAX_VALUE (missing _last),
+                        // как у дочитанного среза: контрольную точку они не двигают и при возобновлении читаются заново
+                        progress.watermarks.set(slice, hits.getLast().sort().getFirst().longValue());
+                        if (batches.incrementAndGet() % migrationProperties.getCheckpointEveryBatches() == 0) {
+                            saveCheckpoint(job, progress, "RUNNING", null);
+                        }
+                    },
+                    slice -> progress.watermarks.set(slice, Long.MAX_VALUE),
+                    progress.cancelled::get);
+
+            if (progress.cancelled.get()) {
+                saveCheckpoint(job, progress, "CANCELLED", null);
+                return;
+            }
+
+            if (job.getAlias() != null && !job.getAlias().isBlank()) {
+                swapAlias(job);
+            }
+            saveCheckpoint(job, progress, "DONE", null);
+            log.info("Migration {} from {} to {} finished: {} documents",
+                    job.getId(), job.getSourceIndex(), job.getTargetIndex(), progress.processed.get());
+        } catch (IOException | RuntimeException e) {
+            log.error("Migration {} failed", job.getId(), e);
+            saveCheckpoint(job, progress, "FAILED", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            saveCheckpoint(job, progress, "CANCELLED", null);
+        } finally {
+            activeJobs.remove(job.getId());
+            jobSlots.release();
+        }
+    }
+
+    private void writeBatch(MigrationJob job, List<Hit<ObjectNode>> hits, DocumentTransformer<?> transformer,
+                            Semaphore bulkPermits) throws IOException {
+
+        List<String> ids = new ArrayList<>(hits.size());
+        List<Object> documents = new ArrayList<>(hits.size());
+        for (Hit<ObjectNode> hit : hits) {
+            ids.add(hit.id());
+            documents.add(transformer != null ? transform(transformer, hit) : hit.source());
+        }
+
+        for (int attempt = 0; !ids.isEmpty(); attempt++) {
+            if (attempt > migrationProperties.getMaxBulkRetries()) {
+                throw new IllegalStateException("Bulk write to " + job.getTargetIndex() + " rejected after retries");
+            }
+            if (attempt > 0) {
+                backoff(attempt);
+            }
+
+            BulkResponse response = bulk(job.getTargetIndex(), ids, documents, bulkPermits);
+            if (!response.errors()) {
+                return;
+            }
+
+            List<String> retryIds = new ArrayList<>();
+            List<Object> retryDocuments = new ArrayList<>();
+            for (int i = 0; i < response.items().size(); i++) {
+                BulkResponseItem item = response.items().get(i);
+                if (item.error() == null) {
+                    continue;
+                }
+                if (item.status() != TOO_MANY_REQUESTS) {
+                    throw new IllegalStateException("Bulk write of " + item.id() + " failed: " + item.error().reason());
+                }
+                retryIds.add(ids.get(i));
+                retryDocuments.add(documents.get(i));
+            }
+            ids = retryIds;
+            documents = retryDocuments;
+        }
+    }
+
+    private BulkResponse bulk(String index, List<String> ids, List<Object> documents, Semaphore bulkPermits) throws IOException {
+        BulkRequest.Builder request = new BulkRequest.Builder().index(index);
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            Object document = documents.get(i);
+            request.operations(op -> op.index(idx -> idx.id(id).document(document)));
+        }
+
+        bulkPermits.acquireUninterruptibly();
+        try {
+            return elasticsearchClient.bulk(request.build());
+        } finally {
+            bulkPermits.release();
+        }
+    }
+
+    private <T> Object transform(DocumentTransformer<T> transformer, Hit<ObjectNode> hit) throws IOException {
+        ObjectNode source = hit.source();
+        if (source == null) {
+            return null;
+        }
+        source.put("id", hit.id());
+        T document = objectMapper.treeToValue(source, transformer.getDocumentClass());
+        return objectMapper.valueToTree(transformer.transform(document));
+    }
+
+    /**
+     * Если имя алиаса занято самим исходным индексом (первая миграция с индекса на алиас),
+     * исходный индекс удаляется тем же атомарным запросом, в котором добавляется алиас
+     */
+    private void swapAlias(MigrationJob job) throws IOException {
+        String alias = job.getAlias();
+        String targetIndex = job.getTargetIndex();
+        if (!isConcreteIndex(alias)) {
+            elasticsearchClient.indices().updateAliases(u -> u
+                    .actions(a -> a.remove(r -> r.index("*").alias(alias).mustExist(false)))
+                    .actions(a -> a.add(add -> add.index(targetIndex).alias(alias)))
+            );
+        } else if (alias.equals(job.getSourceIndex())) {
+            elasticsearchClient.indices().updateAliases(u -> u
+                    .actions(a -> a.add(add -> add.index(targetIndex).alias(alias)))
+                    .actions(a -> a.removeIndex(r -> r.index(alias)))
+            );
+        } else {
+            throw new IllegalStateException("Alias " + alias + " is an existing index other than " + job.getSourceIndex());
+        }
+        log.info("Alias {} switched to {}", alias, targetIndex);
+    }
+
+    private boolean isConcreteIndex(String name) {
+        try {
+            ElasticsearchIndicesClient indices = elasticsearchClient.indices();
+            return !indices.existsAlias(e -> e.name(name)).value() && indices.exists(e -> e.index(name)).value();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Документы от контрольной точки и все документы без timestamp: они идут в конце каждого среза,
+     * контрольная точка их не покрывает, а запись по id идемпотентна
+     */
+    private static Query fromCheckpoint(long checkpoint) {
+        return Query.of(q -> q.bool(b -> b
+                .should(timestampQuery(d -> d.gte(String.valueOf(checkpoint))))
+                .should(s -> s.bool(missing -> missing.mustNot(m -> m.exists(e -> e.field("timestamp")))))
+                .minimumShouldMatch("1")));
+    }
+
+    private static Query timestampQuery(Function<DateRangeQuery.Builder, DateRangeQuery.Builder> bound) {
+        return Query.of(q -> q.range(RangeQuery.of(r -> r
+                .date(d -> bound.apply(d.field("timestamp").format("epoch_millis")))
+        )));
+    }
+
+    private void saveCheckpoint(MigrationJob job, JobProgress progress, String state, String error) {
+        // MIN_VALUE - срез еще ничего не прочитал, MAX_VALUE - срез прочитан до конца
+        long checkpoint = Long.MAX_VALUE;
+        for (int i = 0; i < progress.watermarks.length(); i++) {
+            checkpoint = Math.min(checkpoint, progress.watermarks.get(i));
+        }
+
+        synchronized (job) {
+            job.setState(state);
+            job.setError(error);
+            job.setProcessed(progress.processed.get());
+            if (checkpoint != Long.MIN_VALUE && checkpoint != Long.MAX_VALUE) {
+                job.setCheckpoint(checkpoint);
+            }
+            job.setUpdatedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        }
+    }
+
+    private MigrationJob withLiveProgress(MigrationJob job) {
+        JobProgress progress = activeJobs.get(job.getId());
+        return progress == null ? job : job.toBuilder().processed(progress.processed.get()).build();
+    }
+
+    private DocumentTransformer<?> findTransformer(String name) {
+        return transformers.orderedStream()
+                .filter(transformer -> transformer.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown transformer " + name));
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(Math.min(100L << attempt, 10_000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Migration interrupted", e);
+        }
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static final class JobProgress {
+
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicLong processed;
+        private final AtomicLongArray watermarks;
+
+        private JobProgress(MigrationJob job) {
+            processed = new AtomicLong(job.getProcessed());
+            watermarks = new AtomicLongArray(job.getWorkers());
+            for (int i = 0; i < job.getWorkers(); i++) {
+                watermarks.set(i, Long.MIN_VALUE);
+            }
+        }
+
+    }
+
+}
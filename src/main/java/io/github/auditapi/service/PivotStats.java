@@ -0,0 +1,132 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsAggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.config.StatsProperties;
+import io.github.auditapi.model.elastic.PivotStatsResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Двумерная статистика одним запросом: terms по полю строк, внутри каждой строки terms
+ * по полю столбцов и filter с числом ошибок. Столбцы - объединение значений всех строк,
+ * отсортированное по общему числу документов
+ */
+@Component
+@RequiredArgsConstructor
+public class PivotStats {
+
+    private static final String ROWS = "rows";
+    private static final String COLUMNS = "columns";
+    private static final String ERRORS = "errors";
+
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final SearchProperties searchProperties;
+    private final StatsProperties statsProperties;
+
+    /**
+     * @param fields допустимые измерения: имя параметра запроса - поле агрегации
+     * @param errors запрос, отбирающий ошибочные документы строки
+     */
+    public CompletableFuture<PivotStatsResponse> pivot(String index, Query query, Map<String, String> fields,
+                                                       String rows, String columns, Query errors, Duration timeout) {
+        String rowField = field(fields, rows);
+        String columnField = field(fields, columns);
+        if (rowField.equals(columnField)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "rows and columns must be different fields");
+        }
+        int columnLimit = statsProperties.getPivotColumns();
+
+        Aggregation pivot = Aggregation.of(a -> a
+                .terms(t -> t.field(rowField).size(statsProperties.getPivotRows()))
+                .aggregations(COLUMNS, c -> c.terms(t -> t.field(columnField).size(columnLimit)))
+                .aggregations(ERRORS, e -> e.filter(errors)));
+
+        SearchRequest request = SearchRequest.of(s -> s
+                .index(index)
+                .query(query)
+                .size(0)
+                .timeout(searchProperties.resolveTimeout(timeout).toMillis() + "ms")
+                .allowPartialSearchResults(true)
+                .aggregations(ROWS, pivot));
+
+        CompletableFuture<SearchResponse<Void>> call = elasticsearchAsyncClient.search(request, Void.class);
+        return SearchExecutor.cancellable(call, call.thenApply(response -> toPivot(response, columnLimit)));
+    }
+
+    private PivotStatsResponse toPivot(SearchResponse<Void> response, int columnLimit) {
+        StringTermsAggregate rowAggregate = response.aggregations().get(ROWS).sterms();
+        List<StringTermsBucket> rowBuckets = rowAggregate.buckets().array();
+
+        Map<String, Long> columnTotals = new HashMap<>();
+        for (StringTermsBucket row : rowBuckets) {
+            for (StringTermsBucket column : row.aggregations().get(COLUMNS).sterms().buckets().array()) {
+                columnTotals.merge(column.key().stringValue(), column.docCount(), Long::sum);
+            }
+        }
+        List<String> columns = columnTotals.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(columnLimit)
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<String, Integer> columnIndex = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            columnIndex.put(columns.get(i), i);
+        }
+
+        int size = rowBuckets.size();
+        String[] rows = new String[size];
+        long[][] counts = new long[size][columns.size()];
+        long[] rowTotals = new long[size];
+        long[] errors = new long[size];
+        double[] errorRatio = new double[size];
+        for (int i = 0; i < size; i++) {
+            StringTermsBucket row = rowBuckets.get(i);
+            rows[i] = row.key().stringValue();
+            rowTotals[i] = row.docCount();
+            errors[i] = row.aggregations().get(ERRORS).filter().docCount();
+            errorRatio[i] = rowTotals[i] == 0 ? 0 : (double) errors[i] / rowTotals[i];
+            for (StringTermsBucket column : row.aggregations().get(COLUMNS).sterms().buckets().array()) {
+                Integer j = columnIndex.get(column.key().stringValue());
+                if (j != null) {
+                    counts[i][j] = column.docCount();
+                }
+            }
+        }
+
+        return PivotStatsResponse.builder()
+                .rows(List.of(rows))
+                .columns(columns)
+                .counts(counts)
+                .rowTotals(rowTotals)
+                .errors(errors)
+                .errorRatio(errorRatio)
+                .otherRows(rowAggregate.sumOtherDocCount() != null ? rowAggregate.sumOtherDocCount() : 0)
+                .partial(SearchExecutor.isPartial(response))
+                .shardFailures(SearchExecutor.shardFailures(response))
+                .build();
+    }
+
+    private static String field(Map<String, String> fields, String name) {
+        String field = name == null ? null : fields.get(name);
+        if (field == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "pivot dimension must be one of " + fields.keySet().stream().sorted().toList());
+        }
+        return field;
+    }
+
+}
@@ -0,0 +1,124 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * Параллельное чтение индекса срезами (sliced point-in-time + search_after).
+ * Внутри среза документы отсортированы по timestamp по возрастанию
+ */
+@Component
+@RequiredArgsConstructor
+public class PointInTimeScanner {
+
+    private final ElasticsearchClient elasticsearchClient;
+
+    /**
+     * Обработчик пачки документов одного среза
+     */
+    @FunctionalInterface
+    public interface BatchConsumer<T> {
+
+        void accept(int slice, List<Hit<T>> hits) throws IOException;
+
+    }
+
+    /**
+     * Читает все документы индекса, подходящие под запрос, и блокируется до завершения всех срезов
+     *
+     * @param cancelled проверяется перед каждой пачкой; при true чтение прекращается
+     */
+    public <T> void scan(String index, Query query, int slices, int batchSize, Duration keepAlive,
+                         Class<T> documentClass, BatchConsumer<T> consumer, BooleanSupplier cancelled)
+            throws IOException, InterruptedException {
+        scan(index, query, slices, batchSize, keepAlive, documentClass, consumer, slice -> {
+        }, cancelled);
+    }
+
+    /**
+     * @param finished вызывается с номером среза, когда срез прочитан до конца (но не при отмене)
+     */
+    public <T> void scan(String index, Query query, int slices, int batchSize, Duration keepAlive,
+                         Class<T> documentClass, BatchConsumer<T> consumer, IntConsumer finished,
+                         BooleanSupplier cancelled) throws IOException, InterruptedException {
+
+        String keepAliveTime = keepAlive.toSeconds() + "s";
+        String pitId = elasticsearchClient.openPointInTime(o -> o
+                .index(index)
+                .keepAlive(t -> t.time(keepAliveTime))
+        ).id();
+
+        ExecutorService executor = Executors.newFixedThreadPool(slices);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int slice = 0; slice < slices; slice++) {
+                int sliceId = slice;
+                futures.add(executor.submit(() -> {
+                    scanSlice(pitId, keepAliveTime, query, sliceId, slices, batchSize, documentClass, consumer, finished, cancelled);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            elasticsearchClient.closePointInTime(c -> c.id(pitId));
+        }
+    }
+
+    private <T> void scanSlice(String pitId, String keepAliveTime, Query query, int slice, int slices, int batchSize,
+                               Class<T> documentClass, BatchConsumer<T> consumer, IntConsumer finished,
+                               BooleanSupplier cancelled) throws IOException {
+
+        List<FieldValue> searchAfter = null;
+
+        while (!cancelled.getAsBoolean()) {
+            SearchRequest.Builder request = new SearchRequest.Builder()
+                    .pit(p -> p.id(pitId).keepAlive(t -> t.time(keepAliveTime)))
+                    .query(query)
+                    .size(batchSize)
+                    .trackTotalHits(t -> t.enabled(false))
+                    .sort(s -> s.field(f -> f.field("timestamp").order(SortOrder.Asc)))
+                    .sort(s -> s.field(f -> f.field("_shard_doc").order(SortOrder.Asc)));
+            if (slices > 1) {
+                request.slice(s -> s.id(String.valueOf(slice)).max(slices));
+            }
+            if (searchAfter != null) {
+                request.searchAfter(searchAfter);
+            }
+
+            List<Hit<T>> hits = elasticsearchClient.search(request.build(), documentClass).hits().hits();
+            if (hits.isEmpty()) {
+                finished.accept(slice);
+                return;
+            }
+
+            consumer.accept(slice, hits);
+            searchAfter = hits.getLast().sort();
+        }
+    }
+
+}
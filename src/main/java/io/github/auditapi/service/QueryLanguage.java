@@ -0,0 +1,447 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import io.github.auditapi.config.SearchProperties;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Компактный язык запросов параметра q.
+ * <pre>
+ *   statusCode:5* AND uri:/api/orders/* AND NOT method:GET
+ *   (level:ERROR OR level:WARN) timestamp:[now-15m TO now]
+ *   uri:"/api/a b" statusCode:&gt;=500 -direction:OUTGOING timeout
+ * </pre>
+ * Поддерживаются field:value, кавычки, * и ? в значениях, диапазоны [a TO b] / {a TO b}
+ * и сравнения &gt;, &gt;=, &lt;, &lt;=, операторы AND (можно опускать), OR, NOT / -
+ * и скобки; слово без поля ищется полнотекстово. Точные условия, шаблоны и диапазоны
+ * попадают в контекст filter и кэшируются Elasticsearch, полнотекстовые - в must.
+ * Скомпилированные запросы кэшируются по строке запроса
+ */
+@Component
+public class QueryLanguage {
+
+    private static final int MAX_LENGTH = 2000;
+
+    private final Map<String, CompiledQuery> cache;
+
+    public QueryLanguage(SearchProperties searchProperties) {
+        int capacity = searchProperties.getCompiledQueryCacheSize();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledQuery> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    /**
+     * @return скомпилированный запрос или null для пустой строки
+     * @throws ResponseStatusException 400 при синтаксической ошибке или неизвестном поле
+     */
+    public CompiledQuery compile(Dialect dialect, String q) {
+        if (q == null || q.isBlank()) {
+            return null;
+        }
+        if (q.length() > MAX_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q is longer than " + MAX_LENGTH + " characters");
+        }
+        String key = dialect.getName() + '\u0000' + q;
+        CompiledQuery cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Clause clause = new Parser(q, dialect).parse();
+        CompiledQuery compiled = new CompiledQuery(clause.query, clause.scoring);
+        cache.put(key, compiled);
+        return compiled;
+    }
+
+    /**
+     * Результат компиляции; объекты запросов клиента неизменяемы и безопасно переиспользуются
+     */
+    @Getter
+    public static final class CompiledQuery {
+
+        private final Query query;
+
+        /**
+         * Запрос содержит полнотекстовые условия и должен стоять в must, а не в filter
+         */
+        private final boolean scoring;
+
+        private CompiledQuery(Query query, boolean scoring) {
+            this.query = query;
+            this.scoring = scoring;
+        }
+
+    }
+
+    public enum FieldKind {
+        KEYWORD, TEXT, DATE
+    }
+
+    /**
+     * Поля, доступные в q для конкретного индекса, и поля полнотекстового поиска по словам без поля
+     */
+    @Getter
+    public static final class Dialect {
+
+        private final String name;
+        private final Map<String, Field> fields = new LinkedHashMap<>();
+        private final List<String> fullTextFields;
+
+        public Dialect(String name, List<String> fullTextFields) {
+            this.name = name;
+            this.fullTextFields = fullTextFields;
+        }
+
+        public Dialect field(String name, String elasticField, FieldKind kind) {
+            fields.put(name, new Field(elasticField, kind));
+            return this;
+        }
+
+    }
+
+    private static final class Field {
+
+        private final String elasticField;
+        private final FieldKind kind;
+
+        private Field(String elasticField, FieldKind kind) {
+            this.elasticField = elasticField;
+            this.kind = kind;
+        }
+
+    }
+
+    private static final class Clause {
+
+        private final Query query;
+        private final boolean scoring;
+
+        /**
+         * Для NOT - отрицаемое условие, чтобы AND разложил его в must_not без лишней вложенности
+         */
+        private final Query negated;
+
+        private Clause(Query query, boolean scoring, Query negated) {
+            this.query = query;
+            this.scoring = scoring;
+            this.negated = negated;
+        }
+
+        static Clause of(Query query, boolean scoring) {
+            return new Clause(query, scoring, null);
+        }
+
+        static Clause not(Clause inner) {
+            Query query = Query.of(q -> q.bool(b -> b.mustNot(inner.query)));
+            return new Clause(query, false, inner.query);
+        }
+
+        static Clause and(List<Clause> clauses) {
+            BoolQuery.Builder bool = new BoolQuery.Builder();
+            boolean scoring = false;
+            for (Clause clause : clauses) {
+                if (clause.negated != null) {
+                    bool.mustNot(clause.negated);
+                } else if (clause.scoring) {
+                    bool.must(clause.query);
+                    scoring = true;
+                } else {
+                    bool.filter(clause.query);
+                }
+            }
+            return of(Query.of(q -> q.bool(bool.build())), scoring);
+        }
+
+        static Clause or(List<Clause> clauses) {
+            BoolQuery.Builder bool = new BoolQuery.Builder().minimumShouldMatch("1");
+            boolean scoring = false;
+            for (Clause clause : clauses) {
+                bool.should(clause.query);
+                scoring |= clause.scoring;
+            }
+            return of(Query.of(q -> q.bool(bool.build())), scoring);
+        }
+
+    }
+
+    /**
+     * Рекурсивный спуск: or := and (OR and)*, and := unary ([AND] unary)*,
+     * unary := (NOT | -) unary | '(' or ')' | term
+     */
+    private static final class Parser {
+
+        private final String input;
+        private final Dialect dialect;
+        private int position;
+
+        private Parser(String input, Dialect dialect) {
+            this.input = input;
+            this.dialect = dialect;
+        }
+
+        Clause parse() {
+            Clause clause = or();
+            skipWhitespace();
+            if (position < input.length()) {
+                throw error("unexpected '" + input.charAt(position) + "'");
+            }
+            return clause;
+        }
+
+        private Clause or() {
+            List<Clause> clauses = new ArrayList<>();
+            clauses.add(and());
+            while (operator("OR") || symbol("||")) {
+                clauses.add(and());
+            }
+            return clauses.size() == 1 ? clauses.getFirst() : Clause.or(clauses);
+        }
+
+        private Clause and() {
+            List<Clause> clauses = new ArrayList<>();
+            clauses.add(unary());
+            while (true) {
+                skipWhitespace();
+                if (position >= input.length() || input.charAt(position) == ')' || lookingAtOperator("OR") || input.startsWith("||", position)) {
+                    break;
+                }
+                if (!operator("AND")) {
+                    symbol("&&");
+                }
+                clauses.add(unary());
+            }
+            return clauses.size() == 1 ? clauses.getFirst() : Clause.and(clauses);
+        }
+
+        private Clause unary() {
+            if (operator("NOT") || symbol("-") || symbol("!")) {
+                return Clause.not(unary());
+            }
+            if (symbol("(")) {
+                Clause clause = or();
+                if (!symbol(")")) {
+                    throw error("missing ')'");
+                }
+                return clause;
+            }
+            return term();
+        }
+
+        private Clause term() {
+            skipWhitespace();
+            if (position >= input.length()) {
+                throw error("expected a term");
+            }
+            if (input.charAt(position) == '"') {
+                return fullText(quoted(), TextQueryType.Phrase);
+            }
+
+            int start = position;
+            while (position < input.length() && !isDelimiter(input.charAt(position)) && input.charAt(position) != ':') {
+                position++;
+            }
+            String name = input.substring(start, position);
+            if (position < input.length() && input.charAt(position) == ':') {
+                Field field = dialect.getFields().get(name);
+                if (field == null) {
+                    throw error("unknown field '" + name + "', expected one of " + dialect.getFields().keySet());
+                }
+                position++;
+                return fieldClause(name, field);
+            }
+            if (name.isEmpty()) {
+                throw error("expected a term");
+            }
+            return fullText(name, TextQueryType.BestFields);
+        }
+
+        private Clause fieldClause(String name, Field field) {
+            if (position >= input.length() || Character.isWhitespace(input.charAt(position))) {
+                throw error("missing value for '" + name + "'");
+            }
+            char first = input.charAt(position);
+            if (first == '[' || first == '{') {
+                return range(name, field);
+            }
+            if (first == '>' || first == '<') {
+                return comparison(name, field);
+            }
+            boolean quoted = first == '"';
+            String value = quoted ? quoted() : bare();
+
+            return switch (field.kind) {
+                case KEYWORD -> !quoted && (value.contains("*") || value.contains("?"))
+                        ? Clause.of(Query.of(q -> q.wildcard(w -> w.field(field.elasticField).value(value))), false)
+                        : Clause.of(Query.of(q -> q.term(t -> t.field(field.elasticField).value(value))), false);
+                case TEXT -> Clause.of(quoted
+                        ? Query.of(q -> q.matchPhrase(m -> m.field(field.elasticField).query(value).analyzer("audit_analyzer")))
+                        : Query.of(q -> q.match(m -> m.field(field.elasticField).query(value).analyzer("audit_analyzer"))), true);
+                case DATE -> bounds(name, field, value, true, value, true);
+            };
+        }
+
+        private Clause range(String name, Field field) {
+            boolean includeLower = input.charAt(position++) == '[';
+            String lower = bare();
+            if (!operator("TO")) {
+                throw error("expected 'TO' in range for '" + name + "'");
+            }
+            skipWhitespace();
+            int start = position;
+            while (position < input.length() && input.charAt(position) != ']' && input.charAt(position) != '}'
+                    && !Character.isWhitespace(input.charAt(position))) {
+                position++;
+            }
+            String upper = input.substring(start, position);
+            if (position >= input.length() || (input.charAt(position) != ']' && input.charAt(position) != '}')) {
+                throw error("missing ']' in range for '" + name + "'");
+            }
+            boolean includeUpper = input.charAt(position++) == ']';
+            return bounds(name, field, "*".equals(lower) ? null : lower, includeLower, "*".equals(upper) ? null : upper, includeUpper);
+        }
+
+        private Clause comparison(String name, Field field) {
+            boolean greater = input.charAt(position++) == '>';
+            boolean inclusive = position < input.length() && input.charAt(position) == '=';
+            if (inclusive) {
+                position++;
+            }
+            String value = bare();
+            if (value.isEmpty()) {
+                throw error("missing value for '" + name + "'");
+            }
+            return greater ? bounds(name, field, value, inclusive, null, false) : bounds(name, field, null, false, value, inclusive);
+        }
+
+        private Clause bounds(String name, Field field, String lower, boolean includeLower, String upper, boolean includeUpper) {
+            if (field.kind == FieldKind.TEXT) {
+                throw error("ranges are not supported for text field '" + name + "'");
+            }
+            Query query = field.kind == FieldKind.DATE
+                    ? Query.of(q -> q.range(r -> r.date(d -> {
+                        d.field(field.elasticField);
+                        if (lower != null) {
+                            if (includeLower) {
+                                d.gte(lower);
+                            } else {
+                                d.gt(lower);
+                            }
+                        }
+                        if (upper != null) {
+                            if (includeUpper) {
+                                d.lte(upper);
+                            } else {
+                                d.lt(upper);
+                            }
+                        }
+                        return d;
+                    })))
+                    : Query.of(q -> q.range(r -> r.term(t -> {
+                        t.field(field.elasticField);
+                        if (lower != null) {
+                            if (includeLower) {
+                                t.gte(lower);
+                            } else {
+                                t.gt(lower);
+                            }
+                        }
+                        if (upper != null) {
+                            if (includeUpper) {
+                                t.lte(upper);
+                            } else {
+                                t.lt(upper);
+                            }
+                        }
+                        return t;
+                    })));
+            return Clause.of(query, false);
+        }
+
+        private Clause fullText(String text, TextQueryType type) {
+            return Clause.of(Query.of(q -> q.multiMatch(mm -> mm
+                    .query(text)
+                    .fields(dialect.getFullTextFields())
+                    .type(type)
+                    .analyzer("audit_analyzer"))), true);
+        }
+
+        private String quoted() {
+            position++;
+            StringBuilder value = new StringBuilder();
+            while (position < input.length()) {
+                char c = input.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c == '\\' && position < input.length()) {
+                    c = input.charAt(position++);
+                }
+                value.append(c);
+            }
+            throw error("unterminated quote");
+        }
+
+        private String bare() {
+            skipWhitespace();
+            int start = position;
+            while (position < input.length() && !isDelimiter(input.charAt(position))) {
+                position++;
+            }
+            return input.substring(start, position);
+        }
+
+        private boolean operator(String word) {
+            skipWhitespace();
+            if (lookingAtOperator(word)) {
+                position += word.length();
+                return true;
+            }
+            return false;
+        }
+
+        private boolean lookingAtOperator(String word) {
+            int end = position + word.length();
+            return input.startsWith(word, position)
+                    && (end == input.length() || Character.isWhitespace(input.charAt(end)) || input.charAt(end) == '(');
+        }
+
+        private boolean symbol(String symbol) {
+            skipWhitespace();
+            if (input.startsWith(symbol, position)) {
+                position += symbol.length();
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+                position++;
+            }
+        }
+
+        private static boolean isDelimiter(char c) {
+            return Character.isWhitespace(c) || c == '(' || c == ')';
+        }
+
+        private ResponseStatusException error(String message) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, "q: " + message + " at position " + position);
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import io.github.auditapi.model.elastic.TimeRange;
+import lombok.experimental.UtilityClass;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Общие части поисковых запросов
+ */
+@UtilityClass
+class QuerySupport {
+
+    private static final String RESERVED = "+-=&|><!(){}[]^\"~*?:\\/";
+
+    /**
+     * Шаг округления границ диапазона времени. Запросы за одно окно, присланные в течение
+     * минуты, получают одинаковый фильтр и переиспользуют его битсет в query cache
+     */
+    static final long TIME_ROUNDING_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    boolean isWildcard(String value) {
+        return value.contains("*") || value.contains("?");
+    }
+
+    /**
+     * Поиск подстроки, аналог производного запроса Spring Data ...Containing
+     */
+    Query containing(String field, String value) {
+        return Query.of(q -> q.queryString(qs -> qs
+                .query(containingPattern(value))
+                .fields(field)
+                .analyzeWildcard(true)));
+    }
+
+    /**
+     * Фильтр по timestamp в контексте filter: внешние границы округляются до минуты
+     * и кэшируются Elasticsearch, точные границы добавляются отдельным фильтром только
+     * если не совпали с округленными и проверяются по doc values лишь для кандидатов
+     */
+    void timeRange(BoolQuery.Builder bool, List<String> branch, TimeRange range) {
+        List<Long[]> bounds = timeBounds(range);
+        if (bounds.isEmpty()) {
+            return;
+        }
+        for (Long[] bound : bounds) {
+            bool.filter(timestampRange(bound[0], bound[1]));
+        }
+        branch.add(bounds.size() == 1 ? "timestamp" : "timestamp:exact");
+    }
+
+    /**
+     * Те же фильтры по timestamp в виде параметра шаблона ranges: список диапазонов с необязательными gte/lte
+     */
+    void timeRange(Map<String, Object> params, List<String> branch, TimeRange range) {
+        List<Long[]> bounds = timeBounds(range);
+        if (bounds.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> ranges = new ArrayList<>();
+        for (Long[] bound : bounds) {
+            Map<String, Object> limits = new HashMap<>();
+            if (bound[0] != null) {
+                limits.put("gte", bound[0]);
+            }
+            if (bound[1] != null) {
+                limits.put("lte", bound[1]);
+            }
+            ranges.add(limits);
+        }
+        params.put("ranges", ranges);
+        branch.add(bounds.size() == 1 ? "timestamp" : "timestamp:exact");
+    }
+
+    /**
+     * Шаблон query_string для поиска подстроки, см. {@link #containing(String, String)}
+     */
+    String containingPattern(String value) {
+        return "*" + escape(value) + "*";
+    }
+
+    /**
+     * Округленные границы и, если они не совпали, точные
+     */
+    private List<Long[]> timeBounds(TimeRange range) {
+        if (range == null || range.isUnbounded()) {
+            return List.of();
+        }
+        Long from = range.getFrom() == null ? null : range.getFrom().toEpochMilli();
+        Long to = range.getTo() == null ? null : range.getTo().toEpochMilli();
+        Long roundedFrom = from == null ? null : Math.floorDiv(from, TIME_ROUNDING_MILLIS) * TIME_ROUNDING_MILLIS;
+        Long roundedTo = to == null ? null : -Math.floorDiv(-to, TIME_ROUNDING_MILLIS) * TIME_ROUNDING_MILLIS;
+
+        Long[] rounded = {roundedFrom, roundedTo};
+        if (Objects.equals(from, roundedFrom) && Objects.equals(to, roundedTo)) {
+            return List.<Long[]>of(rounded);
+        }
+        return List.of(rounded, new Long[]{from, to});
+    }
+
+    private Query timestampRange(Long from, Long to) {
+        return Query.of(q -> q.range(r -> r.date(d -> {
+            d.field("timestamp").format("epoch_millis");
+            if (from != null) {
+                d.gte(String.valueOf(from));
+            }
+            if (to != null) {
+                d.lte(String.valueOf(to));
+            }
+            return d;
+        })));
+    }
+
+    private String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (char c : value.toCharArray()) {
+            if (RESERVED.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+}
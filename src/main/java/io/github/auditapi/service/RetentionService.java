@@ -0,0 +1,311 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Conflicts;
+import co.elastic.clients.elasticsearch._types.SlicesCalculation;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.DeleteByQueryResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.auditapi.config.RetentionProperties;
+import io.github.auditapi.config.StorageProperties;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.retention.RetentionPolicyStatus;
+import io.github.auditapi.model.retention.RetentionStatusResponse;
+import io.github.auditapi.web.SearchLatencyInterceptor;
+import jakarta.annotation.PreDestroy;
+import jakarta.json.JsonObject;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * Сервис удаления устаревших документов.
+ * Сначала удаляет суточные партиции целиком, затем добирает остаток
+ * нарезанным (sliced) delete-by-query с ограничением скорости.
+ * При audit.storage.split-bodies вместе с документами удаляются их тела из отдельных индексов
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RetentionService {
+
+    private static final Duration BODY_SCAN_KEEP_ALIVE = Duration.ofMinutes(5);
+
+    private final RetentionProperties retentionProperties;
+    private final ElasticsearchClient elasticsearchClient;
+    private final SearchLatencyInterceptor searchLatencyInterceptor;
+    private final StorageProperties storageProperties;
+    private final PointInTimeScanner pointInTimeScanner;
+
+    private final Clock clock = Clock.systemUTC();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Map<String, RetentionPolicyStatus> statuses = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile LocalDateTime lastRunFinishedAt;
+    private volatile double searchLatencyBaselineMs;
+
+    /**
+     * Удаление идет часами, поэтому выполняется в собственном потоке и не занимает общий планировщик
+     */
+    @Scheduled(fixedDelayString = "${audit.retention.interval:PT1H}", initialDelayString = "${audit.retention.initial-delay:PT5M}")
+    public void scheduledRun() {
+        if (retentionProperties.isEnabled()) {
+            triggerRun();
+        }
+    }
+
+    /**
+     * Запускает удаление в фоне
+     *
+     * @return false, если удаление уже выполняется
+     */
+    public boolean triggerRun() {
+        if (running.get()) {
+            return false;
+        }
+        executor.submit(this::runAll);
+        return true;
+    }
+
+    public RetentionStatusResponse getStatus() {
+        return RetentionStatusResponse.builder()
+                .running(running.get())
+                .lastRunStartedAt(lastRunStartedAt)
+                .lastRunFinishedAt(lastRunFinishedAt)
+                .searchLatencyBaselineMs(searchLatencyBaselineMs)
+                .searchLatencyCurrentMs(searchLatencyInterceptor.getAverageMs())
+                .policies(retentionProperties.getPolicies().stream()
+                        .map(policy -> statuses.getOrDefault(policy.getName(), initialStatus(policy)))
+                        .toList())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void runAll() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lastRunStartedAt = LocalDateTime.now(clock);
+            searchLatencyBaselineMs = searchLatencyInterceptor.getAverageMs();
+
+            for (RetentionProperties.Policy policy : retentionProperties.getPolicies()) {
+                try {
+                    apply(policy);
+                } catch (IOException | RuntimeException e) {
+                    log.error("Retention policy {} failed", policy.getName(), e);
+                    update(policy, status -> status.toBuilder()
+                            .state("FAILED")
+                            .error(e.getMessage())
+                            .finishedAt(LocalDateTime.now(clock))
+                            .build());
+                }
+            }
+
+            lastRunFinishedAt = LocalDateTime.now(clock);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void apply(RetentionProperties.Policy policy) throws IOException {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(policy.getMaxAge());
+        statuses.put(policy.getName(), initialStatus(policy).toBuilder()
+                .state("DROPPING_PARTITIONS")
+                .startedAt(LocalDateTime.now(clock))
+                .build());
+
+        List<String> dropped = policy.hasFilter() ? List.of() : dropExpiredPartitions(policy, cutoff);
+        update(policy, status -> status.toBuilder().droppedPartitions(dropped).state("DELETING").build());
+
+        deleteByQuery(policy, cutoff);
+    }
+
+    private List<String> dropExpiredPartitions(RetentionProperties.Policy policy, LocalDateTime cutoff) throws IOException {
+        String index = policy.getIndex();
+        String prefix = index + "-";
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(retentionProperties.getPartitionDatePattern());
+        List<String> expired = new ArrayList<>();
+
+        for (String partition : elasticsearchClient.indices()
+                .get(g -> g.index(prefix + "*").allowNoIndices(true))
+                .result()
+                .keySet()) {
+            try {
+                LocalDate day = LocalDate.parse(partition.substring(prefix.length()), formatter);
+                if (!day.plusDays(1).atStartOfDay().isAfter(cutoff)) {
+                    expired.add(partition);
+                }
+            } catch (DateTimeParseException e) {
+                log.debug("Index {} is not a time partition", partition);
+            }
+        }
+
+        if (!expired.isEmpty()) {
+            deleteBodies(policy, String.join(",", expired), Query.of(q -> q.matchAll(m -> m)));
+            elasticsearchClient.indices().delete(d -> d.index(expired));
+            log.info("Dropped expired partitions {}", expired);
+        }
+        return expired;
+    }
+
+    private void deleteByQuery(RetentionProperties.Policy policy, LocalDateTime cutoff) throws IOException {
+        BoolQuery.Builder boolQuery = new BoolQuery.Builder();
+        boolQuery.filter(f -> f.range(RangeQuery.of(r -> r
+                .date(d -> d
+                        .field("timestamp")
+                        .lt(cutoff.toString())
+                )
+        )));
+        if (policy.hasFilter()) {
+            boolQuery.filter(f -> f.term(t -> t.field(policy.getField()).value(policy.getValue())));
+        }
+
+        Query query = Query.of(q -> q.bool(boolQuery.build()));
+        deleteBodies(policy, policy.getIndex(), query);
+
+        DeleteByQueryResponse response = elasticsearchClient.deleteByQuery(d -> d
+                .index(policy.getIndex())
+                .query(query)
+                .slices(s -> s.computed(SlicesCalculation.Auto))
+                .requestsPerSecond(retentionProperties.getRequestsPerSecond())
+                .conflicts(Conflicts.Proceed)
+                .waitForCompletion(false)
+        );
+
+        String taskId = response.task();
+        update(policy, status -> status.toBuilder().taskId(taskId).build());
+
+        long startNanos = System.nanoTime();
+        while (true) {
+            sleep(retentionProperties.getPollInterval());
+
+            GetTasksResponse task = elasticsearchClient.tasks().get(g -> g.taskId(taskId));
+            JsonObject progress = task.task().status().toJson().asJsonObject();
+            long total = longValue(progress, "total");
+            long deleted = longValue(progress, "deleted");
+            double seconds = Math.max((System.nanoTime() - startNanos) / 1e9, 1e-3);
+
+            update(policy, status -> status.toBuilder()
+                    .total(total)
+                    .deleted(deleted)
+                    .docsPerSecond(deleted / seconds)
+                    .build());
+
+            if (task.completed()) {
+                String error = task.error() != null ? task.error().reason() : null;
+                update(policy, status -> status.toBuilder()
+                        .state(error == null ? "DONE" : "FAILED")
+                        .error(error)
+                        .finishedAt(LocalDateTime.now(clock))
+                        .build());
+                log.info("Retention policy {} deleted {} documents from {}", policy.getName(), deleted, policy.getIndex());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Удаляет тела документов, подходящих под запрос, из отдельного индекса тел (audit.storage.split-bodies).
+     * У тел нет timestamp, поэтому они находятся по идентификаторам документов и удаляются раньше самих документов:
+     * после сбоя между шагами остаются документы без тел, которые удалятся при следующем запуске, а не тела без документов
+     */
+    private void deleteBodies(RetentionProperties.Policy policy, String index, Query query) throws IOException {
+        String bodyIndex = bodyIndex(policy.getIndex());
+        if (!storageProperties.isSplitBodies() || bodyIndex == null) {
+            return;
+        }
+        try {
+            pointInTimeScanner.scan(index, query, 1, retentionProperties.getBodyBatchSize(), BODY_SCAN_KEEP_ALIVE,
+                    ObjectNode.class, (slice, hits) -> {
+                        BulkRequest.Builder request = new BulkRequest.Builder().index(bodyIndex);
+                        for (Hit<ObjectNode> hit : hits) {
+                            request.operations(o -> o.delete(d -> d.id(hit.id())));
+                        }
+                        BulkResponse response = elasticsearchClient.bulk(request.build());
+                        long deleted = 0;
+                        for (BulkResponseItem item : response.items()) {
+                            if (item.error() != null) {
+                                throw new IllegalStateException("Failed to delete body " + item.id() + ": " + item.error().reason());
+                            }
+                            if (item.status() == 200) {
+                                deleted++;
+                            }
+                        }
+                        long batchDeleted = deleted;
+                        update(policy, status -> status.toBuilder().deletedBodies(status.getDeletedBodies() + batchDeleted).build());
+                    }, () -> false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Retention run interrupted", e);
+        }
+    }
+
+    private static String bodyIndex(String index) {
+        for (AuditDocumentType type : AuditDocumentType.values()) {
+            if (type.getIndexName().equals(index)) {
+                return type.getBodyIndexName();
+            }
+        }
+        return null;
+    }
+
+    private void update(RetentionProperties.Policy policy, UnaryOperator<RetentionPolicyStatus> change) {
+        statuses.compute(policy.getName(), (name, status) -> change.apply(status != null ? status : initialStatus(policy)));
+    }
+
+    private RetentionPolicyStatus initialStatus(RetentionProperties.Policy policy) {
+        return RetentionPolicyStatus.builder()
+                .name(policy.getName())
+                .index(policy.getIndex())
+                .filter(policy.hasFilter() ? policy.getField() + "=" + policy.getValue() : null)
+                .maxAge(policy.getMaxAge())
+                .state("IDLE")
+                .droppedPartitions(List.of())
+                .build();
+    }
+
+    private long longValue(JsonObject object, String key) {
+        return object.containsKey(key) ? object.getJsonNumber(key).longValue() : 0;
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Retention run interrupted", e);
+        }
+    }
+
+}
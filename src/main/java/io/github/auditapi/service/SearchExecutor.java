@@ -0,0 +1,451 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.ShardFailure;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.SearchTemplateRequest;
+import co.elastic.clients.elasticsearch.core.search.Highlight;
+import co.elastic.clients.elasticsearch.core.search.HighlighterType;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.ResponseBody;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
+import co.elastic.clients.elasticsearch.core.search.TrackHits;
+import co.elastic.clients.json.JsonData;
+import co.elastic.clients.json.JsonpUtils;
+import co.elastic.clients.transport.TransportOptions;
+import co.elastic.clients.transport.endpoints.BinaryEndpoint;
+import co.elastic.clients.transport.endpoints.BinaryResponse;
+import co.elastic.clients.util.ObjectBuilder;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.model.elastic.CountResponse;
+import io.github.auditapi.model.elastic.ExistsResponse;
+import io.github.auditapi.model.elastic.PartialResult;
+import io.github.auditapi.model.elastic.SearchOptions;
+import io.github.auditapi.model.elastic.SearchProfile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Выполнение постраничных поисковых запросов через ElasticsearchAsyncClient
+ * с таймаутом, частичными результатами, замером таймингов, журналом медленных запросов
+ * и профилированием по запросу. Отмена возвращаемого future прерывает HTTP-запрос
+ * к Elasticsearch, и кластер отменяет задачу поиска
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchExecutor {
+
+    /**
+     * Тот же _search, но без разбора ответа клиентом: тело отдается как поток байтов
+     */
+    private static final BinaryEndpoint<SearchRequest> RAW_SEARCH = new BinaryEndpoint<>("es/search",
+            SearchRequest._ENDPOINT::method,
+            SearchRequest._ENDPOINT::requestUrl,
+            SearchRequest._ENDPOINT::pathParameters,
+            SearchRequest._ENDPOINT::queryParameters,
+            SearchRequest._ENDPOINT::headers,
+            true,
+            null);
+
+    /**
+     * То же для вызова хранимого шаблона через _search/template
+     */
+    private static final BinaryEndpoint<SearchTemplateRequest> RAW_SEARCH_TEMPLATE = new BinaryEndpoint<>("es/search_template",
+            SearchTemplateRequest._ENDPOINT::method,
+            SearchTemplateRequest._ENDPOINT::requestUrl,
+            SearchTemplateRequest._ENDPOINT::pathParameters,
+            SearchTemplateRequest._ENDPOINT::queryParameters,
+            SearchTemplateRequest._ENDPOINT::headers,
+            true,
+            null);
+
+    private static final String SMILE_CONTENT_TYPE = "application/smile";
+    private static final JsonFactory SMILE_FACTORY = new SmileFactory();
+
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final ObjectMapper objectMapper;
+    private final SlowQueryLog slowQueryLog;
+    private final SearchProperties searchProperties;
+    private final SearchResponseWriter searchResponseWriter;
+
+    /**
+     * Обработка ответа (десериализация, подгрузка тел) вне потоков HTTP-клиента Elasticsearch
+     */
+    private final ExecutorService responseExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Параметры транспорта для потокового поиска: при audit.search.elasticsearch-smile ответ запрашивается в Smile
+     */
+    private TransportOptions streamTransportOptions;
+
+    @PostConstruct
+    void init() {
+        TransportOptions options = elasticsearchAsyncClient._transport().options();
+        streamTransportOptions = searchProperties.isElasticsearchSmile()
+                ? options.toBuilder().setHeader("Accept", SMILE_CONTENT_TYPE).build()
+                : options;
+    }
+
+    /**
+     * @param planner  построение запроса (его время попадает в тайминги)
+     * @param idSetter установка идентификатора документа из _id
+     * @param bodyJoin подгрузка тел документов
+     */
+    public <T> CompletableFuture<io.github.auditapi.model.elastic.SearchResponse<T>> search(
+            Supplier<SearchPlan> planner, int page, int size, SearchOptions options,
+            Class<T> documentClass, BiConsumer<T, String> idSetter, Consumer<List<T>> bodyJoin) {
+
+        long start = System.nanoTime();
+        SearchPlan plan = planner.get();
+        SearchRequest request = request(plan, page, size, options);
+        long built = System.nanoTime();
+
+        if (options.isProfile()) {
+            CompletableFuture<SearchResponse<ObjectNode>> call = elasticsearchAsyncClient.search(request, ObjectNode.class);
+            return cancellable(call, call.thenApplyAsync(response -> {
+                long received = System.nanoTime();
+                List<T> results = new ArrayList<>(size);
+                Map<String, Map<String, List<String>>> highlights = new LinkedHashMap<>();
+                for (Hit<ObjectNode> hit : response.hits().hits()) {
+                    T document = treeToValue(hit.source(), documentClass);
+                    idSetter.accept(document, hit.id());
+                    results.add(document);
+                    collectHighlight(hit, highlights);
+                }
+                return complete(plan, options, response, results, highlights, bodyJoin, start, built, received);
+            }, responseExecutor));
+        }
+
+        CompletableFuture<SearchResponse<T>> call = elasticsearchAsyncClient.search(request, documentClass);
+        return cancellable(call, call.thenApplyAsync(response -> {
+            long received = System.nanoTime();
+            List<T> results = new ArrayList<>(size);
+            Map<String, Map<String, List<String>>> highlights = new LinkedHashMap<>();
+            for (Hit<T> hit : response.hits().hits()) {
+                idSetter.accept(hit.source(), hit.id());
+                results.add(hit.source());
+                collectHighlight(hit, highlights);
+            }
+            return complete(plan, options, response, results, highlights, bodyJoin, start, built, received);
+        }, responseExecutor));
+    }
+
+    /**
+     * Потоковое выполнение поиска: сырой ответ _search разбирается по одному хиту
+     * и сразу пишется в out, без промежуточного списка документов и буфера ответа
+     */
+    public <T> void stream(Supplier<SearchPlan> planner, int page, int size, SearchOptions options,
+                           Class<T> documentClass, BiConsumer<T, String> idSetter, OutputStream out) throws IOException {
+
+        long start = System.nanoTime();
+        SearchPlan plan = planner.get();
+        CompletableFuture<BinaryResponse> call;
+        long built;
+        if (plan.getTemplate() != null) {
+            SearchTemplateRequest request = templateRequest(plan, page, size, options);
+            built = System.nanoTime();
+            call = elasticsearchAsyncClient._transport().performRequestAsync(request, RAW_SEARCH_TEMPLATE, streamTransportOptions);
+        } else {
+            SearchRequest request = request(plan, page, size, options);
+            built = System.nanoTime();
+            call = elasticsearchAsyncClient._transport().performRequestAsync(request, RAW_SEARCH, streamTransportOptions);
+        }
+        try (BinaryResponse response = await(call)) {
+            long received = System.nanoTime();
+            JsonFactory sourceFactory = response.contentType() != null && response.contentType().startsWith(SMILE_CONTENT_TYPE)
+                    ? SMILE_FACTORY
+                    : objectMapper.getFactory();
+            long took = searchResponseWriter.write(response.content(), sourceFactory, out, options.getFormat().getFactory(),
+                    documentClass, idSetter, options.getOnPartial());
+            long written = System.nanoTime();
+
+            SearchProfile timings = SearchProfile.builder()
+                    .plan(plan.getName())
+                    .queryBuildMs(millis(start, built))
+                    .elasticsearchTookMs(took)
+                    .networkMs(Math.max(0, millis(built, received) - took))
+                    .deserializationMs(millis(received, written))
+                    .build();
+            slowQueryLog.record(timings, plan, millis(start, written));
+        }
+    }
+
+    /**
+     * Тело ответа для случаев, когда поток невозможен (профилирование, подгрузка тел из отдельных индексов)
+     */
+    public StreamingResponseBody buffered(CompletableFuture<?> result, SearchOptions options) {
+        return out -> {
+            Object value = await(result);
+            if (value instanceof PartialResult partial && partial.isPartial()) {
+                options.getOnPartial().run();
+            }
+            try (JsonGenerator generator = options.getFormat().getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                objectMapper.writeValue(generator, value);
+            }
+        };
+    }
+
+    /**
+     * Число документов: size 0 и точный track_total_hits, хиты не читаются, не десериализуются
+     * и не сериализуются; в отличие от _count, запрос ограничен таймаутом, как и exists
+     */
+    public CompletableFuture<CountResponse> count(SearchPlan plan, Duration timeout) {
+        SearchRequest request = SearchRequest.of(s -> s
+                .index(plan.getIndex())
+                .query(plan.getQuery())
+                .size(0)
+                .trackTotalHits(t -> t.enabled(true))
+                .timeout(searchProperties.resolveTimeout(timeout).toMillis() + "ms")
+                .allowPartialSearchResults(true));
+
+        CompletableFuture<SearchResponse<Void>> call = elasticsearchAsyncClient.search(request, Void.class);
+        return cancellable(call, call.thenApply(response -> CountResponse.builder()
+                .count(response.hits().total() != null ? response.hits().total().value() : 0)
+                .partial(isPartial(response))
+                .shardFailures(shardFailures(response))
+                .build()));
+    }
+
+    /**
+     * Проверка наличия документа: size 0 и terminate_after 1, каждый шард прекращает сбор
+     * на первом совпадении, а total hits считается только по собранным документам
+     */
+    public CompletableFuture<ExistsResponse> exists(SearchPlan plan, Duration timeout) {
+        SearchRequest request = SearchRequest.of(s -> s
+                .index(plan.getIndex())
+                .query(plan.getQuery())
+                .size(0)
+                .terminateAfter(1L)
+                .trackTotalHits(t -> t.enabled(true))
+                .timeout(searchProperties.resolveTimeout(timeout).toMillis() + "ms")
+                .allowPartialSearchResults(true));
+
+        CompletableFuture<SearchResponse<Void>> call = elasticsearchAsyncClient.search(request, Void.class);
+        return cancellable(call, call.thenApply(response -> ExistsResponse.builder()
+                .exists(response.hits().total() != null && response.hits().total().value() > 0)
+                .partial(isPartial(response))
+                .shardFailures(shardFailures(response))
+                .build()));
+    }
+
+    /**
+     * Ожидание ответа в потоке записи; прерывание (таймаут обработки запроса) отменяет запрос к Elasticsearch
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Search interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Отмена результата отменяет и исходный запрос к Elasticsearch
+     */
+    public static <T> CompletableFuture<T> cancellable(CompletableFuture<?> call, CompletableFuture<T> result) {
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Ошибки шардов в виде "index[shard]: reason"
+     */
+    public static List<String> shardFailures(ResponseBody<?> response) {
+        List<String> failures = new ArrayList<>();
+        if (response.timedOut()) {
+            failures.add("timed out");
+        }
+        for (ShardFailure failure : response.shards().failures()) {
+            failures.add(failure.index() + "[" + failure.shard() + "]: " + failure.reason().reason());
+        }
+        return failures;
+    }
+
+    public static boolean isPartial(ResponseBody<?> response) {
+        return response.timedOut() || response.shards().failed().intValue() > 0;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        responseExecutor.shutdown();
+    }
+
+    private <T> io.github.auditapi.model.elastic.SearchResponse<T> complete(
+            SearchPlan plan, SearchOptions options, SearchResponse<?> response, List<T> results,
+            Map<String, Map<String, List<String>>> highlights, Consumer<List<T>> bodyJoin, long start, long built, long received) {
+
+        long deserialized = System.nanoTime();
+        bodyJoin.accept(results);
+        long joined = System.nanoTime();
+
+        SearchProfile timings = SearchProfile.builder()
+                .plan(plan.getName())
+                .queryBuildMs(millis(start, built))
+                .elasticsearchTookMs(response.took())
+                .networkMs(Math.max(0, millis(built, received) - response.took()))
+                .deserializationMs(millis(received, deserialized))
+                .bodyJoinMs(millis(deserialized, joined))
+                .build();
+        slowQueryLog.record(timings, plan, millis(start, joined));
+
+        io.github.auditapi.model.elastic.SearchResponse<T> result = io.github.auditapi.model.elastic.SearchResponse.<T>builder()
+                .results(results)
+                .totalHits(response.hits().total() != null ? response.hits().total().value() : results.size())
+                .totalHitsLowerBound(response.hits().total() != null && response.hits().total().relation() == TotalHitsRelation.Gte)
+                .partial(isPartial(response))
+                .shardFailures(shardFailures(response))
+                .highlights(highlights)
+                .build();
+
+        if (options.isProfile()) {
+            try {
+                long serializationStart = System.nanoTime();
+                objectMapper.writeValueAsBytes(results);
+                timings.setSerializationMs(millis(serializationStart, System.nanoTime()));
+                timings.setQuery(slowQueryLog.toJson(plan.getQuery()));
+                timings.setShards(response.profile() != null
+                        ? objectMapper.readTree(JsonpUtils.toJsonString(response.profile(), elasticsearchAsyncClient._jsonpMapper()))
+                        : null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            result.setProfile(timings);
+        }
+        return result;
+    }
+
+    private SearchRequest request(SearchPlan plan, int page, int size, SearchOptions options) {
+        Duration timeout = searchProperties.resolveTimeout(options.getTimeout());
+        return SearchRequest.of(s -> {
+            s.index(plan.getIndex())
+                    .query(plan.getQuery())
+                    .from(page * size)
+                    .size(size)
+                    .sort(so -> so.field(f -> f.field("timestamp").order(SortOrder.Desc)))
+                    .trackTotalHits(this::trackTotalHits)
+                    .timeout(timeout.toMillis() + "ms")
+                    .allowPartialSearchResults(true);
+            if (!options.returnsBodies() && !plan.getBodyFields().isEmpty()) {
+                s.source(src -> src.filter(f -> f.excludes(plan.getBodyFields())));
+            }
+            if (options.isHighlight() && !plan.getBodyFields().isEmpty()) {
+                s.highlight(h -> highlight(h, plan.getBodyFields()));
+            }
+            if (options.isProfile()) {
+                s.profile(true);
+            }
+            return s;
+        });
+    }
+
+    /**
+     * Параметры страницы, сортировки и подсветки для шаблона; остальные параметры уже в плане
+     */
+    private SearchTemplateRequest templateRequest(SearchPlan plan, int page, int size, SearchOptions options) {
+        Duration timeout = searchProperties.resolveTimeout(options.getTimeout());
+        int upTo = searchProperties.getTrackTotalHitsUpTo();
+
+        Map<String, JsonData> params = new HashMap<>();
+        plan.getTemplate().getParams().forEach((name, value) -> params.put(name, JsonData.of(value)));
+        params.put("from", JsonData.of(page * size));
+        params.put("size", JsonData.of(size));
+        params.put("timeout", JsonData.of(timeout.toMillis() + "ms"));
+        params.put("trackTotalHits", upTo > 0 ? JsonData.of(upTo) : JsonData.of(true));
+        if (!options.returnsBodies()) {
+            params.put("excludeBodies", JsonData.of(true));
+        }
+        if (options.isHighlight()) {
+            params.put("highlight", JsonData.of(true));
+            params.put("fragmentSize", JsonData.of(searchProperties.getHighlightFragmentSize()));
+            params.put("fragments", JsonData.of(searchProperties.getHighlightFragments()));
+            params.put("maxAnalyzedOffset", JsonData.of(searchProperties.getHighlightMaxAnalyzedOffset()));
+        }
+        return SearchTemplateRequest.of(s -> s
+                .index(plan.getIndex())
+                .id(plan.getTemplate().getId())
+                .params(params));
+    }
+
+    private ObjectBuilder<TrackHits> trackTotalHits(TrackHits.Builder builder) {
+        int upTo = searchProperties.getTrackTotalHitsUpTo();
+        return upTo > 0 ? builder.count(upTo) : builder.enabled(true);
+    }
+
+    /**
+     * Подсветка совпадений в телах: ограниченное число фрагментов ограниченной длины,
+     * анализ только начала длинных тел
+     */
+    private Highlight.Builder highlight(Highlight.Builder builder, List<String> fields) {
+        builder.type(HighlighterType.Unified)
+                .requireFieldMatch(true)
+                .fragmentSize(searchProperties.getHighlightFragmentSize())
+                .numberOfFragments(searchProperties.getHighlightFragments())
+                .maxAnalyzedOffset(searchProperties.getHighlightMaxAnalyzedOffset());
+        for (String field : fields) {
+            builder.fields(field, f -> f);
+        }
+        return builder;
+    }
+
+    private void collectHighlight(Hit<?> hit, Map<String, Map<String, List<String>>> highlights) {
+        if (!hit.highlight().isEmpty()) {
+            highlights.put(hit.id(), hit.highlight());
+        }
+    }
+
+    private <T> T treeToValue(ObjectNode source, Class<T> documentClass) {
+        try {
+            return objectMapper.treeToValue(source, documentClass);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private double millis(long fromNanos, long toNanos) {
+        return (toNanos - fromNanos) / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,36 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Построенный поисковый запрос: индекс, запрос и имя ветки, по которой он построен.
+ * Вместо запроса план может ссылаться на хранимый шаблон поиска
+ */
+@Getter
+@Builder
+public class SearchPlan {
+
+    private final String index;
+
+    /**
+     * Имя ветки построения запроса, попадает в профиль и журнал медленных запросов
+     */
+    private final String name;
+
+    private final Query query;
+
+    /**
+     * Хранимый шаблон поиска; если задан, query не строится
+     */
+    private final SearchTemplate template;
+
+    /**
+     * Поля с телами, исключаемые из _source, если тела не запрошены
+     */
+    private final List<String> bodyFields;
+
+}
@@ -0,0 +1,181 @@
+package io.github.auditapi.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Потоковое преобразование сырого ответа _search в ответ API.
+ * Хиты читаются из ответа Elasticsearch по одному и сразу пишутся в выходной поток,
+ * поэтому в памяти одновременно находится только текущий документ, а не вся страница.
+ * Формат совпадает с сериализацией {@link io.github.auditapi.model.elastic.SearchResponse}
+ * в выбранной кодировке
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchResponseWriter {
+
+    private final ObjectMapper objectMapper;
+
+    public <T> long write(InputStream source, OutputStream target,
+                          Class<T> documentClass, BiConsumer<T, String> idSetter) throws IOException {
+
+        return write(source, objectMapper.getFactory(), target, objectMapper.getFactory(), documentClass, idSetter);
+    }
+
+    /**
+     * @param sourceFactory кодировка ответа Elasticsearch (JSON или Smile)
+     * @param targetFactory кодировка ответа API
+     * @return took из ответа Elasticsearch
+     */
+    public <T> long write(InputStream source, JsonFactory sourceFactory, OutputStream target, JsonFactory targetFactory,
+                          Class<T> documentClass, BiConsumer<T, String> idSetter) throws IOException {
+
+        return write(source, sourceFactory, target, targetFactory, documentClass, idSetter, () -> {
+        });
+    }
+
+    /**
+     * @param onPartial вызывается, если ответ неполный, до записи первого документа: timed_out и _shards
+     *                  в ответе Elasticsearch идут раньше hits, и заголовки ответа API еще можно изменить
+     */
+    public <T> long write(InputStream source, JsonFactory sourceFactory, OutputStream target, JsonFactory targetFactory,
+                          Class<T> documentClass, BiConsumer<T, String> idSetter, Runnable onPartial) throws IOException {
+
+        long took = 0;
+        long totalHits = 0;
+        boolean totalHitsLowerBound = false;
+        boolean timedOut = false;
+        int failedShards = 0;
+        List<String> shardFailures = new ArrayList<>();
+        Map<String, JsonNode> highlights = new LinkedHashMap<>();
+        boolean resultsWritten = false;
+        boolean partialReported = false;
+
+        try (JsonParser parser = sourceFactory.createParser(source);
+             JsonGenerator generator = targetFactory.createGenerator(target)) {
+
+            parser.setCodec(objectMapper);
+            generator.setCodec(objectMapper);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "took" -> took = parser.getLongValue();
+                    case "timed_out" -> timedOut = parser.getBooleanValue();
+                    case "_shards" -> {
+                        JsonNode shards = parser.readValueAsTree();
+                        failedShards = shards.path("failed").asInt();
+                        for (JsonNode failure : shards.path("failures")) {
+                            shardFailures.add(failure.path("index").asText() + "[" + failure.path("shard").asInt() + "]: "
+                                    + failure.path("reason").path("reason").asText());
+                        }
+                    }
+                    case "hits" -> {
+                        if (timedOut || failedShards > 0) {
+                            onPartial.run();
+                            partialReported = true;
+                        }
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String hitsField = parser.currentName();
+                            parser.nextToken();
+                            if ("total".equals(hitsField)) {
+                                JsonNode total = parser.readValueAsTree();
+                                totalHits = total.path("value").asLong();
+                                totalHitsLowerBound = "gte".equals(total.path("relation").asText());
+                            } else if ("hits".equals(hitsField)) {
+                                writeHits(parser, generator, documentClass, idSetter, highlights);
+                                resultsWritten = true;
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (!partialReported && (timedOut || failedShards > 0)) {
+                onPartial.run();
+            }
+            if (!resultsWritten) {
+                generator.writeArrayFieldStart("results");
+                generator.writeEndArray();
+            }
+            if (timedOut) {
+                shardFailures.addFirst("timed out");
+            }
+            generator.writeNumberField("totalHits", totalHits);
+            if (totalHitsLowerBound) {
+                generator.writeBooleanField("totalHitsLowerBound", true);
+            }
+            generator.writeBooleanField("partial", timedOut || failedShards > 0);
+            if (!shardFailures.isEmpty()) {
+                generator.writeObjectField("shardFailures", shardFailures);
+            }
+            if (!highlights.isEmpty()) {
+                generator.writeObjectField("highlights", highlights);
+            }
+            generator.writeEndObject();
+        }
+        return took;
+    }
+
+    private <T> void writeHits(JsonParser parser, JsonGenerator generator, Class<T> documentClass,
+                               BiConsumer<T, String> idSetter, Map<String, JsonNode> highlights) throws IOException {
+
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        generator.writeArrayFieldStart("results");
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String id = null;
+            T document = null;
+            JsonNode highlight = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "_id" -> id = parser.getText();
+                    case "_source" -> document = parser.readValueAs(documentClass);
+                    case "highlight" -> highlight = parser.readValueAsTree();
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (document != null) {
+                idSetter.accept(document, id);
+                generator.writeObject(document);
+            }
+            if (highlight != null && !highlight.isEmpty()) {
+                highlights.put(id, highlight);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    private void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected search response: expected " + expected + " but was " + actual);
+        }
+    }
+
+}
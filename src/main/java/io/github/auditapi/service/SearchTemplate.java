@@ -0,0 +1,20 @@
+package io.github.auditapi.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Вызов хранимого mustache-шаблона поиска: версионированный id и параметры фильтров.
+ * Параметры страницы, сортировки и подсветки добавляет SearchExecutor
+ */
+@Getter
+@Builder
+public class SearchTemplate {
+
+    private final String id;
+
+    private final Map<String, Object> params;
+
+}
@@ -0,0 +1,114 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.GetScriptResponse;
+import io.github.auditapi.config.SearchProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Хранимые mustache-шаблоны поиска из classpath:elastic/templates.
+ * Id шаблона содержит хэш его текста, поэтому при выкладке новой версии экземпляры
+ * со старой версией продолжают вызывать свой шаблон. При старте для каждого шаблона
+ * проверяется, что в кластере лежит ровно этот текст, и при расхождении он перезаписывается.
+ * Регистрация выполняется до прогрева; если кластер недоступен, она повторяется по расписанию,
+ * а поиск до тех пор строит запросы на клиенте
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SearchTemplateRegistry implements ApplicationRunner {
+
+    public static final String HTTP_SEARCH = "http-search";
+    public static final String METHOD_SEARCH = "method-search";
+
+    private static final List<String> TEMPLATES = List.of(HTTP_SEARCH, METHOD_SEARCH);
+    private static final String LOCATION = "elastic/templates/";
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final SearchProperties searchProperties;
+
+    private final Map<String, String> registered = new ConcurrentHashMap<>();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        registerMissing();
+    }
+
+    @Scheduled(fixedDelayString = "${audit.search.search-template-retry-interval:PT1M}")
+    public void registerMissing() {
+        if (!searchProperties.isSearchTemplates()) {
+            return;
+        }
+        for (String name : TEMPLATES) {
+            if (!registered.containsKey(name)) {
+                register(name);
+            }
+        }
+    }
+
+    /**
+     * @return версионированный id шаблона, если он зарегистрирован в кластере
+     */
+    public Optional<String> id(String name) {
+        return searchProperties.isSearchTemplates() ? Optional.ofNullable(registered.get(name)) : Optional.empty();
+    }
+
+    public static String versionedId(String name, String source) {
+        String hash = DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8));
+        return "audit-" + name + "-" + hash.substring(0, 12);
+    }
+
+    private void register(String name) {
+        try {
+            String source = read(name);
+            String id = versionedId(name, source);
+            if (source.equals(stored(id))) {
+                log.info("Search template {} is up to date", id);
+            } else {
+                elasticsearchClient.putScript(p -> p.id(id).script(s -> s.lang("mustache").source(source)));
+                log.info("Registered search template {}", id);
+            }
+            registered.put(name, id);
+        } catch (IOException | ElasticsearchException e) {
+            log.warn("Search template {} is not registered, queries are built on the client: {}", name, e.getMessage());
+        }
+    }
+
+    private String stored(String id) throws IOException {
+        try {
+            GetScriptResponse response = elasticsearchClient.getScript(g -> g.id(id));
+            return response.found() && response.script() != null ? response.script().source() : null;
+        } catch (ElasticsearchException e) {
+            if (e.status() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private String read(String name) throws IOException {
+        try (InputStream in = new ClassPathResource(LOCATION + name + ".mustache").getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.json.JsonpUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.github.auditapi.config.SlowQueryProperties;
+import io.github.auditapi.model.elastic.SearchProfile;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Журнал медленных запросов. Пишет форму запроса (значения заменены на "?") и тайминги
+ * в отдельный логгер audit.slow-query
+ */
+@Component
+@RequiredArgsConstructor
+public class SlowQueryLog {
+
+    private static final Logger LOG = LoggerFactory.getLogger("audit.slow-query");
+    private static final Set<String> VALUE_KEYS = Set.of("query", "value", "values", "gt", "gte", "lt", "lte", "from", "to");
+
+    private final SlowQueryProperties slowQueryProperties;
+    private final ElasticsearchClient elasticsearchClient;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param totalMs полное время выполнения на стороне сервиса
+     */
+    public void record(SearchProfile timings, SearchPlan plan, double totalMs) {
+        if (!slowQueryProperties.isEnabled()
+                || totalMs < slowQueryProperties.getThreshold().toMillis()
+                || ThreadLocalRandom.current().nextDouble() >= slowQueryProperties.getSampleRate()) {
+            return;
+        }
+
+        LOG.warn("Slow query {} took {} ms (build {} ms, es took {} ms, network {} ms, deserialization {} ms, bodies {} ms): {}",
+                timings.getPlan(),
+                Math.round(totalMs),
+                Math.round(timings.getQueryBuildMs()),
+                timings.getElasticsearchTookMs(),
+                Math.round(timings.getNetworkMs()),
+                Math.round(timings.getDeserializationMs()),
+                Math.round(timings.getBodyJoinMs()),
+                shape(plan));
+    }
+
+    /**
+     * JSON запроса в том виде, в котором он уходит в Elasticsearch
+     */
+    public JsonNode toJson(Query query) {
+        try {
+            return objectMapper.readTree(JsonpUtils.toJsonString(query, elasticsearchClient._jsonpMapper()));
+        } catch (JsonProcessingException e) {
+            return TextNode.valueOf(query.toString());
+        }
+    }
+
+    /**
+     * Форма запроса плана; для хранимого шаблона - его id и имена переданных параметров
+     */
+    public String shape(SearchPlan plan) {
+        if (plan.getTemplate() != null) {
+            return "template " + plan.getTemplate().getId() + " " + new TreeSet<>(plan.getTemplate().getParams().keySet());
+        }
+        return shape(plan.getQuery());
+    }
+
+    /**
+     * Нормализованная форма запроса без конкретных значений
+     */
+    public String shape(Query query) {
+        JsonNode json = toJson(query);
+        normalize(json);
+        return json.toString();
+    }
+
+    private void normalize(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            for (Map.Entry<String, JsonNode> field : object.properties()) {
+                if (VALUE_KEYS.contains(field.getKey()) && !field.getValue().isObject()) {
+                    field.setValue(TextNode.valueOf("?"));
+                } else {
+                    normalize(field.getValue());
+                }
+            }
+        } else if (node instanceof ArrayNode array) {
+            array.forEach(this::normalize);
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.CountRequest;
+import co.elastic.clients.elasticsearch.core.CountResponse;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.config.StatsProperties;
+import io.github.auditapi.model.elastic.StatsBounds;
+import io.github.auditapi.model.elastic.StatsResponse;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Приближенная статистика для больших интервалов: terms-агрегация выполняется внутри
+ * random_sampler, который читает только долю документов. Вероятность выборки подбирается
+ * по дешевой оценке числа подходящих документов (_count) так, чтобы в выборку попало
+ * около audit.stats.approximate-sample-size документов, и округляется вверх до степени
+ * двойки, чтобы повторные запросы совпадали и попадали в request cache.
+ * Значения в ответе масштабированы на 1/p, для каждого дан 95% доверительный интервал
+ * биномиальной оценки
+ */
+@Component
+@RequiredArgsConstructor
+public class StatsSampler {
+
+    private static final String SAMPLE = "sample";
+    private static final int SEED = 42;
+    private static final double Z_95 = 1.96;
+    private static final double MAX_PROBABILITY = 0.5;
+
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final SearchProperties searchProperties;
+    private final StatsProperties statsProperties;
+
+    /**
+     * @param exact точный запрос, если документов слишком мало, чтобы выборка что-то сэкономила
+     */
+    public CompletableFuture<StatsResponse> sample(String index, Query query, String aggregationName, Aggregation terms,
+                                                   Duration timeout, Supplier<CompletableFuture<StatsResponse>> exact) {
+
+        CompletableFuture<CountResponse> count = elasticsearchAsyncClient.count(CountRequest.of(c -> c.index(index).query(query)));
+        AtomicReference<CompletableFuture<?>> inFlight = new AtomicReference<>(count);
+
+        CompletableFuture<StatsResponse> result = count.thenCompose(response -> {
+            double probability = probability(response.count(), statsProperties.getApproximateSampleSize());
+            CompletableFuture<StatsResponse> next = probability >= 1
+                    ? exact.get().thenApply(stats -> {
+                        stats.setSamplingProbability(1.0);
+                        return stats;
+                    })
+                    : sampled(index, query, aggregationName, terms, timeout, probability);
+            inFlight.set(next);
+            return next;
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                inFlight.get().cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Вероятность выборки: степень двойки не меньше sampleSize / estimatedDocs,
+     * 1 - если выборка не сократит чтение хотя бы вдвое
+     */
+    public static double probability(long estimatedDocs, int sampleSize) {
+        if (estimatedDocs <= 0 || (double) sampleSize / estimatedDocs > MAX_PROBABILITY) {
+            return 1;
+        }
+        double exponent = Math.ceil(Math.log((double) sampleSize / estimatedDocs) / Math.log(2));
+        return Math.min(MAX_PROBABILITY, Math.pow(2, exponent));
+    }
+
+    /**
+     * 95% доверительный интервал для масштабированного значения: в выборку попало
+     * около scaled * p документов, дисперсия биномиальная
+     */
+    public static StatsBounds bounds(long scaled, double probability) {
+        double error = Z_95 * Math.sqrt(scaled * (1 - probability) / probability);
+        return StatsBounds.builder()
+                .lower(Math.max(0, Math.round(scaled - error)))
+                .upper(Math.round(scaled + error))
+                .build();
+    }
+
+    private CompletableFuture<StatsResponse> sampled(String index, Query query, String aggregationName, Aggregation terms,
+                                                     Duration timeout, double probability) {
+        SearchRequest request = SearchRequest.of(s -> s
+                .index(index)
+                .query(query)
+                .size(0)
+                .timeout(searchProperties.resolveTimeout(timeout).toMillis() + "ms")
+                .allowPartialSearchResults(true)
+                .aggregations(SAMPLE, a -> a
+                        .randomSampler(r -> r.probability(probability).seed(SEED))
+                        .aggregations(aggregationName, terms))
+        );
+
+        CompletableFuture<SearchResponse<Void>> call = elasticsearchAsyncClient.search(request, Void.class);
+        return SearchExecutor.cancellable(call, call.thenApply(response -> {
+            Map<String, Long> stats = new HashMap<>();
+            Map<String, StatsBounds> bounds = new HashMap<>();
+            for (JsonValue bucket : termsBuckets(response.aggregations().get(SAMPLE), aggregationName)) {
+                JsonObject object = bucket.asJsonObject();
+                String key = object.get("key") instanceof JsonString string ? string.getString() : object.get("key").toString();
+                long scaled = object.getJsonNumber("doc_count").longValue();
+                stats.put(key, scaled);
+                bounds.put(key, bounds(scaled, probability));
+            }
+            return StatsResponse.builder()
+                    .stats(stats)
+                    .partial(SearchExecutor.isPartial(response))
+                    .shardFailures(SearchExecutor.shardFailures(response))
+                    .samplingProbability(probability)
+                    .bounds(bounds)
+                    .build();
+        }));
+    }
+
+    /**
+     * Клиент не знает тип random_sampler и отдает его как произвольный JSON;
+     * вложенная агрегация лежит под ключом вида "sterms#name"
+     */
+    private static Iterable<JsonValue> termsBuckets(Aggregate sample, String aggregationName) {
+        JsonObject body = sample._custom().toJson().asJsonObject();
+        for (Map.Entry<String, JsonValue> entry : body.entrySet()) {
+            String name = entry.getKey();
+            if (name.equals(aggregationName) || name.endsWith("#" + aggregationName)) {
+                return entry.getValue().asJsonObject().getJsonArray("buckets");
+            }
+        }
+        return List.of();
+    }
+
+}
@@ -0,0 +1,99 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsAggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import io.github.auditapi.config.SuggestProperties;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.SuggestResponse;
+import io.github.auditapi.model.elastic.Suggestion;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Автодополнение URI HTTP-запросов и имен методов.
+ * Уникальные значения с префиксом выбираются terms-агрегацией по keyword-полю
+ * за последнее окно времени и упорядочены по частоте; популярные префиксы
+ * обслуживаются из локального кэша
+ */
+@Service
+@RequiredArgsConstructor
+public class SuggestService {
+
+    private static final String AGGREGATION = "values";
+
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final SuggestProperties suggestProperties;
+
+    private SuggestionCache cache;
+
+    @PostConstruct
+    void init() {
+        cache = new SuggestionCache(suggestProperties.getCacheSize(), suggestProperties.getCacheTtl(), Clock.systemUTC());
+    }
+
+    public CompletableFuture<SuggestResponse> suggest(AuditDocumentType type, String prefix, int size) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "prefix must not be blank");
+        }
+        int limit = Math.max(1, Math.min(size, suggestProperties.getMaxSize()));
+
+        Optional<List<Suggestion>> cached = cache.get(type.name(), prefix, limit);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(SuggestResponse.builder()
+                    .suggestions(cached.get())
+                    .cached(true)
+                    .build());
+        }
+
+        String field = suggestField(type);
+        SearchRequest request = SearchRequest.of(s -> s
+                .index(type.getIndexName())
+                .size(0)
+                .timeout(suggestProperties.getTimeout().toMillis() + "ms")
+                .allowPartialSearchResults(true)
+                .requestCache(true)
+                .query(q -> q.bool(b -> b
+                        .filter(f -> f.prefix(p -> p.field(field).value(prefix).caseInsensitive(true)))
+                        .filter(f -> f.range(r -> r.date(d -> d
+                                .field("timestamp")
+                                .gte("now-" + suggestProperties.getWindow().toSeconds() + "s/m"))))))
+                .aggregations(AGGREGATION, a -> a.terms(t -> t.field(field).size(suggestProperties.getMaxSize())))
+        );
+
+        CompletableFuture<SearchResponse<Void>> call = elasticsearchAsyncClient.search(request, Void.class);
+        return SearchExecutor.cancellable(call, call.thenApply(response -> {
+            StringTermsAggregate aggregate = response.aggregations().get(AGGREGATION).sterms();
+            List<Suggestion> suggestions = new ArrayList<>();
+            for (StringTermsBucket bucket : aggregate.buckets().array()) {
+                suggestions.add(Suggestion.builder()
+                        .value(bucket.key().stringValue())
+                        .count(bucket.docCount())
+                        .build());
+            }
+            if (!SearchExecutor.isPartial(response)) {
+                boolean complete = aggregate.sumOtherDocCount() != null && aggregate.sumOtherDocCount() == 0;
+                cache.put(type.name(), prefix, suggestions, complete);
+            }
+            return SuggestResponse.builder()
+                    .suggestions(suggestions.size() > limit ? suggestions.subList(0, limit) : suggestions)
+                    .build();
+        }));
+    }
+
+    private String suggestField(AuditDocumentType type) {
+        return type == AuditDocumentType.HTTP ? "uri.keyword" : "method.keyword";
+    }
+
+}
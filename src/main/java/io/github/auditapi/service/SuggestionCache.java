@@ -0,0 +1,94 @@
+package io.github.auditapi.service;
+
+import io.github.auditapi.model.elastic.Suggestion;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * LRU-кэш подсказок по префиксу с ограниченным временем жизни.
+ * Если для более короткого префикса в кэше лежит полный список значений,
+ * ответ для длинного префикса строится фильтрацией без обращения к Elasticsearch
+ */
+public class SuggestionCache {
+
+    private final int capacity;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<String, Entry> entries;
+
+    public SuggestionCache(int capacity, Duration ttl, Clock clock) {
+        this.capacity = capacity;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > SuggestionCache.this.capacity;
+            }
+        };
+    }
+
+    public synchronized Optional<List<Suggestion>> get(String scope, String prefix, int size) {
+        String normalized = normalize(prefix);
+        long now = clock.millis();
+
+        Entry exact = entries.get(key(scope, normalized));
+        if (exact != null && exact.expiresAt > now) {
+            return Optional.of(limit(exact.suggestions, size));
+        }
+        for (int length = normalized.length() - 1; length > 0; length--) {
+            Entry shorter = entries.get(key(scope, normalized.substring(0, length)));
+            if (shorter != null && shorter.complete && shorter.expiresAt > now) {
+                List<Suggestion> filtered = new ArrayList<>();
+                for (Suggestion suggestion : shorter.suggestions) {
+                    if (normalize(suggestion.getValue()).startsWith(normalized)) {
+                        filtered.add(suggestion);
+                    }
+                }
+                return Optional.of(limit(filtered, size));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @param complete список содержит все значения с этим префиксом, а не только самые частые
+     */
+    public synchronized void put(String scope, String prefix, List<Suggestion> suggestions, boolean complete) {
+        entries.put(key(scope, normalize(prefix)), new Entry(List.copyOf(suggestions), complete, clock.millis() + ttl.toMillis()));
+    }
+
+    private List<Suggestion> limit(List<Suggestion> suggestions, int size) {
+        return suggestions.size() > size ? suggestions.subList(0, size) : suggestions;
+    }
+
+    private String key(String scope, String normalizedPrefix) {
+        return scope + ':' + normalizedPrefix;
+    }
+
+    private String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+
+        private final List<Suggestion> suggestions;
+        private final boolean complete;
+        private final long expiresAt;
+
+        private Entry(List<Suggestion> suggestions, boolean complete, long expiresAt) {
+            this.suggestions = suggestions;
+            this.complete = complete;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+}
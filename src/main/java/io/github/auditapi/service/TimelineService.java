@@ -0,0 +1,231 @@
+package io.github.auditapi.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.OpenPointInTimeResponse;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.model.elastic.MethodDocument;
+import io.github.auditapi.model.elastic.TimeRange;
+import io.github.auditapi.model.timeline.TimelineEntry;
+import io.github.auditapi.model.timeline.TimelineResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Общая лента HTTP-запросов и событий методов: один поиск по обоим индексам,
+ * отсортированный по timestamp. Страницы читаются из одного point-in-time через search_after
+ * с тай-брейкером _shard_doc, поэтому лента не сдвигается от новых документов и
+ * не теряет документы с одинаковым timestamp. Курсор содержит id point-in-time
+ * и значения сортировки последнего документа
+ */
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+
+    private static final String HTTP = "http";
+    private static final String METHOD = "method";
+    private static final List<String> TEXT_FIELDS = List.of("uri^2", "method^2", "requestBody", "responseBody", "args", "result", "errorMessage");
+    private static final List<String> BODY_FIELDS = List.of("requestBody", "responseBody", "args", "result");
+
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final SearchProperties searchProperties;
+    private final BodyStorageService bodyStorageService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Разбор документов и подгрузка тел вне потоков HTTP-клиента Elasticsearch
+     */
+    private final ExecutorService responseExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param cursor     курсор предыдущей страницы; направление сортировки берется из него
+     * @param descending сортировка первой страницы от новых к старым
+     */
+    public CompletableFuture<TimelineResponse> timeline(String query, TimeRange range, String cursor, boolean descending,
+                                                        int size, boolean includeBodies, Duration timeout) {
+
+        if (size < 1 || size > searchProperties.getTimelineMaxSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + searchProperties.getTimelineMaxSize());
+        }
+        Cursor previous = cursor == null ? null : decode(cursor);
+        boolean desc = previous != null ? previous.descending : descending;
+        String keepAlive = searchProperties.getTimelineKeepAlive().toSeconds() + "s";
+        Query filter = query(query, range);
+
+        CompletableFuture<String> pit = previous != null
+                ? CompletableFuture.completedFuture(previous.pit)
+                : elasticsearchAsyncClient.openPointInTime(o -> o
+                        .index(HttpQueries.INDEX, MethodQueries.INDEX)
+                        .keepAlive(t -> t.time(keepAlive))).thenApply(OpenPointInTimeResponse::id);
+        AtomicReference<CompletableFuture<?>> inFlight = new AtomicReference<>(pit);
+
+        CompletableFuture<TimelineResponse> result = pit.thenCompose(pitId -> {
+            SearchRequest request = SearchRequest.of(s -> {
+                s.pit(p -> p.id(pitId).keepAlive(t -> t.time(keepAlive)))
+                        .query(filter)
+                        .size(size)
+                        .trackTotalHits(t -> t.enabled(false))
+                        .sort(so -> so.field(f -> f.field("timestamp").order(desc ? SortOrder.Desc : SortOrder.Asc)))
+                        .sort(so -> so.field(f -> f.field("_shard_doc").order(desc ? SortOrder.Desc : SortOrder.Asc)))
+                        .timeout(searchProperties.resolveTimeout(timeout).toMillis() + "ms")
+                        .allowPartialSearchResults(true);
+                if (!includeBodies) {
+                    s.source(src -> src.filter(f -> f.excludes(BODY_FIELDS)));
+                }
+                if (previous != null) {
+                    s.searchAfter(previous.after.stream().map(FieldValue::of).toList());
+                }
+                return s;
+            });
+            CompletableFuture<SearchResponse<ObjectNode>> call = elasticsearchAsyncClient.search(request, ObjectNode.class);
+            inFlight.set(call);
+            return call.thenApplyAsync(response -> toTimeline(response, pitId, desc, size, includeBodies), responseExecutor);
+        }).exceptionally(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (previous != null && cause instanceof ElasticsearchException es && es.status() == 404) {
+                throw new ResponseStatusException(HttpStatus.GONE, "cursor expired, start the timeline again");
+            }
+            throw error instanceof CompletionException completion ? completion : new CompletionException(cause);
+        });
+
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                inFlight.get().cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        responseExecutor.shutdown();
+    }
+
+    private TimelineResponse toTimeline(SearchResponse<ObjectNode> response, String pitId, boolean descending,
+                                        int size, boolean includeBodies) {
+        List<TimelineEntry> entries = new ArrayList<>(response.hits().hits().size());
+        List<HttpDocument> requests = new ArrayList<>();
+        List<MethodDocument> methods = new ArrayList<>();
+        for (Hit<ObjectNode> hit : response.hits().hits()) {
+            if (hit.index().startsWith(HttpQueries.INDEX)) {
+                HttpDocument document = treeToValue(hit.source(), HttpDocument.class);
+                document.setId(hit.id());
+                requests.add(document);
+                entries.add(TimelineEntry.builder().type(HTTP).id(hit.id()).timestamp(document.getTimestamp()).http(document).build());
+            } else {
+                MethodDocument document = treeToValue(hit.source(), MethodDocument.class);
+                document.setId(hit.id());
+                methods.add(document);
+                entries.add(TimelineEntry.builder().type(METHOD).id(hit.id()).timestamp(document.getTimestamp()).method(document).build());
+            }
+        }
+        bodyStorageService.applyHttpBodies(requests, includeBodies);
+        bodyStorageService.applyMethodBodies(methods, includeBodies);
+
+        String nextPit = response.pitId() != null ? response.pitId() : pitId;
+        String nextCursor = null;
+        if (entries.size() == size) {
+            List<FieldValue> sort = response.hits().hits().getLast().sort();
+            nextCursor = encode(new Cursor(nextPit, descending, sort.stream().map(FieldValue::longValue).toList()));
+        } else {
+            elasticsearchAsyncClient.closePointInTime(c -> c.id(nextPit));
+        }
+
+        return TimelineResponse.builder()
+                .entries(entries)
+                .nextCursor(nextCursor)
+                .partial(SearchExecutor.isPartial(response))
+                .shardFailures(SearchExecutor.shardFailures(response))
+                .build();
+    }
+
+    private Query query(String text, TimeRange range) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        List<String> branch = new ArrayList<>();
+        if (text != null && !text.isBlank()) {
+            bool.must(m -> m.multiMatch(mm -> mm
+                    .query(text)
+                    .fields(TEXT_FIELDS)
+                    .type(TextQueryType.BestFields)
+                    .lenient(true)));
+            branch.add("query");
+        }
+        QuerySupport.timeRange(bool, branch, range);
+        return branch.isEmpty() ? Query.of(q -> q.matchAll(m -> m)) : Query.of(q -> q.bool(bool.build()));
+    }
+
+    private String encode(Cursor cursor) {
+        ObjectNode node = objectMapper.createObjectNode()
+                .put("pit", cursor.pit)
+                .put("desc", cursor.descending);
+        ArrayNode after = node.putArray("after");
+        cursor.after.forEach(after::add);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(node.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Cursor decode(String cursor) {
+        try {
+            JsonNode node = objectMapper.readTree(Base64.getUrlDecoder().decode(cursor));
+            List<Long> after = new ArrayList<>();
+            node.path("after").forEach(value -> after.add(value.asLong()));
+            if (!node.path("pit").isTextual() || after.isEmpty()) {
+                throw new IllegalArgumentException("incomplete cursor");
+            }
+            return new Cursor(node.get("pit").asText(), node.path("desc").asBoolean(), after);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "cursor is malformed");
+        }
+    }
+
+    private <T> T treeToValue(ObjectNode source, Class<T> documentClass) {
+        try {
+            return objectMapper.treeToValue(source, documentClass);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Cursor {
+
+        private final String pit;
+        private final boolean descending;
+        private final List<Long> after;
+
+        private Cursor(String pit, boolean descending, List<Long> after) {
+            this.pit = pit;
+            this.descending = descending;
+            this.after = after;
+        }
+
+    }
+
+}
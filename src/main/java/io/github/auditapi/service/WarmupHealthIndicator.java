@@ -0,0 +1,25 @@
+package io.github.auditapi.service;
+
+import io.github.auditapi.model.warmup.WarmupReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Компонент warmup health-эндпоинта: OUT_OF_SERVICE, пока идет прогрев, и тайминги шагов
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final WarmupService warmupService;
+
+    @Override
+    public Health health() {
+        WarmupReport report = warmupService.getReport();
+        Health.Builder builder = "RUNNING".equals(report.getState()) ? Health.outOfService() : Health.up();
+        return builder.withDetail("report", report).build();
+    }
+
+}
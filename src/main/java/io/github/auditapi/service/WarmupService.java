@@ -0,0 +1,166 @@
+package io.github.auditapi.service;
+
+import io.github.auditapi.config.WarmupProperties;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.SearchOptions;
+import io.github.auditapi.model.elastic.StatsAccuracy;
+import io.github.auditapi.model.warmup.WarmupReport;
+import io.github.auditapi.model.warmup.WarmupStep;
+import io.github.auditapi.web.ResponseFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Прогрев при старте: повторяет типичные поисковые запросы и запросы статистики,
+ * прогоняя ответы через все форматы сериализации. Прогреваются JIT для путей Jackson
+ * и клиента Elasticsearch, пул соединений, request cache статистики и кэши кластера.
+ * Выполняется как ApplicationRunner, поэтому readiness-проба остается REFUSING_TRAFFIC,
+ * пока прогрев не закончится или не истечет audit.warmup.timeout. Тайминги шагов
+ * пишутся в лог и публикуются в компоненте warmup health-эндпоинта
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WarmupService implements ApplicationRunner {
+
+    private static final List<String> HTTP_GROUPS = List.of("statusCode", "method", "uri");
+    private static final List<String> METHOD_GROUPS = List.of("level", "method");
+
+    private final WarmupProperties warmupProperties;
+    private final HttpSearchService httpSearchService;
+    private final MethodSearchService methodSearchService;
+    private final IndexStateService indexStateService;
+
+    private final List<WarmupStep> steps = new CopyOnWriteArrayList<>();
+
+    private volatile String state = "RUNNING";
+    private volatile LocalDateTime startedAt;
+    private volatile long durationMs;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!warmupProperties.isEnabled()) {
+            state = "DISABLED";
+            return;
+        }
+        startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Future<?> warmup = executor.submit(this::warmUp);
+        try {
+            warmup.get(warmupProperties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            state = "DONE";
+        } catch (TimeoutException e) {
+            warmup.cancel(true);
+            state = "TIMED_OUT";
+        } catch (ExecutionException e) {
+            log.warn("Warm-up failed", e.getCause());
+            state = "DONE";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            warmup.cancel(true);
+            state = "TIMED_OUT";
+        } finally {
+            executor.shutdownNow();
+        }
+
+        durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Warm-up {} in {} ms", state, durationMs);
+        for (WarmupStep step : steps) {
+            log.info("  {}: {} iterations, first {} ms, last {} ms{}", step.getName(), step.getIterations(),
+                    step.getFirstMs(), step.getLastMs(), step.getError() == null ? "" : ", error: " + step.getError());
+        }
+    }
+
+    public WarmupReport getReport() {
+        return WarmupReport.builder()
+                .state(state)
+                .startedAt(startedAt)
+                .durationMs(durationMs)
+                .steps(List.copyOf(steps))
+                .build();
+    }
+
+    private void warmUp() {
+        step("indexState", () -> {
+            indexStateService.refresh(AuditDocumentType.HTTP).join();
+            indexStateService.refresh(AuditDocumentType.METHOD).join();
+        });
+
+        int size = warmupProperties.getPageSize();
+        for (ResponseFormat format : ResponseFormat.values()) {
+            SearchOptions options = SearchOptions.builder().format(format).build();
+            for (String query : warmupProperties.getQueries()) {
+                step("http.search[" + query + "]." + format.name().toLowerCase(), () -> httpSearchService
+                        .streamWithFullText(query, null, null, 0, size, options).writeTo(OutputStream.nullOutputStream()));
+                step("methods.search[" + query + "]." + format.name().toLowerCase(), () -> methodSearchService
+                        .streamWithFullText(query, null, null, 0, size, options).writeTo(OutputStream.nullOutputStream()));
+            }
+        }
+        SearchOptions options = SearchOptions.builder().build();
+        step("http.searchByFields[" + warmupProperties.getFieldQuery() + "]", () -> httpSearchService
+                .streamByFields(null, null, null, warmupProperties.getFieldQuery(), null, 0, size, options)
+                .writeTo(OutputStream.nullOutputStream()));
+
+        for (String groupBy : HTTP_GROUPS) {
+            step("http.stats[" + groupBy + "]", () -> httpSearchService.getStats(groupBy, null, StatsAccuracy.EXACT, null).get());
+        }
+        for (String groupBy : METHOD_GROUPS) {
+            step("methods.stats[" + groupBy + "]", () -> methodSearchService.getStats(groupBy, null, null, StatsAccuracy.EXACT, null).get());
+        }
+    }
+
+    private void step(String name, WarmupAction action) {
+        int iterations = 0;
+        double firstMs = 0;
+        double lastMs = 0;
+        String error = null;
+        while (iterations < warmupProperties.getIterations() && !Thread.currentThread().isInterrupted()) {
+            long start = System.nanoTime();
+            try {
+                action.run();
+            } catch (Exception e) {
+                error = e.getClass().getSimpleName() + ": " + e.getMessage();
+                break;
+            }
+            lastMs = (System.nanoTime() - start) / 1_000_000.0;
+            if (iterations++ == 0) {
+                firstMs = lastMs;
+            }
+        }
+        steps.add(WarmupStep.builder()
+                .name(name)
+                .iterations(iterations)
+                .firstMs(Math.round(firstMs * 10) / 10.0)
+                .lastMs(Math.round(lastMs * 10) / 10.0)
+                .error(error)
+                .build());
+    }
+
+    @FunctionalInterface
+    private interface WarmupAction {
+
+        void run() throws Exception;
+
+    }
+
+}
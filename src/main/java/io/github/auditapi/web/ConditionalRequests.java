@@ -0,0 +1,61 @@
+package io.github.auditapi.web;
+
+import io.github.auditapi.model.elastic.IndexState;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.experimental.UtilityClass;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Условные GET-запросы для поиска и статистики.
+ * ETag строится из версии индекса, пути и нормализованных параметров запроса
+ * (отсортированных по имени), поэтому одинаковые запросы с разным порядком параметров
+ * получают один тег. Пока индекс не изменился, ответ 304 отдается без обращения к агрегациям.
+ * Неполные ответы отдаются с Cache-Control: no-store
+ */
+@UtilityClass
+public class ConditionalRequests {
+
+    /**
+     * Проставляет ETag и Last-Modified и проверяет If-None-Match / If-Modified-Since.
+     *
+     * @param variant представление ответа, например формат, выбранный по Accept
+     * @return true, если клиенту достаточно ответа 304
+     */
+    public boolean notModified(ServletWebRequest request, IndexState state, String variant) {
+        return request.checkNotModified(etag(request, state, variant), state.getLastModified());
+    }
+
+    /**
+     * Неполный ответ (таймаут, ошибки шардов) запрещается сохранять: иначе клиент получал бы 304
+     * для него, пока не изменится версия индекса. Действует, только пока заголовки не отправлены
+     */
+    public void noStore(ServletWebRequest request) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null && !response.isCommitted()) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        }
+    }
+
+    public String etag(ServletWebRequest request, IndexState state, String variant) {
+        StringBuilder key = new StringBuilder()
+                .append(state.getVersion()).append('|')
+                .append(request.getRequest().getRequestURI()).append('|')
+                .append(variant);
+
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            String[] values = parameter.getValue().clone();
+            Arrays.sort(values);
+            key.append('|').append(parameter.getKey()).append('=').append(String.join(",", values));
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+}
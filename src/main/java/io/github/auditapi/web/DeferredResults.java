@@ -0,0 +1,67 @@
+package io.github.auditapi.web;
+
+import io.github.auditapi.model.elastic.PartialResult;
+import lombok.experimental.UtilityClass;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Связывает асинхронный запрос к Elasticsearch с жизненным циклом HTTP-запроса:
+ * если клиент отключился или истек таймаут обработки, запрос к кластеру отменяется
+ */
+@UtilityClass
+public class DeferredResults {
+
+    public <T> DeferredResult<ResponseEntity<T>> of(CompletableFuture<T> future) {
+        return of(future, ResponseEntity::ok);
+    }
+
+    /**
+     * Ответ в формате, выбранном по Accept, - том же, для которого посчитан ETag.
+     * Неполный результат отдается с Cache-Control: no-store, чтобы не закрепиться за ETag
+     */
+    public <T> DeferredResult<ResponseEntity<T>> of(CompletableFuture<T> future, ResponseFormat format) {
+        return of(future, value -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(format.getMediaType())
+                    .varyBy(HttpHeaders.ACCEPT);
+            if (value instanceof PartialResult result && result.isPartial()) {
+                response.cacheControl(CacheControl.noStore());
+            }
+            return response.body(value);
+        });
+    }
+
+    public <T> DeferredResult<ResponseEntity<T>> notModified() {
+        DeferredResult<ResponseEntity<T>> result = new DeferredResult<>();
+        result.setResult(ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build());
+        return result;
+    }
+
+    private <T> DeferredResult<ResponseEntity<T>> of(CompletableFuture<T> future, Function<T, ResponseEntity<T>> response) {
+        DeferredResult<ResponseEntity<T>> result = new DeferredResult<>();
+
+        result.onTimeout(() -> {
+            future.cancel(true);
+            result.setErrorResult(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build());
+        });
+        result.onError(error -> future.cancel(true));
+
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.setResult(response.apply(value));
+            } else {
+                result.setErrorResult(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+        return result;
+    }
+
+}
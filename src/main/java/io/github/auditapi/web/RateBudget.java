@@ -0,0 +1,12 @@
+package io.github.auditapi.web;
+
+/**
+ * Раздельные бюджеты запросов: дорогая статистика не расходует бюджет поиска и наоборот
+ */
+public enum RateBudget {
+
+    SEARCH,
+    STATS,
+    EXPORT
+
+}
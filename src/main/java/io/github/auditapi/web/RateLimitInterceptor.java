@@ -0,0 +1,79 @@
+package io.github.auditapi.web;
+
+import io.github.auditapi.config.RateLimitProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Ограничение частоты запросов по клиентам для методов, помеченных {@link RateLimited}.
+ * Клиент определяется по API-ключу из заголовка, если ключ входит в audit.rate-limit.api-keys,
+ * иначе - по IP. При исчерпании бюджета
+ * запрос не доходит до Elasticsearch: ответ 429 с Retry-After в секундах
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimitProperties rateLimitProperties;
+
+    private final Map<RateBudget, TokenBucketLimiter> limiters = new EnumMap<>(RateBudget.class);
+
+    @PostConstruct
+    public void init() {
+        for (RateBudget budget : RateBudget.values()) {
+            RateLimitProperties.Budget settings = switch (budget) {
+                case SEARCH -> rateLimitProperties.getSearch();
+                case STATS -> rateLimitProperties.getStats();
+                case EXPORT -> rateLimitProperties.getExport();
+            };
+            limiters.put(budget, new TokenBucketLimiter(settings.getCapacity(), settings.getRefillPerSecond(),
+                    rateLimitProperties.getMaxClients(), System::nanoTime));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // повторный проход после DeferredResult/StreamingResponseBody уже был оплачен
+        if (!rateLimitProperties.isEnabled() || request.getDispatcherType() != DispatcherType.REQUEST
+                || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        RateLimited limited = method.getMethodAnnotation(RateLimited.class);
+        if (limited == null) {
+            return true;
+        }
+
+        long waitNanos = limiters.get(limited.value()).tryAcquire(client(request));
+        if (waitNanos == 0) {
+            return true;
+        }
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded for " + limited.value().name().toLowerCase() + " requests");
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${audit.rate-limit.cleanup-interval:PT1M}")
+    public void evictIdle() {
+        limiters.values().forEach(TokenBucketLimiter::evictIdle);
+    }
+
+    private String client(HttpServletRequest request) {
+        String key = request.getHeader(rateLimitProperties.getClientHeader());
+        return key != null && rateLimitProperties.getApiKeys().contains(key) ? "key:" + key : "ip:" + request.getRemoteAddr();
+    }
+
+}
@@ -0,0 +1,17 @@
+package io.github.auditapi.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Метод контроллера расходует бюджет клиента; проверяется {@link RateLimitInterceptor}
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    RateBudget value();
+
+}
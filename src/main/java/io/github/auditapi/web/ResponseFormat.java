@@ -0,0 +1,53 @@
+package io.github.auditapi.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+/**
+ * Кодировка ответа, выбираемая по заголовку Accept. Бинарные форматы (Smile, CBOR)
+ * дешевле разбирать потребителям, выгружающим большие объемы
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ResponseFormat {
+
+    JSON(MediaType.APPLICATION_JSON, new JsonFactory()),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"), new SmileFactory()),
+    CBOR(MediaType.parseMediaType("application/cbor"), new CBORFactory());
+
+    private final MediaType mediaType;
+    private final JsonFactory factory;
+
+    /**
+     * Первый по качеству поддерживаемый тип из Accept; JSON, если заголовка нет или он не распознан
+     */
+    public static ResponseFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType mediaType : accepted) {
+            for (ResponseFormat format : values()) {
+                if (mediaType.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+
+}
@@ -0,0 +1,47 @@
+package io.github.auditapi.web;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Скользящая средняя задержки поисковых запросов (EWMA). Время отсчитывается от первого
+ * прохода запроса, поэтому для DeferredResult и StreamingResponseBody в задержку входит
+ * и асинхронная часть до завершения повторного прохода
+ */
+@Component
+public class SearchLatencyInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = SearchLatencyInterceptor.class.getName() + ".start";
+    private static final double ALPHA = 0.1;
+
+    private double averageMs;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // повторный проход после асинхронной обработки не должен сбрасывать начало отсчета
+        if (request.getDispatcherType() == DispatcherType.REQUEST) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start instanceof Long startNanos) {
+            record((System.nanoTime() - startNanos) / 1_000_000.0);
+        }
+    }
+
+    public synchronized double getAverageMs() {
+        return averageMs;
+    }
+
+    private synchronized void record(double latencyMs) {
+        averageMs = averageMs == 0 ? latencyMs : averageMs + ALPHA * (latencyMs - averageMs);
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.github.auditapi.web;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket по клиентам в форме GCRA: состояние бюджета - одно число,
+ * теоретическое время следующего запроса, и обновляется одной CAS-операцией
+ * без блокировок. Бюджеты разложены по сегментам ConcurrentHashMap, поэтому
+ * разные клиенты не конкурируют между собой, а чтение существующего бюджета
+ * не берет блокировок
+ */
+public class TokenBucketLimiter {
+
+    static final String OVERFLOW_CLIENT = "*";
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketLimiter(int capacity, double refillPerSecond, int maxClients, LongSupplier nanoClock) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and refill rate must be positive");
+        }
+        this.intervalNanos = (long) (1_000_000_000L / refillPerSecond);
+        this.burstNanos = intervalNanos * capacity;
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return 0, если запрос разрешен, иначе через сколько наносекунд появится токен
+     */
+    public long tryAcquire(String client) {
+        AtomicLong bucket = bucket(client);
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + intervalNanos;
+            long allowedAt = next - burstNanos;
+            if (allowedAt > now) {
+                return allowedAt - now;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Удаляет бюджеты, восстановившиеся полностью: они неотличимы от новых.
+     * Запрос, успевший получить удаляемый бюджет, спишет токен с него, что в худшем
+     * случае пропустит один лишний запрос
+     */
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucket(String client) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        String key = buckets.size() < maxClients ? client : OVERFLOW_CLIENT;
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+    }
+
+}
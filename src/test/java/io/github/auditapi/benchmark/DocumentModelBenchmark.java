@@ -0,0 +1,157 @@
+package io.github.auditapi.benchmark;
+
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.auditapi.model.compact.CompactHttpDocument;
+import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.service.SearchResponseWriter;
+import jakarta.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Сравнение Lombok-документов и компактной модели чтения: выделение памяти на разбор и
+ * потоковую запись страницы и объем, удерживаемый разобранной страницей в буферизованном пути.
+ * Запуск: mvn test -Dtest=DocumentModelBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DocumentModelBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int RETAINED_PAGES = 20;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 50;
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE"};
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final JacksonJsonpMapper jsonpMapper = new JacksonJsonpMapper(objectMapper);
+    private final SearchResponseWriter writer = new SearchResponseWriter(objectMapper);
+
+    @Test
+    void compareDocumentModels() throws Exception {
+        byte[] elasticResponse = elasticResponse();
+        System.out.printf("ES response: %d KB, page size %d%n", elasticResponse.length / 1024, PAGE_SIZE);
+        System.out.printf("%-8s %14s %16s %16s%n", "model", "parse KB/op", "stream KB/op", "retained KB/page");
+
+        report("pojo", elasticResponse, HttpDocument.class, HttpDocument::setId);
+        report("compact", elasticResponse, CompactHttpDocument.class, CompactHttpDocument::setId);
+    }
+
+    private <T> void report(String name, byte[] elasticResponse, Class<T> documentClass, BiConsumer<T, String> idSetter) throws Exception {
+        long parsed = allocated(() -> parse(elasticResponse, documentClass, idSetter).size());
+        long streamed = allocated(() -> writer.write(new ByteArrayInputStream(elasticResponse), OutputStream.nullOutputStream(),
+                documentClass, idSetter));
+        long retained = retained(elasticResponse, documentClass, idSetter);
+        System.out.printf("%-8s %14d %16d %16d%n", name, parsed / 1024, streamed / 1024, retained / 1024);
+    }
+
+    /**
+     * Буферизованный путь: ответ разбирается клиентом Elasticsearch в список документов страницы
+     */
+    private <T> List<T> parse(byte[] elasticResponse, Class<T> documentClass, BiConsumer<T, String> idSetter) {
+        JsonParser parser = jsonpMapper.jsonProvider().createParser(new ByteArrayInputStream(elasticResponse));
+        SearchResponse<T> response = SearchResponse.<T>createSearchResponseDeserializer(JsonpDeserializer.of(documentClass))
+                .deserialize(parser, jsonpMapper);
+
+        List<T> results = new ArrayList<>(PAGE_SIZE);
+        for (Hit<T> hit : response.hits().hits()) {
+            idSetter.accept(hit.source(), hit.id());
+            results.add(hit.source());
+        }
+        return results;
+    }
+
+    private long allocated(Operation operation) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / ITERATIONS;
+    }
+
+    private <T> long retained(byte[] elasticResponse, Class<T> documentClass, BiConsumer<T, String> idSetter) {
+        List<List<T>> pages = new ArrayList<>(RETAINED_PAGES);
+        long before = usedHeap();
+        for (int i = 0; i < RETAINED_PAGES; i++) {
+            pages.add(parse(elasticResponse, documentClass, idSetter));
+        }
+        long after = usedHeap();
+        if (pages.size() != RETAINED_PAGES) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / RETAINED_PAGES;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * JSON-тела с кириллицей в значениях, как в типичных запросах сервисов
+     */
+    private byte[] elasticResponse() throws Exception {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("took", 5).put("timed_out", false);
+        root.putObject("_shards").put("total", 1).put("successful", 1).put("skipped", 0).put("failed", 0);
+        ObjectNode hits = root.putObject("hits");
+        hits.putObject("total").put("value", PAGE_SIZE).put("relation", "eq");
+        hits.putNull("max_score");
+        ArrayNode array = hits.putArray("hits");
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            ObjectNode hit = array.addObject();
+            hit.put("_index", "audit-requests").put("_id", "id-" + i).putNull("_score");
+            hit.putObject("_source")
+                    .put("timestamp", "2025-01-01T10:00:00")
+                    .put("uri", "/api/orders/" + i)
+                    .put("method", METHODS[i % METHODS.length])
+                    .put("direction", i % 3 == 0 ? "OUTGOING" : "INCOMING")
+                    .put("statusCode", i % 10 == 0 ? "500" : "200")
+                    .put("requestBody", body(i, 20))
+                    .put("responseBody", body(i, 40));
+            hit.putArray("sort").add(i);
+        }
+        return objectMapper.writeValueAsBytes(root);
+    }
+
+    private String body(int id, int items) {
+        StringBuilder body = new StringBuilder("{\"orderId\":").append(id).append(",\"items\":[");
+        for (int i = 0; i < items; i++) {
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"sku\":\"SKU-").append(id * 100 + i)
+                    .append("\",\"name\":\"Товар ").append(i)
+                    .append("\",\"quantity\":").append(i % 5 + 1).append('}');
+        }
+        return body.append("],\"comment\":\"Доставка до двери\"}").toString();
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+
+        long run() throws Exception;
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package io.github.auditapi.benchmark;
+
+import io.github.auditapi.web.TokenBucketLimiter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Накладные расходы ограничителя на запрос: один поток, много потоков с разными
+ * клиентами и много потоков с одним «горячим» клиентом (худший случай для CAS).
+ * Запуск: mvn test -Dtest=RateLimiterBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+    private static final int OPERATIONS = 5_000_000;
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static volatile long sink;
+
+    @Test
+    void measureOverhead() throws Exception {
+        String[] clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "key:client-" + i;
+        }
+
+        System.out.printf("%-28s %8s %12s %14s%n", "scenario", "threads", "ns/op", "Mops/s total");
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            run("single thread, 10k clients", 1, clients, print);
+            run("contended, 10k clients", THREADS, clients, print);
+            run("contended, 1 hot client", THREADS, new String[]{"key:hot"}, print);
+        }
+    }
+
+    private void run(String scenario, int threads, String[] clients, boolean print) throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1_000_000, 1_000_000_000, CLIENTS * 2, System::nanoTime);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * 7919;
+            results.add(executor.submit(() -> {
+                start.await();
+                long allowed = 0;
+                long begin = System.nanoTime();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    if (limiter.tryAcquire(clients[(i + offset) % clients.length]) == 0) {
+                        allowed++;
+                    }
+                }
+                long elapsed = System.nanoTime() - begin;
+                sink += allowed;
+                return elapsed;
+            }));
+        }
+        long wallStart = System.nanoTime();
+        start.countDown();
+        long threadNanos = 0;
+        for (Future<Long> result : results) {
+            threadNanos += result.get();
+        }
+        long wallNanos = System.nanoTime() - wallStart;
+        executor.shutdown();
+
+        if (print) {
+            double nsPerOp = (double) threadNanos / threads / OPERATIONS;
+            double throughput = (double) OPERATIONS * threads / wallNanos * 1000;
+            System.out.printf("%-28s %8d %12.1f %14.1f%n", scenario, threads, nsPerOp, throughput);
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package io.github.auditapi.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.model.elastic.SearchResponse;
+import io.github.auditapi.web.ResponseFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Время кодирования/декодирования и размер страницы поиска в JSON, Smile и CBOR.
+ * Запуск: mvn test -Dtest=ResponseEncodingBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ResponseEncodingBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int WARMUP = 30;
+    private static final int ITERATIONS = 100;
+
+    @Test
+    void compareEncodings() throws Exception {
+        SearchResponse<HttpDocument> page = page();
+
+        System.out.printf("%-6s %10s %10s %12s %12s%n", "format", "encode ms", "decode ms", "size KB", "gzip KB");
+        for (ResponseFormat format : ResponseFormat.values()) {
+            ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().factory(format.getFactory()).build();
+            byte[] encoded = mapper.writeValueAsBytes(page);
+
+            for (int i = 0; i < WARMUP; i++) {
+                mapper.writeValueAsBytes(page);
+                mapper.readValue(encoded, new TypeReference<SearchResponse<HttpDocument>>() {
+                });
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                mapper.writeValueAsBytes(page);
+            }
+            double encodeMs = (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                mapper.readValue(encoded, new TypeReference<SearchResponse<HttpDocument>>() {
+                });
+            }
+            double decodeMs = (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+
+            System.out.printf("%-6s %10.2f %10.2f %12d %12d%n", format, encodeMs, decodeMs, encoded.length / 1024, gzipSize(encoded) / 1024);
+        }
+    }
+
+    private SearchResponse<HttpDocument> page() {
+        List<HttpDocument> results = new ArrayList<>(PAGE_SIZE);
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            results.add(HttpDocument.builder()
+                    .id("id-" + i)
+                    .timestamp(timestamp.plusSeconds(i))
+                    .uri("/api/orders/" + i)
+                    .method("POST")
+                    .direction("INCOMING")
+                    .statusCode("200")
+                    .requestBody("{\"orderId\":" + i + ",\"items\":[{\"sku\":\"A-1\",\"qty\":2},{\"sku\":\"B-7\",\"qty\":1}],\"comment\":\"deliver before noon\"}")
+                    .responseBody("{\"id\":" + i + ",\"status\":\"CREATED\",\"total\":1499.90,\"currency\":\"RUB\"}")
+                    .build());
+        }
+        return SearchResponse.<HttpDocument>builder()
+                .results(results)
+                .totalHits(PAGE_SIZE)
+                .build();
+    }
+
+    private int gzipSize(byte[] bytes) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+
+}
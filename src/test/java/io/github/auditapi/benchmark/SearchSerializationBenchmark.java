@@ -0,0 +1,133 @@
+package io.github.auditapi.benchmark;
+
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.service.SearchResponseWriter;
+import jakarta.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сравнение буферизованной и потоковой сериализации страницы поиска.
+ * Запуск: mvn test -Dtest=SearchSerializationBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SearchSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int BODY_SIZE = 2048;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 50;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final JacksonJsonpMapper jsonpMapper = new JacksonJsonpMapper(objectMapper);
+    private final SearchResponseWriter writer = new SearchResponseWriter(objectMapper);
+
+    @Test
+    void compareBufferedAndStreaming() throws Exception {
+        byte[] elasticResponse = elasticResponse();
+
+        Result buffered = measure(() -> buffered(elasticResponse));
+        Result streaming = measure(() -> writer.write(new ByteArrayInputStream(elasticResponse), OutputStream.nullOutputStream(),
+                HttpDocument.class, HttpDocument::setId));
+
+        System.out.printf("ES response: %d KB, page size %d%n", elasticResponse.length / 1024, PAGE_SIZE);
+        System.out.printf("buffered : %8.2f ms/op, %8d KB allocated/op%n", buffered.millis, buffered.allocatedBytes / 1024);
+        System.out.printf("streaming: %8.2f ms/op, %8d KB allocated/op%n", streaming.millis, streaming.allocatedBytes / 1024);
+    }
+
+    /**
+     * Прежний путь: разбор ответа клиентом, список документов, буфер сериализованного ответа
+     */
+    private long buffered(byte[] elasticResponse) throws Exception {
+        JsonParser parser = jsonpMapper.jsonProvider().createParser(new ByteArrayInputStream(elasticResponse));
+        SearchResponse<HttpDocument> response = SearchResponse.<HttpDocument>createSearchResponseDeserializer(JsonpDeserializer.of(HttpDocument.class))
+                .deserialize(parser, jsonpMapper);
+
+        List<HttpDocument> results = new ArrayList<>(PAGE_SIZE);
+        for (Hit<HttpDocument> hit : response.hits().hits()) {
+            hit.source().setId(hit.id());
+            results.add(hit.source());
+        }
+        byte[] body = objectMapper.writeValueAsBytes(io.github.auditapi.model.elastic.SearchResponse.<HttpDocument>builder()
+                .results(results)
+                .totalHits(response.hits().total().value())
+                .build());
+        return body.length;
+    }
+
+    private Result measure(Operation operation) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Result(elapsed / 1_000_000.0 / ITERATIONS, allocated / ITERATIONS);
+    }
+
+    private byte[] elasticResponse() throws Exception {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("took", 5).put("timed_out", false);
+        root.putObject("_shards").put("total", 1).put("successful", 1).put("skipped", 0).put("failed", 0);
+        ObjectNode hits = root.putObject("hits");
+        hits.putObject("total").put("value", PAGE_SIZE).put("relation", "eq");
+        hits.putNull("max_score");
+        ArrayNode array = hits.putArray("hits");
+        String body = "x".repeat(BODY_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            ObjectNode hit = array.addObject();
+            hit.put("_index", "audit-requests").put("_id", "id-" + i).putNull("_score");
+            hit.putObject("_source")
+                    .put("timestamp", "2025-01-01T10:00:00")
+                    .put("uri", "/api/orders/" + i)
+                    .put("method", "POST")
+                    .put("direction", "INCOMING")
+                    .put("statusCode", "200")
+                    .put("requestBody", body)
+                    .put("responseBody", body);
+            hit.putArray("sort").add(i);
+        }
+        return objectMapper.writeValueAsBytes(root);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+
+        long run() throws Exception;
+
+    }
+
+    private static final class Result {
+
+        private final double millis;
+        private final long allocatedBytes;
+
+        private Result(double millis, long allocatedBytes) {
+            this.millis = millis;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+    }
+
+}
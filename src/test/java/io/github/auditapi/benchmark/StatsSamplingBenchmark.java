@@ -0,0 +1,143 @@
+package io.github.auditapi.benchmark;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.json.JsonData;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.rest_client.RestClientTransport;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.config.StatsProperties;
+import io.github.auditapi.model.elastic.StatsResponse;
+import io.github.auditapi.service.StatsSampler;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.elasticsearch.ElasticsearchContainer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Сравнение точной и приближенной статистики (random_sampler) по задержке и относительной
+ * ошибке значений на индексе с неравномерным распределением уровней.
+ * Требует Docker. Запуск: mvn test -Dtest=StatsSamplingBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StatsSamplingBenchmark {
+
+    private static final String INDEX = "audit-methods";
+    private static final String AGGREGATION = "level_stats";
+    private static final int DOCUMENTS = 2_000_000;
+    private static final int BATCH = 10_000;
+    private static final int ITERATIONS = 20;
+    private static final String[] LEVELS = {"INFO", "DEBUG", "WARN", "ERROR"};
+    private static final double[] WEIGHTS = {0.80, 0.15, 0.04, 0.01};
+
+    private static final Query QUERY = Query.of(q -> q.matchAll(m -> m));
+    private static final Aggregation TERMS = Aggregation.of(a -> a.terms(t -> t.field("level")));
+
+    @Test
+    void compareExactAndApproximate() throws Exception {
+        try (ElasticsearchContainer elasticsearch = new ElasticsearchContainer("elasticsearch:9.1.2")
+                .withEnv("discovery.type", "single-node")
+                .withEnv("xpack.security.enabled", "false")) {
+            elasticsearch.start();
+
+            RestClient restClient = RestClient.builder(HttpHost.create(elasticsearch.getHttpHostAddress())).build();
+            ElasticsearchAsyncClient client = new ElasticsearchAsyncClient(new RestClientTransport(restClient, new JacksonJsonpMapper()));
+            index(client);
+
+            Map<String, Long> truth = exact(client).join().getStats();
+            System.out.printf("%-12s %10s %12s %12s %14s%n", "mode", "sample", "p50 ms", "p95 ms", "max rel err %");
+            measure("exact", Integer.MAX_VALUE, client, truth);
+            for (int sampleSize : new int[]{200_000, 50_000, 10_000}) {
+                measure("approximate", sampleSize, client, truth);
+            }
+            restClient.close();
+        }
+    }
+
+    private void measure(String mode, int sampleSize, ElasticsearchAsyncClient client, Map<String, Long> truth) {
+        StatsProperties properties = new StatsProperties();
+        properties.setApproximateSampleSize(sampleSize);
+        StatsSampler sampler = new StatsSampler(client, new SearchProperties(), properties);
+
+        double[] latencies = new double[ITERATIONS];
+        double maxError = 0;
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < ITERATIONS; i++) {
+                // request cache отключен в индексе, поэтому каждый запрос действительно агрегирует
+                long start = System.nanoTime();
+                StatsResponse response = sampler.sample(INDEX, QUERY, AGGREGATION, TERMS, null, () -> exact(client)).join();
+                latencies[i] = (System.nanoTime() - start) / 1_000_000.0;
+                for (Map.Entry<String, Long> entry : truth.entrySet()) {
+                    long estimate = response.getStats().getOrDefault(entry.getKey(), 0L);
+                    maxError = Math.max(maxError, Math.abs(estimate - entry.getValue()) * 100.0 / entry.getValue());
+                }
+            }
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-12s %10s %12.1f %12.1f %14.2f%n", mode, sampleSize == Integer.MAX_VALUE ? "-" : sampleSize,
+                latencies[ITERATIONS / 2], latencies[ITERATIONS * 95 / 100], maxError);
+    }
+
+    private static CompletableFuture<StatsResponse> exact(ElasticsearchAsyncClient client) {
+        return client.search(s -> s.index(INDEX).query(QUERY).size(0).aggregations(AGGREGATION, TERMS), Void.class)
+                .thenApply(StatsSamplingBenchmark::toStats);
+    }
+
+    private static StatsResponse toStats(SearchResponse<Void> response) {
+        Map<String, Long> stats = new HashMap<>();
+        for (StringTermsBucket bucket : response.aggregations().get(AGGREGATION).sterms().buckets().array()) {
+            stats.put(bucket.key().stringValue(), bucket.docCount());
+        }
+        return StatsResponse.builder().stats(stats).build();
+    }
+
+    private static void index(ElasticsearchAsyncClient client) {
+        client.indices().create(c -> c
+                .index(INDEX)
+                .settings(s -> s.numberOfShards("1").numberOfReplicas("0").refreshInterval(r -> r.time("-1"))
+                        .otherSettings("index.requests.cache.enable", JsonData.of(false)))
+                .mappings(m -> m
+                        .properties("level", p -> p.keyword(k -> k))
+                        .properties("method", p -> p.keyword(k -> k))
+                        .properties("timestamp", p -> p.date(d -> d)))).join();
+
+        Random random = new Random(7);
+        long now = System.currentTimeMillis();
+        for (int offset = 0; offset < DOCUMENTS; offset += BATCH) {
+            BulkRequest.Builder bulk = new BulkRequest.Builder();
+            for (int i = 0; i < BATCH; i++) {
+                Map<String, Object> document = Map.of(
+                        "level", level(random.nextDouble()),
+                        "method", "Service.method" + random.nextInt(200),
+                        "timestamp", now - random.nextInt(30 * 24 * 3600) * 1000L);
+                bulk.operations(o -> o.index(x -> x.index(INDEX).document(document)));
+            }
+            client.bulk(bulk.build()).join();
+        }
+        client.indices().refresh(r -> r.index(INDEX)).join();
+        client.indices().forcemerge(f -> f.index(INDEX).maxNumSegments(1L)).join();
+    }
+
+    private static String level(double value) {
+        double cumulative = 0;
+        for (int i = 0; i < LEVELS.length; i++) {
+            cumulative += WEIGHTS[i];
+            if (value < cumulative) {
+                return LEVELS[i];
+            }
+        }
+        return LEVELS[0];
+    }
+
+}
@@ -2,14 +2,17 @@ package io.github.auditapi.testconainers;
 
 import io.github.auditapi.model.elastic.HttpDocument;
 import io.github.auditapi.repository.HttpDocumentRepository;
+import io.github.auditapi.service.HttpQueries;
+import io.github.auditapi.service.SearchPlan;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.elasticsearch.DataElasticsearchTest;
 import org.springframework.context.annotation.Import;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.elasticsearch.ElasticsearchContainer;
@@ -41,6 +44,9 @@ class HttpDocumentRepositoryTest {
     @Autowired
     private HttpDocumentRepository httpDocumentRepository;
 
+    @Autowired
+    private ElasticsearchOperations elasticsearchOperations;
+
     @BeforeEach
     void setUp() {
         httpDocumentRepository.deleteAll();
@@ -87,55 +93,55 @@ class HttpDocumentRepositoryTest {
     }
 
     @Test
-    void findByStatusCode_ReturnCorrectResults() {
-        Pageable pageable = PageRequest.of(0, 10);
+    void byFields_StatusCode_ReturnCorrectResults() {
+        List<HttpDocument> results = search(HttpQueries.byFields(null, null, "200", null, null));
 
-        Page<HttpDocument> results = httpDocumentRepository.findByStatusCode("200", pageable);
-
-        assertThat(results.getContent()).hasSize(2);
-        assertThat(results.getContent()).extracting("uri")
+        assertThat(results).hasSize(2);
+        assertThat(results).extracting("uri")
                 .contains("/api/orders", "/external/api/payment");
     }
 
     @Test
-    void findByMethod_ReturnCorrectResults() {
-        Pageable pageable = PageRequest.of(0, 10);
-
-        Page<HttpDocument> results = httpDocumentRepository.findByMethod("GET", pageable);
+    void byFields_Method_ReturnCorrectResults() {
+        List<HttpDocument> results = search(HttpQueries.byFields(null, "GET", null, null, null));
 
-        assertThat(results.getContent()).hasSize(1);
-        assertThat(results.getContent().getFirst().getUri()).isEqualTo("/api/orders");
+        assertThat(results).hasSize(1);
+        assertThat(results.getFirst().getUri()).isEqualTo("/api/orders");
     }
 
     @Test
-    void findByUriContaining_ReturnCorrectResults() {
-        Pageable pageable = PageRequest.of(0, 10);
+    void byFields_UriContaining_ReturnCorrectResults() {
+        List<HttpDocument> results = search(HttpQueries.byFields("api", null, null, null, null));
 
-        Page<HttpDocument> results = httpDocumentRepository.findByUriContaining("api", pageable);
-
-        assertThat(results.getContent()).hasSize(3);
+        assertThat(results).hasSize(3);
     }
 
     @Test
-    void findByUriWildcard_ReturnCorrectResults() {
-        Pageable pageable = PageRequest.of(0, 10);
-
-        Page<HttpDocument> results = httpDocumentRepository.findByUriWildcard("/api/*", pageable);
+    void byFields_UriWildcard_ReturnCorrectResults() {
+        List<HttpDocument> results = search(HttpQueries.byFields("/api/*", null, null, null, null));
 
-        assertThat(results.getContent()).hasSize(2);
-        assertThat(results.getContent()).extracting("uri")
+        assertThat(results).hasSize(2);
+        assertThat(results).extracting("uri")
                 .contains("/api/orders", "/api/users/123");
     }
 
     @Test
-    void findByMethodAndStatusCode_ReturnCorrectResults() {
-        Pageable pageable = PageRequest.of(0, 10);
+    void byFields_MethodAndStatusCode_ReturnCorrectResults() {
+        List<HttpDocument> results = search(HttpQueries.byFields(null, "POST", "200", null, null));
 
-        Page<HttpDocument> results = httpDocumentRepository.findByMethodAndStatusCode("POST", "200", pageable);
+        assertThat(results).hasSize(1);
+        assertThat(results.getFirst().getUri()).isEqualTo("/external/api/payment");
+        assertThat(results.getFirst().getDirection()).isEqualTo("OUTGOING");
+    }
 
-        assertThat(results.getContent()).hasSize(1);
-        assertThat(results.getContent().getFirst().getUri()).isEqualTo("/external/api/payment");
-        assertThat(results.getContent().getFirst().getDirection()).isEqualTo("OUTGOING");
+    private List<HttpDocument> search(SearchPlan plan) {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(plan.getQuery())
+                .withPageable(PageRequest.of(0, 10))
+                .build();
+        return elasticsearchOperations.search(query, HttpDocument.class).stream()
+                .map(SearchHit::getContent)
+                .toList();
     }
 
 }
@@ -2,13 +2,16 @@ package io.github.auditapi.testconainers;
 
 import io.github.auditapi.model.elastic.MethodDocument;
 import io.github.auditapi.repository.MethodDocumentRepository;
+import io.github.auditapi.service.MethodQueries;
+import io.github.auditapi.service.SearchPlan;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.elasticsearch.DataElasticsearchTest;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.elasticsearch.ElasticsearchContainer;
@@ -39,6 +42,9 @@ class MethodDocumentRepositoryTest {
     @Autowired
     private MethodDocumentRepository methodDocumentRepository;
 
+    @Autowired
+    private ElasticsearchOperations elasticsearchOperations;
+
     @BeforeEach
     void setUp() {
         methodDocumentRepository.deleteAll();
@@ -78,45 +84,48 @@ class MethodDocumentRepositoryTest {
     }
 
     @Test
-    void findByLevel_ReturnCorrectResults() {
-        Pageable pageable = PageRequest.of(0, 10);
+    void byFields_Level_ReturnCorrectResults() {
+        List<MethodDocument> results = search(MethodQueries.byFields(null, "INFO", null, null, null));
 
-        Page<MethodDocument> results = methodDocumentRepository.findByLevel("INFO", pageable);
-
-        assertThat(results.getContent()).hasSize(1);
-        assertThat(results.getContent().getFirst().getMethod()).isEqualTo("getUserById");
+        assertThat(results).hasSize(1);
+        assertThat(results.getFirst().getMethod()).isEqualTo("getUserById");
     }
 
     @Test
-    void findByMethodContaining_ReturnCorrectResults() {
-        Pageable pageable = PageRequest.of(0, 10);
-
-        Page<MethodDocument> results = methodDocumentRepository.findByMethodContaining("Service", pageable);
+    void byFields_MethodContaining_ReturnCorrectResults() {
+        List<MethodDocument> results = search(MethodQueries.byFields("Service", null, null, null, null));
 
-        assertThat(results.getContent()).hasSize(2);
-        assertThat(results.getContent()).extracting("method")
+        assertThat(results).hasSize(2);
+        assertThat(results).extracting("method")
                 .contains("Service.createUser", "UserService.updateUser");
     }
 
     @Test
-    void findByMethodWildcard_ReturnCorrectResults() {
-        Pageable pageable = PageRequest.of(0, 10);
+    void byFields_MethodWildcard_ReturnCorrectResults() {
+        List<MethodDocument> results = search(MethodQueries.byFields("*Service.*", null, null, null, null));
 
-        Page<MethodDocument> results = methodDocumentRepository.findByMethodWildcard("*Service.*", pageable);
-
-        assertThat(results.getContent()).hasSize(2);
-        assertThat(results.getContent()).extracting("method")
+        assertThat(results).hasSize(2);
+        assertThat(results).extracting("method")
                 .contains("Service.createUser", "UserService.updateUser");
     }
 
     @Test
-    void findByMethodContainingAndLevel_ReturnCorrectResults() {
-        Pageable pageable = PageRequest.of(0, 10);
+    void byFields_MethodContainingAndLevel_ReturnCorrectResults() {
+        List<MethodDocument> results = search(MethodQueries.byFields("Service", "ERROR", null, null, null));
 
-        Page<MethodDocument> results = methodDocumentRepository.findByMethodContainingAndLevel("Service", "ERROR", pageable);
+        assertThat(results).hasSize(1);
+        assertThat(results.getFirst().getMethod()).isEqualTo("Service.createUser");
+        assertThat(results.getFirst().getLevel()).isEqualTo("ERROR");
+    }
 
-        assertThat(results.getContent()).hasSize(1);
-        assertThat(results.getContent().getFirst().getMethod()).isEqualTo("Service.createUser");
-        assertThat(results.getContent().getFirst().getLevel()).isEqualTo("ERROR");
+    private List<MethodDocument> search(SearchPlan plan) {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(plan.getQuery())
+                .withPageable(PageRequest.of(0, 10))
+                .build();
+        return elasticsearchOperations.search(query, MethodDocument.class).stream()
+                .map(SearchHit::getContent)
+                .toList();
     }
+
 }
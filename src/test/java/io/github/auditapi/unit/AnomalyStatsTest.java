@@ -0,0 +1,105 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import io.github.auditapi.config.AnomalyProperties;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.model.elastic.AnomalyResponse;
+import io.github.auditapi.service.AnomalyStats;
+import jakarta.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AnomalyStatsTest {
+
+    private static final Map<String, String> FIELDS = Map.of("uri", "uri.keyword", "method", "method");
+    private static final Query ERRORS = Query.of(q -> q.prefix(p -> p.field("statusCode").value("5")));
+    private static final Duration WINDOW = Duration.ofMinutes(15);
+
+    @Mock
+    private ElasticsearchAsyncClient elasticsearchAsyncClient;
+
+    @Test
+    void anomalies_CompareWindowWithPreviousAndCacheResult() {
+        ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        when(elasticsearchAsyncClient.search(request.capture(), eq(Void.class)))
+                .thenReturn(CompletableFuture.completedFuture(anomalyResponse()));
+        AnomalyStats anomalyStats = anomalyStats();
+
+        AnomalyResponse first = anomalyStats.anomalies("audit-requests", FIELDS, "uri", ERRORS, WINDOW,
+                Instant.parse("2025-01-15T10:15:20Z"), null).join();
+        AnomalyResponse second = anomalyStats.anomalies("audit-requests", FIELDS, "uri", ERRORS, WINDOW,
+                Instant.parse("2025-01-15T10:15:50Z"), null).join();
+
+        assertThat(first.getWindowFrom()).isEqualTo(Instant.parse("2025-01-15T10:00:00Z"));
+        assertThat(first.getWindowTo()).isEqualTo(Instant.parse("2025-01-15T10:15:00Z"));
+        assertThat(first.getErrors()).isEqualTo(200);
+        assertThat(first.getBaseline()).isEqualTo(10000);
+        assertThat(first.getAnomalies()).hasSize(1);
+        assertThat(first.getAnomalies().getFirst().getValue()).isEqualTo("/api/payments");
+        assertThat(first.getAnomalies().getFirst().getErrorShare()).isEqualTo(0.6);
+        assertThat(first.getAnomalies().getFirst().getBaselineShare()).isEqualTo(0.02);
+        assertThat(first.isCached()).isFalse();
+        assertThat(second.isCached()).isTrue();
+        assertThat(second.getAnomalies()).isEqualTo(first.getAnomalies());
+
+        verify(elasticsearchAsyncClient, times(1)).search(any(SearchRequest.class), eq(Void.class));
+        assertThat(request.getValue().aggregations().get("anomalies").significantTerms().field()).isEqualTo("uri.keyword");
+        assertThat(request.getValue().aggregations().get("anomalies").significantTerms().backgroundFilter().range().date().lt())
+                .isEqualTo(String.valueOf(Instant.parse("2025-01-15T10:00:00Z").toEpochMilli()));
+    }
+
+    @Test
+    void anomalies_RejectUnknownFieldOrWindow() {
+        assertThatThrownBy(() -> anomalyStats().anomalies("audit-requests", FIELDS, "correlationId", ERRORS, WINDOW, null, null))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> anomalyStats().anomalies("audit-requests", FIELDS, "uri", ERRORS, Duration.ofDays(2), null, null))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(elasticsearchAsyncClient);
+    }
+
+    private AnomalyStats anomalyStats() {
+        AnomalyStats anomalyStats = new AnomalyStats(elasticsearchAsyncClient, new SearchProperties(), new AnomalyProperties());
+        anomalyStats.init();
+        return anomalyStats;
+    }
+
+    private static SearchResponse<Void> anomalyResponse() {
+        String json = """
+                {"took": 4, "timed_out": false,
+                 "_shards": {"total": 1, "successful": 1, "skipped": 0, "failed": 0},
+                 "hits": {"total": {"value": 200, "relation": "eq"}, "max_score": null, "hits": []},
+                 "aggregations": {"sigsterms#anomalies": {"doc_count": 200, "bg_count": 10000, "buckets": [
+                   {"key": "/api/payments", "doc_count": 120, "score": 4.5, "bg_count": 200}
+                 ]}}}
+                """;
+        JacksonJsonpMapper mapper = new JacksonJsonpMapper();
+        JsonParser parser = mapper.jsonProvider().createParser(new StringReader(json));
+        return SearchResponse.<Void>createSearchResponseDeserializer(JsonpDeserializer.of(Void.class)).deserialize(parser, mapper);
+    }
+
+}
@@ -0,0 +1,54 @@
+package io.github.auditapi.unit;
+
+import io.github.auditapi.model.elastic.IndexState;
+import io.github.auditapi.web.ConditionalRequests;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConditionalRequestsTest {
+
+    private static final IndexState STATE = IndexState.builder().version("10:1000").lastModified(1000L).build();
+
+    @Test
+    void etag_ParameterOrderIgnored() {
+        MockHttpServletRequest first = new MockHttpServletRequest("GET", "/api/v1/requests");
+        first.setParameter("uri", "/api/orders");
+        first.setParameter("method", "GET");
+        MockHttpServletRequest second = new MockHttpServletRequest("GET", "/api/v1/requests");
+        second.setParameter("method", "GET");
+        second.setParameter("uri", "/api/orders");
+
+        assertThat(ConditionalRequests.etag(new ServletWebRequest(first), STATE, "JSON"))
+                .isEqualTo(ConditionalRequests.etag(new ServletWebRequest(second), STATE, "JSON"))
+                .isNotEqualTo(ConditionalRequests.etag(new ServletWebRequest(second), STATE, "CBOR"));
+    }
+
+    @Test
+    void notModified_IndexChanged_False() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/requests/stats");
+        String etag = ConditionalRequests.etag(new ServletWebRequest(request), STATE, "JSON");
+        request.addHeader("If-None-Match", etag);
+
+        IndexState changed = IndexState.builder().version("11:2000").lastModified(2000L).build();
+
+        assertThat(ConditionalRequests.notModified(new ServletWebRequest(request), changed, "JSON")).isFalse();
+        assertThat(ConditionalRequests.notModified(new ServletWebRequest(request), STATE, "JSON")).isTrue();
+    }
+
+    @Test
+    void noStore_PartialResponse_ForbidCaching() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/requests");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        ConditionalRequests.notModified(webRequest, STATE, "JSON");
+
+        ConditionalRequests.noStore(webRequest);
+
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("no-store");
+    }
+
+}
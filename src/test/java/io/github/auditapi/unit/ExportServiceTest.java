@@ -0,0 +1,213 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.CountResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.github.auditapi.config.ExportProperties;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.export.ExportFormat;
+import io.github.auditapi.model.export.ExportJob;
+import io.github.auditapi.model.export.ExportRequest;
+import io.github.auditapi.service.ExportService;
+import io.github.auditapi.service.PointInTimeScanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private ElasticsearchClient elasticsearchClient;
+
+    @Mock
+    private PointInTimeScanner pointInTimeScanner;
+
+    @Test
+    void submit_WriteNdjsonFromAllSlices() throws Exception {
+        ExportService exportService = exportService(Duration.ofHours(1));
+        when(elasticsearchClient.count(any(Function.class))).thenReturn(count(2));
+        doAnswer(invocation -> {
+            PointInTimeScanner.BatchConsumer<ObjectNode> consumer = invocation.getArgument(6);
+            consumer.accept(0, List.of(hit("a")));
+            consumer.accept(2, List.of(hit("b")));
+            return null;
+        }).when(pointInTimeScanner).scan(anyString(), any(), eq(3), anyInt(), any(), eq(ObjectNode.class), any(),
+                any(BooleanSupplier.class));
+
+        ExportJob job = exportService.submit(request(ExportFormat.NDJSON_GZIP));
+        assertThat(job.getFileName()).isEqualTo(job.getId() + ".ndjson.gz");
+
+        ExportJob done = awaitFinished(exportService, job.getId());
+        assertThat(done.getState()).isEqualTo("DONE");
+        assertThat(done.getTotal()).isEqualTo(2);
+        assertThat(done.getExported()).isEqualTo(2);
+        assertThat(done.getFileName()).endsWith(".ndjson.gz");
+
+        Path file = exportService.getFile(job.getId());
+        assertThat(done.getFileSize()).isEqualTo(Files.size(file));
+        assertThat(directory.resolve(job.getFileName() + ".part")).doesNotExist();
+        List<String> lines;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+        assertThat(lines).hasSize(2);
+        assertThat(lines).allSatisfy(line -> assertThat(objectMapper.readTree(line).has("_class")).isFalse());
+        assertThat(lines).extracting(line -> objectMapper.readTree(line).get("id").asText())
+                .containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void submit_WriteCborSequence() throws Exception {
+        ExportService exportService = exportService(Duration.ofHours(1));
+        when(elasticsearchClient.count(any(Function.class))).thenReturn(count(2));
+        doAnswer(invocation -> {
+            PointInTimeScanner.BatchConsumer<ObjectNode> consumer = invocation.getArgument(6);
+            consumer.accept(1, List.of(hit("a"), hit("b")));
+            return null;
+        }).when(pointInTimeScanner).scan(anyString(), any(), eq(3), anyInt(), any(), eq(ObjectNode.class), any(),
+                any(BooleanSupplier.class));
+
+        ExportJob job = exportService.submit(request(ExportFormat.CBOR_SEQ_GZIP));
+        assertThat(awaitFinished(exportService, job.getId()).getState()).isEqualTo("DONE");
+
+        List<ObjectNode> documents;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(exportService.getFile(job.getId())))) {
+            documents = new ObjectMapper(new CBORFactory()).readerFor(ObjectNode.class).<ObjectNode>readValues(in).readAll();
+        }
+        assertThat(documents).extracting(document -> document.get("id").asText()).containsExactly("a", "b");
+    }
+
+    @Test
+    void evictExpired_RemoveFinishedTasksAndFiles() throws Exception {
+        ExportService exportService = exportService(Duration.ZERO);
+        when(elasticsearchClient.count(any(Function.class))).thenReturn(count(1));
+        doAnswer(invocation -> {
+            PointInTimeScanner.BatchConsumer<ObjectNode> consumer = invocation.getArgument(6);
+            consumer.accept(0, List.of(hit("a")));
+            return null;
+        }).doThrow(new IOException("search_phase_execution_exception"))
+                .when(pointInTimeScanner).scan(anyString(), any(), eq(3), anyInt(), any(), eq(ObjectNode.class), any(),
+                        any(BooleanSupplier.class));
+
+        ExportJob done = exportService.submit(request(ExportFormat.NDJSON_GZIP));
+        awaitFinished(exportService, done.getId());
+        ExportJob failed = exportService.submit(request(ExportFormat.NDJSON_GZIP));
+        ExportJob failedJob = awaitFinished(exportService, failed.getId());
+        assertThat(failedJob.getState()).isEqualTo("FAILED");
+        assertThat(failedJob.getError()).isEqualTo("search_phase_execution_exception");
+        Path file = exportService.getFile(done.getId());
+        assertThat(file).exists();
+
+        exportService.evictExpired();
+
+        assertThat(exportService.findAll()).isEmpty();
+        assertThat(file).doesNotExist();
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void cancel_QueuedJob_NeverStarts() throws Exception {
+        ExportService exportService = exportService(Duration.ofHours(1), 1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(elasticsearchClient.count(any(Function.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return count(0);
+        });
+
+        ExportJob running = exportService.submit(request(ExportFormat.NDJSON_GZIP));
+        ExportJob queued = exportService.submit(request(ExportFormat.NDJSON_GZIP));
+        assertThat(exportService.cancel(queued.getId())).isTrue();
+        assertThat(exportService.find(queued.getId())).get().extracting(ExportJob::getState).isEqualTo("CANCELLED");
+        // повторная отмена не меняет завершенную задачу
+        assertThat(exportService.cancel(queued.getId())).isTrue();
+        release.countDown();
+
+        assertThat(awaitFinished(exportService, running.getId()).getState()).isEqualTo("DONE");
+        assertThat(exportService.find(queued.getId())).get().extracting(ExportJob::getState).isEqualTo("CANCELLED");
+        verify(elasticsearchClient, times(1)).count(any(Function.class));
+        assertThat(exportService.cancel("missing")).isFalse();
+    }
+
+    private ExportService exportService(Duration resultTtl) {
+        return exportService(resultTtl, new ExportProperties().getMaxConcurrentJobs());
+    }
+
+    private ExportService exportService(Duration resultTtl, int maxConcurrentJobs) {
+        ExportProperties properties = new ExportProperties();
+        properties.setDirectory(directory);
+        properties.setSlices(3);
+        properties.setResultTtl(resultTtl);
+        properties.setMaxConcurrentJobs(maxConcurrentJobs);
+        ExportService exportService = new ExportService(elasticsearchClient, pointInTimeScanner, properties, objectMapper);
+        exportService.init();
+        return exportService;
+    }
+
+    private static ExportRequest request(ExportFormat format) {
+        return ExportRequest.builder()
+                .documentType(AuditDocumentType.HTTP)
+                .format(format)
+                .filters(Map.of("statusCode", "500"))
+                .build();
+    }
+
+    private Hit<ObjectNode> hit(String id) {
+        ObjectNode source = objectMapper.createObjectNode()
+                .put("_class", "io.github.auditapi.model.elastic.HttpDocument")
+                .put("statusCode", "500");
+        return Hit.of(h -> h.id(id).index("audit-requests").source(source));
+    }
+
+    private static CountResponse count(long count) {
+        return CountResponse.of(c -> c.count(count).shards(s -> s.total(1).successful(1).failed(0)));
+    }
+
+    private static ExportJob awaitFinished(ExportService exportService, String id) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            ExportJob job = exportService.find(id).orElseThrow();
+            if (job.getFinishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Export " + id + " did not finish");
+    }
+
+}
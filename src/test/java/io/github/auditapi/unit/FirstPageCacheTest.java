@@ -0,0 +1,118 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.IndexState;
+import io.github.auditapi.model.elastic.SearchOptions;
+import io.github.auditapi.model.elastic.SearchResponse;
+import io.github.auditapi.service.AnomalyStats;
+import io.github.auditapi.service.BodyStorageService;
+import io.github.auditapi.service.FirstPageCache;
+import io.github.auditapi.service.HttpSearchService;
+import io.github.auditapi.service.IndexStateService;
+import io.github.auditapi.service.MethodSearchService;
+import io.github.auditapi.service.PivotStats;
+import io.github.auditapi.service.QueryLanguage;
+import io.github.auditapi.service.SearchExecutor;
+import io.github.auditapi.service.SearchTemplateRegistry;
+import io.github.auditapi.service.StatsSampler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FirstPageCacheTest {
+
+    private static final SearchOptions OPTIONS = SearchOptions.builder().build();
+
+    @Mock
+    private IndexStateService indexStateService;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_ReloadOnlyWhenIndexVersionChanges() {
+        when(indexStateService.current(AuditDocumentType.HTTP))
+                .thenReturn(state("100:1736935200000"), state("100:1736935200000"), state("101:1736935260000"));
+        FirstPageCache cache = firstPageCache();
+
+        SearchResponse<String> first = cache.get(AuditDocumentType.HTTP, "statusCode=500", 0, 10, OPTIONS, loader(false)).join();
+        SearchResponse<String> second = cache.get(AuditDocumentType.HTTP, "statusCode=500", 0, 10, OPTIONS, loader(false)).join();
+        SearchResponse<String> refreshed = cache.get(AuditDocumentType.HTTP, "statusCode=500", 0, 10, OPTIONS, loader(false)).join();
+
+        assertThat(second).isSameAs(first);
+        assertThat(refreshed).isNotSameAs(first);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_DoNotCachePartialPageOrUnsupportedShape() {
+        when(indexStateService.current(AuditDocumentType.METHOD)).thenReturn(state("5:1736935200000"));
+        FirstPageCache cache = firstPageCache();
+
+        cache.get(AuditDocumentType.METHOD, "level=", 0, 10, OPTIONS, loader(true)).join();
+        cache.get(AuditDocumentType.METHOD, "level=", 0, 10, OPTIONS, loader(true)).join();
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.accepts(0, 10, OPTIONS)).isTrue();
+        assertThat(cache.accepts(3, 10, OPTIONS)).isFalse();
+        assertThat(cache.accepts(0, 500, OPTIONS)).isFalse();
+        assertThat(cache.accepts(0, 10, SearchOptions.builder().profile(true).build())).isFalse();
+    }
+
+    @Test
+    void streamByFields_BlankQueryWithoutRange_UseCache() {
+        FirstPageCache cache = mock(FirstPageCache.class);
+        SearchExecutor searchExecutor = mock(SearchExecutor.class);
+        when(cache.accepts(0, 20, OPTIONS)).thenReturn(true);
+        HttpSearchService httpSearchService = new HttpSearchService(mock(ElasticsearchAsyncClient.class), new SearchProperties(),
+                mock(BodyStorageService.class), searchExecutor, mock(QueryLanguage.class), mock(StatsSampler.class),
+                mock(SearchTemplateRegistry.class), mock(PivotStats.class), mock(AnomalyStats.class), cache);
+        MethodSearchService methodSearchService = new MethodSearchService(mock(ElasticsearchAsyncClient.class), new SearchProperties(),
+                mock(BodyStorageService.class), searchExecutor, mock(QueryLanguage.class), mock(StatsSampler.class),
+                mock(SearchTemplateRegistry.class), mock(PivotStats.class), mock(AnomalyStats.class), cache);
+
+        // прогрев передает пустой q и не задает интервал
+        httpSearchService.streamByFields(null, null, null, "", null, 0, 20, OPTIONS);
+        methodSearchService.streamByFields(null, null, null, " ", null, 0, 20, OPTIONS);
+
+        verify(cache).get(eq(AuditDocumentType.HTTP), eq("statusCode="), eq(0), eq(20), eq(OPTIONS), any());
+        verify(cache).get(eq(AuditDocumentType.METHOD), eq("level=,eventType="), eq(0), eq(20), eq(OPTIONS), any());
+    }
+
+    private FirstPageCache firstPageCache() {
+        FirstPageCache cache = new FirstPageCache(indexStateService, new SearchProperties());
+        cache.init();
+        return cache;
+    }
+
+    private Supplier<CompletableFuture<SearchResponse<String>>> loader(boolean partial) {
+        return () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(SearchResponse.<String>builder()
+                    .results(List.of("id-" + loads.get()))
+                    .partial(partial)
+                    .build());
+        };
+    }
+
+    private static Optional<IndexState> state(String version) {
+        return Optional.of(IndexState.builder().version(version).lastModified(0).build());
+    }
+
+}
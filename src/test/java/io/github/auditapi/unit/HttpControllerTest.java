@@ -1,24 +1,53 @@
 package io.github.auditapi.unit;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.auditapi.controller.v1.HttpController;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.CountResponse;
+import io.github.auditapi.model.elastic.HttpBodyDocument;
 import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.model.elastic.IndexState;
+import io.github.auditapi.model.elastic.SearchOptions;
 import io.github.auditapi.model.elastic.SearchResponse;
+import io.github.auditapi.model.elastic.StatsAccuracy;
 import io.github.auditapi.model.elastic.StatsResponse;
+import io.github.auditapi.model.elastic.TimeRange;
 import io.github.auditapi.service.HttpSearchService;
+import io.github.auditapi.service.IndexStateService;
+import io.github.auditapi.web.ConditionalRequests;
+import io.github.auditapi.web.ResponseFormat;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,11 +56,16 @@ class HttpControllerTest {
     @Mock
     private HttpSearchService HttpSearchService;
 
+    @Mock
+    private IndexStateService indexStateService;
+
     @InjectMocks
     private HttpController httpController;
 
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @Test
-    void search_ReturnSearchResponse() {
+    void search_ReturnSearchResponse() throws Exception {
         HttpDocument document = HttpDocument.builder()
                 .id("1")
                 .uri("/api/orders")
@@ -45,17 +79,32 @@ class HttpControllerTest {
                 .totalHits(1L)
                 .build();
 
-        when(HttpSearchService.searchWithFullText(eq("orders"), eq("200"), eq(0), eq(20)))
-                .thenReturn(mockResponse);
+        when(HttpSearchService.streamWithFullText(eq("orders"), eq("200"), any(TimeRange.class), eq(0), eq(20), eq(SearchOptions.builder().build())))
+                .thenReturn(body(mockResponse));
 
-        ResponseEntity<SearchResponse<HttpDocument>> response = httpController.search(
-                "orders", "200", 0, 20);
+        ResponseEntity<StreamingResponseBody> response = httpController.search(
+                "orders", "200", null, null, 0, 20, true, false, null, false, null, null);
+        SearchResponse<HttpDocument> body = read(response);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody()).isNotNull();
-        assertThat(response.getBody().getResults()).hasSize(1);
-        assertThat(response.getBody().getResults().get(0).getUri()).isEqualTo("/api/orders");
-        assertThat(response.getBody().getTotalHits()).isEqualTo(1L);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(body.getResults()).hasSize(1);
+        assertThat(body.getResults().get(0).getUri()).isEqualTo("/api/orders");
+        assertThat(body.getTotalHits()).isEqualTo(1L);
+    }
+
+    @Test
+    void count_ReturnCountResponse() {
+        Instant from = Instant.parse("2025-01-15T10:00:00Z");
+        Instant to = Instant.parse("2025-01-15T10:05:00Z");
+        when(HttpSearchService.count(isNull(), isNull(), eq("500"), isNull(), argThat(range -> from.equals(range.getFrom()) && to.equals(range.getTo())), eq(Duration.ofMillis(5000))))
+                .thenReturn(CompletableFuture.completedFuture(CountResponse.builder().count(17).build()));
+
+        ResponseEntity<CountResponse> response = result(httpController
+                .count(null, null, "500", null, from, to, 5000L, new ServletWebRequest(new MockHttpServletRequest())));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getCount()).isEqualTo(17L);
     }
 
     @Test
@@ -65,10 +114,11 @@ class HttpControllerTest {
                 .stats(stats)
                 .build();
 
-        when(HttpSearchService.getStats(eq("statusCode"), eq("INCOMING")))
-                .thenReturn(mockResponse);
+        when(HttpSearchService.getStats(eq("statusCode"), eq("INCOMING"), eq(StatsAccuracy.EXACT), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
-        ResponseEntity<StatsResponse> response = httpController.getStats("statusCode", "INCOMING");
+        ResponseEntity<StatsResponse> response = result(httpController
+                .getStats("statusCode", "INCOMING", "exact", null, new ServletWebRequest(new MockHttpServletRequest())));
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
@@ -78,7 +128,7 @@ class HttpControllerTest {
     }
 
     @Test
-    void searchByFields_ReturnSearchResponse() {
+    void searchByFields_ReturnSearchResponse() throws Exception {
         HttpDocument document = HttpDocument.builder()
                 .id("1")
                 .uri("/api/orders")
@@ -92,15 +142,156 @@ class HttpControllerTest {
                 .totalHits(1L)
                 .build();
 
-        when(HttpSearchService.searchByFields(eq("/api/orders"), eq("GET"), eq("200"), eq(0), eq(20)))
-                .thenReturn(mockResponse);
+        when(HttpSearchService.streamByFields(eq("/api/orders"), eq("GET"), eq("200"), isNull(), any(TimeRange.class), eq(0), eq(20), eq(SearchOptions.builder().build())))
+                .thenReturn(body(mockResponse));
+
+        ResponseEntity<StreamingResponseBody> response = httpController.searchByFields(
+                "/api/orders", "GET", "200", null, null, null, 0, 20, true, false, null, null, null);
+        SearchResponse<HttpDocument> body = read(response);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(body.getResults()).hasSize(1);
+        assertThat(body.getResults().get(0).getMethod()).isEqualTo("GET");
+    }
+
+    @Test
+    void search_PassRequestedTimeout() throws Exception {
+        SearchOptions options = SearchOptions.builder()
+                .timeout(Duration.ofMillis(1500))
+                .build();
+        SearchResponse<HttpDocument> mockResponse = SearchResponse.<HttpDocument>builder()
+                .results(List.of())
+                .totalHits(0L)
+                .partial(true)
+                .shardFailures(List.of("timed out"))
+                .build();
+
+        when(HttpSearchService.streamWithFullText(eq("orders"), eq(null), any(TimeRange.class), eq(0), eq(20), eq(options)))
+                .thenReturn(body(mockResponse));
 
-        ResponseEntity<SearchResponse<HttpDocument>> response = httpController.searchByFields(
-                "/api/orders", "GET", "200", 0, 20);
+        ResponseEntity<StreamingResponseBody> response = httpController.search(
+                "orders", null, null, null, 0, 20, true, false, 1500L, false, null, null);
+        SearchResponse<HttpDocument> body = read(response);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body.isPartial()).isTrue();
+        assertThat(body.getShardFailures()).containsExactly("timed out");
+    }
+
+    @Test
+    void search_ReturnHighlightsInsteadOfBodies() throws Exception {
+        SearchOptions options = SearchOptions.builder()
+                .highlight(true)
+                .build();
+        HttpDocument document = HttpDocument.builder()
+                .id("1")
+                .uri("/api/orders")
+                .build();
+        SearchResponse<HttpDocument> mockResponse = SearchResponse.<HttpDocument>builder()
+                .results(List.of(document))
+                .totalHits(1L)
+                .highlights(Map.of("1", Map.of("responseBody", List.of("\"status\": \"<em>FAILED</em>\""))))
+                .build();
+
+        when(HttpSearchService.streamWithFullText(eq("failed"), eq(null), any(TimeRange.class), eq(0), eq(20), eq(options)))
+                .thenReturn(body(mockResponse));
+
+        ResponseEntity<StreamingResponseBody> response = httpController.search(
+                "failed", null, null, null, 0, 20, true, false, null, true, null, null);
+        SearchResponse<HttpDocument> body = read(response);
+
+        assertThat(options.returnsBodies()).isFalse();
+        assertThat(body.getResults().get(0).getResponseBody()).isNull();
+        assertThat(body.getHighlights().get("1").get("responseBody")).containsExactly("\"status\": \"<em>FAILED</em>\"");
+    }
+
+    @Test
+    void getStats_ReturnNotModifiedWithoutAggregation() {
+        IndexState state = IndexState.builder().version("1250:1735689600000").lastModified(1735689600000L).build();
+        when(indexStateService.current(AuditDocumentType.HTTP)).thenReturn(Optional.of(state));
+
+        MockHttpServletRequest first = new MockHttpServletRequest("GET", "/api/v1/requests/stats");
+        first.setParameter("groupBy", "statusCode");
+        String etag = ConditionalRequests.etag(new ServletWebRequest(first), state, ResponseFormat.JSON.name());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/requests/stats");
+        request.setParameter("groupBy", "statusCode");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        ResponseEntity<StatsResponse> response = result(httpController
+                .getStats("statusCode", null, "exact", null, new ServletWebRequest(request, servletResponse)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(servletResponse.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        verifyNoInteractions(HttpSearchService);
+    }
+
+    @Test
+    void getStats_EtagAndContentTypeFollowAccept() {
+        IndexState state = IndexState.builder().version("1250:1735689600000").lastModified(1735689600000L).build();
+        when(indexStateService.current(AuditDocumentType.HTTP)).thenReturn(Optional.of(state));
+        when(HttpSearchService.getStats(eq("statusCode"), isNull(), eq(StatsAccuracy.EXACT), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(StatsResponse.builder().stats(Map.of("200", 1L)).build()));
+
+        MockHttpServletRequest json = new MockHttpServletRequest("GET", "/api/v1/requests/stats");
+        String jsonEtag = ConditionalRequests.etag(new ServletWebRequest(json), state, ResponseFormat.JSON.name());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/requests/stats");
+        request.addHeader(HttpHeaders.ACCEPT, "application/cbor");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, jsonEtag);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        ResponseEntity<StatsResponse> response = result(httpController
+                .getStats("statusCode", null, "exact", null, new ServletWebRequest(request, servletResponse)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(ResponseFormat.CBOR.getMediaType());
+        assertThat(response.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT);
+        assertThat(servletResponse.getHeader(HttpHeaders.ETAG)).isNotEqualTo(jsonEtag);
+    }
+
+    @Test
+    void getBody_ReturnBodyDocument() {
+        HttpBodyDocument body = HttpBodyDocument.builder()
+                .id("1")
+                .requestBody("{\"name\": \"John\"}")
+                .responseBody("{\"id\": 1}")
+                .build();
+
+        when(HttpSearchService.findBody(eq("1"))).thenReturn(Optional.of(body));
+
+        ResponseEntity<HttpBodyDocument> response = httpController.getBody("1");
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
-        assertThat(response.getBody().getResults()).hasSize(1);
-        assertThat(response.getBody().getResults().get(0).getMethod()).isEqualTo("GET");
+        assertThat(response.getBody().getResponseBody()).isEqualTo("{\"id\": 1}");
     }
+
+    @Test
+    void getBody_ReturnNotFound() {
+        when(HttpSearchService.findBody(eq("missing"))).thenReturn(Optional.empty());
+
+        ResponseEntity<HttpBodyDocument> response = httpController.getBody("missing");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private StreamingResponseBody body(Object value) {
+        return out -> objectMapper.writeValue(out, value);
+    }
+
+    private SearchResponse<HttpDocument> read(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return objectMapper.readValue(out.toByteArray(), new TypeReference<>() {
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T result(DeferredResult<T> deferred) {
+        return (T) deferred.getResult();
+    }
+
 }
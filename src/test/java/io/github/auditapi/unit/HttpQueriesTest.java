@@ -0,0 +1,102 @@
+package io.github.auditapi.unit;
+
+import io.github.auditapi.model.elastic.TimeRange;
+import io.github.auditapi.service.HttpQueries;
+import io.github.auditapi.service.SearchPlan;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpQueriesTest {
+
+    @Test
+    void fullText_WithoutParameters_MatchAll() {
+        SearchPlan plan = HttpQueries.fullText(null, " ", null);
+
+        assertThat(plan.getName()).isEqualTo("fullText[]");
+        assertThat(plan.getQuery().isMatchAll()).isTrue();
+    }
+
+    @Test
+    void fullText_QueryAndStatusCode_MustAndFilter() {
+        SearchPlan plan = HttpQueries.fullText("orders", "500", null);
+
+        assertThat(plan.getName()).isEqualTo("fullText[query, statusCode]");
+        assertThat(plan.getQuery().bool().must()).hasSize(1);
+        assertThat(plan.getQuery().bool().filter()).hasSize(1);
+    }
+
+    @Test
+    void byFields_WildcardUri_UseWildcardOnKeyword() {
+        SearchPlan plan = HttpQueries.byFields("/api/*", "GET", null, null, null);
+
+        assertThat(plan.getName()).isEqualTo("byFields[uri:wildcard, method]");
+        assertThat(plan.getQuery().bool().filter().getFirst().wildcard().field()).isEqualTo("uri.keyword");
+    }
+
+    @Test
+    void byFields_PlainUri_EscapeContaining() {
+        SearchPlan plan = HttpQueries.byFields("/api/orders", null, "200", null, null);
+
+        assertThat(plan.getName()).isEqualTo("byFields[uri:containing, statusCode]");
+        assertThat(plan.getQuery().bool().filter().getFirst().queryString().query()).isEqualTo("*\\/api\\/orders*");
+    }
+
+    @Test
+    void fullText_AlignedRange_SingleCacheableFilter() {
+        TimeRange range = TimeRange.of(Instant.parse("2025-01-15T10:00:00Z"), Instant.parse("2025-01-15T10:15:00Z"));
+
+        SearchPlan plan = HttpQueries.fullText(null, "500", range);
+
+        assertThat(plan.getName()).isEqualTo("fullText[statusCode, timestamp]");
+        assertThat(plan.getQuery().bool().filter()).hasSize(2);
+        assertThat(plan.getQuery().bool().filter().get(1).range().date().gte()).isEqualTo("1736935200000");
+    }
+
+    @Test
+    void byFields_UnalignedRange_RoundedAndExactFilters() {
+        TimeRange range = TimeRange.of(Instant.parse("2025-01-15T10:00:30Z"), null);
+
+        SearchPlan plan = HttpQueries.byFields(null, null, null, null, range);
+
+        assertThat(plan.getName()).isEqualTo("byFields[timestamp:exact]");
+        assertThat(plan.getQuery().bool().filter()).hasSize(2);
+        assertThat(plan.getQuery().bool().filter().get(0).range().date().gte()).isEqualTo("1736935200000");
+        assertThat(plan.getQuery().bool().filter().get(1).range().date().gte()).isEqualTo("1736935230000");
+        assertThat(plan.getQuery().bool().filter().get(0).range().date().lte()).isNull();
+    }
+
+    @Test
+    void byFieldsTemplate_SameFiltersAsParameters() {
+        TimeRange range = TimeRange.of(Instant.parse("2025-01-15T10:00:30Z"), Instant.parse("2025-01-15T10:15:00Z"));
+
+        SearchPlan plan = HttpQueries.byFieldsTemplate("audit-http-search-0123456789ab", "/api/orders", null, "500", range);
+
+        assertThat(plan.getName()).isEqualTo("template:byFields[uri:containing, statusCode, timestamp:exact]");
+        assertThat(plan.getQuery()).isNull();
+        assertThat(plan.getTemplate().getId()).isEqualTo("audit-http-search-0123456789ab");
+        assertThat(plan.getTemplate().getParams())
+                .containsEntry("uriContaining", "*\\/api\\/orders*")
+                .containsEntry("statusCode", "500")
+                .doesNotContainKey("method");
+        assertThat(plan.getTemplate().getParams().get("ranges")).isEqualTo(List.of(
+                Map.of("gte", 1736935200000L, "lte", 1736936100000L),
+                Map.of("gte", 1736935230000L, "lte", 1736936100000L)));
+    }
+
+    @Test
+    void byFields_BlankParameters_NoFiltersOnBothPaths() {
+        SearchPlan plan = HttpQueries.byFields("", " ", "", null, null);
+        SearchPlan template = HttpQueries.byFieldsTemplate("audit-http-search-0123456789ab", "", " ", "", null);
+
+        assertThat(plan.getName()).isEqualTo("byFields[]");
+        assertThat(plan.getQuery().isMatchAll()).isTrue();
+        assertThat(template.getName()).isEqualTo("template:byFields[]");
+        assertThat(template.getTemplate().getParams()).isEmpty();
+    }
+
+}
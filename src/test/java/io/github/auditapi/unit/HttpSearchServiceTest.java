@@ -0,0 +1,92 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.SearchOptions;
+import io.github.auditapi.service.AnomalyStats;
+import io.github.auditapi.service.BodyStorageService;
+import io.github.auditapi.service.FirstPageCache;
+import io.github.auditapi.service.HttpSearchService;
+import io.github.auditapi.service.PivotStats;
+import io.github.auditapi.service.QueryLanguage;
+import io.github.auditapi.service.SearchExecutor;
+import io.github.auditapi.service.SearchTemplateRegistry;
+import io.github.auditapi.service.StatsSampler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HttpSearchServiceTest {
+
+    @Mock
+    private ElasticsearchAsyncClient elasticsearchAsyncClient;
+
+    @Mock
+    private SearchProperties searchProperties;
+
+    @Mock
+    private BodyStorageService bodyStorageService;
+
+    @Mock
+    private SearchExecutor searchExecutor;
+
+    @Mock
+    private QueryLanguage queryLanguage;
+
+    @Mock
+    private StatsSampler statsSampler;
+
+    @Mock
+    private SearchTemplateRegistry searchTemplateRegistry;
+
+    @Mock
+    private PivotStats pivotStats;
+
+    @Mock
+    private AnomalyStats anomalyStats;
+
+    @Mock
+    private FirstPageCache firstPageCache;
+
+    @InjectMocks
+    private HttpSearchService httpSearchService;
+
+    @Test
+    void firstPage_SearchWithoutTextAndBlankFields_ShareCacheEntry() {
+        SearchOptions options = SearchOptions.builder().build();
+        when(firstPageCache.accepts(0, 20, options)).thenReturn(true);
+
+        httpSearchService.streamWithFullText(" ", "", null, 0, 20, options);
+        httpSearchService.streamByFields("", " ", "  ", null, null, 0, 20, options);
+        httpSearchService.streamWithFullText(null, "500", null, 0, 20, options);
+
+        verify(firstPageCache, times(2)).get(eq(AuditDocumentType.HTTP), eq("statusCode="), eq(0), eq(20), eq(options), any());
+        verify(firstPageCache).get(eq(AuditDocumentType.HTTP), eq("statusCode=500"), eq(0), eq(20), eq(options), any());
+    }
+
+    @Test
+    void firstPage_TextQuery_NotCached() {
+        SearchOptions options = SearchOptions.builder().build();
+        when(searchTemplateRegistry.id(SearchTemplateRegistry.HTTP_SEARCH)).thenReturn(Optional.empty());
+
+        httpSearchService.streamWithFullText("timeout", null, null, 0, 20, options);
+
+        verify(firstPageCache, never()).get(any(), anyString(), anyInt(), anyInt(), any(), any());
+    }
+
+}
@@ -0,0 +1,199 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.ForcemergeRequest;
+import co.elastic.clients.elasticsearch.indices.ForcemergeResponse;
+import co.elastic.clients.elasticsearch.indices.GetIndicesSettingsRequest;
+import co.elastic.clients.elasticsearch.indices.GetIndicesSettingsResponse;
+import co.elastic.clients.elasticsearch.indices.IndicesStatsRequest;
+import co.elastic.clients.elasticsearch.indices.IndicesStatsResponse;
+import co.elastic.clients.elasticsearch.indices.PutIndicesSettingsRequest;
+import co.elastic.clients.elasticsearch.tasks.ElasticsearchTasksClient;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.util.ObjectBuilder;
+import io.github.auditapi.config.IndexAdminProperties;
+import io.github.auditapi.config.RetentionProperties;
+import io.github.auditapi.model.admin.IndexHealth;
+import io.github.auditapi.model.admin.IndexHealthResponse;
+import io.github.auditapi.service.IndexAdminService;
+import io.github.auditapi.web.SearchLatencyInterceptor;
+import jakarta.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IndexAdminServiceTest {
+
+    private static final JacksonJsonpMapper MAPPER = new JacksonJsonpMapper();
+    private static final String SEGMENT_MEMORY = """
+            "doc_values_memory_in_bytes": 0, "fixed_bit_set_memory_in_bytes": 0, "index_writer_memory_in_bytes": 0,
+            "max_unsafe_auto_id_timestamp": -1, "memory_in_bytes": 0, "norms_memory_in_bytes": 0, "points_memory_in_bytes": 0,
+            "stored_fields_memory_in_bytes": 0, "terms_memory_in_bytes": 0, "term_vectors_memory_in_bytes": 0,
+            "version_map_memory_in_bytes": 0, "file_sizes": {}""";
+
+    @Mock
+    private ElasticsearchClient elasticsearchClient;
+
+    @Mock
+    private ElasticsearchIndicesClient indicesClient;
+
+    @Mock
+    private ElasticsearchTasksClient tasksClient;
+
+    @Test
+    void getHealth_ReportSegmentsSizesAndCacheHitRatios() throws Exception {
+        IndicesStatsResponse stats = parse(IndicesStatsResponse._DESERIALIZER, """
+                {"_shards": {"total": 2, "successful": 2, "failed": 0},
+                 "_all": {"primaries": {}, "total": {}},
+                 "indices": {"audit-requests-2025.01.15": {
+                   "primaries": {"docs": {"count": 1000, "deleted": 10}, "store": {"size_in_bytes": 4000, "reserved_in_bytes": 0},
+                                 "segments": {"count": 12, %1$s}},
+                   "total": {"docs": {"count": 2000, "deleted": 20}, "store": {"size_in_bytes": 8000, "reserved_in_bytes": 0},
+                             "segments": {"count": 24, %1$s},
+                             "query_cache": {"hit_count": 75, "miss_count": 25, "memory_size_in_bytes": 512,
+                                             "cache_count": 1, "cache_size": 1, "evictions": 0, "total_count": 100},
+                             "request_cache": {"hit_count": 1, "miss_count": 3, "memory_size_in_bytes": 64, "evictions": 0},
+                             "refresh": {"total": 40, "total_time_in_millis": 900, "external_total": 40,
+                                         "external_total_time_in_millis": 900, "listeners": 0}}}}}
+                """.formatted(SEGMENT_MEMORY));
+        GetIndicesSettingsResponse settings = parse(GetIndicesSettingsResponse._DESERIALIZER, """
+                {"audit-requests-2025.01.15": {"settings": {"index": {"number_of_shards": "2", "number_of_replicas": "1",
+                                                                       "refresh_interval": "30s"}}}}
+                """);
+        when(elasticsearchClient.indices()).thenReturn(indicesClient);
+        when(indicesClient.stats(any(IndicesStatsRequest.class))).thenReturn(stats);
+        when(indicesClient.getSettings(any(GetIndicesSettingsRequest.class))).thenReturn(settings);
+
+        IndexHealthResponse response = indexAdminService(new IndexAdminProperties()).getHealth();
+
+        assertThat(response.getIndices()).hasSize(1);
+        IndexHealth health = response.getIndices().getFirst();
+        assertThat(health.getIndex()).isEqualTo("audit-requests-2025.01.15");
+        assertThat(health.getSegments()).isEqualTo(12);
+        assertThat(health.getShards()).isEqualTo(2);
+        assertThat(health.getAverageShardBytes()).isEqualTo(2000);
+        assertThat(health.getTotalBytes()).isEqualTo(8000);
+        assertThat(health.getRefreshInterval()).isEqualTo("30s");
+        assertThat(health.getQueryCacheHitRatio()).isEqualTo(0.75);
+        assertThat(health.getRequestCacheHitRatio()).isEqualTo(0.25);
+    }
+
+    @Test
+    void setBulkLoad_RejectOutsideOffPeakWindow() {
+        IndexAdminProperties properties = new IndexAdminProperties();
+        LocalTime now = LocalTime.now(ZoneOffset.UTC);
+        properties.setOffPeakStart(now.plusHours(6));
+        properties.setOffPeakEnd(now.plusHours(7));
+
+        assertThatThrownBy(() -> indexAdminService(properties).setBulkLoad("audit-requests", true))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("outside off-peak window");
+        assertThatThrownBy(() -> indexAdminService(properties).setBulkLoad("audit-request-bodies", true))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(properties.isOffPeak(now.plusHours(6).plusMinutes(30))).isTrue();
+        verifyNoInteractions(elasticsearchClient);
+    }
+
+    @Test
+    void check_TaskExceedsMaxWait_FailForceMergeAndReleaseQueue() throws Exception {
+        IndicesStatsResponse stats = parse(IndicesStatsResponse._DESERIALIZER, """
+                {"_shards": {"total": 1, "successful": 1, "failed": 0},
+                 "_all": {"primaries": {}, "total": {}},
+                 "indices": {"audit-requests-2020.01.15": {"primaries": {"segments": {"count": 12, %1$s}}}}}
+                """.formatted(SEGMENT_MEMORY));
+        IndicesStatsResponse empty = parse(IndicesStatsResponse._DESERIALIZER, """
+                {"_shards": {"total": 0, "successful": 0, "failed": 0}, "_all": {"primaries": {}, "total": {}}, "indices": {}}
+                """);
+        GetTasksResponse running = parse(GetTasksResponse._DESERIALIZER, """
+                {"completed": false, "task": {"action": "indices:admin/forcemerge", "cancellable": false, "id": 1,
+                                              "node": "n1", "running_time_in_nanos": 1, "start_time_in_millis": 1,
+                                              "type": "transport", "headers": {}}}
+                """);
+        when(elasticsearchClient.indices()).thenReturn(indicesClient);
+        when(elasticsearchClient.tasks()).thenReturn(tasksClient);
+        when(indicesClient.stats(any(IndicesStatsRequest.class))).thenAnswer(invocation ->
+                invocation.<IndicesStatsRequest>getArgument(0).index().contains("audit-requests-*") ? stats : empty);
+        when(indicesClient.forcemerge(any(ForcemergeRequest.class)))
+                .thenReturn(parse(ForcemergeResponse._DESERIALIZER, "{\"task\": \"n1:1\"}"));
+        when(tasksClient.get(any(Function.class))).thenReturn(running);
+        when(indicesClient.getSettings(any(GetIndicesSettingsRequest.class)))
+                .thenReturn(parse(GetIndicesSettingsResponse._DESERIALIZER, "{}"));
+
+        IndexAdminProperties properties = new IndexAdminProperties();
+        properties.setOffPeakStart(LocalTime.MIDNIGHT);
+        properties.setOffPeakEnd(LocalTime.MIDNIGHT);
+        properties.setMaxSearchLatencyMs(0);
+        properties.setPollInterval(Duration.ofMillis(10));
+        properties.setMaxTaskWait(Duration.ofMillis(100));
+        IndexAdminService indexAdminService = indexAdminService(properties);
+
+        assertThat(indexAdminService.scheduleForceMerge()).isTrue();
+        indexAdminService.check();
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> "FAILED".equals(indexAdminService.getHealth().getForceMerge().getState()));
+        assertThat(indexAdminService.getHealth().getForceMerge().getMessage()).contains("did not complete within");
+        verify(tasksClient, atLeastOnce()).get(any(Function.class));
+        assertThat(indexAdminService.warm()).isTrue();
+    }
+
+    @Test
+    void check_BulkLoadLeftByPreviousRun_RestoreDefaultRefreshIntervalOnce() throws Exception {
+        when(elasticsearchClient.indices()).thenReturn(indicesClient);
+        when(indicesClient.getSettings(any(GetIndicesSettingsRequest.class)))
+                .thenThrow(new IOException("Connection refused"))
+                .thenAnswer(invocation -> parse(GetIndicesSettingsResponse._DESERIALIZER,
+                        invocation.<GetIndicesSettingsRequest>getArgument(0).index().contains("audit-requests*") ? """
+                                {"audit-requests-2025.01.15": {"settings": {"index": {"refresh_interval": "30s"}}},
+                                 "audit-requests-2025.01.16": {"settings": {"index": {"refresh_interval": "-1"}}}}
+                                """ : "{}"));
+        IndexAdminService indexAdminService = indexAdminService(new IndexAdminProperties());
+
+        // кластер еще недоступен - проверка повторится
+        indexAdminService.check();
+        indexAdminService.check();
+        indexAdminService.check();
+
+        ArgumentCaptor<Function<PutIndicesSettingsRequest.Builder, ObjectBuilder<PutIndicesSettingsRequest>>> put =
+                ArgumentCaptor.forClass(Function.class);
+        verify(indicesClient).putSettings(put.capture());
+        PutIndicesSettingsRequest request = put.getValue().apply(new PutIndicesSettingsRequest.Builder()).build();
+        assertThat(request.index()).containsExactly("audit-requests*");
+        assertThat(request.settings().refreshInterval().time()).isEqualTo("1s");
+        verify(indicesClient, times(3)).getSettings(any(GetIndicesSettingsRequest.class));
+    }
+
+    private IndexAdminService indexAdminService(IndexAdminProperties properties) {
+        return new IndexAdminService(elasticsearchClient, properties, new RetentionProperties(), new SearchLatencyInterceptor());
+    }
+
+    private static <T> T parse(JsonpDeserializer<T> deserializer, String json) {
+        JsonParser parser = MAPPER.jsonProvider().createParser(new StringReader(json));
+        return deserializer.deserialize(parser, MAPPER);
+    }
+
+}
@@ -0,0 +1,142 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesAsyncClient;
+import co.elastic.clients.elasticsearch.indices.IndicesStatsResponse;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.elastic.IndexState;
+import io.github.auditapi.service.IndexStateService;
+import jakarta.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IndexStateServiceTest {
+
+    private static final JacksonJsonpMapper MAPPER = new JacksonJsonpMapper();
+
+    @Mock
+    private ElasticsearchAsyncClient elasticsearchAsyncClient;
+
+    @Mock
+    private ElasticsearchIndicesAsyncClient indicesAsyncClient;
+
+    @Test
+    void current_DoNotWaitForCluster() {
+        CompletableFuture<SearchResponse<Void>> pending = new CompletableFuture<>();
+        stubStats(stats(7, 3));
+        when(elasticsearchAsyncClient.search(any(Function.class), eq(Void.class))).thenReturn(pending);
+        SearchProperties properties = new SearchProperties();
+        properties.setIndexStateSettle(Duration.ZERO);
+        IndexStateService indexStateService = new IndexStateService(elasticsearchAsyncClient, properties);
+
+        assertThat(indexStateService.current(AuditDocumentType.HTTP)).isEmpty();
+        assertThat(indexStateService.current(AuditDocumentType.HTTP)).isEmpty();
+        verify(elasticsearchAsyncClient, times(1)).search(any(Function.class), eq(Void.class));
+
+        pending.complete(response(1250, 1735689600000.0));
+
+        assertThat(indexStateService.current(AuditDocumentType.HTTP)).map(IndexState::getVersion).hasValue("1250:1735689600000:10");
+    }
+
+    @Test
+    void refresh_SameVersion_KeepLastModified() {
+        SearchProperties properties = new SearchProperties();
+        properties.setIndexStateTtl(Duration.ZERO);
+        stubStats(stats(7, 3));
+        when(elasticsearchAsyncClient.search(any(Function.class), eq(Void.class)))
+                .thenReturn(CompletableFuture.completedFuture(response(5, 1000.0)));
+        IndexStateService indexStateService = new IndexStateService(elasticsearchAsyncClient, properties);
+
+        IndexState first = indexStateService.refresh(AuditDocumentType.METHOD).join();
+        IndexState second = indexStateService.refresh(AuditDocumentType.METHOD).join();
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void refresh_DeleteAndInsertOlderDocument_NewVersion() {
+        SearchProperties properties = new SearchProperties();
+        properties.setIndexStateTtl(Duration.ZERO);
+        stubStats(stats(7, 3), stats(8, 3));
+        when(elasticsearchAsyncClient.search(any(Function.class), eq(Void.class)))
+                .thenReturn(CompletableFuture.completedFuture(response(5, 1000.0)));
+        IndexStateService indexStateService = new IndexStateService(elasticsearchAsyncClient, properties);
+
+        IndexState first = indexStateService.refresh(AuditDocumentType.HTTP).join();
+        IndexState second = indexStateService.refresh(AuditDocumentType.HTTP).join();
+
+        assertThat(first.getVersion()).isEqualTo("5:1000:10");
+        assertThat(second.getVersion()).isEqualTo("5:1000:11");
+    }
+
+    @Test
+    void current_NewVersion_NotUsedUntilSettled() {
+        SearchProperties properties = new SearchProperties();
+        properties.setIndexStateSettle(Duration.ofHours(1));
+        stubStats(stats(7, 3));
+        when(elasticsearchAsyncClient.search(any(Function.class), eq(Void.class)))
+                .thenReturn(CompletableFuture.completedFuture(response(5, 1000.0)));
+        IndexStateService indexStateService = new IndexStateService(elasticsearchAsyncClient, properties);
+
+        indexStateService.refresh(AuditDocumentType.HTTP).join();
+
+        assertThat(indexStateService.current(AuditDocumentType.HTTP)).isEmpty();
+    }
+
+    private void stubStats(IndicesStatsResponse first, IndicesStatsResponse... next) {
+        when(elasticsearchAsyncClient.indices()).thenReturn(indicesAsyncClient);
+        CompletableFuture<IndicesStatsResponse>[] futures = Arrays.stream(next)
+                .map(CompletableFuture::completedFuture)
+                .toArray(CompletableFuture[]::new);
+        when(indicesAsyncClient.stats(any(Function.class))).thenReturn(CompletableFuture.completedFuture(first), futures);
+    }
+
+    /**
+     * Две партиции: у первичных шардов max_seq_no primarySeqNo и 3, у реплики - replicaSeqNo
+     */
+    private static IndicesStatsResponse stats(long primarySeqNo, long replicaSeqNo) {
+        String json = """
+                {"_shards": {"total": 3, "successful": 3, "failed": 0},
+                 "_all": {"primaries": {}, "total": {}},
+                 "indices": {
+                   "audit-requests-2025.01.15": {"shards": {"0": [
+                     {"routing": {"primary": true, "state": "STARTED", "node": "n1"}, "seq_no": {"max_seq_no": %d, "local_checkpoint": 0, "global_checkpoint": 0}},
+                     {"routing": {"primary": false, "state": "STARTED", "node": "n2"}, "seq_no": {"max_seq_no": %d, "local_checkpoint": 0, "global_checkpoint": 0}}]}},
+                   "audit-requests-2025.01.16": {"shards": {"0": [
+                     {"routing": {"primary": true, "state": "STARTED", "node": "n1"}, "seq_no": {"max_seq_no": 3, "local_checkpoint": 0, "global_checkpoint": 0}}]}}}}
+                """.formatted(primarySeqNo, replicaSeqNo);
+        JsonParser parser = MAPPER.jsonProvider().createParser(new StringReader(json));
+        return IndicesStatsResponse._DESERIALIZER.deserialize(parser, MAPPER);
+    }
+
+    private static SearchResponse<Void> response(long count, double maxTimestamp) {
+        return SearchResponse.of(r -> r
+                .took(1)
+                .timedOut(false)
+                .shards(s -> s.total(1).successful(1).failed(0))
+                .hits(h -> h.total(t -> t.value(count).relation(TotalHitsRelation.Eq)).hits(List.of()))
+                .aggregations("max_timestamp", a -> a.max(m -> m.value(maxTimestamp))));
+    }
+
+}
@@ -0,0 +1,145 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import io.github.auditapi.config.TailProperties;
+import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.service.LiveTailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LiveTailServiceTest {
+
+    @Mock
+    private ElasticsearchAsyncClient elasticsearchAsyncClient;
+
+    private TailProperties tailProperties;
+    private LiveTailService liveTailService;
+
+    @BeforeEach
+    void setUp() {
+        tailProperties = new TailProperties();
+        liveTailService = new LiveTailService(elasticsearchAsyncClient, tailProperties);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void poll_OneQueryPerDistinctFilter() {
+        when(elasticsearchAsyncClient.search(any(SearchRequest.class), any(Class.class)))
+                .thenReturn(CompletableFuture.completedFuture(emptyResponse()));
+
+        liveTailService.tailRequests("/api/orders*", null, "500");
+        liveTailService.tailRequests("/api/orders*", null, "500");
+        liveTailService.tailRequests("/api/orders*", null, "500");
+        liveTailService.tailMethods(null, "ERROR", null);
+        liveTailService.poll();
+
+        ArgumentCaptor<SearchRequest> requests = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(elasticsearchAsyncClient, times(2)).search(requests.capture(), any(Class.class));
+        assertThat(requests.getAllValues()).extracting(request -> request.index().getFirst())
+                .containsExactlyInAnyOrder("audit-requests", "audit-methods");
+    }
+
+    @Test
+    void subscribe_RejectOverLimit() {
+        tailProperties.setMaxSubscribers(1);
+        liveTailService.tailMethods(null, "ERROR", null);
+
+        assertThatThrownBy(() -> liveTailService.tailMethods(null, "ERROR", null))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void poll_LateDocumentInsideLag_DeliveredOnce() {
+        tailProperties.setLag(Duration.ofSeconds(10));
+        List<SearchRequest> requests = new ArrayList<>();
+        List<SearchResponse<Object>> responses = new ArrayList<>();
+        when(elasticsearchAsyncClient.search(any(SearchRequest.class), any(Class.class))).thenAnswer(invocation -> {
+            requests.add(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(responses.removeFirst());
+        });
+        liveTailService.tailRequests("/api/orders*", null, null);
+
+        responses.add(emptyResponse());
+        liveTailService.poll();
+        long since = Long.parseLong(windowStart(requests.getLast()));
+
+        responses.add(response(hit("a", since + 20_000), hit("b", since + 25_000)));
+        liveTailService.poll();
+        // b еще раз и опоздавший c с timestamp меньше курсора, но внутри окна
+        responses.add(response(hit("b", since + 25_000), hit("c", since + 18_000)));
+        liveTailService.poll();
+        responses.add(response(hit("d", since + 40_000)));
+        liveTailService.poll();
+        responses.add(emptyResponse());
+        liveTailService.poll();
+
+        assertThat(requests).extracting(LiveTailServiceTest::windowStart).containsExactly(
+                String.valueOf(since),
+                String.valueOf(since),
+                String.valueOf(since + 15_000),
+                String.valueOf(since + 15_000),
+                String.valueOf(since + 30_000));
+        assertThat(requests).extracting(LiveTailServiceTest::excludedIds).containsExactly(
+                List.of(), List.of(), List.of("a", "b"), List.of("a", "b", "c"), List.of("d"));
+    }
+
+    private static String windowStart(SearchRequest request) {
+        return request.query().bool().filter().get(1).range().date().gte();
+    }
+
+    private static List<String> excludedIds(SearchRequest request) {
+        return request.query().bool().mustNot().stream()
+                .flatMap(query -> query.ids().values().stream())
+                .sorted()
+                .toList();
+    }
+
+    private static Hit<Object> hit(String id, long timestamp) {
+        return Hit.of(h -> h.id(id).index("audit-requests").source(HttpDocument.builder().uri("/api/orders").build())
+                .sort(FieldValue.of(timestamp)));
+    }
+
+    @SafeVarargs
+    private static SearchResponse<Object> response(Hit<Object>... hits) {
+        return SearchResponse.of(r -> r
+                .took(1)
+                .timedOut(false)
+                .shards(s -> s.total(1).successful(1).failed(0))
+                .hits(h -> h.hits(List.of(hits))));
+    }
+
+    private static SearchResponse<Object> emptyResponse() {
+        return SearchResponse.of(r -> r
+                .took(1)
+                .timedOut(false)
+                .shards(s -> s.total(1).successful(1).failed(0))
+                .hits(h -> h.hits(List.of())));
+    }
+
+}
@@ -1,9 +1,16 @@
 package io.github.auditapi.unit;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.auditapi.controller.v1.MethodController;
+import io.github.auditapi.model.elastic.ExistsResponse;
 import io.github.auditapi.model.elastic.MethodDocument;
+import io.github.auditapi.model.elastic.SearchOptions;
 import io.github.auditapi.model.elastic.SearchResponse;
+import io.github.auditapi.model.elastic.StatsAccuracy;
 import io.github.auditapi.model.elastic.StatsResponse;
+import io.github.auditapi.model.elastic.TimeRange;
+import io.github.auditapi.service.IndexStateService;
 import io.github.auditapi.service.MethodSearchService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,12 +18,20 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,11 +43,16 @@ class MethodControllerTest {
     @Mock
     private MethodSearchService methodSearchService;
 
+    @Mock
+    private IndexStateService indexStateService;
+
     @InjectMocks
     private MethodController methodController;
 
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @Test
-    void search_ReturnSearchResponse() {
+    void search_ReturnSearchResponse() throws Exception {
         MethodDocument document = MethodDocument.builder()
                 .id("1")
                 .method("getUserById")
@@ -45,17 +65,30 @@ class MethodControllerTest {
                 .totalHits(1L)
                 .build();
 
-        when(methodSearchService.searchWithFullText(eq("getUserById"), eq("INFO"), eq(0), eq(20)))
-                .thenReturn(mockResponse);
+        when(methodSearchService.streamWithFullText(eq("getUserById"), eq("INFO"), any(TimeRange.class), eq(0), eq(20), eq(SearchOptions.builder().build())))
+                .thenReturn(body(mockResponse));
 
-        ResponseEntity<SearchResponse<MethodDocument>> response = methodController.search(
-                "getUserById", "INFO", 0, 20);
+        ResponseEntity<StreamingResponseBody> response = methodController.search(
+                "getUserById", "INFO", null, null, 0, 20, true, false, null, false, null, null);
+        SearchResponse<MethodDocument> body = read(response);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody()).isNotNull();
-        assertThat(response.getBody().getResults()).hasSize(1);
-        assertThat(response.getBody().getResults().getFirst().getMethod()).isEqualTo("getUserById");
-        assertThat(response.getBody().getTotalHits()).isEqualTo(1L);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(body.getResults()).hasSize(1);
+        assertThat(body.getResults().getFirst().getMethod()).isEqualTo("getUserById");
+        assertThat(body.getTotalHits()).isEqualTo(1L);
+    }
+
+    @Test
+    void exists_ReturnExistsResponse() {
+        when(methodSearchService.exists(eq("OrderService.create"), eq("ERROR"), isNull(), isNull(), any(TimeRange.class), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(ExistsResponse.builder().exists(true).build()));
+
+        ResponseEntity<ExistsResponse> response = result(methodController
+                .exists("OrderService.create", "ERROR", null, null, null, null, null, new ServletWebRequest(new MockHttpServletRequest())));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().isExists()).isTrue();
     }
 
     @Test
@@ -68,10 +101,11 @@ class MethodControllerTest {
         LocalDate from = LocalDate.of(2025, 1, 1);
         LocalDate to = LocalDate.of(2025, 1, 31);
 
-        when(methodSearchService.getStats(eq("level"), eq(from), eq(to)))
-                .thenReturn(mockResponse);
+        when(methodSearchService.getStats(eq("level"), eq(from), eq(to), eq(StatsAccuracy.EXACT), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
 
-        ResponseEntity<StatsResponse> response = methodController.getStats("level", from, to);
+        ResponseEntity<StatsResponse> response = result(methodController
+                .getStats("level", from, to, "exact", null, new ServletWebRequest(new MockHttpServletRequest())));
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
@@ -81,7 +115,7 @@ class MethodControllerTest {
     }
 
     @Test
-    void searchByFields_ReturnSearchResponse() {
+    void searchByFields_ReturnSearchResponse() throws Exception {
         MethodDocument document = MethodDocument.builder()
                 .id("1")
                 .method("Service.createUser")
@@ -95,16 +129,33 @@ class MethodControllerTest {
                 .totalHits(1L)
                 .build();
 
-        when(methodSearchService.searchByFields(eq("Service.*"), eq("ERROR"), eq("EXECUTION"), eq(0), eq(20)))
-                .thenReturn(mockResponse);
+        when(methodSearchService.streamByFields(eq("Service.*"), eq("ERROR"), eq("EXECUTION"), isNull(), any(TimeRange.class), eq(0), eq(20), eq(SearchOptions.builder().build())))
+                .thenReturn(body(mockResponse));
 
-        ResponseEntity<SearchResponse<MethodDocument>> response = methodController.searchByFields(
-                "Service.*", "ERROR", "EXECUTION", 0, 20);
+        ResponseEntity<StreamingResponseBody> response = methodController.searchByFields(
+                "Service.*", "ERROR", "EXECUTION", null, null, null, 0, 20, true, false, null, null, null);
+        SearchResponse<MethodDocument> body = read(response);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody()).isNotNull();
-        assertThat(response.getBody().getResults()).hasSize(1);
-        assertThat(response.getBody().getResults().getFirst().getLevel()).isEqualTo("ERROR");
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(body.getResults()).hasSize(1);
+        assertThat(body.getResults().getFirst().getLevel()).isEqualTo("ERROR");
+    }
+
+    private StreamingResponseBody body(Object value) {
+        return out -> objectMapper.writeValue(out, value);
+    }
+
+    private SearchResponse<MethodDocument> read(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return objectMapper.readValue(out.toByteArray(), new TypeReference<>() {
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T result(DeferredResult<T> deferred) {
+        return (T) deferred.getResult();
     }
 
 }
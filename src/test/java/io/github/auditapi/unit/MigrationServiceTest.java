@@ -0,0 +1,276 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.CountResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.UpdateAliasesRequest;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import co.elastic.clients.util.ObjectBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.auditapi.config.MigrationProperties;
+import io.github.auditapi.model.elastic.AuditDocumentType;
+import io.github.auditapi.model.migration.MigrationJob;
+import io.github.auditapi.model.migration.MigrationRequest;
+import io.github.auditapi.repository.MigrationJobRepository;
+import io.github.auditapi.service.DocumentTransformer;
+import io.github.auditapi.service.MigrationService;
+import io.github.auditapi.service.PointInTimeScanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MigrationServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ElasticsearchClient elasticsearchClient;
+
+    @Mock
+    private ElasticsearchIndicesClient indicesClient;
+
+    @Mock
+    private PointInTimeScanner pointInTimeScanner;
+
+    @Mock
+    private MigrationJobRepository jobRepository;
+
+    @Mock
+    private ObjectProvider<DocumentTransformer<?>> transformers;
+
+    @Test
+    void resume_CountOverlapOnceAndCheckpointPastFinishedSlice() throws Exception {
+        MigrationJob job = MigrationJob.builder()
+                .id("m1")
+                .documentType(AuditDocumentType.HTTP)
+                .sourceIndex("audit-requests-v1")
+                .targetIndex("audit-requests-v2")
+                .workers(2)
+                .batchSize(100)
+                .state("CANCELLED")
+                .total(10)
+                .processed(9)
+                .checkpoint(1000L)
+                .build();
+        MigrationService migrationService = migrationService(new MigrationProperties());
+        when(jobRepository.findById("m1")).thenReturn(Optional.of(job));
+        when(jobRepository.save(any())).then(returnsFirstArg());
+        when(elasticsearchClient.count(any(Function.class))).thenReturn(count(4));
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenReturn(bulk());
+        doAnswer(invocation -> {
+            PointInTimeScanner.BatchConsumer<ObjectNode> consumer = invocation.getArgument(6);
+            IntConsumer finished = invocation.getArgument(7);
+            finished.accept(1);
+            consumer.accept(0, List.of(hit("a", 1000), hit("b", 2000)));
+            migrationService.cancel("m1");
+            return null;
+        }).when(pointInTimeScanner).scan(anyString(), any(), anyInt(), anyInt(), any(), eq(ObjectNode.class), any(),
+                any(IntConsumer.class), any(BooleanSupplier.class));
+
+        migrationService.resume("m1");
+
+        ArgumentCaptor<MigrationJob> saved = ArgumentCaptor.forClass(MigrationJob.class);
+        verify(jobRepository, timeout(5_000).times(2)).save(saved.capture());
+        MigrationJob cancelled = saved.getValue();
+        assertThat(cancelled.getState()).isEqualTo("CANCELLED");
+        // 4 документа до контрольной точки + 2 перечитанных, а не 9 + 2
+        assertThat(cancelled.getProcessed()).isEqualTo(6);
+        assertThat(cancelled.getCheckpoint()).isEqualTo(2000L);
+    }
+
+    @Test
+    void resume_RereadDocumentsWithoutTimestamp() throws Exception {
+        MigrationJob job = MigrationJob.builder()
+                .id("m1")
+                .documentType(AuditDocumentType.HTTP)
+                .sourceIndex("audit-requests-v1")
+                .targetIndex("audit-requests-v2")
+                .workers(1)
+                .batchSize(100)
+                .state("CANCELLED")
+                .total(10)
+                .processed(5)
+                .checkpoint(1000L)
+                .build();
+        MigrationService migrationService = migrationService(new MigrationProperties());
+        when(jobRepository.findById("m1")).thenReturn(Optional.of(job));
+        when(jobRepository.save(any())).then(returnsFirstArg());
+        when(elasticsearchClient.count(any(Function.class))).thenReturn(count(4));
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenReturn(bulk());
+        doAnswer(invocation -> {
+            PointInTimeScanner.BatchConsumer<ObjectNode> consumer = invocation.getArgument(6);
+            consumer.accept(0, List.of(hit("a", 1500), hitWithoutTimestamp("b")));
+            migrationService.cancel("m1");
+            return null;
+        }).when(pointInTimeScanner).scan(anyString(), any(), anyInt(), anyInt(), any(), eq(ObjectNode.class), any(),
+                any(IntConsumer.class), any(BooleanSupplier.class));
+
+        migrationService.resume("m1");
+
+        ArgumentCaptor<MigrationJob> saved = ArgumentCaptor.forClass(MigrationJob.class);
+        verify(jobRepository, timeout(5_000).times(2)).save(saved.capture());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(pointInTimeScanner).scan(anyString(), query.capture(), anyInt(), anyInt(), any(), eq(ObjectNode.class), any(),
+                any(IntConsumer.class), any(BooleanSupplier.class));
+        List<Query> should = query.getValue().bool().should();
+        assertThat(should).hasSize(2);
+        assertThat(should.get(0).range().date().gte()).isEqualTo("1000");
+        assertThat(should.get(1).bool().mustNot()).singleElement()
+                .satisfies(missing -> assertThat(missing.exists().field()).isEqualTo("timestamp"));
+        assertThat(query.getValue().bool().minimumShouldMatch()).isEqualTo("1");
+        // документ без timestamp не сдвигает контрольную точку и будет прочитан при следующем возобновлении
+        assertThat(saved.getValue().getProcessed()).isEqualTo(6);
+        assertThat(saved.getValue().getCheckpoint()).isEqualTo(1000L);
+    }
+
+    @Test
+    void start_RetryRejectedDocumentsAndReplaceSourceIndexWithAlias() throws Exception {
+        MigrationService migrationService = migrationService(new MigrationProperties());
+        when(jobRepository.save(any())).then(returnsFirstArg());
+        when(elasticsearchClient.count(any(Function.class))).thenReturn(count(2));
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenReturn(bulk(
+                BulkResponseItem.of(i -> i.operationType(OperationType.Index).index("audit-requests-v2").id("a").status(201)),
+                BulkResponseItem.of(i -> i.operationType(OperationType.Index).index("audit-requests-v2").id("b").status(429)
+                        .error(e -> e.type("es_rejected_execution_exception").reason("queue is full")))
+        )).thenReturn(bulk());
+        when(elasticsearchClient.indices()).thenReturn(indicesClient);
+        when(indicesClient.existsAlias(any(Function.class))).thenReturn(new BooleanResponse(false));
+        when(indicesClient.exists(any(Function.class))).thenReturn(new BooleanResponse(true));
+        doAnswer(invocation -> {
+            PointInTimeScanner.BatchConsumer<ObjectNode> consumer = invocation.getArgument(6);
+            consumer.accept(0, List.of(hit("a", 1000), hit("b", 2000)));
+            return null;
+        }).when(pointInTimeScanner).scan(anyString(), any(), anyInt(), anyInt(), any(), eq(ObjectNode.class), any(),
+                any(IntConsumer.class), any(BooleanSupplier.class));
+
+        migrationService.start(request("audit-requests"));
+
+        ArgumentCaptor<MigrationJob> saved = ArgumentCaptor.forClass(MigrationJob.class);
+        verify(jobRepository, timeout(5_000).times(2)).save(saved.capture());
+        assertThat(saved.getValue().getState()).isEqualTo("DONE");
+
+        ArgumentCaptor<BulkRequest> bulks = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(elasticsearchClient, times(2)).bulk(bulks.capture());
+        assertThat(bulks.getAllValues().get(1).operations())
+                .singleElement()
+                .satisfies(operation -> assertThat(operation.index().id()).isEqualTo("b"));
+
+        ArgumentCaptor<Function<UpdateAliasesRequest.Builder, ObjectBuilder<UpdateAliasesRequest>>> aliases =
+                ArgumentCaptor.forClass(Function.class);
+        verify(indicesClient).updateAliases(aliases.capture());
+        List<Action> actions = aliases.getValue().apply(new UpdateAliasesRequest.Builder()).build().actions();
+        assertThat(actions).hasSize(2);
+        assertThat(actions.get(0).add().index()).isEqualTo("audit-requests-v2");
+        assertThat(actions.get(0).add().alias()).isEqualTo("audit-requests");
+        assertThat(actions.get(1).removeIndex().index()).isEqualTo("audit-requests");
+    }
+
+    @Test
+    void start_AliasIsAnotherIndex_BadRequest() throws Exception {
+        MigrationRequest request = request("audit-requests-v1");
+        request.setAlias("audit-requests");
+        when(elasticsearchClient.indices()).thenReturn(indicesClient);
+        when(indicesClient.existsAlias(any(Function.class))).thenReturn(new BooleanResponse(false));
+        when(indicesClient.exists(any(Function.class))).thenReturn(new BooleanResponse(true));
+
+        assertThatThrownBy(() -> migrationService(new MigrationProperties()).start(request))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void start_AllSlotsBusy_TooManyRequests() throws Exception {
+        MigrationProperties properties = new MigrationProperties();
+        properties.setMaxConcurrentJobs(1);
+        MigrationService migrationService = migrationService(properties);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jobRepository.save(any())).then(returnsFirstArg());
+        when(elasticsearchClient.count(any(Function.class))).thenReturn(count(0));
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS))
+                .when(pointInTimeScanner).scan(anyString(), any(), anyInt(), anyInt(), any(), eq(ObjectNode.class), any(),
+                        any(IntConsumer.class), any(BooleanSupplier.class));
+
+        MigrationRequest first = request("audit-requests-v1");
+        first.setAlias(null);
+        migrationService.start(first);
+
+        assertThatThrownBy(() -> migrationService.start(first))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        release.countDown();
+        verify(jobRepository, timeout(5_000).times(2)).save(any());
+    }
+
+    private MigrationService migrationService(MigrationProperties properties) {
+        MigrationService migrationService = new MigrationService(elasticsearchClient, pointInTimeScanner, jobRepository,
+                properties, objectMapper, transformers);
+        migrationService.init();
+        return migrationService;
+    }
+
+    private static MigrationRequest request(String sourceIndex) {
+        return MigrationRequest.builder()
+                .documentType(AuditDocumentType.HTTP)
+                .sourceIndex(sourceIndex)
+                .targetIndex("audit-requests-v2")
+                .alias("audit-requests")
+                .workers(1)
+                .batchSize(100)
+                .build();
+    }
+
+    private Hit<ObjectNode> hit(String id, long timestamp) {
+        ObjectNode source = objectMapper.createObjectNode().put("timestamp", timestamp);
+        return Hit.of(h -> h.id(id).index("audit-requests-v1").source(source).sort(FieldValue.of(timestamp)));
+    }
+
+    private Hit<ObjectNode> hitWithoutTimestamp(String id) {
+        ObjectNode source = objectMapper.createObjectNode().put("uri", "/api/orders");
+        return Hit.of(h -> h.id(id).index("audit-requests-v1").source(source).sort(FieldValue.of(Long.MAX_VALUE)));
+    }
+
+    private static CountResponse count(long count) {
+        return CountResponse.of(c -> c.count(count).shards(s -> s.total(1).successful(1).failed(0)));
+    }
+
+    private static BulkResponse bulk(BulkResponseItem... items) {
+        return BulkResponse.of(b -> b.errors(items.length > 0).took(1).items(List.of(items)));
+    }
+
+}
@@ -0,0 +1,92 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.config.StatsProperties;
+import io.github.auditapi.model.elastic.PivotStatsResponse;
+import io.github.auditapi.service.PivotStats;
+import jakarta.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PivotStatsTest {
+
+    private static final Map<String, String> FIELDS = Map.of("uri", "uri.keyword", "statusCode", "statusCode");
+    private static final Query ALL = Query.of(q -> q.matchAll(m -> m));
+    private static final Query ERRORS = Query.of(q -> q.prefix(p -> p.field("statusCode").value("5")));
+
+    @Mock
+    private ElasticsearchAsyncClient elasticsearchAsyncClient;
+
+    @Test
+    void pivot_BuildMatrixFromNestedBuckets() {
+        ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        when(elasticsearchAsyncClient.search(request.capture(), eq(Void.class)))
+                .thenReturn(CompletableFuture.completedFuture(pivotResponse()));
+
+        PivotStatsResponse response = pivotStats().pivot("audit-requests", ALL, FIELDS, "uri", "statusCode", ERRORS, null).join();
+
+        assertThat(response.getRows()).containsExactly("/api/orders", "/api/users");
+        assertThat(response.getColumns()).containsExactly("200", "500", "404");
+        assertThat(response.getCounts()).isEqualTo(new long[][]{{90, 10, 0}, {45, 0, 5}});
+        assertThat(response.getRowTotals()).containsExactly(100, 50);
+        assertThat(response.getErrors()).containsExactly(10, 0);
+        assertThat(response.getErrorRatio()).containsExactly(0.1, 0.0);
+        assertThat(response.getOtherRows()).isEqualTo(7);
+        assertThat(request.getValue().aggregations().get("rows").terms().field()).isEqualTo("uri.keyword");
+    }
+
+    @Test
+    void pivot_RejectUnknownOrSameDimensions() {
+        assertThatThrownBy(() -> pivotStats().pivot("audit-requests", ALL, FIELDS, "uri", "correlationId", ERRORS, null))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> pivotStats().pivot("audit-requests", ALL, FIELDS, "uri", "uri", ERRORS, null))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(elasticsearchAsyncClient);
+    }
+
+    private PivotStats pivotStats() {
+        return new PivotStats(elasticsearchAsyncClient, new SearchProperties(), new StatsProperties());
+    }
+
+    private static SearchResponse<Void> pivotResponse() {
+        String json = """
+                {"took": 4, "timed_out": false,
+                 "_shards": {"total": 1, "successful": 1, "skipped": 0, "failed": 0},
+                 "hits": {"total": {"value": 157, "relation": "eq"}, "max_score": null, "hits": []},
+                 "aggregations": {"sterms#rows": {"doc_count_error_upper_bound": 0, "sum_other_doc_count": 7, "buckets": [
+                   {"key": "/api/orders", "doc_count": 100, "filter#errors": {"doc_count": 10},
+                    "sterms#columns": {"doc_count_error_upper_bound": 0, "sum_other_doc_count": 0,
+                      "buckets": [{"key": "200", "doc_count": 90}, {"key": "500", "doc_count": 10}]}},
+                   {"key": "/api/users", "doc_count": 50, "filter#errors": {"doc_count": 0},
+                    "sterms#columns": {"doc_count_error_upper_bound": 0, "sum_other_doc_count": 0,
+                      "buckets": [{"key": "200", "doc_count": 45}, {"key": "404", "doc_count": 5}]}}
+                 ]}}}
+                """;
+        JacksonJsonpMapper mapper = new JacksonJsonpMapper();
+        JsonParser parser = mapper.jsonProvider().createParser(new StringReader(json));
+        return SearchResponse.<Void>createSearchResponseDeserializer(JsonpDeserializer.of(Void.class)).deserialize(parser, mapper);
+    }
+
+}
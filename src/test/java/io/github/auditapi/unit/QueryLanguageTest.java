@@ -0,0 +1,67 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.service.HttpQueries;
+import io.github.auditapi.service.QueryLanguage;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryLanguageTest {
+
+    private final QueryLanguage queryLanguage = new QueryLanguage(new SearchProperties());
+
+    @Test
+    void compile_ExactConditions_FilterContext() {
+        QueryLanguage.CompiledQuery compiled = queryLanguage.compile(HttpQueries.QUERY_DIALECT,
+                "statusCode:5* AND uri:/api/orders/* AND NOT method:GET");
+
+        BoolQuery bool = compiled.getQuery().bool();
+        assertThat(compiled.isScoring()).isFalse();
+        assertThat(bool.must()).isEmpty();
+        assertThat(bool.filter()).hasSize(2);
+        assertThat(bool.filter().get(0).wildcard().field()).isEqualTo("statusCode");
+        assertThat(bool.filter().get(1).wildcard().value()).isEqualTo("/api/orders/*");
+        assertThat(bool.mustNot().getFirst().term().value().stringValue()).isEqualTo("GET");
+    }
+
+    @Test
+    void compile_OrRangeAndFreeText_ScoringOnlyForText() {
+        QueryLanguage.CompiledQuery compiled = queryLanguage.compile(HttpQueries.QUERY_DIALECT,
+                "(statusCode:[500 TO 599} OR direction:OUTGOING) timestamp:>=now-15m timeout");
+
+        BoolQuery bool = compiled.getQuery().bool();
+        assertThat(compiled.isScoring()).isTrue();
+        assertThat(bool.filter()).hasSize(2);
+        assertThat(bool.filter().get(0).bool().should()).hasSize(2);
+        assertThat(bool.filter().get(0).bool().should().getFirst().range().term().lt()).isEqualTo("599");
+        assertThat(bool.filter().get(1).range().date().gte()).isEqualTo("now-15m");
+        assertThat(bool.must().getFirst().multiMatch().query()).isEqualTo("timeout");
+    }
+
+    @Test
+    void compile_SameString_CachedPlan() {
+        QueryLanguage.CompiledQuery first = queryLanguage.compile(HttpQueries.QUERY_DIALECT, "method:POST");
+
+        assertThat(queryLanguage.compile(HttpQueries.QUERY_DIALECT, "method:POST")).isSameAs(first);
+        assertThat(queryLanguage.compile(HttpQueries.QUERY_DIALECT, " ")).isNull();
+    }
+
+    @Test
+    void compile_InvalidQuery_BadRequest() {
+        assertThatThrownBy(() -> queryLanguage.compile(HttpQueries.QUERY_DIALECT, "host:example"))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("unknown field 'host'")
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThatThrownBy(() -> queryLanguage.compile(HttpQueries.QUERY_DIALECT, "(method:GET"))
+                .hasMessageContaining("missing ')'");
+        assertThatThrownBy(() -> queryLanguage.compile(HttpQueries.QUERY_DIALECT, "requestBody:[a TO b]"))
+                .hasMessageContaining("not supported for text field");
+    }
+
+}
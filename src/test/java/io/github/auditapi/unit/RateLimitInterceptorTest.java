@@ -0,0 +1,64 @@
+package io.github.auditapi.unit;
+
+import io.github.auditapi.config.RateLimitProperties;
+import io.github.auditapi.web.RateBudget;
+import io.github.auditapi.web.RateLimitInterceptor;
+import io.github.auditapi.web.RateLimited;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitInterceptorTest {
+
+    private final RateLimitInterceptor interceptor = interceptor();
+
+    @Test
+    void preHandle_RotatingUnknownKeys_ShareAddressBudget() throws Exception {
+        assertThat(preHandle("10.0.0.1", "random-1")).isTrue();
+        assertThat(preHandle("10.0.0.1", "random-2")).isTrue();
+        assertThat(preHandle("10.0.0.1", "random-3")).isFalse();
+        assertThat(preHandle("10.0.0.1", null)).isFalse();
+        assertThat(preHandle("10.0.0.2", "random-4")).isTrue();
+    }
+
+    @Test
+    void preHandle_KnownKey_OwnBudget() throws Exception {
+        assertThat(preHandle("10.0.0.1", "team-a")).isTrue();
+        assertThat(preHandle("10.0.0.1", "team-a")).isTrue();
+        assertThat(preHandle("10.0.0.1", "team-a")).isFalse();
+        assertThat(preHandle("10.0.0.1", null)).isTrue();
+    }
+
+    private boolean preHandle(String address, String key) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/requests");
+        request.setRemoteAddr(address);
+        if (key != null) {
+            request.addHeader("X-API-Key", key);
+        }
+        HandlerMethod handler = new HandlerMethod(new SearchController(), SearchController.class.getMethod("search"));
+        return interceptor.preHandle(request, new MockHttpServletResponse(), handler);
+    }
+
+    private static RateLimitInterceptor interceptor() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setApiKeys(Set.of("team-a"));
+        properties.setSearch(new RateLimitProperties.Budget(2, 0.001));
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties);
+        interceptor.init();
+        return interceptor;
+    }
+
+    static class SearchController {
+
+        @RateLimited(RateBudget.SEARCH)
+        public void search() {
+        }
+
+    }
+
+}
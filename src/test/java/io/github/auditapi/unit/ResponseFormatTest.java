@@ -0,0 +1,25 @@
+package io.github.auditapi.unit;
+
+import io.github.auditapi.web.ResponseFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseFormatTest {
+
+    @Test
+    void negotiate_MissingOrUnknown_Json() {
+        assertThat(ResponseFormat.negotiate(null)).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("*/*")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("text/html")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("not a media type")).isEqualTo(ResponseFormat.JSON);
+    }
+
+    @Test
+    void negotiate_BinaryTypes_PreferByQuality() {
+        assertThat(ResponseFormat.negotiate("application/x-jackson-smile")).isEqualTo(ResponseFormat.SMILE);
+        assertThat(ResponseFormat.negotiate("application/cbor, application/json;q=0.5")).isEqualTo(ResponseFormat.CBOR);
+        assertThat(ResponseFormat.negotiate("application/cbor;q=0.2, application/json")).isEqualTo(ResponseFormat.JSON);
+    }
+
+}
@@ -0,0 +1,56 @@
+package io.github.auditapi.unit;
+
+import io.github.auditapi.controller.v1.RetentionController;
+import io.github.auditapi.model.retention.RetentionStatusResponse;
+import io.github.auditapi.service.RetentionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionControllerTest {
+
+    @Mock
+    private RetentionService retentionService;
+
+    @InjectMocks
+    private RetentionController retentionController;
+
+    @Test
+    void run_ReturnAccepted() {
+        when(retentionService.triggerRun()).thenReturn(true);
+        when(retentionService.getStatus()).thenReturn(RetentionStatusResponse.builder()
+                .running(true)
+                .policies(List.of())
+                .build());
+
+        ResponseEntity<RetentionStatusResponse> response = retentionController.run();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().isRunning()).isTrue();
+    }
+
+    @Test
+    void run_ReturnConflictWhenAlreadyRunning() {
+        when(retentionService.triggerRun()).thenReturn(false);
+        when(retentionService.getStatus()).thenReturn(RetentionStatusResponse.builder()
+                .running(true)
+                .policies(List.of())
+                .build());
+
+        ResponseEntity<RetentionStatusResponse> response = retentionController.run();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+}
@@ -0,0 +1,153 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.DeleteByQueryResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.GetIndexResponse;
+import co.elastic.clients.elasticsearch.tasks.ElasticsearchTasksClient;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.auditapi.config.RetentionProperties;
+import io.github.auditapi.config.StorageProperties;
+import io.github.auditapi.model.retention.RetentionPolicyStatus;
+import io.github.auditapi.service.PointInTimeScanner;
+import io.github.auditapi.service.RetentionService;
+import io.github.auditapi.web.SearchLatencyInterceptor;
+import jakarta.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionServiceTest {
+
+    private static final JacksonJsonpMapper MAPPER = new JacksonJsonpMapper();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ElasticsearchClient elasticsearchClient;
+
+    @Mock
+    private ElasticsearchIndicesClient indicesClient;
+
+    @Mock
+    private ElasticsearchTasksClient tasksClient;
+
+    @Mock
+    private PointInTimeScanner pointInTimeScanner;
+
+    @Test
+    void scheduledRun_DoNotBlockSchedulerThread() throws Exception {
+        RetentionService retentionService = retentionService(false);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(elasticsearchClient.indices()).thenReturn(indicesClient);
+        when(indicesClient.get(any(Function.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return GetIndexResponse.of(g -> g);
+        });
+        when(elasticsearchClient.deleteByQuery(any(Function.class))).thenReturn(DeleteByQueryResponse.of(d -> d.task("n1:1")));
+        when(elasticsearchClient.tasks()).thenReturn(tasksClient);
+        when(tasksClient.get(any(Function.class))).thenReturn(completedTask());
+
+        retentionService.scheduledRun();
+
+        // вызов вернулся, пока удаление еще идет в собственном потоке сервиса
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(retentionService.getStatus().isRunning()).isTrue();
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> !retentionService.getStatus().isRunning());
+        assertThat(retentionService.getStatus().getPolicies()).singleElement()
+                .extracting(RetentionPolicyStatus::getState).isEqualTo("DONE");
+    }
+
+    @Test
+    void triggerRun_DeleteBodiesOfExpiredDocuments() throws Exception {
+        RetentionService retentionService = retentionService(true);
+        when(elasticsearchClient.indices()).thenReturn(indicesClient);
+        when(indicesClient.get(any(Function.class))).thenReturn(GetIndexResponse.of(g -> g));
+        doAnswer(invocation -> {
+            PointInTimeScanner.BatchConsumer<ObjectNode> consumer = invocation.getArgument(6);
+            consumer.accept(0, List.of(hit("a"), hit("b")));
+            return null;
+        }).when(pointInTimeScanner).scan(eq("audit-requests"), any(), eq(1), anyInt(), any(), eq(ObjectNode.class), any(),
+                any(BooleanSupplier.class));
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenReturn(BulkResponse.of(b -> b.errors(false).took(1).items(
+                BulkResponseItem.of(i -> i.operationType(OperationType.Delete).index("audit-request-bodies").id("a").status(200)),
+                BulkResponseItem.of(i -> i.operationType(OperationType.Delete).index("audit-request-bodies").id("b").status(404)))));
+        when(elasticsearchClient.deleteByQuery(any(Function.class))).thenReturn(DeleteByQueryResponse.of(d -> d.task("n1:1")));
+        when(elasticsearchClient.tasks()).thenReturn(tasksClient);
+        when(tasksClient.get(any(Function.class))).thenReturn(completedTask());
+
+        assertThat(retentionService.triggerRun()).isTrue();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> "DONE".equals(retentionService.getStatus().getPolicies().getFirst().getState()));
+        assertThat(retentionService.getStatus().getPolicies().getFirst().getDeletedBodies()).isEqualTo(1);
+        ArgumentCaptor<BulkRequest> bulk = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(elasticsearchClient).bulk(bulk.capture());
+        assertThat(bulk.getValue().index()).isEqualTo("audit-request-bodies");
+        assertThat(bulk.getValue().operations()).extracting(operation -> operation.delete().id()).containsExactly("a", "b");
+    }
+
+    private RetentionService retentionService(boolean splitBodies) {
+        RetentionProperties.Policy policy = new RetentionProperties.Policy();
+        policy.setName("requests");
+        policy.setIndex("audit-requests");
+        policy.setMaxAge(Duration.ofDays(30));
+        RetentionProperties properties = new RetentionProperties();
+        properties.setEnabled(true);
+        properties.setPollInterval(Duration.ofMillis(10));
+        properties.setPolicies(List.of(policy));
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setSplitBodies(splitBodies);
+        return new RetentionService(properties, elasticsearchClient, new SearchLatencyInterceptor(), storageProperties,
+                pointInTimeScanner);
+    }
+
+    private Hit<ObjectNode> hit(String id) {
+        return Hit.of(h -> h.id(id).index("audit-requests").source(objectMapper.createObjectNode()));
+    }
+
+    private static GetTasksResponse completedTask() {
+        return parse(GetTasksResponse._DESERIALIZER, """
+                {"completed": true, "task": {"action": "indices:data/write/delete/byquery", "cancellable": true, "id": 1,
+                                             "node": "n1", "running_time_in_nanos": 1, "start_time_in_millis": 1,
+                                             "type": "transport", "headers": {}, "status": {"total": 2, "deleted": 2}}}
+                """);
+    }
+
+    private static <T> T parse(JsonpDeserializer<T> deserializer, String json) {
+        JsonParser parser = MAPPER.jsonProvider().createParser(new StringReader(json));
+        return deserializer.deserialize(parser, MAPPER);
+    }
+
+}
@@ -0,0 +1,75 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.model.elastic.CountResponse;
+import io.github.auditapi.service.SearchExecutor;
+import io.github.auditapi.service.SearchPlan;
+import io.github.auditapi.service.SearchResponseWriter;
+import io.github.auditapi.service.SlowQueryLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchExecutorTest {
+
+    @Mock
+    private ElasticsearchAsyncClient elasticsearchAsyncClient;
+
+    @Mock
+    private SlowQueryLog slowQueryLog;
+
+    @Mock
+    private SearchResponseWriter searchResponseWriter;
+
+    @Test
+    void count_SizeZeroSearchWithTimeoutAndShardFailures() {
+        SearchExecutor searchExecutor = new SearchExecutor(elasticsearchAsyncClient, new ObjectMapper(), slowQueryLog,
+                new SearchProperties(), searchResponseWriter);
+        SearchResponse<Void> response = SearchResponse.of(r -> r
+                .took(3)
+                .timedOut(false)
+                .shards(s -> s.total(2).successful(1).failed(1)
+                        .failures(f -> f.index("audit-requests").shard(1)
+                                .reason(e -> e.type("query_shard_exception").reason("failed to create query"))))
+                .hits(h -> h.total(t -> t.value(17).relation(TotalHitsRelation.Eq)).hits(List.of())));
+        when(elasticsearchAsyncClient.search(any(SearchRequest.class), eq(Void.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        CountResponse count = searchExecutor.count(SearchPlan.builder()
+                .index("audit-requests")
+                .query(Query.of(q -> q.matchAll(m -> m)))
+                .build(), Duration.ofMinutes(5)).join();
+
+        assertThat(count.getCount()).isEqualTo(17L);
+        assertThat(count.isPartial()).isTrue();
+        assertThat(count.getShardFailures()).containsExactly("audit-requests[1]: failed to create query");
+
+        ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(elasticsearchAsyncClient).search(request.capture(), eq(Void.class));
+        assertThat(request.getValue().size()).isZero();
+        assertThat(request.getValue().trackTotalHits().enabled()).isTrue();
+        // запрошенные 5 минут ограничены audit.search.max-timeout
+        assertThat(request.getValue().timeout()).isEqualTo("30000ms");
+        assertThat(request.getValue().allowPartialSearchResults()).isTrue();
+    }
+
+}
@@ -0,0 +1,56 @@
+package io.github.auditapi.unit;
+
+import io.github.auditapi.web.SearchLatencyInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SearchLatencyInterceptorTest {
+
+    private static final long DELAY_MS = 100;
+
+    private final SearchLatencyInterceptor interceptor = new SearchLatencyInterceptor();
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new DeferredController())
+            .addInterceptors(interceptor)
+            .build();
+
+    @Test
+    void afterCompletion_DeferredHandler_IncludesAsyncPart() throws Exception {
+        MvcResult started = mockMvc.perform(get("/deferred"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(interceptor.getAverageMs()).isZero();
+
+        started.getAsyncResult(5_000);
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        assertThat(interceptor.getAverageMs()).isGreaterThanOrEqualTo(DELAY_MS);
+    }
+
+    @RestController
+    static class DeferredController {
+
+        @GetMapping("/deferred")
+        DeferredResult<String> deferred() {
+            DeferredResult<String> result = new DeferredResult<>();
+            CompletableFuture.delayedExecutor(DELAY_MS, TimeUnit.MILLISECONDS).execute(() -> result.setResult("done"));
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,175 @@
+package io.github.auditapi.unit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.github.auditapi.model.compact.CompactHttpDocument;
+import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.model.elastic.SearchResponse;
+import io.github.auditapi.service.SearchResponseWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResponseWriterTest {
+
+    private static final String ELASTIC_RESPONSE = """
+            {
+              "took": 12,
+              "timed_out": false,
+              "_shards": {"total": 2, "successful": 1, "skipped": 0, "failed": 1,
+                "failures": [{"shard": 1, "index": "audit-requests", "reason": {"type": "x", "reason": "boom"}}]},
+              "hits": {
+                "total": {"value": 42, "relation": "eq"},
+                "max_score": null,
+                "hits": [
+                  {"_index": "audit-requests", "_id": "a", "_score": null,
+                   "_source": {"_class": "x", "uri": "/api/orders", "method": "GET", "timestamp": "2025-01-01T10:00:00"},
+                   "highlight": {"responseBody": ["<em>FAILED</em>"]}, "sort": [1]},
+                  {"_index": "audit-requests", "_id": "b", "_score": null,
+                   "_source": {"uri": "/api/users", "method": "POST", "statusCode": "500"}, "sort": [0]}
+                ]
+              }
+            }
+            """;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final SearchResponseWriter writer = new SearchResponseWriter(objectMapper);
+
+    @Test
+    void write_StreamHitsInApiFormat() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long took = writer.write(new ByteArrayInputStream(ELASTIC_RESPONSE.getBytes(StandardCharsets.UTF_8)), out,
+                HttpDocument.class, HttpDocument::setId);
+
+        SearchResponse<HttpDocument> response = objectMapper.readValue(out.toByteArray(), new TypeReference<>() {
+        });
+        assertThat(took).isEqualTo(12L);
+        assertThat(response.getTotalHits()).isEqualTo(42L);
+        assertThat(response.getResults()).extracting(HttpDocument::getId).containsExactly("a", "b");
+        assertThat(response.getResults().get(0).getTimestamp()).hasHour(10);
+        assertThat(response.isPartial()).isTrue();
+        assertThat(response.getShardFailures()).containsExactly("audit-requests[1]: boom");
+        assertThat(response.getHighlights().get("a").get("responseBody")).containsExactly("<em>FAILED</em>");
+    }
+
+    @Test
+    void write_PartialResponse_ReportBeforeFirstHit() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Integer> writtenOnPartial = new ArrayList<>();
+
+        writer.write(new ByteArrayInputStream(ELASTIC_RESPONSE.getBytes(StandardCharsets.UTF_8)), objectMapper.getFactory(), out,
+                objectMapper.getFactory(), HttpDocument.class, HttpDocument::setId, () -> writtenOnPartial.add(out.size()));
+
+        // на момент вызова в поток еще не записан ни один документ - заголовки ответа можно менять
+        assertThat(writtenOnPartial).singleElement().satisfies(size -> assertThat(out.toString(StandardCharsets.UTF_8)
+                .substring(0, size)).doesNotContain("/api/orders"));
+    }
+
+    @Test
+    void write_CompleteResponse_DoNotReportPartial() throws Exception {
+        String complete = """
+                {"took": 1, "timed_out": false, "_shards": {"total": 1, "successful": 1, "skipped": 0, "failed": 0},
+                 "hits": {"total": {"value": 0, "relation": "eq"}, "max_score": null, "hits": []}}
+                """;
+        List<String> reported = new ArrayList<>();
+
+        writer.write(new ByteArrayInputStream(complete.getBytes(StandardCharsets.UTF_8)), objectMapper.getFactory(),
+                new ByteArrayOutputStream(), objectMapper.getFactory(), HttpDocument.class, HttpDocument::setId,
+                () -> reported.add("partial"));
+
+        assertThat(reported).isEmpty();
+    }
+
+    @Test
+    void write_SmileSourceToCborTarget() throws Exception {
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        byte[] smile = smileMapper.writeValueAsBytes(objectMapper.readTree(ELASTIC_RESPONSE));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.write(new ByteArrayInputStream(smile), new SmileFactory(), out, new CBORFactory(), HttpDocument.class, HttpDocument::setId);
+
+        SearchResponse<HttpDocument> response = cborMapper.readValue(out.toByteArray(), new TypeReference<>() {
+        });
+        assertThat(response.getTotalHits()).isEqualTo(42L);
+        assertThat(response.getResults()).extracting(HttpDocument::getUri).containsExactly("/api/orders", "/api/users");
+    }
+
+    @Test
+    void write_MatchBufferedSerialization() throws Exception {
+        String empty = """
+                {"took": 1, "timed_out": false, "_shards": {"total": 1, "successful": 1, "skipped": 0, "failed": 0},
+                 "hits": {"total": {"value": 0, "relation": "eq"}, "max_score": null, "hits": []}}
+                """;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.write(new ByteArrayInputStream(empty.getBytes(StandardCharsets.UTF_8)), out, HttpDocument.class, HttpDocument::setId);
+
+        String buffered = objectMapper.writeValueAsString(SearchResponse.<HttpDocument>builder()
+                .results(List.of())
+                .totalHits(0)
+                .build());
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(buffered);
+    }
+
+    @Test
+    void write_CompactModelMatchesDocumentModel() throws Exception {
+        String withBodies = """
+                {"took": 3, "timed_out": false, "_shards": {"total": 1, "successful": 1, "skipped": 0, "failed": 0},
+                 "hits": {"total": {"value": 2, "relation": "eq"}, "max_score": null, "hits": [
+                   {"_index": "audit-requests", "_id": "a", "_source": {"timestamp": "2025-01-01T10:00:00", "uri": "/api/orders",
+                     "method": "POST", "direction": "INCOMING", "statusCode": "201",
+                     "requestBody": "{\\"name\\": \\"Заказ №1 \\uD83D\\uDE80\\"}", "responseBody": "line\\nbreak\\t\\"quoted\\""}},
+                   {"_index": "audit-requests", "_id": "b", "_source": {"uri": "/api/users", "method": "GET"}}
+                 ]}}
+                """;
+
+        for (JsonFactory target : List.of(objectMapper.getFactory(), new SmileFactory(), new CBORFactory())) {
+            ByteArrayOutputStream documents = new ByteArrayOutputStream();
+            ByteArrayOutputStream compact = new ByteArrayOutputStream();
+            writer.write(new ByteArrayInputStream(withBodies.getBytes(StandardCharsets.UTF_8)), objectMapper.getFactory(), documents, target,
+                    HttpDocument.class, HttpDocument::setId);
+            writer.write(new ByteArrayInputStream(withBodies.getBytes(StandardCharsets.UTF_8)), objectMapper.getFactory(), compact, target,
+                    CompactHttpDocument.class, CompactHttpDocument::setId);
+
+            // тела пишутся как UTF-8 без экранирования суррогатных пар, поэтому сравниваются деревья, а не байты
+            ObjectMapper reader = new ObjectMapper(target);
+            assertThat(reader.readTree(compact.toByteArray())).isEqualTo(reader.readTree(documents.toByteArray()));
+        }
+    }
+
+    @Test
+    void write_CompactModel_KeepUnparsedStatusCodes() throws Exception {
+        String unusual = """
+                {"took": 3, "timed_out": false, "_shards": {"total": 1, "successful": 1, "skipped": 0, "failed": 0},
+                 "hits": {"total": {"value": 5, "relation": "eq"}, "max_score": null, "hits": [
+                   {"_index": "audit-requests", "_id": "a", "_source": {"statusCode": "N/A"}},
+                   {"_index": "audit-requests", "_id": "b", "_source": {"statusCode": "12345"}},
+                   {"_index": "audit-requests", "_id": "c", "_source": {"statusCode": "0200"}},
+                   {"_index": "audit-requests", "_id": "d", "_source": {"statusCode": ""}},
+                   {"_index": "audit-requests", "_id": "e", "_source": {"statusCode": 503}}
+                 ]}}
+                """;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.write(new ByteArrayInputStream(unusual.getBytes(StandardCharsets.UTF_8)), out,
+                CompactHttpDocument.class, CompactHttpDocument::setId);
+
+        SearchResponse<HttpDocument> response = objectMapper.readValue(out.toByteArray(), new TypeReference<>() {
+        });
+        assertThat(response.getResults()).extracting(HttpDocument::getStatusCode)
+                .containsExactly("N/A", "12345", "0200", "", "503");
+    }
+
+}
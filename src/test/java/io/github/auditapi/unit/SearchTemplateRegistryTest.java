@@ -0,0 +1,130 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.ErrorResponse;
+import co.elastic.clients.elasticsearch.core.GetScriptRequest;
+import co.elastic.clients.elasticsearch.core.GetScriptResponse;
+import co.elastic.clients.elasticsearch.core.PutScriptRequest;
+import co.elastic.clients.util.ObjectBuilder;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.service.SearchTemplateRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchTemplateRegistryTest {
+
+    @Mock
+    private ElasticsearchClient elasticsearchClient;
+
+    @Test
+    void versionedId_DependsOnSourceOnly() {
+        String id = SearchTemplateRegistry.versionedId("http-search", "{\"query\": {}}");
+
+        assertThat(id).matches("audit-http-search-[0-9a-f]{12}");
+        assertThat(SearchTemplateRegistry.versionedId("http-search", "{\"query\": {}}")).isEqualTo(id);
+        assertThat(SearchTemplateRegistry.versionedId("http-search", "{\"query\": {} }")).isNotEqualTo(id);
+    }
+
+    @Test
+    void registerMissing_PutMissingAndSkipUpToDate() throws Exception {
+        String methodSource = source("method-search");
+        when(elasticsearchClient.getScript(any(Function.class))).thenAnswer(invocation -> {
+            GetScriptRequest request = this.<GetScriptRequest.Builder, GetScriptRequest>build(invocation.getArgument(0),
+                    new GetScriptRequest.Builder());
+            if (request.id().startsWith("audit-method-search-")) {
+                return GetScriptResponse.of(g -> g.id(request.id()).found(true)
+                        .script(s -> s.lang("mustache").source(methodSource)));
+            }
+            throw notFound();
+        });
+
+        SearchTemplateRegistry registry = registry(true);
+        registry.registerMissing();
+
+        ArgumentCaptor<Function<PutScriptRequest.Builder, ObjectBuilder<PutScriptRequest>>> put =
+                ArgumentCaptor.forClass(Function.class);
+        verify(elasticsearchClient).putScript(put.capture());
+        PutScriptRequest request = put.getValue().apply(new PutScriptRequest.Builder()).build();
+        String httpId = SearchTemplateRegistry.versionedId("http-search", source("http-search"));
+        assertThat(request.id()).isEqualTo(httpId);
+        assertThat(request.script().source()).isEqualTo(source("http-search"));
+        assertThat(registry.id(SearchTemplateRegistry.HTTP_SEARCH)).contains(httpId);
+        assertThat(registry.id(SearchTemplateRegistry.METHOD_SEARCH))
+                .contains(SearchTemplateRegistry.versionedId("method-search", methodSource));
+    }
+
+    @Test
+    void registerMissing_ClusterUnavailable_RetryOnNextRun() throws Exception {
+        when(elasticsearchClient.getScript(any(Function.class)))
+                .thenThrow(new IOException("Connection refused"))
+                .thenThrow(new IOException("Connection refused"))
+                .thenThrow(notFound());
+
+        SearchTemplateRegistry registry = registry(true);
+        registry.registerMissing();
+
+        assertThat(registry.id(SearchTemplateRegistry.HTTP_SEARCH)).isEmpty();
+        assertThat(registry.id(SearchTemplateRegistry.METHOD_SEARCH)).isEmpty();
+        verify(elasticsearchClient, never()).putScript(any(Function.class));
+
+        registry.registerMissing();
+
+        assertThat(registry.id(SearchTemplateRegistry.HTTP_SEARCH)).isPresent();
+        assertThat(registry.id(SearchTemplateRegistry.METHOD_SEARCH)).isPresent();
+        verify(elasticsearchClient, times(2)).putScript(any(Function.class));
+
+        registry.registerMissing();
+
+        verify(elasticsearchClient, times(4)).getScript(any(Function.class));
+    }
+
+    @Test
+    void registerMissing_TemplatesDisabled_NoClusterCalls() {
+        SearchTemplateRegistry registry = registry(false);
+        registry.registerMissing();
+
+        assertThat(registry.id(SearchTemplateRegistry.HTTP_SEARCH)).isEmpty();
+        verifyNoInteractions(elasticsearchClient);
+    }
+
+    private SearchTemplateRegistry registry(boolean enabled) {
+        SearchProperties properties = new SearchProperties();
+        properties.setSearchTemplates(enabled);
+        return new SearchTemplateRegistry(elasticsearchClient, properties);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <B, T> T build(Object function, B builder) {
+        return ((Function<B, ObjectBuilder<T>>) function).apply(builder).build();
+    }
+
+    private static ElasticsearchException notFound() {
+        return new ElasticsearchException("get_script", ErrorResponse.of(e -> e
+                .status(404)
+                .error(c -> c.type("resource_not_found_exception").reason("unable to find script"))));
+    }
+
+    private static String source(String name) throws IOException {
+        return new ClassPathResource("elastic/templates/" + name + ".mustache").getContentAsString(StandardCharsets.UTF_8);
+    }
+
+}
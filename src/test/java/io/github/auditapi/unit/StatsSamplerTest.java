@@ -0,0 +1,117 @@
+package io.github.auditapi.unit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.CountRequest;
+import co.elastic.clients.elasticsearch.core.CountResponse;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import io.github.auditapi.config.SearchProperties;
+import io.github.auditapi.config.StatsProperties;
+import io.github.auditapi.model.elastic.StatsBounds;
+import io.github.auditapi.model.elastic.StatsResponse;
+import io.github.auditapi.service.StatsSampler;
+import jakarta.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringReader;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatsSamplerTest {
+
+    private static final Query QUERY = Query.of(q -> q.matchAll(m -> m));
+    private static final Aggregation TERMS = Aggregation.of(a -> a.terms(t -> t.field("level")));
+
+    @Mock
+    private ElasticsearchAsyncClient elasticsearchAsyncClient;
+
+    @Test
+    void probability_RoundsUpToPowerOfTwo() {
+        assertThat(StatsSampler.probability(150_000, 100_000)).isEqualTo(1.0);
+        assertThat(StatsSampler.probability(0, 100_000)).isEqualTo(1.0);
+        assertThat(StatsSampler.probability(1_000_000, 100_000)).isEqualTo(0.125);
+        assertThat(StatsSampler.probability(1_600_000, 100_000)).isEqualTo(0.0625);
+        assertThat(StatsSampler.probability(300_000, 100_000)).isEqualTo(0.5);
+    }
+
+    @Test
+    void bounds_WidenAsProbabilityDecreases() {
+        StatsBounds wide = StatsSampler.bounds(10_000, 0.01);
+        StatsBounds narrow = StatsSampler.bounds(10_000, 0.5);
+
+        assertThat(wide.getLower()).isEqualTo(8050);
+        assertThat(wide.getUpper()).isEqualTo(11950);
+        assertThat(narrow.getUpper() - narrow.getLower()).isLessThan(wide.getUpper() - wide.getLower());
+        assertThat(StatsSampler.bounds(1, 0.01).getLower()).isZero();
+    }
+
+    @Test
+    void sample_ScalesCountsFromRandomSampler() {
+        when(elasticsearchAsyncClient.count(any(CountRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(CountResponse.of(c -> c.count(1_000_000)
+                        .shards(s -> s.total(1).successful(1).failed(0)))));
+        when(elasticsearchAsyncClient.search(any(SearchRequest.class), eq(Void.class)))
+                .thenReturn(CompletableFuture.completedFuture(sampledResponse()));
+
+        StatsResponse response = sampler(100_000)
+                .sample("audit-methods", QUERY, "level_stats", TERMS, null, () -> {
+                    throw new AssertionError("exact stats are not expected");
+                })
+                .join();
+
+        assertThat(response.getSamplingProbability()).isEqualTo(0.125);
+        assertThat(response.getStats()).containsEntry("INFO", 960_000L).containsEntry("ERROR", 40_000L);
+        assertThat(response.getBounds().get("ERROR").getLower()).isLessThan(40_000L);
+        assertThat(response.getBounds().get("ERROR").getUpper()).isGreaterThan(40_000L);
+    }
+
+    @Test
+    void sample_FallsBackToExactForSmallIndexes() {
+        when(elasticsearchAsyncClient.count(any(CountRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(CountResponse.of(c -> c.count(5_000)
+                        .shards(s -> s.total(1).successful(1).failed(0)))));
+
+        StatsResponse response = sampler(100_000)
+                .sample("audit-methods", QUERY, "level_stats", TERMS, null,
+                        () -> CompletableFuture.completedFuture(StatsResponse.builder().build()))
+                .join();
+
+        assertThat(response.getSamplingProbability()).isEqualTo(1.0);
+        assertThat(response.getBounds()).isNull();
+        verifyNoMoreInteractions(elasticsearchAsyncClient);
+    }
+
+    private StatsSampler sampler(int sampleSize) {
+        StatsProperties properties = new StatsProperties();
+        properties.setApproximateSampleSize(sampleSize);
+        return new StatsSampler(elasticsearchAsyncClient, new SearchProperties(), properties);
+    }
+
+    private static SearchResponse<Void> sampledResponse() {
+        String json = """
+                {"took": 3, "timed_out": false,
+                 "_shards": {"total": 1, "successful": 1, "skipped": 0, "failed": 0},
+                 "hits": {"total": {"value": 1000000, "relation": "eq"}, "max_score": null, "hits": []},
+                 "aggregations": {"random_sampler#sample": {"doc_count": 125000, "seed": 42, "probability": 0.125,
+                   "sterms#level_stats": {"doc_count_error_upper_bound": 0, "sum_other_doc_count": 0,
+                     "buckets": [{"key": "INFO", "doc_count": 960000}, {"key": "ERROR", "doc_count": 40000}]}}}}
+                """;
+        JacksonJsonpMapper mapper = new JacksonJsonpMapper();
+        JsonParser parser = mapper.jsonProvider().createParser(new StringReader(json));
+        return SearchResponse.<Void>createSearchResponseDeserializer(JsonpDeserializer.of(Void.class)).deserialize(parser, mapper);
+    }
+
+}
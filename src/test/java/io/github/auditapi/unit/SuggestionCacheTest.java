@@ -0,0 +1,63 @@
+package io.github.auditapi.unit;
+
+import io.github.auditapi.model.elastic.Suggestion;
+import io.github.auditapi.service.SuggestionCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionCacheTest {
+
+    private static final List<Suggestion> ORDERS = List.of(
+            new Suggestion("/api/orders", 100),
+            new Suggestion("/api/orders/items", 40),
+            new Suggestion("/api/options", 7));
+
+    private final Clock clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void get_ExactPrefix_LimitToSize() {
+        SuggestionCache cache = new SuggestionCache(10, Duration.ofMinutes(1), clock);
+        cache.put("HTTP", "/api/o", ORDERS, false);
+
+        assertThat(cache.get("HTTP", "/API/O", 2)).hasValueSatisfying(values ->
+                assertThat(values).extracting(Suggestion::getValue).containsExactly("/api/orders", "/api/orders/items"));
+        assertThat(cache.get("METHOD", "/api/o", 2)).isEmpty();
+    }
+
+    @Test
+    void get_LongerPrefix_FilterCompleteShorterPrefix() {
+        SuggestionCache cache = new SuggestionCache(10, Duration.ofMinutes(1), clock);
+        cache.put("HTTP", "/api/o", ORDERS, true);
+
+        assertThat(cache.get("HTTP", "/api/ord", 10)).hasValueSatisfying(values ->
+                assertThat(values).extracting(Suggestion::getValue).containsExactly("/api/orders", "/api/orders/items"));
+    }
+
+    @Test
+    void get_LongerPrefix_IgnoreTruncatedShorterPrefix() {
+        SuggestionCache cache = new SuggestionCache(10, Duration.ofMinutes(1), clock);
+        cache.put("HTTP", "/api/o", ORDERS, false);
+
+        assertThat(cache.get("HTTP", "/api/ord", 10)).isEmpty();
+    }
+
+    @Test
+    void get_ExpiredOrEvicted_Miss() {
+        SuggestionCache expired = new SuggestionCache(10, Duration.ZERO, clock);
+        expired.put("HTTP", "/api/o", ORDERS, true);
+        assertThat(expired.get("HTTP", "/api/o", 10)).isEmpty();
+
+        SuggestionCache small = new SuggestionCache(1, Duration.ofMinutes(1), clock);
+        small.put("HTTP", "/a", ORDERS, false);
+        small.put("HTTP", "/b", List.of(), false);
+        assertThat(small.get("HTTP", "/a", 10)).isEmpty();
+    }
+
+}
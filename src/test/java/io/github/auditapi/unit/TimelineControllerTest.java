@@ -0,0 +1,63 @@
+package io.github.auditapi.unit;
+
+import io.github.auditapi.controller.v1.TimelineController;
+import io.github.auditapi.model.elastic.HttpDocument;
+import io.github.auditapi.model.elastic.TimeRange;
+import io.github.auditapi.model.timeline.TimelineEntry;
+import io.github.auditapi.model.timeline.TimelineResponse;
+import io.github.auditapi.service.TimelineService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TimelineControllerTest {
+
+    @Mock
+    private TimelineService timelineService;
+
+    @InjectMocks
+    private TimelineController timelineController;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void timeline_ReturnTimelineResponse() {
+        TimelineResponse timeline = TimelineResponse.builder()
+                .entries(List.of(TimelineEntry.builder().type("http").id("1").http(new HttpDocument()).build()))
+                .nextCursor("next")
+                .build();
+        when(timelineService.timeline(eq("order"), any(TimeRange.class), isNull(), eq(true), eq(1), eq(false), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(timeline));
+
+        ResponseEntity<TimelineResponse> response = (ResponseEntity<TimelineResponse>) timelineController
+                .timeline("order", null, null, "DESC", null, 1, false, null).getResult();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getEntries()).hasSize(1);
+        assertThat(response.getBody().getNextCursor()).isEqualTo("next");
+    }
+
+    @Test
+    void timeline_RejectUnknownOrder() {
+        assertThatThrownBy(() -> timelineController.timeline(null, null, null, "newest", null, 10, false, null))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(timelineService);
+    }
+
+}
@@ -0,0 +1,53 @@
+package io.github.auditapi.unit;
+
+import io.github.auditapi.web.TokenBucketLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(42 * SECOND);
+
+    @Test
+    void tryAcquire_BurstThenRefill() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 1, 100, clock::get);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isEqualTo(SECOND);
+        assertThat(limiter.tryAcquire("b")).isZero();
+
+        clock.addAndGet(SECOND);
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void evictIdle_RemovesOnlyRefilledBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 1, 100, clock::get);
+        limiter.tryAcquire("idle");
+        clock.addAndGet(5 * SECOND);
+        limiter.tryAcquire("busy");
+
+        limiter.evictIdle();
+
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquire_TooManyClients_ShareOverflowBudget() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 1, clock::get);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("b")).isZero();
+        assertThat(limiter.tryAcquire("c")).isPositive();
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+
+}
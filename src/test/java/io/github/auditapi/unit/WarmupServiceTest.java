@@ -0,0 +1,74 @@
+package io.github.auditapi.unit;
+
+import io.github.auditapi.config.WarmupProperties;
+import io.github.auditapi.model.elastic.StatsAccuracy;
+import io.github.auditapi.model.elastic.StatsResponse;
+import io.github.auditapi.model.warmup.WarmupReport;
+import io.github.auditapi.model.warmup.WarmupStep;
+import io.github.auditapi.service.HttpSearchService;
+import io.github.auditapi.service.IndexStateService;
+import io.github.auditapi.service.MethodSearchService;
+import io.github.auditapi.service.WarmupService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WarmupServiceTest {
+
+    @Mock
+    private HttpSearchService httpSearchService;
+
+    @Mock
+    private MethodSearchService methodSearchService;
+
+    @Mock
+    private IndexStateService indexStateService;
+
+    @Test
+    void run_RepeatsQueriesAndReportsTimings() {
+        WarmupProperties properties = new WarmupProperties();
+        properties.setIterations(3);
+        properties.setQueries(List.of("error"));
+
+        when(indexStateService.refresh(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(httpSearchService.streamWithFullText(anyString(), isNull(), isNull(), anyInt(), anyInt(), any())).thenReturn(out -> { });
+        when(methodSearchService.streamWithFullText(anyString(), isNull(), isNull(), anyInt(), anyInt(), any())).thenReturn(out -> { });
+        when(httpSearchService.streamByFields(isNull(), isNull(), isNull(), anyString(), isNull(), anyInt(), anyInt(), any())).thenReturn(out -> { });
+        when(httpSearchService.getStats(anyString(), isNull(), eq(StatsAccuracy.EXACT), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(StatsResponse.builder().build()));
+        when(methodSearchService.getStats(anyString(), isNull(), isNull(), eq(StatsAccuracy.EXACT), isNull()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("cluster unavailable")));
+
+        WarmupService warmupService = new WarmupService(properties, httpSearchService, methodSearchService, indexStateService);
+        warmupService.run(new DefaultApplicationArguments());
+        WarmupReport report = warmupService.getReport();
+
+        assertThat(report.getState()).isEqualTo("DONE");
+        assertThat(report.getSteps()).extracting(WarmupStep::getName)
+                .contains("http.search[error].json", "http.search[error].cbor", "http.stats[uri]", "methods.stats[level]");
+        assertThat(report.getSteps()).filteredOn(step -> step.getName().equals("indexState"))
+                .singleElement().extracting(WarmupStep::getError).isNull();
+        assertThat(report.getSteps()).filteredOn(step -> step.getName().equals("http.stats[statusCode]"))
+                .singleElement().extracting(WarmupStep::getIterations).isEqualTo(3);
+        assertThat(report.getSteps()).filteredOn(step -> step.getName().equals("methods.stats[level]"))
+                .singleElement().extracting(WarmupStep::getError).asString().contains("cluster unavailable");
+        verify(httpSearchService, times(9)).getStats(anyString(), isNull(), eq(StatsAccuracy.EXACT), isNull());
+    }
+
+}